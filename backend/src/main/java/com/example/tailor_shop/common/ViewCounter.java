@@ -0,0 +1,129 @@
+package com.example.tailor_shop.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detail-view counters for fabrics, products and image assets.
+ *
+ * {@link #record} only bumps an in-memory LongAdder for the id, so a view
+ * never reads or locks the row. A periodic flush writes the accumulated
+ * deltas with one batched {@code UPDATE ... SET view_count = view_count + ?}
+ * per table, ids in ascending order. Deltas are additive, so every node
+ * flushes its own counts without coordination; a node crash loses at most
+ * one flush interval of views.
+ *
+ * Entities map view_count read-only, so admin edits never overwrite it.
+ */
+@Component
+@Slf4j
+public class ViewCounter {
+
+    public enum Target {
+        FABRIC("fabrics"),
+        PRODUCT("products"),
+        IMAGE_ASSET("image_assets");
+
+        private final String table;
+
+        Target(String table) {
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Target, Map<Long, LongAdder>> pending = new EnumMap<>(Target.class);
+    private final Counter flushed;
+    private final Counter flushFailed;
+
+    public ViewCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (Target target : Target.values()) {
+            pending.put(target, new ConcurrentHashMap<>());
+        }
+        this.flushed = meterRegistry.counter("view.counter.flushed");
+        this.flushFailed = meterRegistry.counter("view.counter.flush.failed");
+    }
+
+    public void record(Target target, Long id) {
+        if (id != null) {
+            pending.get(target).computeIfAbsent(id, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Write accumulated views to the database.
+     *
+     * @return number of views written
+     */
+    @Scheduled(fixedDelayString = "${view-counter.flush-interval-ms:10000}")
+    public long flush() {
+        long total = 0;
+        for (Target target : Target.values()) {
+            total += flush(target);
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // ==================== HELPERS ====================
+
+    private long flush(Target target) {
+        Map<Long, LongAdder> counters = pending.get(target);
+        // Sorted ids: concurrent flushes from several nodes lock rows in the same order
+        Map<Long, Long> deltas = new TreeMap<>();
+        counters.forEach((id, adder) -> {
+            // sumThenReset: views recorded meanwhile stay in the adder for the next flush
+            long delta = adder.sumThenReset();
+            // Adders are kept (bounded by the catalog): removing one could drop a racing view
+            if (delta > 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> args.add(new Object[]{delta, id}));
+        try {
+            // updated_at = updated_at: a view is not an edit (keeps ON UPDATE CURRENT_TIMESTAMP off)
+            jdbcTemplate.batchUpdate("UPDATE " + target.table
+                    + " SET view_count = view_count + ?, updated_at = updated_at WHERE id = ?", args);
+        } catch (BadSqlGrammarException e) {
+            // Schema problem (e.g. missing column): retrying can never succeed, drop instead of re-queueing
+            flushFailed.increment();
+            log.error("Dropped {} view count(s) for {}, schema error: {}", deltas.size(), target, e.getMessage());
+            return 0;
+        } catch (RuntimeException e) {
+            // Put the deltas back, they go out with the next flush
+            deltas.forEach((id, delta) -> counters.computeIfAbsent(id, k -> new LongAdder()).add(delta));
+            flushFailed.increment();
+            log.warn("Failed to flush {} view count(s) for {}: {}", deltas.size(), target, e.getMessage());
+            return 0;
+        }
+
+        long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+        flushed.increment(total);
+        log.debug("Flushed {} view(s) for {} {} id(s)", total, deltas.size(), target);
+        return total;
+    }
+}
@@ -1,22 +1,33 @@
 package com.example.tailor_shop.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration cho async event processing
+ *
+ * spring.threads.virtual.enabled=true: executors chạy trên virtual threads,
+ * giới hạn concurrency bằng semaphore thay cho pool size (xem BoundedVirtualThreadExecutor).
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean(name = "eventTaskExecutor")
     public Executor eventTaskExecutor() {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("event-", 20, Duration.ofSeconds(5), Duration.ofSeconds(30));
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
@@ -28,6 +39,10 @@ public class AsyncConfig {
 
     @Bean(name = "bulkUploadExecutor")
     public Executor bulkUploadExecutor() {
+        if (virtualThreads) {
+            // Chờ permit vô hạn (back-pressure như CallerRunsPolicy); AIRateLimiter giới hạn AI calls
+            return new BoundedVirtualThreadExecutor("bulk-upload-", 10, null, Duration.ofSeconds(60));
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5); // Fixed: chỉ 5 threads xử lý AI calls
         executor.setMaxPoolSize(10); // Max 10 threads
@@ -1,10 +1,12 @@
 package com.example.tailor_shop.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
 
 /**
@@ -12,11 +14,18 @@ import java.util.concurrent.Executor;
  * 
  * Enables @Async annotation and configures thread pool for async event
  * processing.
+ *
+ * With spring.threads.virtual.enabled=true (which also moves Tomcat request
+ * handling to virtual threads) each executor runs tasks on virtual threads,
+ * bounded by a semaphore concurrency limit instead of a pool size.
  */
 @Configuration
 @EnableAsync
 public class AsyncEventConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     /**
      * Thread pool for async event processing.
      * 
@@ -27,6 +36,9 @@ public class AsyncEventConfig {
      */
     @Bean(name = "eventExecutor")
     public Executor eventExecutor() {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("Event-", 50, Duration.ofSeconds(5), Duration.ofSeconds(60));
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(15);
@@ -38,12 +50,38 @@ public class AsyncEventConfig {
         return executor;
     }
 
+    /**
+     * Thread pool that runs @RetryableEvent retries once their backoff elapses.
+     * Kept apart from eventExecutor so retries during a downstream outage do
+     * not stall unrelated events. Rejections send the event to the DLQ.
+     */
+    @Bean(name = "eventRetryExecutor")
+    public Executor eventRetryExecutor() {
+        if (virtualThreads) {
+            // No wait: a saturated retry executor rejects and the event goes to the DLQ
+            return new BoundedVirtualThreadExecutor("EventRetry-", 10, Duration.ZERO, Duration.ofSeconds(30));
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(5);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("EventRetry-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * Separate thread pool for notification tasks (email, SMS).
      * These can be slower due to external API calls.
      */
     @Bean(name = "notificationExecutor")
     public Executor notificationExecutor() {
+        if (virtualThreads) {
+            // SMTP/SMS latency dominates; limit protects the providers, not the JVM
+            return new BoundedVirtualThreadExecutor("Notification-", 30, Duration.ofSeconds(10), Duration.ofSeconds(120));
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(3);
         executor.setMaxPoolSize(10);
@@ -54,4 +92,26 @@ public class AsyncEventConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Dedicated executor for WebSocket broadcasts (NotificationDispatcher).
+     * Fan-out to every subscriber runs here, away from the caller and the
+     * event pools. Small bounded queue: a rejected broadcast is dropped and
+     * counted rather than piling up behind a slow broker.
+     */
+    @Bean(name = "notificationBroadcastExecutor")
+    public Executor notificationBroadcastExecutor() {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("NotificationBroadcast-", 4, Duration.ofSeconds(1), Duration.ofSeconds(10));
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("NotificationBroadcast-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.tailor_shop.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that runs every task on a new virtual thread.
+ *
+ * Concurrency is bounded by a semaphore instead of a pool size: a submitter
+ * waits up to {@code acquireTimeout} for a permit, then the task is rejected
+ * (TaskRejectedException), like a full ThreadPoolTaskExecutor queue.
+ * A null timeout waits indefinitely (back-pressure, like CallerRunsPolicy).
+ */
+public class BoundedVirtualThreadExecutor implements TaskExecutor, DisposableBean {
+
+    private final String name;
+    private final int concurrencyLimit;
+    private final Duration acquireTimeout;
+    private final Duration awaitTermination;
+    private final Semaphore permits;
+    private final ThreadFactory threadFactory;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int concurrencyLimit,
+                                        Duration acquireTimeout, Duration awaitTermination) {
+        this.name = threadNamePrefix;
+        this.concurrencyLimit = concurrencyLimit;
+        this.acquireTimeout = acquireTimeout;
+        this.awaitTermination = awaitTermination;
+        this.permits = new Semaphore(concurrencyLimit);
+        this.threadFactory = Thread.ofVirtual().name(threadNamePrefix, 0).factory();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        acquirePermit();
+        try {
+            threadFactory.newThread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (acquireTimeout == null) {
+                permits.acquire();
+                return;
+            }
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new TaskRejectedException("Concurrency limit " + concurrencyLimit + " reached for " + name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for a permit on " + name, e);
+        }
+    }
+
+    /**
+     * Number of tasks currently running.
+     */
+    public int getActiveCount() {
+        return concurrencyLimit - permits.availablePermits();
+    }
+
+    /**
+     * Wait for running tasks to finish (all permits returned) on shutdown.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (permits.tryAcquire(concurrencyLimit, awaitTermination.toMillis(), TimeUnit.MILLISECONDS)) {
+            permits.release(concurrencyLimit);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.tailor_shop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Enables @Scheduled jobs (outbox dispatcher, DLQ retry, sweeps, reconciles, flushes).
+ *
+ * Spring's default scheduler has a single thread: one slow sweep or reconcile
+ * would delay every other job (outbox dispatch, challenge progress flush...).
+ * Jobs run on a small pool instead; a job never overlaps with itself.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.pool-size:8}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+
+    /**
+     * Own thread for NotificationDispatcher's 200ms queue drain: it runs five
+     * times a second and must not wait behind (or hold up) the shared jobs.
+     */
+    @Bean(name = "notificationFlushScheduler")
+    public ThreadPoolTaskScheduler notificationFlushScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("notification-flush-");
+        return scheduler;
+    }
+}
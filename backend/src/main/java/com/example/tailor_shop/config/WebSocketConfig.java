@@ -1,5 +1,7 @@
 package com.example.tailor_shop.config;
 
+import com.example.tailor_shop.config.websocket.BrokerRelay;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -13,6 +15,11 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * - /ws : WebSocket endpoint (SockJS fallback)
  * - /topic : Public broadcast channel
  * - /queue : User-specific channel (requires authentication)
+ *
+ * Broker mode (websocket.broker.mode):
+ * - simple (default): in-memory broker, sessions of this node only
+ * - redis: in-memory broker per node plus {@link BrokerRelay}, which fans
+ *   /topic and /user messages out to the other nodes over Redis pub/sub
  */
 @Configuration
 @EnableWebSocketMessageBroker
@@ -21,6 +28,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${app.cors.allowed-origins:http://localhost:5173}")
     private String allowedOriginsConfig;
 
+    private final ObjectProvider<BrokerRelay> brokerRelay;
+
+    public WebSocketConfig(ObjectProvider<BrokerRelay> brokerRelay) {
+        this.brokerRelay = brokerRelay;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable simple in-memory message broker
@@ -29,6 +42,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setApplicationDestinationPrefixes("/app");
         // Prefix for user-specific destinations
         config.setUserDestinationPrefix("/user");
+        // Multi-node: copy broker traffic to the other nodes
+        brokerRelay.ifAvailable(relay -> config.configureBrokerChannel().interceptors(relay));
     }
 
     @Override
@@ -22,7 +22,11 @@ public enum ErrorCode {
     USERNAME_EXISTS(409, "Username already exists", HttpStatus.CONFLICT),
     EMAIL_EXISTS(409, "Email already exists", HttpStatus.CONFLICT),
     USER_NOT_FOUND(404, "User not found", HttpStatus.NOT_FOUND),
-    USER_DELETED(410, "User has been deleted", HttpStatus.GONE);
+    USER_DELETED(410, "User has been deleted", HttpStatus.GONE),
+
+    // ==== BILLING ====
+    PAYMENT_CALLBACK_PENDING(503, "Payment callback is still being processed, please retry.",
+            HttpStatus.SERVICE_UNAVAILABLE);
 
     private final int code;
     private final String message;
@@ -30,6 +30,7 @@ public class CacheConfig {
     public static final String FABRICS_CACHE = "fabrics";
     public static final String IMAGE_ASSETS_CACHE = "image-assets";
     public static final String CATEGORIES_CACHE = "categories";
+    public static final String REVIEW_STATS_CACHE = "review-stats";
 
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
@@ -60,6 +61,9 @@ public class CacheConfig {
         // Categories: 1 hour (almost never changes)
         cacheConfigurations.put(CATEGORIES_CACHE, defaultConfig.entryTtl(Duration.ofHours(1)));
 
+        // Review stats: 30 minutes (evicted on every review status change)
+        cacheConfigurations.put(REVIEW_STATS_CACHE, defaultConfig.entryTtl(Duration.ofMinutes(30)));
+
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
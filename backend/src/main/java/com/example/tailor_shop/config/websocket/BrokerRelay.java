@@ -0,0 +1,281 @@
+package com.example.tailor_shop.config.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cross-node fan-out for the simple broker (websocket.broker.mode=redis).
+ *
+ * Every node keeps its in-memory simple broker for its own sessions. This
+ * interceptor on the broker channel copies application messages to the
+ * other nodes over a {@link BrokerRelayBus}, and re-injects messages received
+ * from other nodes into the local broker channel:
+ * - /topic/** goes to every node
+ * - /user/{name}/** goes only to the nodes where that user has a session
+ *
+ * Routing for /user uses an in-memory table (user -> nodes) kept in sync by
+ * presence events on the bus, so sending costs no lookup. Nodes re-announce
+ * their users periodically; entries not refreshed within the TTL (crashed
+ * node) are dropped. A new node asks the others to announce on startup.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "redis")
+@Slf4j
+public class BrokerRelay implements ChannelInterceptor {
+
+    static final String RELAYED_HEADER = "relayedFrom";
+    static final String BROADCAST_CHANNEL = "ws:relay:all";
+    static final String NODE_CHANNEL_PREFIX = "ws:relay:node:";
+    static final String PRESENCE_CHANNEL = "ws:relay:presence";
+
+    private static final String USER_PREFIX = "/user/";
+    private static final String TOPIC_PREFIX = "/topic/";
+
+    private final BrokerRelayBus bus;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MessageChannel> brokerChannel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long presenceTtlMs;
+
+    /** Local session id -> user name, and session count per user name */
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> localSessions = new ConcurrentHashMap<>();
+    /** Remote nodes per user name, with the time they last announced the user */
+    private final Map<String, Map<String, Long>> routes = new ConcurrentHashMap<>();
+
+    private final Counter published;
+    private final Counter received;
+
+    public BrokerRelay(BrokerRelayBus bus,
+                       ObjectMapper objectMapper,
+                       @Qualifier("brokerChannel") ObjectProvider<MessageChannel> brokerChannel,
+                       MeterRegistry meterRegistry,
+                       @Value("${websocket.relay.presence-ttl-ms:180000}") long presenceTtlMs) {
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        this.brokerChannel = brokerChannel;
+        this.presenceTtlMs = presenceTtlMs;
+        this.published = meterRegistry.counter("websocket.relay.published");
+        this.received = meterRegistry.counter("websocket.relay.received");
+        meterRegistry.gauge("websocket.relay.routes", routes, Map::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        bus.subscribe(BROADCAST_CHANNEL, this::onRelayed);
+        bus.subscribe(NODE_CHANNEL_PREFIX + nodeId, this::onRelayed);
+        bus.subscribe(PRESENCE_CHANNEL, this::onPresence);
+        publishPresence(new Presence(nodeId, PresenceOp.SYNC, List.of()));
+        log.info("WebSocket broker relay started, node {}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!localSessions.isEmpty()) {
+            publishPresence(new Presence(nodeId, PresenceOp.OFFLINE, new ArrayList<>(localSessions.keySet())));
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // ==================== OUTBOUND ====================
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (headers.containsKey(RELAYED_HEADER)
+                || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null) {
+            return message;
+        }
+
+        if (destination.startsWith(TOPIC_PREFIX)) {
+            publish(BROADCAST_CHANNEL, destination, headers, payload);
+        } else if (destination.startsWith(USER_PREFIX)) {
+            String user = userName(destination);
+            Map<String, Long> nodes = user != null ? routes.get(user) : null;
+            if (nodes != null) {
+                long cutoff = System.currentTimeMillis() - presenceTtlMs;
+                nodes.forEach((node, seenAt) -> {
+                    if (seenAt >= cutoff) {
+                        publish(NODE_CHANNEL_PREFIX + node, destination, headers, payload);
+                    }
+                });
+            }
+        }
+        // Local sessions are always served by the local broker
+        return message;
+    }
+
+    private void publish(String channel, String destination, MessageHeaders headers, byte[] payload) {
+        // MimeType hoặc String tùy nơi tạo message
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        try {
+            bus.publish(channel, objectMapper.writeValueAsString(new Envelope(
+                    nodeId, destination, contentType != null ? contentType.toString() : null, payload)));
+            published.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to relay WebSocket message to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    // ==================== INBOUND ====================
+
+    void onRelayed(String json) {
+        Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(json, Envelope.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropped malformed relay message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.origin())) {
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(envelope.destination());
+        if (envelope.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+        }
+        accessor.setHeader(RELAYED_HEADER, envelope.origin());
+        brokerChannel.getObject().send(MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+        received.increment();
+    }
+
+    // ==================== PRESENCE ====================
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user != null && sessionId != null) {
+            userConnected(sessionId, user.getName());
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        // May be published more than once per session: keyed by session id
+        userDisconnected(event.getSessionId());
+    }
+
+    void userConnected(String sessionId, String user) {
+        if (sessionUsers.putIfAbsent(sessionId, user) == null
+                && localSessions.merge(user, 1, Integer::sum) == 1) {
+            publishPresence(new Presence(nodeId, PresenceOp.ONLINE, List.of(user)));
+        }
+    }
+
+    void userDisconnected(String sessionId) {
+        String user = sessionUsers.remove(sessionId);
+        if (user != null && localSessions.computeIfPresent(user, (name, count) -> count > 1 ? count - 1 : null) == null) {
+            publishPresence(new Presence(nodeId, PresenceOp.OFFLINE, List.of(user)));
+        }
+    }
+
+    /**
+     * Re-announce local users and forget remote entries that were not refreshed.
+     */
+    @Scheduled(fixedDelayString = "${websocket.relay.presence-refresh-ms:60000}")
+    public void refreshPresence() {
+        if (!localSessions.isEmpty()) {
+            publishPresence(new Presence(nodeId, PresenceOp.ONLINE, new ArrayList<>(localSessions.keySet())));
+        }
+        long cutoff = System.currentTimeMillis() - presenceTtlMs;
+        routes.values().forEach(nodes -> nodes.values().removeIf(seenAt -> seenAt < cutoff));
+        routes.values().removeIf(Map::isEmpty);
+    }
+
+    void onPresence(String json) {
+        Presence presence;
+        try {
+            presence = objectMapper.readValue(json, Presence.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropped malformed presence message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(presence.node())) {
+            return;
+        }
+
+        switch (presence.op()) {
+            case ONLINE -> {
+                long now = System.currentTimeMillis();
+                presence.users().forEach(user ->
+                        routes.computeIfAbsent(user, u -> new ConcurrentHashMap<>()).put(presence.node(), now));
+            }
+            case OFFLINE -> presence.users().forEach(user ->
+                    routes.computeIfPresent(user, (u, nodes) -> {
+                        nodes.remove(presence.node());
+                        return nodes.isEmpty() ? null : nodes;
+                    }));
+            case SYNC -> {
+                if (!localSessions.isEmpty()) {
+                    publishPresence(new Presence(nodeId, PresenceOp.ONLINE, new ArrayList<>(localSessions.keySet())));
+                }
+            }
+        }
+    }
+
+    private void publishPresence(Presence presence) {
+        try {
+            bus.publish(PRESENCE_CHANNEL, objectMapper.writeValueAsString(presence));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to publish WebSocket presence: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * "/user/{name}/queue/x" -> "{name}"
+     */
+    private static String userName(String destination) {
+        int end = destination.indexOf('/', USER_PREFIX.length());
+        return end > USER_PREFIX.length() ? destination.substring(USER_PREFIX.length(), end) : null;
+    }
+
+    record Envelope(String origin, String destination, String contentType, byte[] payload) {
+    }
+
+    record Presence(String node, PresenceOp op, List<String> users) {
+    }
+
+    enum PresenceOp {
+        ONLINE, OFFLINE, SYNC
+    }
+}
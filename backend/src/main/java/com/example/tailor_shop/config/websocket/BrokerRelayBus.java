@@ -0,0 +1,14 @@
+package com.example.tailor_shop.config.websocket;
+
+import java.util.function.Consumer;
+
+/**
+ * Pub/sub transport between backend nodes used by {@link BrokerRelay}.
+ * Fire-and-forget: a message published while a node is down is lost for it.
+ */
+public interface BrokerRelayBus {
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+}
@@ -0,0 +1,48 @@
+package com.example.tailor_shop.modules.appointment.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Appointment Day Lock Entity - Một dòng khóa cho mỗi (staff, ngày).
+ * AppointmentRepository.lockStaffDay upsert dòng này trong transaction đặt lịch;
+ * row lock tuần tự hóa các lượt đặt cùng staff/ngày giữa các node.
+ */
+@Entity
+@Table(name = "appointment_day_locks")
+@IdClass(AppointmentDayLockEntity.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentDayLockEntity {
+
+    @Id
+    @Column(name = "staff_id", nullable = false)
+    private Long staffId;
+
+    @Id
+    @Column(name = "lock_date", nullable = false)
+    private LocalDate lockDate;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private OffsetDateTime updatedAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long staffId;
+        private LocalDate lockDate;
+    }
+}
@@ -15,7 +15,9 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appt_staff_date", columnList = "staff_id, appointment_date")
+})
 public class AppointmentEntity {
 
     @Id
@@ -3,9 +3,12 @@ package com.example.tailor_shop.modules.appointment.repository;
 import com.example.tailor_shop.modules.appointment.domain.AppointmentEntity;
 import com.example.tailor_shop.modules.appointment.domain.AppointmentStatus;
 import com.example.tailor_shop.modules.appointment.domain.AppointmentType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -37,10 +40,16 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
        List<AppointmentEntity> findByStaffAndDate(@Param("staffId") Long staffId,
                      @Param("date") LocalDate date);
 
+       /**
+        * Locking read (FOR SHARE): sees bookings committed after the transaction's
+        * snapshot, e.g. by another node that held the day lock before us.
+        */
+       @Lock(LockModeType.PESSIMISTIC_READ)
        @Query("SELECT a FROM AppointmentEntity a WHERE a.isDeleted = false " +
                      "AND a.staff.id = :staffId " +
                      "AND a.appointmentDate = :date " +
                      "AND (:excludeId IS NULL OR a.id != :excludeId) " +
+                     "AND a.status = 'scheduled' " +
                      "AND ( " +
                      "   (a.appointmentTime < :effectiveEnd) AND (a.estimatedEndTime > :effectiveStart) " +
                      ")")
@@ -49,4 +58,15 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
                      @Param("effectiveStart") LocalTime effectiveStart,
                      @Param("effectiveEnd") LocalTime effectiveEnd,
                      @Param("excludeId") Long excludeId);
+
+       /**
+        * Upsert the (staff, day) lock row. The duplicate-key path takes an
+        * exclusive row lock held until the transaction ends, so concurrent
+        * bookings of the same staff/day queue here (across nodes).
+        */
+       @Modifying
+       @Query(value = "INSERT INTO appointment_day_locks (staff_id, lock_date, updated_at) " +
+                     "VALUES (:staffId, :date, CURRENT_TIMESTAMP(6)) " +
+                     "ON DUPLICATE KEY UPDATE updated_at = CURRENT_TIMESTAMP(6)", nativeQuery = true)
+       void lockStaffDay(@Param("staffId") Long staffId, @Param("date") LocalDate date);
 }
@@ -0,0 +1,249 @@
+package com.example.tailor_shop.modules.appointment.service;
+
+import com.example.tailor_shop.config.AppointmentConfig;
+import com.example.tailor_shop.modules.appointment.domain.AppointmentEntity;
+import com.example.tailor_shop.modules.appointment.domain.WorkingSlotEntity;
+import com.example.tailor_shop.modules.appointment.dto.AvailableSlotResponse;
+import com.example.tailor_shop.modules.appointment.repository.AppointmentRepository;
+import com.example.tailor_shop.modules.appointment.repository.WorkingSlotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory staff availability engine for appointment booking.
+ *
+ * Keeps a {@link StaffDayAvailability} per (staff, day): working slots minus
+ * breaks and closed dates, minus booked appointments with
+ * {@link AppointmentConfig#BUFFER_MINUTES}. Entries are loaded lazily (three
+ * queries), then kept up to date incrementally after commit on create,
+ * reschedule and cancel, so free-slot queries run in memory.
+ *
+ * Entries expire after {@code appointment.availability.ttl-seconds} to bound
+ * staleness from bookings made on other nodes. Nothing invalidates them
+ * across nodes, so cached entries only serve display (free slots);
+ * booking decisions use {@link #checkFresh}, which reloads the day.
+ */
+@Service
+@Slf4j
+public class AvailabilityEngine {
+
+    // Default working hours: 7:00 - 23:00, Monday to Saturday
+    private static final int DEFAULT_START_MINUTE = 7 * 60;
+    private static final int DEFAULT_END_MINUTE = 23 * 60;
+
+    private final AppointmentRepository appointmentRepository;
+    private final WorkingSlotRepository workingSlotRepository;
+
+    private final Map<Key, StaffDayAvailability> days = new ConcurrentHashMap<>();
+    // Last mutation sequence per key, so a load racing an update is not cached
+    private final Map<Key, Long> lastMutation = new ConcurrentHashMap<>();
+    private final AtomicLong mutationSeq = new AtomicLong();
+    private final AtomicLong allMutation = new AtomicLong();
+
+    @Value("${appointment.availability.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public AvailabilityEngine(AppointmentRepository appointmentRepository,
+                              WorkingSlotRepository workingSlotRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.workingSlotRepository = workingSlotRepository;
+    }
+
+    /**
+     * Check whether [start, end) can be booked for the staff member, against
+     * the day reloaded from the database (the reload also replaces the cached
+     * entry). Call it under the (staff, day) booking lock.
+     */
+    public StaffDayAvailability.Verdict checkFresh(Long staffId, LocalDate date, LocalTime start, LocalTime end,
+                                                   Long excludeAppointmentId) {
+        return get(staffId, date, true).check(toMinute(start), toMinute(end), excludeAppointmentId);
+    }
+
+    /**
+     * Free windows in which an appointment of {@code durationMinutes} fits.
+     */
+    public List<AvailableSlotResponse> freeSlots(Long staffId, LocalDate date, int durationMinutes) {
+        List<AvailableSlotResponse> result = new ArrayList<>();
+        for (int[] window : get(staffId, date, false).freeWindows(durationMinutes)) {
+            result.add(new AvailableSlotResponse(toTime(window[0]), toTime(window[1]), true));
+        }
+        return result;
+    }
+
+    /**
+     * Record a booking once the current transaction commits.
+     */
+    public void onBooked(AppointmentEntity appointment) {
+        if (appointment.getStaff() == null) {
+            return;
+        }
+        Key key = new Key(appointment.getStaff().getId(), appointment.getAppointmentDate());
+        Long id = appointment.getId();
+        int start = toMinute(appointment.getAppointmentTime());
+        int end = appointment.getEstimatedEndTime() != null
+                ? toMinute(appointment.getEstimatedEndTime())
+                : start + (appointment.getDurationMinutes() != null ? appointment.getDurationMinutes() : 30);
+        afterCommit(() -> mutate(key, day -> day.book(id, start, end)));
+    }
+
+    /**
+     * Remove a booking (cancel, delete, or the old side of a reschedule)
+     * once the current transaction commits.
+     */
+    public void onReleased(Long appointmentId, Long staffId, LocalDate date) {
+        if (staffId == null || date == null) {
+            return;
+        }
+        Key key = new Key(staffId, date);
+        afterCommit(() -> mutate(key, day -> day.release(appointmentId)));
+    }
+
+    /**
+     * Drop all cached days of a staff member (working slots changed).
+     */
+    public void invalidateStaff(Long staffId) {
+        afterCommit(() -> {
+            long seq = mutationSeq.incrementAndGet();
+            days.keySet().removeIf(k -> k.staffId().equals(staffId));
+            // Staff-wide marker (date = null) discards loads that started before this point
+            lastMutation.put(new Key(staffId, null), seq);
+        });
+    }
+
+    /**
+     * Drop every cached day (closed dates applied to all staff).
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            long seq = mutationSeq.incrementAndGet();
+            days.clear();
+            allMutation.set(seq);
+        });
+    }
+
+    /**
+     * Evict past days. Runs daily just after midnight.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(k -> k.date().isBefore(today));
+        lastMutation.keySet().removeIf(k -> k.date() != null && k.date().isBefore(today));
+    }
+
+    // ==================== HELPERS ====================
+
+    private StaffDayAvailability get(Long staffId, LocalDate date, boolean fresh) {
+        Key key = new Key(staffId, date);
+        StaffDayAvailability day = days.get(key);
+        if (!fresh && day != null && !isExpired(day)) {
+            return day;
+        }
+
+        long seqBeforeLoad = mutationSeq.get();
+        StaffDayAvailability loaded = load(staffId, date);
+        if (lastMutation.getOrDefault(key, 0L) <= seqBeforeLoad
+                && lastMutation.getOrDefault(new Key(staffId, null), 0L) <= seqBeforeLoad
+                && allMutation.get() <= seqBeforeLoad) {
+            days.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private void mutate(Key key, Consumer<StaffDayAvailability> change) {
+        lastMutation.put(key, mutationSeq.incrementAndGet());
+        StaffDayAvailability day = days.get(key);
+        if (day != null) {
+            change.accept(day);
+        }
+    }
+
+    private boolean isExpired(StaffDayAvailability day) {
+        return System.nanoTime() - day.getLoadedAtNanos() > TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    private StaffDayAvailability load(Long staffId, LocalDate date) {
+        long now = System.nanoTime();
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+
+        if (dayOfWeek == DayOfWeek.SUNDAY
+                || !workingSlotRepository.findClosedByStaffAndDay(staffId, dayOfWeek, date).isEmpty()) {
+            return new StaffDayAvailability(new int[0][], AppointmentConfig.BUFFER_MINUTES, now);
+        }
+
+        List<WorkingSlotEntity> slots = workingSlotRepository.findActiveByStaffAndDay(staffId, dayOfWeek, date);
+        List<int[]> working = new ArrayList<>();
+        if (slots.isEmpty()) {
+            working.add(new int[] { DEFAULT_START_MINUTE, DEFAULT_END_MINUTE });
+        } else {
+            for (WorkingSlotEntity slot : slots) {
+                // Slots stay separate: an appointment must fit inside one slot
+                int start = Math.max(toMinute(slot.getStartTime()), DEFAULT_START_MINUTE);
+                int end = Math.min(toMinute(slot.getEndTime()), DEFAULT_END_MINUTE);
+                if (slot.getBreakStartTime() != null && slot.getBreakEndTime() != null) {
+                    addInterval(working, start, Math.min(end, toMinute(slot.getBreakStartTime())));
+                    addInterval(working, Math.max(start, toMinute(slot.getBreakEndTime())), end);
+                } else {
+                    addInterval(working, start, end);
+                }
+            }
+        }
+
+        StaffDayAvailability day = new StaffDayAvailability(
+                working.toArray(new int[0][]), AppointmentConfig.BUFFER_MINUTES, now);
+        for (AppointmentEntity appointment : appointmentRepository.findByStaffAndDate(staffId, date)) {
+            int start = toMinute(appointment.getAppointmentTime());
+            int end = appointment.getEstimatedEndTime() != null
+                    ? toMinute(appointment.getEstimatedEndTime())
+                    : start + (appointment.getDurationMinutes() != null ? appointment.getDurationMinutes() : 30);
+            day.book(appointment.getId(), start, end);
+        }
+        log.debug("Loaded availability for staff {} on {}: {} working interval(s)", staffId, date, working.size());
+        return day;
+    }
+
+    private static void addInterval(List<int[]> intervals, int start, int end) {
+        if (end > start) {
+            intervals.add(new int[] { start, end });
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalTime toTime(int minute) {
+        return minute >= 24 * 60 ? LocalTime.MAX : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    private record Key(Long staffId, LocalDate date) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.tailor_shop.modules.appointment.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Free-time interval set of one staff member on one day.
+ *
+ * Times are minutes of day, intervals are half-open [start, end).
+ * Working intervals are the staff's working slots minus breaks (empty when the
+ * day is closed). Each booked appointment blocks [start - buffer, end + buffer),
+ * which is the same overlap rule as the old findOverlappingAppointments check.
+ */
+public class StaffDayAvailability {
+
+    public enum Verdict {
+        OK,
+        CLOSED,
+        OUTSIDE_WORKING_HOURS,
+        CONFLICT
+    }
+
+    private final int[][] working;
+    private final int bufferMinutes;
+    private final Map<Long, int[]> blocked = new HashMap<>();
+    private final long loadedAtNanos;
+
+    public StaffDayAvailability(int[][] working, int bufferMinutes, long loadedAtNanos) {
+        this.working = working;
+        this.bufferMinutes = bufferMinutes;
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+    public long getLoadedAtNanos() {
+        return loadedAtNanos;
+    }
+
+    public boolean isClosed() {
+        return working.length == 0;
+    }
+
+    /**
+     * Whether [start, end) fits inside one working interval and clears every
+     * other booking (with buffer).
+     */
+    public synchronized Verdict check(int start, int end, Long excludeAppointmentId) {
+        if (isClosed()) {
+            return Verdict.CLOSED;
+        }
+        boolean inWorkingHours = false;
+        for (int[] w : working) {
+            if (w[0] <= start && end <= w[1]) {
+                inWorkingHours = true;
+                break;
+            }
+        }
+        if (!inWorkingHours) {
+            return Verdict.OUTSIDE_WORKING_HOURS;
+        }
+        for (Map.Entry<Long, int[]> e : blocked.entrySet()) {
+            if (e.getKey().equals(excludeAppointmentId)) {
+                continue;
+            }
+            int[] b = e.getValue();
+            if (b[0] < end && start < b[1]) {
+                return Verdict.CONFLICT;
+            }
+        }
+        return Verdict.OK;
+    }
+
+    /**
+     * Free windows (working time minus blocked time) at least {@code minDuration} long.
+     */
+    public synchronized List<int[]> freeWindows(int minDuration) {
+        int[][] sortedBlocked = blocked.values().toArray(new int[0][]);
+        Arrays.sort(sortedBlocked, Comparator.comparingInt(b -> b[0]));
+
+        List<int[]> free = new ArrayList<>();
+        for (int[] w : working) {
+            int cursor = w[0];
+            for (int[] b : sortedBlocked) {
+                if (b[1] <= cursor || b[0] >= w[1]) {
+                    continue;
+                }
+                if (b[0] - cursor >= minDuration) {
+                    free.add(new int[] { cursor, b[0] });
+                }
+                cursor = Math.max(cursor, b[1]);
+            }
+            if (w[1] - cursor >= minDuration) {
+                free.add(new int[] { cursor, w[1] });
+            }
+        }
+        return free;
+    }
+
+    public synchronized void book(Long appointmentId, int start, int end) {
+        blocked.put(appointmentId, new int[] { start - bufferMinutes, end + bufferMinutes });
+    }
+
+    public synchronized void release(Long appointmentId) {
+        blocked.remove(appointmentId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tailor_shop.modules.appointment.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.appointment.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes bookings per (staff, day) until the booking transaction ends.
+ *
+ * Two levels:
+ * - Striped in-process locks, so bookers on this node queue in memory instead
+ *   of on a database row, and the in-memory availability check is consistent
+ *   on a single node.
+ * - A row lock on appointment_day_locks, which serializes the same staff/day
+ *   across nodes.
+ *
+ * Bookings of different staff or days only share a stripe by hash collision;
+ * they are never serialized globally.
+ */
+@Component
+public class StaffDayBookingLock {
+
+    private static final int STRIPES = 256;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    @Value("${appointment.booking.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    public StaffDayBookingLock(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock (staff, date) for the rest of the current transaction.
+     * Released on commit or rollback.
+     */
+    public void lock(Long staffId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking lock requires an active transaction");
+        }
+
+        ReentrantLock stripe = stripes[Math.floorMod(Objects.hash(staffId, date), STRIPES)];
+        try {
+            if (!stripe.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new BadRequestException("Too many concurrent bookings for this staff and date, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Booking interrupted, please try again");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+
+        appointmentRepository.lockStaffDay(staffId, date);
+    }
+}
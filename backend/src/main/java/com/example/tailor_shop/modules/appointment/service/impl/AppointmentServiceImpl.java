@@ -11,6 +11,9 @@ import com.example.tailor_shop.modules.appointment.dto.*;
 import com.example.tailor_shop.modules.appointment.repository.AppointmentRepository;
 import com.example.tailor_shop.modules.appointment.repository.WorkingSlotRepository;
 import com.example.tailor_shop.modules.appointment.service.AppointmentService;
+import com.example.tailor_shop.modules.appointment.service.AvailabilityEngine;
+import com.example.tailor_shop.modules.appointment.service.StaffDayAvailability;
+import com.example.tailor_shop.modules.appointment.service.StaffDayBookingLock;
 import com.example.tailor_shop.modules.appointment.service.WorkingSlotService;
 import com.example.tailor_shop.modules.order.domain.OrderEntity;
 import com.example.tailor_shop.modules.order.domain.OrderStatus;
@@ -31,33 +34,38 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AppointmentServiceImpl implements AppointmentService {
 
-    // Default working hours: 7:00 - 23:00, Monday to Saturday
-    private static final LocalTime DEFAULT_START_TIME = LocalTime.of(7, 0);
-    private static final LocalTime DEFAULT_END_TIME = LocalTime.of(23, 0);
-
     private final AppointmentRepository appointmentRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final WorkingSlotService workingSlotService;
     private final WorkingSlotRepository workingSlotRepository; // Added this as it's used in the original code
+    private final AvailabilityEngine availabilityEngine;
+    private final StaffDayBookingLock bookingLock;
 
     public AppointmentServiceImpl(AppointmentRepository appointmentRepository,
             UserRepository userRepository,
             OrderRepository orderRepository,
             WorkingSlotService workingSlotService,
-            WorkingSlotRepository workingSlotRepository) { // Added WorkingSlotRepository to constructor
+            WorkingSlotRepository workingSlotRepository, // Added WorkingSlotRepository to constructor
+            AvailabilityEngine availabilityEngine,
+            StaffDayBookingLock bookingLock) {
         this.appointmentRepository = appointmentRepository;
         this.userRepository = userRepository;
         this.orderRepository = orderRepository; // Added this as it was missing
         this.workingSlotService = workingSlotService;
         this.workingSlotRepository = workingSlotRepository; // Initialized WorkingSlotRepository
+        this.availabilityEngine = availabilityEngine;
+        this.bookingLock = bookingLock;
     }
 
     @Override
@@ -144,12 +152,7 @@ public class AppointmentServiceImpl implements AppointmentService {
             LocalTime startTime = request.getAppointmentTime();
             LocalTime endTime = startTime.plusMinutes(duration);
 
-            // Calculate effective range with buffer
-            LocalTime effectiveStart = startTime.minusMinutes(AppointmentConfig.BUFFER_MINUTES);
-            LocalTime effectiveEnd = endTime.plusMinutes(AppointmentConfig.BUFFER_MINUTES);
-
-            validateAppointmentTime(staff.getId(), request.getAppointmentDate(), startTime, endTime, null);
-            checkConflict(staff.getId(), request.getAppointmentDate(), effectiveStart, effectiveEnd, null);
+            reserve(staff.getId(), request.getAppointmentDate(), startTime, endTime, null);
 
             request.setDurationMinutes(duration); // Store calculated duration back to request if needed or just use in
                                                   // entity
@@ -176,6 +179,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         entity.setIsDeleted(false);
 
         entity = appointmentRepository.save(entity);
+        availabilityEngine.onBooked(entity);
         return toResponse(entity);
     }
 
@@ -225,6 +229,10 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         LocalTime startTime = workingSlot.getStartTime();
         LocalTime endTime = startTime.plusMinutes(duration);
+        LocalDate appointmentDate = workingSlot.getEffectiveFrom() != null ? workingSlot.getEffectiveFrom()
+                : LocalDate.now();
+
+        reserve(workingSlot.getStaff().getId(), appointmentDate, startTime, endTime, null);
 
         AppointmentEntity entity = new AppointmentEntity();
         entity.setOrder(order);
@@ -234,8 +242,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         if (request.getSecondaryTypes() != null) {
             entity.setSecondaryTypes(new HashSet<>(request.getSecondaryTypes()));
         }
-        entity.setAppointmentDate(
-                workingSlot.getEffectiveFrom() != null ? workingSlot.getEffectiveFrom() : LocalDate.now());
+        entity.setAppointmentDate(appointmentDate);
         entity.setAppointmentTime(startTime);
         entity.setDurationMinutes(duration);
         entity.setEstimatedEndTime(endTime);
@@ -244,6 +251,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         entity.setIsDeleted(false);
 
         entity = appointmentRepository.save(entity);
+        availabilityEngine.onBooked(entity);
 
         // Update working slot booked count (if needed)
         // Note: WorkingSlotEntity doesn't have bookedCount field, so we skip this for
@@ -282,12 +290,7 @@ public class AppointmentServiceImpl implements AppointmentService {
             LocalTime startTime = request.getAppointmentTime();
             LocalTime endTime = startTime.plusMinutes(duration);
 
-            // Calculate effective range with buffer
-            LocalTime effectiveStart = startTime.minusMinutes(AppointmentConfig.BUFFER_MINUTES);
-            LocalTime effectiveEnd = endTime.plusMinutes(AppointmentConfig.BUFFER_MINUTES);
-
-            validateAppointmentTime(staff.getId(), request.getAppointmentDate(), startTime, endTime, id);
-            checkConflict(staff.getId(), request.getAppointmentDate(), effectiveStart, effectiveEnd, id);
+            reserve(staff.getId(), request.getAppointmentDate(), startTime, endTime, id);
 
             request.setDurationMinutes(duration);
         }
@@ -296,6 +299,8 @@ public class AppointmentServiceImpl implements AppointmentService {
         LocalTime startTime = request.getAppointmentTime();
         LocalTime endTime = startTime.plusMinutes(duration);
 
+        releaseBooking(entity);
+
         entity.setOrder(order);
         entity.setCustomer(customer);
         entity.setStaff(staff);
@@ -312,6 +317,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         entity.setNotes(request.getNotes());
 
         entity = appointmentRepository.save(entity);
+        if (entity.getStatus() == AppointmentStatus.scheduled) {
+            availabilityEngine.onBooked(entity);
+        }
         return toResponse(entity);
     }
 
@@ -321,12 +329,23 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .filter(a -> !a.getIsDeleted())
                 .orElseThrow(() -> new NotFoundException("Appointment not found"));
 
+        AppointmentStatus previous = entity.getStatus();
+        if (previous != AppointmentStatus.scheduled && request.getStatus() == AppointmentStatus.scheduled
+                && entity.getStaff() != null && entity.getEstimatedEndTime() != null) {
+            reserve(entity.getStaff().getId(), entity.getAppointmentDate(), entity.getAppointmentTime(),
+                    entity.getEstimatedEndTime(), id);
+        }
         entity.setStatus(request.getStatus());
         if (request.getNotes() != null) {
             entity.setNotes(request.getNotes());
         }
 
         entity = appointmentRepository.save(entity);
+        if (previous == AppointmentStatus.scheduled && entity.getStatus() != AppointmentStatus.scheduled) {
+            releaseBooking(entity);
+        } else if (previous != AppointmentStatus.scheduled && entity.getStatus() == AppointmentStatus.scheduled) {
+            availabilityEngine.onBooked(entity);
+        }
         return toResponse(entity);
     }
 
@@ -337,6 +356,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .orElseThrow(() -> new NotFoundException("Appointment not found"));
         entity.setIsDeleted(true);
         appointmentRepository.save(entity);
+        releaseBooking(entity);
     }
 
     @Override
@@ -356,16 +376,12 @@ public class AppointmentServiceImpl implements AppointmentService {
         LocalTime newStartTime = request.getNewTime();
         LocalTime newEndTime = newStartTime.plusMinutes(duration);
 
-        // Calculate buffer
-        LocalTime effectiveStart = newStartTime.minusMinutes(AppointmentConfig.BUFFER_MINUTES);
-        LocalTime effectiveEnd = newEndTime.plusMinutes(AppointmentConfig.BUFFER_MINUTES);
-
         // Validate
         Long staffId = request.getStaffId() != null ? request.getStaffId() : apt.getStaff().getId();
-        validateAppointmentTime(staffId, request.getNewDate(), newStartTime, newEndTime, id);
-        checkConflict(staffId, request.getNewDate(), effectiveStart, effectiveEnd, id);
+        reserve(staffId, request.getNewDate(), newStartTime, newEndTime, id);
 
         // Update
+        releaseBooking(apt);
         if (request.getStaffId() != null) {
             apt.setStaff(userRepository.findById(request.getStaffId())
                     .orElseThrow(() -> new NotFoundException("Staff not found")));
@@ -380,7 +396,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         appendRescheduleHistory(apt, oldSchedule, request.getNewDate() + " " + request.getNewTime(),
                 request.getReason());
 
-        return toResponse(appointmentRepository.save(apt));
+        apt = appointmentRepository.save(apt);
+        availabilityEngine.onBooked(apt);
+        return toResponse(apt);
     }
 
     private void appendRescheduleHistory(AppointmentEntity apt, String from, String to, String reason) {
@@ -413,91 +431,78 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     @Transactional(readOnly = true)
     public List<AvailableSlotResponse> getAvailableSlots(Long staffId, LocalDate date, Integer durationMinutes) {
-        // Simple implementation: List working slots as available blocks
-        // In a real implementation, we would subtract existing appointments
-        Page<WorkingSlotResponse> workingSlots = workingSlotService.listAll(date, Pageable.unpaged());
-        List<AvailableSlotResponse> available = new ArrayList<>();
-
-        for (WorkingSlotResponse ws : workingSlots.getContent()) {
-            if (staffId != null && !staffId.equals(ws.getStaffId()))
-                continue;
-            // Basic mapping
-            AvailableSlotResponse slot = new AvailableSlotResponse();
-            slot.setStartTime(ws.getStartTime());
-            slot.setEndTime(ws.getEndTime());
-            slot.setAvailable(true); // Simplified
-            available.add(slot);
+        int duration = durationMinutes != null && durationMinutes > 0 ? durationMinutes : 30;
+        if (staffId != null) {
+            return availabilityEngine.freeSlots(staffId, date, duration);
         }
-        return available;
+        // Không chọn staff: gộp khung trống của mọi staff có working slot trong ngày
+        Map<String, AvailableSlotResponse> merged = new TreeMap<>();
+        workingSlotService.listAll(date, Pageable.unpaged()).getContent().stream()
+                .map(WorkingSlotResponse::getStaffId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .flatMap(id -> availabilityEngine.freeSlots(id, date, duration).stream())
+                .forEach(slot -> merged.putIfAbsent(slot.getStartTime() + "-" + slot.getEndTime(), slot));
+        return new ArrayList<>(merged.values());
     }
 
-    private void validateAppointmentTime(Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime,
+    /**
+     * Validate working hours, closed dates and conflicts (with buffer) against
+     * the day freshly loaded by the availability engine (the cached day may
+     * miss bookings and cancellations made on other nodes).
+     */
+    private void assertBookable(Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime,
             Long excludeAppointmentId) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-
-        // Check if it's Sunday (not allowed)
-        if (dayOfWeek == DayOfWeek.SUNDAY) {
-            throw new BadRequestException("Appointments cannot be scheduled on Sunday");
-        }
-
-        // Check if the date is closed (has working slot with isActive = false)
-        List<WorkingSlotEntity> closedSlots = workingSlotRepository.findClosedByStaffAndDay(staffId, dayOfWeek, date);
-        if (!closedSlots.isEmpty()) {
-            throw new BadRequestException("Cannot schedule appointment on closed date: " + date);
-        }
-
-        // Check if time is within default working hours (7:00 - 23:00)
-        // Check both start and end time
-        if (startTime.isBefore(DEFAULT_START_TIME)
-                || !endTime.isBefore(DEFAULT_END_TIME) && !endTime.equals(DEFAULT_END_TIME)) {
-            // Allowing endTime to be exactly 23:00
-            if (startTime.isBefore(DEFAULT_START_TIME) || endTime.isAfter(DEFAULT_END_TIME)) {
-                throw new BadRequestException("Appointment time must be between 07:00 and 23:00");
-            }
-        }
-
-        // If staff has custom working slots, validate against them
-        List<WorkingSlotEntity> slots = workingSlotRepository.findActiveByStaffAndDay(staffId, dayOfWeek, date);
-        if (!slots.isEmpty()) {
-            boolean isValid = slots.stream().anyMatch(slot -> {
-                boolean startsInSlot = !startTime.isBefore(slot.getStartTime())
-                        && startTime.isBefore(slot.getEndTime());
-                boolean endsInSlot = !endTime.isBefore(slot.getStartTime())
-                        && (endTime.isBefore(slot.getEndTime()) || endTime.equals(slot.getEndTime()));
-
-                boolean inWorkingHours = startsInSlot && endsInSlot;
-
-                boolean notInBreak = true;
-                if (slot.getBreakStartTime() != null && slot.getBreakEndTime() != null) {
-                    // Check if appointment overlaps with break
-                    // Conflict if (StartApp < EndBreak) AND (EndApp > StartBreak)
-                    if (startTime.isBefore(slot.getBreakEndTime()) && endTime.isAfter(slot.getBreakStartTime())) {
-                        notInBreak = false;
-                    }
+        StaffDayAvailability.Verdict verdict = availabilityEngine.checkFresh(staffId, date, startTime, endTime,
+                excludeAppointmentId);
+        switch (verdict) {
+            case CLOSED -> throw new BadRequestException("Cannot schedule appointment on closed date: " + date);
+            case OUTSIDE_WORKING_HOURS -> {
+                if (startTime.isBefore(LocalTime.of(7, 0)) || endTime.isAfter(LocalTime.of(23, 0))) {
+                    throw new BadRequestException("Appointment time must be between 07:00 and 23:00");
                 }
-                return inWorkingHours && notInBreak;
-            });
-
-            if (!isValid) {
                 throw new BadRequestException(
                         "Appointment time is outside staff custom working hours or overlaps with break time");
             }
+            case CONFLICT -> throw new BadRequestException(
+                    "Appointment time conflicts with an existing appointment (including "
+                            + AppointmentConfig.BUFFER_MINUTES + "m buffer)");
+            case OK -> {
+            }
         }
-        // If no custom working slots, use default hours (already validated above)
     }
 
-    private void checkConflict(Long staffId, LocalDate date, LocalTime effectiveStart, LocalTime effectiveEnd,
+    /**
+     * Hold the (staff, day) booking lock until commit, then check the slot
+     * against the freshly loaded day and re-check overlaps with a locking read.
+     * Both run under the lock, so neither the per-node cache nor the
+     * transaction snapshot can hide a booking made concurrently or on another node.
+     */
+    private void reserve(Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime,
             Long excludeAppointmentId) {
+        // Check if it's Sunday (not allowed)
+        if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            throw new BadRequestException("Appointments cannot be scheduled on Sunday");
+        }
+
+        bookingLock.lock(staffId, date);
+        assertBookable(staffId, date, startTime, endTime, excludeAppointmentId);
         List<AppointmentEntity> conflicts = appointmentRepository.findOverlappingAppointments(staffId, date,
-                effectiveStart, effectiveEnd,
+                startTime.minusMinutes(AppointmentConfig.BUFFER_MINUTES),
+                endTime.plusMinutes(AppointmentConfig.BUFFER_MINUTES),
                 excludeAppointmentId);
         if (!conflicts.isEmpty()) {
-            // Can add more details about conflicting appointment here
             throw new BadRequestException("Appointment time conflicts with an existing appointment (including "
                     + AppointmentConfig.BUFFER_MINUTES + "m buffer)");
         }
     }
 
+    private void releaseBooking(AppointmentEntity entity) {
+        if (entity.getStaff() != null) {
+            availabilityEngine.onReleased(entity.getId(), entity.getStaff().getId(), entity.getAppointmentDate());
+        }
+    }
+
     private int calculateDuration(AppointmentType type, List<AppointmentType> secondaryTypes, Integer requestDuration) {
         if (requestDuration != null && requestDuration > 0) {
             return requestDuration;
@@ -6,6 +6,7 @@ import com.example.tailor_shop.modules.appointment.domain.AppointmentType;
 import com.example.tailor_shop.modules.appointment.domain.WorkingSlotEntity;
 import com.example.tailor_shop.modules.appointment.dto.*;
 import com.example.tailor_shop.modules.appointment.repository.WorkingSlotRepository;
+import com.example.tailor_shop.modules.appointment.service.AvailabilityEngine;
 import com.example.tailor_shop.modules.appointment.service.WorkingSlotService;
 import com.example.tailor_shop.modules.user.domain.UserEntity;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
@@ -24,10 +25,13 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
 
     private final WorkingSlotRepository workingSlotRepository;
     private final UserRepository userRepository;
+    private final AvailabilityEngine availabilityEngine;
 
-    public WorkingSlotServiceImpl(WorkingSlotRepository workingSlotRepository, UserRepository userRepository) {
+    public WorkingSlotServiceImpl(WorkingSlotRepository workingSlotRepository, UserRepository userRepository,
+            AvailabilityEngine availabilityEngine) {
         this.workingSlotRepository = workingSlotRepository;
         this.userRepository = userRepository;
+        this.availabilityEngine = availabilityEngine;
     }
 
     @Override
@@ -106,6 +110,7 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
         // 1);
 
         entity = workingSlotRepository.save(entity);
+        availabilityEngine.invalidateStaff(entity.getStaff().getId());
         return toResponse(entity);
     }
 
@@ -154,6 +159,7 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
         // }
 
         entity = workingSlotRepository.save(entity);
+        availabilityEngine.invalidateStaff(entity.getStaff().getId());
         return toResponse(entity);
     }
 
@@ -185,10 +191,10 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
     @Override
     @Transactional
     public void delete(Long id, Long currentUserId) {
-        if (!workingSlotRepository.existsById(id)) {
-            throw new NotFoundException("Working slot not found");
-        }
-        workingSlotRepository.deleteById(id);
+        WorkingSlotEntity entity = workingSlotRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Working slot not found"));
+        workingSlotRepository.delete(entity);
+        availabilityEngine.invalidateStaff(entity.getStaff().getId());
     }
 
     @Override
@@ -227,6 +233,7 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
             entity = workingSlotRepository.save(entity);
             results.add(toResponse(entity));
         }
+        availabilityEngine.invalidateStaff(staff.getId());
 
         return results;
     }
@@ -244,6 +251,7 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
                 .findByStaffIdAndIsActiveTrue(staffId, Pageable.unpaged())
                 .getContent();
         workingSlotRepository.deleteAll(customSlots);
+        availabilityEngine.invalidateStaff(staffId);
     }
 
     @Override
@@ -436,6 +444,12 @@ public class WorkingSlotServiceImpl implements WorkingSlotService {
             }
         }
 
+        if (request.getStaffId() != null) {
+            availabilityEngine.invalidateStaff(request.getStaffId());
+        } else {
+            availabilityEngine.invalidateAll();
+        }
+
         // Since we modify/delete slots, returning them is tricky. Returning empty list.
         return new ArrayList<>();
     }
@@ -4,19 +4,29 @@ import com.example.tailor_shop.common.CommonResponse;
 import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
 import com.example.tailor_shop.config.security.CustomUserDetails;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceRequest;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.InvoiceFilterRequest;
 import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
 import com.example.tailor_shop.modules.billing.dto.InvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.PaymentCallbackRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
+import com.example.tailor_shop.modules.billing.dto.ReportFormat;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerSummaryResponse;
 import com.example.tailor_shop.modules.billing.service.InvoiceService;
+import com.example.tailor_shop.modules.billing.service.PaymentCallbackQueue;
+import com.example.tailor_shop.modules.billing.service.UnpaidCustomerReportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -25,7 +35,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/v1/invoices")
@@ -33,15 +47,42 @@ import org.springframework.web.bind.annotation.RestController;
 public class InvoiceController {
 
         private final InvoiceService invoiceService;
+        private final UnpaidCustomerReportService unpaidCustomerReportService;
+        private final PaymentCallbackQueue paymentCallbackQueue;
 
         @GetMapping("/unpaid-customers")
         @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
-        public ResponseEntity<CommonResponse<java.util.List<com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse>>> unpaidCustomers() {
-                java.util.List<com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse> data = invoiceService
-                                .getUnpaidCustomers();
+        public ResponseEntity<CommonResponse<Page<UnpaidCustomerResponse>>> unpaidCustomers(
+                        @RequestParam(required = false) String keyword,
+                        @PageableDefault(size = 20, sort = "totalDue", direction = Sort.Direction.DESC) Pageable pageable) {
+                Page<UnpaidCustomerResponse> data = unpaidCustomerReportService.list(keyword, pageable);
                 return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
         }
 
+        @GetMapping("/unpaid-customers/summary")
+        @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+        public ResponseEntity<CommonResponse<UnpaidCustomerSummaryResponse>> unpaidCustomersSummary() {
+                UnpaidCustomerSummaryResponse data = unpaidCustomerReportService.summary();
+                return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
+        }
+
+        /**
+         * Export toàn bộ báo cáo công nợ (streaming, không phân trang)
+         */
+        @GetMapping("/unpaid-customers/export")
+        @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+        public ResponseEntity<StreamingResponseBody> exportUnpaidCustomers(
+                        @RequestParam(defaultValue = "csv") ReportFormat format) {
+                StreamingResponseBody body = out -> unpaidCustomerReportService.export(format, out);
+                return ResponseEntity.ok()
+                                .header(HttpHeaders.CONTENT_DISPOSITION,
+                                                "attachment; filename=\"unpaid-customers." + format.name() + "\"")
+                                .contentType(format == ReportFormat.json
+                                                ? MediaType.APPLICATION_JSON
+                                                : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                                .body(body);
+        }
+
         @GetMapping
         @PreAuthorize("hasAnyRole('ADMIN','STAFF','TAILOR','CUSTOMER')")
         public ResponseEntity<CommonResponse<Page<InvoiceResponse>>> list(
@@ -75,6 +116,20 @@ public class InvoiceController {
                                 .body(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
         }
 
+        /**
+         * Tạo nhiều invoice một lần (sinh từ đơn hàng / checkout), tối đa 500 mỗi request
+         */
+        @PostMapping("/bulk")
+        @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+        public ResponseEntity<CommonResponse<BulkInvoiceResponse>> createBulk(
+                        @Valid @RequestBody BulkInvoiceRequest request,
+                        @AuthenticationPrincipal CustomUserDetails principal) {
+                BulkInvoiceResponse data = invoiceService.createBulk(request,
+                                principal != null ? principal.getId() : null);
+                return ResponseEntity.status(HttpStatus.CREATED)
+                                .body(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
+        }
+
         @PostMapping("/{id}/void")
         @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
         public ResponseEntity<CommonResponse<Void>> voidInvoice(
@@ -97,7 +152,7 @@ public class InvoiceController {
         @PostMapping("/payments/callback")
         public ResponseEntity<CommonResponse<PaymentResponse>> handleCallback(
                         @Valid @RequestBody PaymentCallbackRequest request) {
-                PaymentResponse data = invoiceService.handleCallback(request);
+                PaymentResponse data = paymentCallbackQueue.handle(request);
                 return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
         }
 }
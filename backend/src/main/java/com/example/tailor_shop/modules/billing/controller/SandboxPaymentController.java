@@ -5,7 +5,7 @@ import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
 import com.example.tailor_shop.modules.billing.dto.PaymentCallbackRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
-import com.example.tailor_shop.modules.billing.service.InvoiceService;
+import com.example.tailor_shop.modules.billing.service.PaymentCallbackQueue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,7 +28,7 @@ import java.nio.charset.StandardCharsets;
 @Slf4j
 public class SandboxPaymentController {
 
-    private final InvoiceService invoiceService;
+    private final PaymentCallbackQueue paymentCallbackQueue;
 
     @Value("${app.frontend.url:http://localhost:5173}")
     private String frontendUrl;
@@ -194,7 +194,7 @@ public class SandboxPaymentController {
                     .rawPayload("sandbox_result=" + (success ? "success" : "failed"))
                     .build();
 
-            PaymentResponse response = invoiceService.handleCallback(callbackRequest);
+            PaymentResponse response = paymentCallbackQueue.handle(callbackRequest);
             log.info("[Sandbox] Payment processed: invoiceId={}, status={}",
                     response.getInvoiceId(), response.getStatus());
 
@@ -222,7 +222,7 @@ public class SandboxPaymentController {
     public ResponseEntity<CommonResponse<PaymentResponse>> handleCallback(
             @RequestBody PaymentCallbackRequest request) {
         log.info("[Sandbox] API Callback: ref={}, success={}", request.getProviderRef(), request.getSuccess());
-        PaymentResponse response = invoiceService.handleCallback(request);
+        PaymentResponse response = paymentCallbackQueue.handle(request);
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), response));
     }
 
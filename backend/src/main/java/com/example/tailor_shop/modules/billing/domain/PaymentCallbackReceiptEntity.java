@@ -0,0 +1,55 @@
+package com.example.tailor_shop.modules.billing.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Payment Callback Receipt Entity - Một dòng cho mỗi callback đã xử lý.
+ * PaymentCallbackReceiptRepository ghi bằng INSERT IGNORE; unique idempotency_key
+ * là thứ làm callback gửi lại bị bỏ qua.
+ */
+@Entity
+@Table(name = "payment_callback_receipts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_callback_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_payment_callback_ref", columnList = "provider_ref"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCallbackReceiptEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 191)
+    private String idempotencyKey;
+
+    @Column(name = "provider_ref", nullable = false, length = 100)
+    private String providerRef;
+
+    @Column(name = "success", nullable = false)
+    private Boolean success;
+
+    @Column(name = "raw_payload", columnDefinition = "TEXT")
+    private String rawPayload;
+
+    // Insert không đi qua Hibernate: DB tự điền
+    @Column(name = "received_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private OffsetDateTime receivedAt;
+}
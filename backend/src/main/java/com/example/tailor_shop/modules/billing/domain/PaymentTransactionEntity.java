@@ -12,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -24,7 +25,8 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "payment_transactions")
+@Table(name = "payment_transactions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_tx_provider_ref", columnNames = "provider_ref"))
 @Getter
 @Setter
 @Builder
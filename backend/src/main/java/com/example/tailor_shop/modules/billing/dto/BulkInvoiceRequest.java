@@ -0,0 +1,23 @@
+package com.example.tailor_shop.modules.billing.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInvoiceRequest {
+
+    @Valid
+    @NotEmpty(message = "Invoices are required")
+    @Size(max = 500, message = "At most 500 invoices per request")
+    private List<InvoiceRequest> invoices;
+}
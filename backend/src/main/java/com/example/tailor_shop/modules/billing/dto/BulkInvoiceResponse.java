@@ -0,0 +1,35 @@
+package com.example.tailor_shop.modules.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInvoiceResponse {
+
+    private int created;
+
+    /**
+     * Cùng thứ tự với request
+     */
+    private List<CreatedInvoice> invoices;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CreatedInvoice {
+        private Long id;
+        private String code;
+        private Long orderId;
+        private Long customerId;
+        private BigDecimal total;
+    }
+}
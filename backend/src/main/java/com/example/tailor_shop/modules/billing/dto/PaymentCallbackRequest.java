@@ -2,6 +2,7 @@ package com.example.tailor_shop.modules.billing.dto;
 
 import com.example.tailor_shop.modules.billing.domain.PaymentProvider;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,6 +25,13 @@ public class PaymentCallbackRequest {
     @NotNull(message = "Success flag is required")
     private Boolean success;
 
+    /**
+     * Id của notification phía provider (nếu có). Không có thì mỗi (providerRef, kết quả)
+     * chỉ được xử lý một lần.
+     */
+    @Size(max = 64, message = "Idempotency key must be at most 64 characters")
+    private String idempotencyKey;
+
     private BigDecimal amount;
     private String rawPayload;
     private String message;
@@ -0,0 +1,9 @@
+package com.example.tailor_shop.modules.billing.dto;
+
+/**
+ * Định dạng file export báo cáo
+ */
+public enum ReportFormat {
+    csv,
+    json
+}
@@ -0,0 +1,21 @@
+package com.example.tailor_shop.modules.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnpaidCustomerSummaryResponse {
+
+    private long totalCustomers;
+    private long totalInvoices;
+    private BigDecimal totalAmount;
+    private BigDecimal totalPaid;
+    private BigDecimal totalDue;
+}
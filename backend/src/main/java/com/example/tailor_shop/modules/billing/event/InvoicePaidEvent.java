@@ -0,0 +1,39 @@
+package com.example.tailor_shop.modules.billing.event;
+
+import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Event published (through the outbox) when an invoice becomes fully paid,
+ * whatever the provider: cash in addPayment, online in handleCallback.
+ *
+ * Listeners:
+ * - FabricOrderEventListener: mark the fabric order PAID and consume its fabric reservation
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE, onConstructor_ = @JsonCreator) // Outbox deserialization
+public class InvoicePaidEvent {
+
+    private final Long invoiceId;
+    private final String invoiceCode;
+    private final BigDecimal total;
+    private final String correlationId;
+
+    public InvoicePaidEvent(InvoiceEntity invoice, String correlationId) {
+        this.invoiceId = invoice.getId();
+        this.invoiceCode = invoice.getCode();
+        this.total = invoice.getTotal();
+        this.correlationId = correlationId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InvoicePaidEvent[invoiceId=%d, invoiceCode=%s, total=%s]",
+                invoiceId, invoiceCode, total);
+    }
+}
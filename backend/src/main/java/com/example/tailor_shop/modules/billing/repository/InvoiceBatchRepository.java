@@ -0,0 +1,101 @@
+package com.example.tailor_shop.modules.billing.repository;
+
+import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
+import com.example.tailor_shop.modules.billing.domain.InvoiceItemEntity;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ghi invoice / invoice item hàng loạt bằng JDBC batch.
+ *
+ * Id của invoice là IDENTITY nên Hibernate không batch được insert; ở đây mỗi
+ * bảng là một batch (rewriteBatchedStatements gộp thành multi-row INSERT),
+ * id được đọc lại theo code (unique) bằng một SELECT.
+ */
+@Repository
+public class InvoiceBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public InvoiceBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert các invoice (chỉ dùng id của order / customer / staff) và gán id vừa tạo.
+     */
+    public void insertInvoices(List<InvoiceEntity> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<SqlParameterSource> rows = new ArrayList<>(invoices.size());
+        for (InvoiceEntity invoice : invoices) {
+            rows.add(new MapSqlParameterSource()
+                    .addValue("code", invoice.getCode())
+                    .addValue("orderId", invoice.getOrder() != null ? invoice.getOrder().getId() : null)
+                    .addValue("customerId", invoice.getCustomer().getId())
+                    .addValue("staffId", invoice.getStaff().getId())
+                    .addValue("status", invoice.getStatus().name())
+                    .addValue("currency", invoice.getCurrency())
+                    .addValue("subtotal", invoice.getSubtotal())
+                    .addValue("taxAmount", invoice.getTaxAmount())
+                    .addValue("discountAmount", invoice.getDiscountAmount())
+                    .addValue("total", invoice.getTotal())
+                    .addValue("paidAmount", invoice.getPaidAmount())
+                    .addValue("dueAmount", invoice.getDueAmount())
+                    .addValue("issuedAt", Timestamp.from(invoice.getIssuedAt().toInstant()))
+                    .addValue("dueDate", invoice.getDueDate())
+                    .addValue("notes", invoice.getNotes())
+                    .addValue("now", now));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO invoices (code, order_id, customer_id, staff_id, status, currency, "
+                        + "subtotal, tax_amount, discount_amount, total, paid_amount, due_amount, issued_at, due_date, "
+                        + "notes, is_deleted, created_at, updated_at) VALUES (:code, :orderId, :customerId, :staffId, "
+                        + ":status, :currency, :subtotal, :taxAmount, :discountAmount, :total, :paidAmount, :dueAmount, "
+                        + ":issuedAt, :dueDate, :notes, FALSE, :now, :now)",
+                rows.toArray(SqlParameterSource[]::new));
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, code FROM invoices WHERE code IN (:codes)",
+                new MapSqlParameterSource("codes", invoices.stream().map(InvoiceEntity::getCode).toList()),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("code"), rs.getLong("id")));
+        invoices.forEach(invoice -> invoice.setId(ids.get(invoice.getCode())));
+    }
+
+    /**
+     * Insert item của các invoice đã có id.
+     */
+    public void insertItems(List<InvoiceItemEntity> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<SqlParameterSource> rows = new ArrayList<>(items.size());
+        for (InvoiceItemEntity item : items) {
+            rows.add(new MapSqlParameterSource()
+                    .addValue("invoiceId", item.getInvoice().getId())
+                    .addValue("name", item.getName())
+                    .addValue("quantity", item.getQuantity())
+                    .addValue("unitPrice", item.getUnitPrice())
+                    .addValue("discountAmount", item.getDiscountAmount())
+                    .addValue("taxRate", item.getTaxRate())
+                    .addValue("lineTotal", item.getLineTotal())
+                    .addValue("now", now));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO invoice_items (invoice_id, name, quantity, unit_price, discount_amount, "
+                        + "tax_rate, line_total, created_at, updated_at) VALUES (:invoiceId, :name, :quantity, :unitPrice, "
+                        + ":discountAmount, :taxRate, :lineTotal, :now, :now)",
+                rows.toArray(SqlParameterSource[]::new));
+    }
+}
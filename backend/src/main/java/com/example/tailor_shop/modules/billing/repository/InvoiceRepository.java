@@ -2,9 +2,11 @@ package com.example.tailor_shop.modules.billing.repository;
 
 import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
 import com.example.tailor_shop.modules.billing.domain.InvoiceStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -32,7 +34,11 @@ public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
     @Query("SELECT i FROM InvoiceEntity i WHERE i.order.id = :orderId AND i.isDeleted = false")
     java.util.Optional<InvoiceEntity> findByOrderIdAndIsDeletedFalse(@Param("orderId") Long orderId);
 
-    @Query("SELECT i FROM InvoiceEntity i JOIN FETCH i.customer WHERE i.isDeleted = false AND i.status IN :statuses ORDER BY i.dueAmount DESC")
-    java.util.List<InvoiceEntity> findByStatusIn(
-            @Param("statuses") java.util.List<com.example.tailor_shop.modules.billing.domain.InvoiceStatus> statuses);
+    /**
+     * Find by ID with pessimistic write lock - serializes payments of an invoice
+     * (paid_amount / due_amount là read-modify-write)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InvoiceEntity i WHERE i.id = :id")
+    java.util.Optional<InvoiceEntity> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,37 @@
+package com.example.tailor_shop.modules.billing.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Nhật ký callback thanh toán (PaymentCallbackReceiptEntity), unique theo idempotency key.
+ *
+ * Chạy trong transaction của handleCallback (JdbcTemplate dùng chung
+ * connection), nên receipt chỉ được ghi khi callback xử lý thành công.
+ */
+@Repository
+public class PaymentCallbackReceiptRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PaymentCallbackReceiptRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Ghi nhận một callback.
+     *
+     * @return false nếu key đã được ghi trước đó (callback gửi lại)
+     */
+    public boolean record(String idempotencyKey, String providerRef, boolean success, String rawPayload) {
+        // INSERT IGNORE: key trùng trả về 0 dòng thay vì lỗi (không làm rollback transaction)
+        return jdbcTemplate.update("INSERT IGNORE INTO payment_callback_receipts "
+                        + "(idempotency_key, provider_ref, success, raw_payload) "
+                        + "VALUES (:key, :providerRef, :success, :rawPayload)",
+                new MapSqlParameterSource("key", idempotencyKey)
+                        .addValue("providerRef", providerRef)
+                        .addValue("success", success)
+                        .addValue("rawPayload", rawPayload)) > 0;
+    }
+}
@@ -1,13 +1,36 @@
 package com.example.tailor_shop.modules.billing.repository;
 
+import com.example.tailor_shop.modules.billing.domain.PaymentStatus;
 import com.example.tailor_shop.modules.billing.domain.PaymentTransactionEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransactionEntity, Long> {
 
     Optional<PaymentTransactionEntity> findByProviderRef(String providerRef);
+
+    /**
+     * Invoice có transaction ở trạng thái này không (vd. payment online đang chờ callback)
+     */
+    boolean existsByInvoiceIdAndStatus(Long invoiceId, PaymentStatus status);
+
+    /**
+     * Invoice của transaction (không load entity) - dùng để xếp callback vào hàng đợi theo invoice
+     */
+    @Query("SELECT t.invoice.id FROM PaymentTransactionEntity t WHERE t.providerRef = :providerRef")
+    Optional<Long> findInvoiceIdByProviderRef(@Param("providerRef") String providerRef);
+
+    /**
+     * Find by provider ref with pessimistic write lock - đọc trạng thái mới nhất (không phải snapshot)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM PaymentTransactionEntity t WHERE t.providerRef = :providerRef")
+    Optional<PaymentTransactionEntity> findByProviderRefForUpdate(@Param("providerRef") String providerRef);
 }
 
 
@@ -0,0 +1,200 @@
+package com.example.tailor_shop.modules.billing.repository;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.billing.domain.InvoiceStatus;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerSummaryResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Báo cáo công nợ theo khách hàng (invoice issued / partial_paid).
+ *
+ * Tổng hợp bằng GROUP BY customer_id trong MySQL: trang khách hàng được sắp
+ * xếp và cắt (LIMIT / OFFSET) trước khi join users, nên chỉ đọc tên / sđt
+ * của các khách trong trang. Export đọc toàn bộ báo cáo qua một result set
+ * streaming, bộ nhớ không phụ thuộc số invoice.
+ */
+@Repository
+public class UnpaidCustomerReportRepository {
+
+    private static final List<String> UNPAID_STATUSES =
+            List.of(InvoiceStatus.issued.name(), InvoiceStatus.partial_paid.name());
+
+    private static final String UNPAID = "i.is_deleted = FALSE AND i.status IN (:statuses)";
+
+    private static final String AGGREGATE = "SELECT i.customer_id, COUNT(*) AS invoice_count, "
+            + "SUM(i.total) AS total_amount, SUM(i.paid_amount) AS total_paid, SUM(i.due_amount) AS total_due "
+            + "FROM invoices i ";
+
+    // Sort property (UnpaidCustomerResponse) -> cột của aggregate
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "totalDue", "total_due",
+            "totalAmount", "total_amount",
+            "totalPaid", "total_paid",
+            "totalInvoices", "invoice_count");
+
+    // MySQL Connector/J: Integer.MIN_VALUE = result set streaming từng dòng thay vì đọc hết vào bộ nhớ
+    private static final int STREAM_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public UnpaidCustomerReportRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Một trang khách hàng còn nợ (chưa có danh sách invoice).
+     *
+     * @param keyword lọc theo tên / số điện thoại khách, null = tất cả
+     */
+    public Page<UnpaidCustomerResponse> findPage(String keyword, Pageable pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource("statuses", UNPAID_STATUSES);
+        String where = "WHERE " + UNPAID;
+        String join = "";
+        if (keyword != null && !keyword.isBlank()) {
+            join = "JOIN users u ON u.id = i.customer_id ";
+            where += " AND (u.name LIKE :keyword OR u.phone LIKE :keyword)";
+            params.addValue("keyword", "%" + keyword.trim() + "%");
+        }
+
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT i.customer_id) FROM invoices i " + join + where, params, Long.class);
+        if (total == null || total == 0 || pageable.getOffset() >= total) {
+            return new PageImpl<>(List.of(), pageable, total != null ? total : 0);
+        }
+
+        String orderBy = orderBy(pageable.getSort());
+        params.addValue("limit", pageable.getPageSize());
+        params.addValue("offset", pageable.getOffset());
+        List<UnpaidCustomerResponse> content = jdbcTemplate.query(
+                "SELECT t.*, u.name, u.phone FROM ("
+                        + AGGREGATE + join + where
+                        + " GROUP BY i.customer_id ORDER BY " + orderBy + " LIMIT :limit OFFSET :offset"
+                        + ") t JOIN users u ON u.id = t.customer_id ORDER BY " + orderBy.replace("i.", "t."),
+                params,
+                (rs, rowNum) -> toCustomer(rs));
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Invoice chưa thanh toán của các khách, nợ nhiều nhất trước.
+     */
+    public Map<Long, List<UnpaidCustomerResponse.UnpaidInvoiceSummary>> findInvoices(Collection<Long> customerIds) {
+        Map<Long, List<UnpaidCustomerResponse.UnpaidInvoiceSummary>> result = new LinkedHashMap<>();
+        if (customerIds.isEmpty()) {
+            return result;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("statuses", UNPAID_STATUSES)
+                .addValue("customerIds", customerIds);
+        jdbcTemplate.query("SELECT i.id, i.customer_id, i.code, i.status, i.total, i.paid_amount, i.due_amount, "
+                        + "i.created_at, i.due_date FROM invoices i "
+                        + "WHERE i.customer_id IN (:customerIds) AND " + UNPAID
+                        + " ORDER BY i.customer_id, i.due_amount DESC, i.id",
+                params,
+                (RowCallbackHandler) rs -> result
+                        .computeIfAbsent(rs.getLong("customer_id"), k -> new ArrayList<>())
+                        .add(UnpaidCustomerResponse.UnpaidInvoiceSummary.builder()
+                                .id(rs.getLong("id"))
+                                .code(rs.getString("code"))
+                                .status(rs.getString("status"))
+                                .total(rs.getBigDecimal("total"))
+                                .paidAmount(rs.getBigDecimal("paid_amount"))
+                                .dueAmount(rs.getBigDecimal("due_amount"))
+                                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                                .dueDate(rs.getObject("due_date", LocalDate.class))
+                                .build()));
+        return result;
+    }
+
+    /**
+     * Tổng công nợ toàn bộ báo cáo.
+     */
+    public UnpaidCustomerSummaryResponse summary() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT i.customer_id) AS customer_count, "
+                        + "COUNT(*) AS invoice_count, COALESCE(SUM(i.total), 0) AS total_amount, "
+                        + "COALESCE(SUM(i.paid_amount), 0) AS total_paid, COALESCE(SUM(i.due_amount), 0) AS total_due "
+                        + "FROM invoices i WHERE " + UNPAID,
+                new MapSqlParameterSource("statuses", UNPAID_STATUSES),
+                (rs, rowNum) -> UnpaidCustomerSummaryResponse.builder()
+                        .totalCustomers(rs.getLong("customer_count"))
+                        .totalInvoices(rs.getLong("invoice_count"))
+                        .totalAmount(rs.getBigDecimal("total_amount"))
+                        .totalPaid(rs.getBigDecimal("total_paid"))
+                        .totalDue(rs.getBigDecimal("total_due"))
+                        .build());
+    }
+
+    /**
+     * Toàn bộ báo cáo (nợ nhiều nhất trước), từng dòng một.
+     *
+     * Connection được giữ trong suốt lúc consumer xử lý: consumer chỉ nên
+     * ghi dòng ra output, không truy vấn thêm.
+     */
+    public void streamAll(Consumer<UnpaidCustomerResponse> consumer) {
+        streamingJdbcTemplate.query("SELECT t.*, u.name, u.phone FROM ("
+                        + AGGREGATE + "WHERE " + UNPAID + " GROUP BY i.customer_id"
+                        + ") t JOIN users u ON u.id = t.customer_id ORDER BY t.total_due DESC, t.customer_id",
+                new MapSqlParameterSource("statuses", UNPAID_STATUSES),
+                (RowCallbackHandler) rs -> consumer.accept(toCustomer(rs)));
+    }
+
+    // ==================== HELPERS ====================
+
+    private static String orderBy(Sort sort) {
+        List<String> parts = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BadRequestException("Unsupported sort property: " + order.getProperty());
+            }
+            parts.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (parts.isEmpty()) {
+            parts.add("total_due DESC");
+        }
+        // customer_id: thứ tự ổn định giữa các trang
+        parts.add("i.customer_id");
+        return String.join(", ", parts);
+    }
+
+    private static UnpaidCustomerResponse toCustomer(ResultSet rs) throws SQLException {
+        return UnpaidCustomerResponse.builder()
+                .customerId(rs.getLong("customer_id"))
+                .customerName(rs.getString("name"))
+                .customerPhone(rs.getString("phone"))
+                .totalInvoices(rs.getInt("invoice_count"))
+                .totalAmount(nonNull(rs.getBigDecimal("total_amount")))
+                .totalPaid(nonNull(rs.getBigDecimal("total_paid")))
+                .totalDue(nonNull(rs.getBigDecimal("total_due")))
+                .build();
+    }
+
+    private static BigDecimal nonNull(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.tailor_shop.modules.billing.service;
 
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceRequest;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.InvoiceFilterRequest;
 import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
 import com.example.tailor_shop.modules.billing.dto.InvoiceResponse;
@@ -17,11 +19,15 @@ public interface InvoiceService {
 
     InvoiceResponse create(InvoiceRequest request, Long currentUserId);
 
+    /**
+     * Tạo nhiều invoice trong một transaction (tất cả hoặc không có invoice nào).
+     * Không hỗ trợ mã khuyến mãi; khách vãng lai được tạo theo số điện thoại.
+     */
+    BulkInvoiceResponse createBulk(BulkInvoiceRequest request, Long currentUserId);
+
     PaymentResponse addPayment(PaymentRequest request, Long currentUserId);
 
     PaymentResponse handleCallback(PaymentCallbackRequest request);
 
     void voidInvoice(Long id, Long currentUserId);
-
-    java.util.List<com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse> getUnpaidCustomers();
 }
@@ -0,0 +1,113 @@
+package com.example.tailor_shop.modules.billing.service;
+
+import com.example.tailor_shop.config.exception.BusinessException;
+import com.example.tailor_shop.config.exception.ErrorCode;
+import com.example.tailor_shop.config.exception.NotFoundException;
+import com.example.tailor_shop.modules.billing.dto.PaymentCallbackRequest;
+import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
+import com.example.tailor_shop.modules.billing.repository.PaymentTransactionRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Serializes payment callbacks per invoice.
+ *
+ * Callbacks of one invoice run one after another in arrival order, so provider
+ * retries and parallel notifications queue in memory instead of on the
+ * invoice row lock. Callbacks of different invoices run in parallel: each
+ * invoice has its own chain (the tail future in {@code tails}), removed once
+ * the invoice has nothing queued.
+ *
+ * This is the single-node fast path; across nodes handleCallback still
+ * serializes on the invoice row lock and deduplicates on the idempotency key.
+ */
+@Component
+public class PaymentCallbackQueue implements DisposableBean {
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final InvoiceService invoiceService;
+    private final long timeoutMs;
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    // Virtual threads: concurrency đã bị giới hạn bởi số request HTTP đang chờ kết quả
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-callback-", 0).factory());
+
+    public PaymentCallbackQueue(PaymentTransactionRepository paymentTransactionRepository,
+                                InvoiceService invoiceService,
+                                @Value("${billing.payment-callback.timeout-ms:10000}") long timeoutMs) {
+        this.paymentTransactionRepository = paymentTransactionRepository;
+        this.invoiceService = invoiceService;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Xử lý callback sau các callback trước đó của cùng invoice và chờ kết quả.
+     *
+     * Hết thời gian chờ / bị interrupt trả 503 (provider gửi lại), không phải 400:
+     * callback hợp lệ và vẫn được xử lý; 400 chỉ dành cho lỗi validate của chính callback.
+     */
+    public PaymentResponse handle(PaymentCallbackRequest request) {
+        Long invoiceId = paymentTransactionRepository.findInvoiceIdByProviderRef(request.getProviderRef())
+                .orElseThrow(() -> new NotFoundException("Transaction not found"));
+        CompletableFuture<PaymentResponse> result = submit(invoiceId, () -> invoiceService.handleCallback(request));
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Callback vẫn nằm trong hàng đợi và sẽ được xử lý; provider gửi lại thì bị bỏ qua nhờ idempotency key
+            throw new BusinessException(ErrorCode.PAYMENT_CALLBACK_PENDING);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.PAYMENT_CALLBACK_PENDING);
+        }
+    }
+
+    /**
+     * Chạy {@code task} sau tất cả task đã submit cho {@code invoiceId}.
+     */
+    <T> CompletableFuture<T> submit(Long invoiceId, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> tail = tails.compute(invoiceId, (id, previous) ->
+                (previous != null ? previous.exceptionally(e -> null) : CompletableFuture.<Void>completedFuture(null))
+                        .thenRunAsync(() -> run(task, result), executor));
+        // Ngoài compute: tail có thể đã xong, remove trong compute của cùng key sẽ lỗi
+        tail.whenComplete((v, e) -> tails.remove(invoiceId, tail));
+        return result;
+    }
+
+    /**
+     * Số invoice đang có callback chờ / đang chạy.
+     */
+    public int pendingInvoices() {
+        return tails.size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    // ==================== HELPERS ====================
+
+    private static <T> void run(Supplier<T> task, CompletableFuture<T> result) {
+        try {
+            result.complete(task.get());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
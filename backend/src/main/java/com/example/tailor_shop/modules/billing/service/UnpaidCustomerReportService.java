@@ -0,0 +1,130 @@
+package com.example.tailor_shop.modules.billing.service;
+
+import com.example.tailor_shop.modules.billing.dto.ReportFormat;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerSummaryResponse;
+import com.example.tailor_shop.modules.billing.repository.UnpaidCustomerReportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Báo cáo khách hàng còn nợ: trang (kèm invoice của các khách trong trang),
+ * tổng công nợ, và export toàn bộ dạng CSV / JSON.
+ *
+ * Export ghi từng dòng ngay khi đọc từ result set streaming, nên bộ nhớ cố
+ * định dù có bao nhiêu invoice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnpaidCustomerReportService {
+
+    private static final String CSV_HEADER =
+            "customer_id,customer_name,customer_phone,total_invoices,total_amount,total_paid,total_due";
+
+    private final UnpaidCustomerReportRepository reportRepository;
+    private final ObjectMapper objectMapper;
+
+    public Page<UnpaidCustomerResponse> list(String keyword, Pageable pageable) {
+        Page<UnpaidCustomerResponse> page = reportRepository.findPage(keyword, pageable);
+        Map<Long, List<UnpaidCustomerResponse.UnpaidInvoiceSummary>> invoices = reportRepository.findInvoices(
+                page.getContent().stream().map(UnpaidCustomerResponse::getCustomerId).toList());
+        page.getContent().forEach(customer ->
+                customer.setInvoices(invoices.getOrDefault(customer.getCustomerId(), List.of())));
+        return page;
+    }
+
+    public UnpaidCustomerSummaryResponse summary() {
+        return reportRepository.summary();
+    }
+
+    /**
+     * Ghi toàn bộ báo cáo ra {@code out} (không đóng stream).
+     *
+     * @return số khách hàng đã ghi
+     */
+    public long export(ReportFormat format, OutputStream out) throws IOException {
+        long[] rows = {0};
+        try {
+            if (format == ReportFormat.json) {
+                ObjectWriter writer = objectMapper.writerFor(UnpaidCustomerResponse.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    reportRepository.streamAll(customer -> {
+                        try {
+                            writer.writeValue(generator, customer);
+                            rows[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    generator.writeEndArray();
+                }
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                // BOM: Excel mới đọc đúng tên tiếng Việt
+                writer.write('\uFEFF');
+                writer.write(CSV_HEADER);
+                writer.write("\r\n");
+                reportRepository.streamAll(customer -> {
+                    try {
+                        writer.write(csvLine(customer));
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Thường là client ngắt kết nối giữa chừng
+        }
+        log.info("Unpaid customers report exported: {} customer(s), format={}", rows[0], format);
+        return rows[0];
+    }
+
+    // ==================== HELPERS ====================
+
+    private static String csvLine(UnpaidCustomerResponse customer) {
+        return customer.getCustomerId() + ","
+                + csvText(customer.getCustomerName()) + ","
+                + csvText(customer.getCustomerPhone()) + ","
+                + customer.getTotalInvoices() + ","
+                + plain(customer.getTotalAmount()) + ","
+                + plain(customer.getTotalPaid()) + ","
+                + plain(customer.getTotalDue()) + "\r\n";
+    }
+
+    private static String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Chặn CSV injection: ô bắt đầu bằng = + - @ bị Excel hiểu là công thức
+        String safe = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        return "\"" + safe.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "0";
+    }
+}
@@ -11,17 +11,22 @@ import com.example.tailor_shop.modules.billing.domain.InvoiceStatus;
 import com.example.tailor_shop.modules.billing.domain.PaymentProvider;
 import com.example.tailor_shop.modules.billing.domain.PaymentStatus;
 import com.example.tailor_shop.modules.billing.domain.PaymentTransactionEntity;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceRequest;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.InvoiceFilterRequest;
 import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
 import com.example.tailor_shop.modules.billing.dto.InvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.PaymentCallbackRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
-import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse;
+import com.example.tailor_shop.modules.billing.event.InvoicePaidEvent;
+import com.example.tailor_shop.modules.billing.repository.InvoiceBatchRepository;
 import com.example.tailor_shop.modules.billing.repository.InvoiceItemRepository;
 import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
+import com.example.tailor_shop.modules.billing.repository.PaymentCallbackReceiptRepository;
 import com.example.tailor_shop.modules.billing.repository.PaymentTransactionRepository;
 import com.example.tailor_shop.modules.billing.service.InvoiceService;
+import com.example.tailor_shop.modules.event.service.OutboxEventPublisher;
 import com.example.tailor_shop.modules.order.domain.OrderEntity;
 import com.example.tailor_shop.modules.order.repository.OrderRepository;
 import com.example.tailor_shop.modules.user.domain.RoleEntity;
@@ -32,6 +37,7 @@ import com.example.tailor_shop.modules.user.repository.RoleRepository;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import com.example.tailor_shop.modules.user.service.UserService;
 import com.example.tailor_shop.modules.promotion.service.PromotionService;
+import com.example.tailor_shop.modules.promotion.service.PromotionUsageLimiter;
 import com.example.tailor_shop.modules.promotion.repository.PromotionUsageRepository;
 import com.example.tailor_shop.modules.promotion.repository.PromotionRepository;
 import com.example.tailor_shop.modules.promotion.domain.PromotionUsageEntity;
@@ -48,8 +54,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -62,7 +73,9 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final InvoiceItemRepository invoiceItemRepository;
+    private final InvoiceBatchRepository invoiceBatchRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
+    private final PaymentCallbackReceiptRepository paymentCallbackReceiptRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final UserService userService;
@@ -70,6 +83,8 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final PromotionService promotionService;
     private final PromotionUsageRepository promotionUsageRepository;
     private final PromotionRepository promotionRepository;
+    private final PromotionUsageLimiter promotionUsageLimiter;
+    private final OutboxEventPublisher outboxEventPublisher;
 
     @Value("${server.base-url:http://localhost:8083}")
     private String serverBaseUrl;
@@ -192,6 +207,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         BigDecimal taxAmount = request.getTaxAmount() != null ? request.getTaxAmount() : ZERO;
         BigDecimal discount = ZERO;
         Long appliedPromotionId = null;
+        Long promotionReservationId = null;
 
         // Apply promo code if provided
         if (request.getPromoCode() != null && !request.getPromoCode().trim().isEmpty()) {
@@ -221,6 +237,10 @@ public class InvoiceServiceImpl implements InvoiceService {
                         promoRequest,
                         customer.getId());
 
+                // Claim the usage atomically (limits may be reached by concurrent checkouts)
+                promotionReservationId = promotionUsageLimiter.reserve(promoResponse.getPromotionId(),
+                        customer.getId());
+
                 discount = promoResponse.getDiscountAmount();
                 appliedPromotionId = promoResponse.getPromotionId();
 
@@ -239,23 +259,9 @@ public class InvoiceServiceImpl implements InvoiceService {
             discount = request.getDiscountAmount() != null ? request.getDiscountAmount() : ZERO;
         }
 
-        List<InvoiceItemEntity> items = request.getItems().stream().map(item -> {
-            InvoiceItemEntity entity = new InvoiceItemEntity();
-            entity.setName(item.getName());
-            entity.setQuantity(item.getQuantity());
-            entity.setUnitPrice(item.getUnitPrice());
-            entity.setDiscountAmount(item.getDiscountAmount() != null ? item.getDiscountAmount() : ZERO);
-            entity.setTaxRate(item.getTaxRate() != null ? item.getTaxRate() : ZERO);
-
-            BigDecimal lineBase = item.getUnitPrice()
-                    .multiply(BigDecimal.valueOf(item.getQuantity()))
-                    .subtract(entity.getDiscountAmount());
-            BigDecimal lineTax = lineBase.multiply(entity.getTaxRate()).divide(BigDecimal.valueOf(100));
-            BigDecimal lineTotal = lineBase.add(lineTax);
-
-            entity.setLineTotal(lineTotal);
-            return entity;
-        }).collect(Collectors.toList());
+        List<InvoiceItemEntity> items = request.getItems().stream()
+                .map(InvoiceServiceImpl::toItemEntity)
+                .collect(Collectors.toList());
 
         for (InvoiceItemEntity item : items) {
             subtotal = subtotal.add(item.getLineTotal());
@@ -286,6 +292,10 @@ public class InvoiceServiceImpl implements InvoiceService {
         invoiceItemRepository.saveAll(items);
         savedInvoice.setItems(items);
 
+        if (promotionReservationId != null) {
+            promotionUsageLimiter.attachInvoice(promotionReservationId, savedInvoice.getId());
+        }
+
         // KHÔNG track promotion usage ngay khi tạo invoice
         // Sẽ track khi invoice được thanh toán (status = paid) trong method
         // applyPayment()
@@ -293,10 +303,133 @@ public class InvoiceServiceImpl implements InvoiceService {
         return toResponse(savedInvoice);
     }
 
+    @Override
+    @Transactional
+    public BulkInvoiceResponse createBulk(BulkInvoiceRequest request, Long currentUserId) {
+        List<InvoiceRequest> requests = request.getInvoices();
+
+        // Gom id / số điện thoại của cả lô để mỗi loại chỉ tra một lần
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> orderIds = new HashSet<>();
+        Map<String, String> walkInNames = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            InvoiceRequest r = requests.get(i);
+            if (r.getPromoCode() != null && !r.getPromoCode().isBlank()) {
+                throw new BadRequestException(at(i, "Promo codes are not supported in bulk creation"));
+            }
+            Long staffId = r.getStaffId() != null ? r.getStaffId() : currentUserId;
+            if (staffId == null) {
+                throw new BadRequestException(at(i, "Staff ID is required or must be logged in"));
+            }
+            userIds.add(staffId);
+            if (r.getCustomerId() != null) {
+                userIds.add(r.getCustomerId());
+            } else if (r.getCustomerPhone() == null || r.getCustomerPhone().isBlank()) {
+                throw new BadRequestException(at(i, "Customer Phone is required when Customer ID is missing"));
+            } else {
+                walkInNames.merge(r.getCustomerPhone(), Objects.requireNonNullElse(r.getCustomerName(), ""),
+                        (current, name) -> current.isBlank() ? name : current);
+            }
+            if (r.getOrderId() != null) {
+                orderIds.add(r.getOrderId());
+            }
+        }
+
+        Map<Long, UserEntity> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserEntity::getId, u -> u));
+        Map<Long, OrderEntity> orders = orderIds.isEmpty() ? Map.of()
+                : orderRepository.findAllById(orderIds).stream()
+                        .collect(Collectors.toMap(OrderEntity::getId, o -> o));
+        Map<String, Long> walkInIds = walkInNames.isEmpty() ? Map.of()
+                : userService.upsertCustomersByPhone(walkInNames);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<InvoiceEntity> invoices = new ArrayList<>(requests.size());
+        List<InvoiceItemEntity> items = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            InvoiceRequest r = requests.get(i);
+            UserEntity staff = users.get(r.getStaffId() != null ? r.getStaffId() : currentUserId);
+            if (staff == null) {
+                throw new NotFoundException(
+                        at(i, r.getStaffId() != null ? "Staff not found" : "Current staff user not found"));
+            }
+            Long customerId = r.getCustomerId() != null ? r.getCustomerId() : walkInIds.get(r.getCustomerPhone());
+            if (r.getCustomerId() != null && !users.containsKey(customerId)) {
+                throw new NotFoundException(at(i, "Customer not found"));
+            }
+            OrderEntity order = null;
+            if (r.getOrderId() != null) {
+                order = orders.get(r.getOrderId());
+                if (order == null) {
+                    throw new NotFoundException(at(i, "Order not found"));
+                }
+                if (!Objects.equals(order.getCustomer().getId(), customerId)) {
+                    throw new BadRequestException(at(i, "Order does not belong to customer"));
+                }
+            }
+
+            List<InvoiceItemEntity> invoiceItems = r.getItems().stream()
+                    .map(InvoiceServiceImpl::toItemEntity)
+                    .collect(Collectors.toList());
+            BigDecimal subtotal = invoiceItems.stream()
+                    .map(InvoiceItemEntity::getLineTotal)
+                    .reduce(ZERO, BigDecimal::add);
+            BigDecimal taxAmount = r.getTaxAmount() != null && r.getTaxAmount().compareTo(ZERO) > 0
+                    ? r.getTaxAmount() : ZERO;
+            BigDecimal discount = r.getDiscountAmount() != null ? r.getDiscountAmount() : ZERO;
+            BigDecimal total = subtotal.add(taxAmount).subtract(discount);
+            if (total.compareTo(ZERO) < 0) {
+                throw new BadRequestException(at(i, "Total amount cannot be negative"));
+            }
+
+            InvoiceEntity invoice = new InvoiceEntity();
+            // Code theo trace id sẽ trùng trong cùng một request
+            invoice.setCode("INV-" + UUID.randomUUID());
+            invoice.setOrder(order);
+            invoice.setCustomer(users.containsKey(customerId)
+                    ? users.get(customerId) : userRepository.getReferenceById(customerId));
+            invoice.setStaff(staff);
+            invoice.setStatus(InvoiceStatus.issued);
+            invoice.setCurrency(r.getCurrency());
+            invoice.setNotes(r.getNotes());
+            invoice.setDueDate(r.getDueDate());
+            invoice.setIssuedAt(now);
+            invoice.setIsDeleted(false);
+            invoice.setSubtotal(subtotal);
+            invoice.setTaxAmount(taxAmount);
+            invoice.setDiscountAmount(discount);
+            invoice.setTotal(total);
+            invoice.setPaidAmount(ZERO);
+            invoice.setDueAmount(total);
+            invoiceItems.forEach(item -> item.setInvoice(invoice));
+            invoices.add(invoice);
+            items.addAll(invoiceItems);
+        }
+
+        invoiceBatchRepository.insertInvoices(invoices);
+        invoiceBatchRepository.insertItems(items);
+        log.info("[TraceId: {}] Bulk created {} invoice(s), {} item(s), {} walk-in customer phone(s)",
+                TraceIdUtil.getTraceId(), invoices.size(), items.size(), walkInNames.size());
+
+        return BulkInvoiceResponse.builder()
+                .created(invoices.size())
+                .invoices(invoices.stream()
+                        .map(invoice -> BulkInvoiceResponse.CreatedInvoice.builder()
+                                .id(invoice.getId())
+                                .code(invoice.getCode())
+                                .orderId(invoice.getOrder() != null ? invoice.getOrder().getId() : null)
+                                .customerId(invoice.getCustomer().getId())
+                                .total(invoice.getTotal())
+                                .build())
+                        .toList())
+                .build();
+    }
+
     @Override
     @Transactional
     public PaymentResponse addPayment(PaymentRequest request, Long currentUserId) {
-        InvoiceEntity invoice = invoiceRepository.findById(request.getInvoiceId())
+        // Row lock: cùng thứ tự khoá với handleCallback (invoice trước transaction)
+        InvoiceEntity invoice = invoiceRepository.findByIdForUpdate(request.getInvoiceId())
                 .filter(i -> !Boolean.TRUE.equals(i.getIsDeleted()))
                 .orElseThrow(() -> new NotFoundException("Invoice not found"));
 
@@ -348,21 +481,39 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional
     public PaymentResponse handleCallback(PaymentCallbackRequest request) {
-        PaymentTransactionEntity transaction = paymentTransactionRepository.findByProviderRef(request.getProviderRef())
+        Long invoiceId = paymentTransactionRepository.findInvoiceIdByProviderRef(request.getProviderRef())
                 .orElseThrow(() -> new NotFoundException("Transaction not found"));
+        // Khoá invoice rồi mới đọc transaction (locking read = trạng thái mới nhất): các callback
+        // của một invoice chạy tuần tự kể cả giữa các node, paid / due không bị cộng hai lần
+        InvoiceEntity invoice = invoiceRepository.findByIdForUpdate(invoiceId)
+                .orElseThrow(() -> new NotFoundException("Invoice not found"));
+        PaymentTransactionEntity transaction = paymentTransactionRepository
+                .findByProviderRefForUpdate(request.getProviderRef())
+                .orElseThrow(() -> new NotFoundException("Transaction not found"));
+
+        boolean success = Boolean.TRUE.equals(request.getSuccess());
+        if (!paymentCallbackReceiptRepository.record(idempotencyKey(transaction, request),
+                transaction.getProviderRef(), success, request.getRawPayload())) {
+            log.info("[TraceId: {}] Duplicate payment callback ignored: ref={}",
+                    TraceIdUtil.getTraceId(), transaction.getProviderRef());
+            return toPaymentResponse(transaction, null);
+        }
 
         if (transaction.getStatus() == PaymentStatus.success) {
             return toPaymentResponse(transaction, null);
         }
+        if (request.getAmount() != null && request.getAmount().compareTo(transaction.getAmount()) != 0) {
+            throw new BadRequestException("Callback amount does not match transaction amount");
+        }
 
         transaction.setResponsePayload(request.getRawPayload());
-        transaction.setStatus(request.getSuccess() ? PaymentStatus.success : PaymentStatus.failed);
-        if (request.getSuccess()) {
+        transaction.setStatus(success ? PaymentStatus.success : PaymentStatus.failed);
+        if (success) {
             transaction.setPaidAt(OffsetDateTime.now());
-            applyPayment(transaction.getInvoice(), transaction.getAmount());
+            applyPayment(invoice, transaction.getAmount());
         }
         transaction = paymentTransactionRepository.save(transaction);
-        invoiceRepository.save(transaction.getInvoice());
+        invoiceRepository.save(invoice);
 
         return toPaymentResponse(transaction, null);
     }
@@ -378,57 +529,11 @@ public class InvoiceServiceImpl implements InvoiceService {
         }
         invoice.setStatus(InvoiceStatus.voided);
         invoiceRepository.save(invoice);
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<UnpaidCustomerResponse> getUnpaidCustomers() {
-        List<InvoiceEntity> unpaidInvoices = invoiceRepository.findByStatusIn(
-                List.of(InvoiceStatus.issued, InvoiceStatus.partial_paid));
 
-        // Group by customer
-        java.util.Map<Long, List<InvoiceEntity>> groupedByCustomer = unpaidInvoices.stream()
-                .collect(Collectors.groupingBy(inv -> inv.getCustomer().getId()));
-
-        return groupedByCustomer.entrySet().stream().map(entry -> {
-            List<InvoiceEntity> invoices = entry.getValue();
-            UserEntity customer = invoices.get(0).getCustomer();
-
-            BigDecimal totalAmount = invoices.stream()
-                    .map(InvoiceEntity::getTotal)
-                    .reduce(ZERO, BigDecimal::add);
-            BigDecimal totalPaid = invoices.stream()
-                    .map(InvoiceEntity::getPaidAmount)
-                    .reduce(ZERO, BigDecimal::add);
-            BigDecimal totalDue = invoices.stream()
-                    .map(InvoiceEntity::getDueAmount)
-                    .reduce(ZERO, BigDecimal::add);
-
-            List<UnpaidCustomerResponse.UnpaidInvoiceSummary> invoiceSummaries = invoices.stream()
-                    .map(inv -> UnpaidCustomerResponse.UnpaidInvoiceSummary.builder()
-                            .id(inv.getId())
-                            .code(inv.getCode())
-                            .status(inv.getStatus().name())
-                            .total(inv.getTotal())
-                            .paidAmount(inv.getPaidAmount())
-                            .dueAmount(inv.getDueAmount())
-                            .createdAt(inv.getCreatedAt())
-                            .dueDate(inv.getDueDate())
-                            .build())
-                    .collect(Collectors.toList());
-
-            return UnpaidCustomerResponse.builder()
-                    .customerId(customer.getId())
-                    .customerName(customer.getName())
-                    .customerPhone(customer.getPhone())
-                    .totalInvoices(invoices.size())
-                    .totalAmount(totalAmount)
-                    .totalPaid(totalPaid)
-                    .totalDue(totalDue)
-                    .invoices(invoiceSummaries)
-                    .build();
-        }).sorted((a, b) -> b.getTotalDue().compareTo(a.getTotalDue()))
-                .collect(Collectors.toList());
+        // Trả lại lượt sử dụng promotion đã giữ chỗ
+        if (invoice.getPromotionId() != null) {
+            promotionUsageLimiter.release(invoice.getId());
+        }
     }
 
     private void applyPayment(InvoiceEntity invoice, BigDecimal amount) {
@@ -445,6 +550,9 @@ public class InvoiceServiceImpl implements InvoiceService {
             invoice.setStatus(InvoiceStatus.paid);
             // Track promotion usage khi invoice được thanh toán hoàn toàn
             trackPromotionUsageOnPayment(invoice);
+            // Module sở hữu chứng từ (đơn vải, ...) hoàn tất đơn qua outbox, cùng transaction với payment
+            String correlationId = TraceIdUtil.getOrCreateTraceId();
+            outboxEventPublisher.publish(new InvoicePaidEvent(invoice, correlationId), correlationId);
         } else {
             invoice.setStatus(InvoiceStatus.partial_paid);
         }
@@ -487,6 +595,8 @@ public class InvoiceServiceImpl implements InvoiceService {
                     .finalAmount(finalAmount)
                     .build();
 
+            // Commit trước khi lưu usage: counter tạo mới được seed từ promotion_usages
+            promotionUsageLimiter.commit(invoice.getId(), invoice.getPromotionId(), invoice.getCustomer().getId());
             promotionUsageRepository.save(usage);
 
             log.info("[TraceId: {}] Tracked promotion usage on payment: promotionId={}, invoiceId={}, discount={}",
@@ -498,6 +608,39 @@ public class InvoiceServiceImpl implements InvoiceService {
         }
     }
 
+    private static InvoiceItemEntity toItemEntity(InvoiceRequest.ItemRequest item) {
+        InvoiceItemEntity entity = new InvoiceItemEntity();
+        entity.setName(item.getName());
+        entity.setQuantity(item.getQuantity());
+        entity.setUnitPrice(item.getUnitPrice());
+        entity.setDiscountAmount(item.getDiscountAmount() != null ? item.getDiscountAmount() : ZERO);
+        entity.setTaxRate(item.getTaxRate() != null ? item.getTaxRate() : ZERO);
+
+        BigDecimal lineBase = item.getUnitPrice()
+                .multiply(BigDecimal.valueOf(item.getQuantity()))
+                .subtract(entity.getDiscountAmount());
+        BigDecimal lineTax = lineBase.multiply(entity.getTaxRate()).divide(BigDecimal.valueOf(100));
+        BigDecimal lineTotal = lineBase.add(lineTax);
+
+        entity.setLineTotal(lineTotal);
+        return entity;
+    }
+
+    private static String at(int index, String message) {
+        return "invoices[" + index + "]: " + message;
+    }
+
+    /**
+     * Key của một callback: id notification của provider nếu có, không thì kết quả
+     * (một transaction chỉ có thể thành công / thất bại một lần mỗi loại)
+     */
+    private static String idempotencyKey(PaymentTransactionEntity tx, PaymentCallbackRequest request) {
+        String event = request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank()
+                ? request.getIdempotencyKey().trim()
+                : (Boolean.TRUE.equals(request.getSuccess()) ? "success" : "failed");
+        return tx.getProvider() + ":" + tx.getProviderRef() + ":" + event;
+    }
+
     private PaymentResponse toPaymentResponse(PaymentTransactionEntity tx, String paymentUrl) {
         return PaymentResponse.builder()
                 .transactionId(tx.getId())
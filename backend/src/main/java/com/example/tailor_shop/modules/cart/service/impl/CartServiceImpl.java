@@ -13,6 +13,7 @@ import com.example.tailor_shop.modules.cart.service.CartService;
 import com.example.tailor_shop.modules.fabric.domain.FabricEntity;
 import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
 import com.example.tailor_shop.modules.fabric.repository.FabricRepository;
+import com.example.tailor_shop.modules.fabric.service.FabricAvailabilityCache;
 import com.example.tailor_shop.modules.user.domain.UserEntity;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +22,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +42,7 @@ public class CartServiceImpl implements CartService {
     // Dependencies cho các loại sản phẩm (có thể inject thêm ProductService, ServiceService, etc.)
     private final FabricRepository fabricRepository;
     private final FabricInventoryRepository fabricInventoryRepository;
+    private final FabricAvailabilityCache fabricAvailabilityCache;
 
     @Override
     @Transactional
@@ -64,7 +69,7 @@ public class CartServiceImpl implements CartService {
         log.info("[TraceId: {}] Added to cart: type={}, itemId={}, quantity={}, userId={}",
                 TraceIdUtil.getTraceId(), request.getItemType(), request.getItemId(), request.getQuantity(), userId);
 
-        return toCartItemResponse(cartItem);
+        return toCartItemResponse(cartItem, loadSnapshot(List.of(cartItem)));
     }
 
     @Override
@@ -72,8 +77,10 @@ public class CartServiceImpl implements CartService {
     public CartSummaryResponse getCart(Long userId) {
         List<CartItemEntity> cartItems = cartItemRepository.findByUserId(userId);
 
+        // Hydrate cả giỏ hàng một lần: fabrics + available quantity theo batch, không query từng item
+        CartSnapshot snapshot = loadSnapshot(cartItems);
         List<CartItemResponse> items = cartItems.stream()
-                .map(this::toCartItemResponse)
+                .map(item -> toCartItemResponse(item, snapshot))
                 .collect(Collectors.toList());
 
         BigDecimal subtotal = items.stream()
@@ -205,7 +212,31 @@ public class CartServiceImpl implements CartService {
         }
     }
 
-    private CartItemResponse toCartItemResponse(CartItemEntity entity) {
+    /**
+     * Load tất cả fabric được tham chiếu trong giỏ (một IN query) và available
+     * quantity (FabricAvailabilityCache, miss được load bằng một IN query).
+     * Chỉ dùng để hiển thị; validate số lượng vẫn đọc trực tiếp DB.
+     */
+    private CartSnapshot loadSnapshot(List<CartItemEntity> cartItems) {
+        List<Long> fabricIds = cartItems.stream()
+                .filter(item -> item.getItemType() == CartItemType.FABRIC)
+                .map(CartItemEntity::getItemId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (fabricIds.isEmpty()) {
+            return new CartSnapshot(Map.of(), Map.of());
+        }
+
+        Map<Long, FabricEntity> fabrics = fabricRepository.findAllById(fabricIds).stream()
+                .filter(f -> Boolean.FALSE.equals(f.getIsDeleted()))
+                .collect(Collectors.toMap(FabricEntity::getId, Function.identity()));
+        Map<Long, BigDecimal> available = fabrics.isEmpty()
+                ? new HashMap<>()
+                : fabricAvailabilityCache.getAvailable(fabrics.keySet());
+        return new CartSnapshot(fabrics, available);
+    }
+
+    private CartItemResponse toCartItemResponse(CartItemEntity entity, CartSnapshot snapshot) {
         CartItemResponse.CartItemResponseBuilder builder = CartItemResponse.builder()
                 .id(entity.getId())
                 .itemType(entity.getItemType())
@@ -217,7 +248,7 @@ public class CartServiceImpl implements CartService {
         // Load item details based on type
         switch (entity.getItemType()) {
             case FABRIC:
-                enrichFabricItem(builder, entity.getItemId(), entity.getQuantity());
+                enrichFabricItem(builder, entity.getItemId(), snapshot);
                 break;
             case PRODUCT:
                 // TODO: Enrich product item when ProductService is available
@@ -230,17 +261,11 @@ public class CartServiceImpl implements CartService {
         return builder.build();
     }
 
-    private void enrichFabricItem(CartItemResponse.CartItemResponseBuilder builder, Long fabricId, BigDecimal quantity) {
-        FabricEntity fabric = fabricRepository.findById(fabricId)
-                .filter(f -> Boolean.FALSE.equals(f.getIsDeleted()))
-                .orElse(null);
+    private void enrichFabricItem(CartItemResponse.CartItemResponseBuilder builder, Long fabricId, CartSnapshot snapshot) {
+        FabricEntity fabric = snapshot.fabrics().get(fabricId);
 
         if (fabric != null) {
-            BigDecimal availableQuantity = fabricInventoryRepository
-                    .sumAvailableQuantityByFabricId(fabric.getId());
-            if (availableQuantity == null) {
-                availableQuantity = BigDecimal.ZERO;
-            }
+            BigDecimal availableQuantity = snapshot.available().getOrDefault(fabricId, BigDecimal.ZERO);
 
             builder.itemName(fabric.getName())
                     .itemCode(fabric.getCode())
@@ -250,5 +275,7 @@ public class CartServiceImpl implements CartService {
                     .isAvailable(Boolean.TRUE.equals(fabric.getIsAvailable()));
         }
     }
-}
 
+    private record CartSnapshot(Map<Long, FabricEntity> fabrics, Map<Long, BigDecimal> available) {
+    }
+}
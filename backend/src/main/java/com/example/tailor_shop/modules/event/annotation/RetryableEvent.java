@@ -28,6 +28,13 @@ public @interface RetryableEvent {
      */
     int maxRetries() default 3;
 
+    /**
+     * Maximum concurrent invocations of this handler (bulkhead).
+     * Calls beyond the limit are rescheduled instead of queuing on the pool.
+     * Default: 5
+     */
+    int maxConcurrent() default 5;
+
     /**
      * Whether to save to DLQ on final failure.
      * Default: true
@@ -0,0 +1,86 @@
+package com.example.tailor_shop.modules.event.aspect;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal per-handler circuit breaker.
+ *
+ * CLOSED: calls pass, consecutive failures are counted.
+ * OPEN: calls are rejected until the open duration elapses.
+ * HALF_OPEN: a single trial call is allowed; success closes, failure re-opens.
+ *
+ * Every allowed call must end in recordSuccess, recordFailure or releaseTrial,
+ * otherwise a half-open circuit never admits another trial.
+ */
+public class HandlerCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public HandlerCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    HandlerCircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a call may proceed. In HALF_OPEN only one trial call is let through.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * The call ended without a verdict on the handler's health (e.g. a
+     * non-retryable validation error): free the half-open trial slot
+     * without changing the state.
+     */
+    public synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
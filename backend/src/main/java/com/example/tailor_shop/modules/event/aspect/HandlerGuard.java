@@ -0,0 +1,66 @@
+package com.example.tailor_shop.modules.event.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-handler isolation state: bulkhead, circuit breaker and metrics.
+ *
+ * Metrics (tag handler=fully.qualified.Class.method):
+ * - event.handler.inflight: invocations currently running
+ * - event.handler.retries: retries scheduled
+ * - event.handler.throttled: calls deferred because the bulkhead was full
+ * - event.handler.dead_lettered: events saved to the DLQ
+ * - event.handler.rejected: calls rejected by an open circuit
+ * - event.handler.circuit_state: 0 closed, 1 half-open, 2 open
+ */
+@Getter
+public class HandlerGuard {
+
+    private final String handler;
+    private final Semaphore bulkhead;
+    private final HandlerCircuitBreaker circuitBreaker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter retried;
+    private final Counter throttled;
+    private final Counter deadLettered;
+    private final Counter rejected;
+
+    public HandlerGuard(String handler, int maxConcurrent, int failureThreshold,
+                        Duration openDuration, MeterRegistry meterRegistry) {
+        this(handler, maxConcurrent, failureThreshold, openDuration, meterRegistry, System::nanoTime);
+    }
+
+    HandlerGuard(String handler, int maxConcurrent, int failureThreshold,
+                 Duration openDuration, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.handler = handler;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new HandlerCircuitBreaker(failureThreshold, openDuration, nanoClock);
+
+        Gauge.builder("event.handler.inflight", inFlight, AtomicInteger::get)
+                .tag("handler", handler)
+                .register(meterRegistry);
+        Gauge.builder("event.handler.circuit_state", circuitBreaker, cb -> cb.getState().ordinal())
+                .tag("handler", handler)
+                .register(meterRegistry);
+        this.retried = Counter.builder("event.handler.retries")
+                .tag("handler", handler)
+                .register(meterRegistry);
+        this.throttled = Counter.builder("event.handler.throttled")
+                .tag("handler", handler)
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("event.handler.dead_lettered")
+                .tag("handler", handler)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("event.handler.rejected")
+                .tag("handler", handler)
+                .register(meterRegistry);
+    }
+}
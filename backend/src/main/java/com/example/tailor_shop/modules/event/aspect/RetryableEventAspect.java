@@ -2,98 +2,247 @@ package com.example.tailor_shop.modules.event.aspect;
 
 import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
 import com.example.tailor_shop.modules.event.service.EventRetryService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /**
  * Aspect that wraps @RetryableEvent annotated methods with retry logic.
  * 
  * Intercepts event listener methods and:
  * 1. Catches exceptions
- * 2. Retries with exponential backoff
- * 3. Saves to DLQ after max retries
+ * 2. Reschedules retries with exponential backoff on a timer instead of
+ *    sleeping on the calling (eventExecutor) thread
+ * 3. Isolates each handler with a bulkhead and a circuit breaker
+ * 4. Saves to DLQ after max retries or while the circuit is open
+ *
+ * A call turned away by the bulkhead is not a failure: it is re-run after a
+ * capped back-off without using up one of the handler's retries.
  */
 @Aspect
 @Component
-@RequiredArgsConstructor
 @Slf4j
 @Order(1) // Run before other aspects
 public class RetryableEventAspect {
 
+    private static final long BULKHEAD_BASE_DELAY_MS = 50;
+    private static final long BULKHEAD_MAX_DELAY_MS = 2000;
+
     private final EventRetryService eventRetryService;
+    private final Executor retryExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, HandlerGuard> guards = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    @Value("${event.retry.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${event.retry.circuit-breaker.open-seconds:30}")
+    private int openSeconds;
+
+    @Autowired
+    public RetryableEventAspect(EventRetryService eventRetryService,
+                                @Qualifier("eventRetryExecutor") Executor retryExecutor,
+                                MeterRegistry meterRegistry) {
+        this(eventRetryService, retryExecutor, meterRegistry, System::nanoTime);
+    }
+
+    RetryableEventAspect(EventRetryService eventRetryService, Executor retryExecutor,
+                         MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.eventRetryService = eventRetryService;
+        this.retryExecutor = retryExecutor;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        // Timer only: due retries are handed to retryExecutor, never run here
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-retry-timer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
 
     @Around("@annotation(retryableEvent)")
     public Object handleRetryableEvent(ProceedingJoinPoint joinPoint, RetryableEvent retryableEvent) throws Throwable {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Method method = signature.getMethod();
-        String handlerClass = joinPoint.getTarget().getClass().getSimpleName();
+        String handlerClass = joinPoint.getTarget().getClass().getName();
         String handlerMethod = method.getName();
 
         Object[] args = joinPoint.getArgs();
         Object event = args.length > 0 ? args[0] : null;
         String correlationId = extractCorrelationId(event);
 
-        int maxRetries = retryableEvent.maxRetries();
-        int attempt = 0;
-        Exception lastException = null;
+        HandlerGuard guard = guards.computeIfAbsent(handlerClass + "." + handlerMethod,
+                key -> new HandlerGuard(key, retryableEvent.maxConcurrent(), failureThreshold,
+                        Duration.ofSeconds(openSeconds), meterRegistry, nanoClock));
 
-        while (attempt <= maxRetries) {
-            try {
-                return joinPoint.proceed();
-            } catch (Exception e) {
-                lastException = e;
+        attempt(new RetryContext(joinPoint, retryableEvent, guard, handlerClass, handlerMethod,
+                event, correlationId), 0, 0);
 
-                // Check if this exception should not be retried
-                if (shouldNotRetry(e, retryableEvent)) {
-                    log.error("[{}] Non-retryable exception in {}.{}: {}",
-                            correlationId, handlerClass, handlerMethod, e.getMessage());
-                    throw e;
-                }
+        // Retries (if any) continue asynchronously; failures end up in the DLQ
+        return null;
+    }
+
+    /**
+     * Run one attempt. Only the first attempt (attempt == 0) propagates
+     * non-retryable exceptions to the caller; later attempts run on
+     * eventRetryExecutor and just log.
+     *
+     * @param throttled consecutive bulkhead rejections of this attempt
+     */
+    private void attempt(RetryContext ctx, int attempt, int throttled) throws Throwable {
+        HandlerGuard guard = ctx.guard();
 
-                attempt++;
+        // Bulkhead trước circuit breaker: call bị bulkhead từ chối không chiếm lượt trial half-open
+        if (!guard.getBulkhead().tryAcquire()) {
+            // Bulkhead full: back off instead of occupying another pool thread
+            deferOnBulkhead(ctx, attempt, throttled);
+            return;
+        }
 
-                if (attempt <= maxRetries) {
-                    long delay = calculateBackoff(attempt);
-                    log.warn("[{}] Retry {}/{} for {}.{} after {}ms: {}",
-                            correlationId, attempt, maxRetries, handlerClass, handlerMethod, delay, e.getMessage());
+        HandlerCircuitBreaker circuitBreaker = guard.getCircuitBreaker();
+        boolean outcomeRecorded = false;
+        guard.getInFlight().incrementAndGet();
+        try {
+            if (!circuitBreaker.allowRequest()) {
+                outcomeRecorded = true; // Không được cho qua: không có trial nào để trả lại
+                guard.getRejected().increment();
+                log.warn("[{}] Circuit open for {}, sending event to DLQ", ctx.correlationId(), guard.getHandler());
+                deadLetter(ctx, new IllegalStateException("Circuit open for " + guard.getHandler()));
+                return;
+            }
 
-                    try {
-                        Thread.sleep(delay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw e;
-                    }
+            ctx.joinPoint().proceed();
+            circuitBreaker.recordSuccess();
+            outcomeRecorded = true;
+        } catch (Exception e) {
+            // Check if this exception should not be retried
+            if (shouldNotRetry(e, ctx.annotation())) {
+                // Lỗi của dữ liệu (validation...), không phải handler hỏng: không tính vào circuit breaker
+                log.error("[{}] Non-retryable exception in {}.{}: {}",
+                        ctx.correlationId(), ctx.handlerClass(), ctx.handlerMethod(), e.getMessage());
+                if (attempt == 0) {
+                    throw e;
                 }
+                return;
             }
+
+            circuitBreaker.recordFailure();
+            outcomeRecorded = true;
+            scheduleRetryOrDeadLetter(ctx, attempt, e);
+        } finally {
+            if (!outcomeRecorded) {
+                circuitBreaker.releaseTrial();
+            }
+            guard.getInFlight().decrementAndGet();
+            guard.getBulkhead().release();
+        }
+    }
+
+    private void scheduleRetryOrDeadLetter(RetryContext ctx, int attempt, Exception e) {
+        int maxRetries = ctx.annotation().maxRetries();
+        int nextAttempt = attempt + 1;
+
+        if (nextAttempt > maxRetries) {
+            // All retries exhausted
+            log.error("[{}] All {} retries exhausted for {}.{}",
+                    ctx.correlationId(), maxRetries, ctx.handlerClass(), ctx.handlerMethod());
+            deadLetter(ctx, e);
+            return;
         }
 
-        // All retries exhausted
-        log.error("[{}] All {} retries exhausted for {}.{}",
-                correlationId, maxRetries, handlerClass, handlerMethod);
-
-        // Save to DLQ if configured
-        if (retryableEvent.saveToDlq() && event != null) {
-            eventRetryService.saveFailedEvent(
-                    event,
-                    handlerClass,
-                    handlerMethod,
-                    lastException,
-                    correlationId,
-                    maxRetries);
+        long delay = calculateBackoff(nextAttempt);
+        log.warn("[{}] Retry {}/{} for {}.{} scheduled in {}ms: {}",
+                ctx.correlationId(), nextAttempt, maxRetries, ctx.handlerClass(), ctx.handlerMethod(),
+                delay, e.getMessage());
+        ctx.guard().getRetried().increment();
+
+        try {
+            retryScheduler.schedule(() -> submitRetry(ctx, nextAttempt, 0), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejected) {
+            // Shutting down
+            deadLetter(ctx, e);
         }
+    }
 
-        // Don't throw exception to prevent blocking other listeners
-        // The event is now in DLQ for later processing
-        return null;
+    /**
+     * Re-run the same attempt once the bulkhead may have room. The handler's
+     * own concurrency cap is not a failure, so maxRetries is left untouched.
+     */
+    private void deferOnBulkhead(RetryContext ctx, int attempt, int throttled) {
+        long delay = Math.min(BULKHEAD_BASE_DELAY_MS << Math.min(throttled, 10), BULKHEAD_MAX_DELAY_MS);
+        delay = (long) (delay * (0.8 + Math.random() * 0.4));
+        ctx.guard().getThrottled().increment();
+        log.debug("[{}] Bulkhead full for {}, attempt {} deferred {}ms",
+                ctx.correlationId(), ctx.guard().getHandler(), attempt, delay);
+
+        try {
+            retryScheduler.schedule(() -> submitRetry(ctx, attempt, throttled + 1), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejected) {
+            // Shutting down
+            deadLetter(ctx, new IllegalStateException("Bulkhead full for " + ctx.guard().getHandler()));
+        }
+    }
+
+    private void submitRetry(RetryContext ctx, int attempt, int throttled) {
+        try {
+            retryExecutor.execute(() -> {
+                try {
+                    attempt(ctx, attempt, throttled);
+                } catch (Throwable t) {
+                    log.error("[{}] Retry {} for {}.{} failed: {}",
+                            ctx.correlationId(), attempt, ctx.handlerClass(), ctx.handlerMethod(), t.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("[{}] Retry executor saturated, sending {}.{} to DLQ",
+                    ctx.correlationId(), ctx.handlerClass(), ctx.handlerMethod());
+            deadLetter(ctx, e);
+        }
+    }
+
+    /**
+     * Save to DLQ if configured.
+     * The event is then retried by EventRetryService on its own schedule.
+     */
+    private void deadLetter(RetryContext ctx, Exception e) {
+        if (!ctx.annotation().saveToDlq() || ctx.event() == null) {
+            return;
+        }
+        eventRetryService.saveFailedEvent(
+                ctx.event(),
+                ctx.handlerClass(),
+                ctx.handlerMethod(),
+                e,
+                ctx.correlationId(),
+                ctx.annotation().maxRetries());
+        ctx.guard().getDeadLettered().increment();
     }
 
     /**
@@ -138,6 +287,10 @@ public class RetryableEventAspect {
         return Math.min(delay, maxDelay);
     }
 
+    private record RetryContext(ProceedingJoinPoint joinPoint, RetryableEvent annotation, HandlerGuard guard,
+                                String handlerClass, String handlerMethod, Object event, String correlationId) {
+    }
+
     /**
      * Extract correlation ID from event using reflection.
      */
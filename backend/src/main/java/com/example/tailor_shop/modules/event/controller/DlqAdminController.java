@@ -5,6 +5,7 @@ import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
 import com.example.tailor_shop.modules.event.domain.FailedEventEntity;
 import com.example.tailor_shop.modules.event.service.EventRetryService;
+import com.example.tailor_shop.modules.event.service.OutboxDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,7 @@ import java.util.List;
  * 
  * Endpoints:
  * - GET /stats: Get DLQ statistics
+ * - GET /outbox/stats: Get transactional outbox statistics
  * - GET /dead: Get events requiring manual intervention
  * - POST /{id}/retry: Manually retry a failed event
  * - POST /{id}/skip: Skip a failed event
@@ -30,6 +32,7 @@ import java.util.List;
 public class DlqAdminController {
 
     private final EventRetryService eventRetryService;
+    private final OutboxDispatcher outboxDispatcher;
 
     /**
      * Get DLQ statistics.
@@ -40,6 +43,15 @@ public class DlqAdminController {
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), stats));
     }
 
+    /**
+     * Get outbox statistics.
+     */
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<CommonResponse<OutboxDispatcher.OutboxStats>> getOutboxStats() {
+        OutboxDispatcher.OutboxStats stats = outboxDispatcher.getStats();
+        return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), stats));
+    }
+
     /**
      * Get dead events (max retries exceeded, require manual intervention).
      */
@@ -0,0 +1,133 @@
+package com.example.tailor_shop.modules.event.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row.
+ *
+ * Written in the same transaction as the business change (one row per
+ * registered handler), then claimed and dispatched by {@code OutboxDispatcher}.
+ * Retries are scheduled through {@link #nextRetryAt} instead of sleeping.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_status_next_retry", columnList = "status, nextRetryAt"),
+        @Index(name = "idx_outbox_status_locked_until", columnList = "status, lockedUntil"),
+        @Index(name = "idx_outbox_correlation", columnList = "correlationId")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String correlationId;
+
+    /**
+     * Simple class name of the event (same convention as {@link FailedEventEntity}).
+     */
+    @Column(nullable = false, length = 100)
+    private String eventType;
+
+    /**
+     * JSON serialized event payload.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String eventPayload;
+
+    /**
+     * Handler this row is addressed to (simple class name).
+     */
+    @Column(nullable = false, length = 255)
+    private String handlerClass;
+
+    @Column(nullable = false, length = 100)
+    private String handlerMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Integer maxAttempts = 3;
+
+    /**
+     * Earliest time the row may be claimed.
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextRetryAt;
+
+    /**
+     * Node that currently holds the claim (for diagnostics).
+     */
+    @Column(length = 100)
+    private String lockedBy;
+
+    /**
+     * Claim lease; a PROCESSING row past this time is considered abandoned.
+     */
+    private LocalDateTime lockedUntil;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime processedAt;
+
+    public enum OutboxStatus {
+        PENDING, // Waiting to be claimed
+        PROCESSING, // Claimed by a dispatcher node
+        PROCESSED, // Handler completed successfully
+        DEAD // Attempts exhausted, copied to the DLQ
+    }
+
+    /**
+     * Record a failed attempt and schedule the next one.
+     * Retry delays: 5s, 30s, 2min, 10min, 30min, 1hr...
+     */
+    public void scheduleNextRetry(String error) {
+        this.attempts++;
+        this.lastError = error;
+        this.lockedBy = null;
+        this.lockedUntil = null;
+        if (this.attempts >= this.maxAttempts) {
+            this.status = OutboxStatus.DEAD;
+        } else {
+            int[] delays = { 5, 30, 120, 600, 1800, 3600 };
+            int delaySeconds = delays[Math.min(this.attempts - 1, delays.length - 1)];
+            this.nextRetryAt = LocalDateTime.now().plusSeconds(delaySeconds);
+            this.status = OutboxStatus.PENDING;
+        }
+    }
+
+    /**
+     * Mark as successfully dispatched.
+     */
+    public void markProcessed() {
+        this.attempts++;
+        this.status = OutboxStatus.PROCESSED;
+        this.processedAt = LocalDateTime.now();
+        this.lockedBy = null;
+        this.lockedUntil = null;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -66,6 +67,7 @@ public interface FailedEventRepository extends JpaRepository<FailedEventEntity,
      * Lock events for retry (prevent concurrent processing).
      */
     @Modifying
+    @Transactional
     @Query("UPDATE FailedEventEntity f SET f.status = 'RETRYING' WHERE f.id = :id AND f.status = 'PENDING'")
     int lockForRetry(@Param("id") Long id);
 }
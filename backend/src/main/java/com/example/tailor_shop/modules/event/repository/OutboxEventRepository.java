@@ -0,0 +1,50 @@
+package com.example.tailor_shop.modules.event.repository;
+
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the transactional outbox.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Lock a batch of due rows. Rows locked by another node are skipped, so
+     * several dispatchers can drain the outbox in parallel.
+     * Must be called inside a transaction.
+     */
+    @Query(value = "SELECT * FROM outbox_events " +
+            "WHERE status = 'PENDING' AND next_retry_at <= :now " +
+            "ORDER BY next_retry_at ASC, id ASC " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEventEntity> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Release claims whose lease expired (dispatcher node died mid-batch).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEventEntity o SET o.status = 'PENDING', o.lockedBy = NULL, o.lockedUntil = NULL " +
+            "WHERE o.status = 'PROCESSING' AND o.lockedUntil < :now")
+    int releaseExpiredClaims(@Param("now") LocalDateTime now);
+
+    /**
+     * Delete old processed rows (cleanup).
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEventEntity o WHERE o.status = 'PROCESSED' AND o.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,120 @@
+package com.example.tailor_shop.modules.event.service;
+
+import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of {@link RetryableEvent} handlers, keyed by event type and by
+ * handler (fully qualified class#method, so listeners with the same simple
+ * name in different packages do not collide).
+ *
+ * Used by the outbox dispatcher and the DLQ retry job to resolve the handler
+ * for a stored event and invoke it with the deserialized payload.
+ */
+@Component
+@Slf4j
+public class EventHandlerRegistry implements BeanPostProcessor {
+
+    private final Map<Class<?>, List<Handler>> handlersByEventClass = new ConcurrentHashMap<>();
+    private final Map<String, Handler> handlersByKey = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, RetryableEvent> methods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<RetryableEvent>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, RetryableEvent.class));
+
+        methods.forEach((method, annotation) -> {
+            if (method.getParameterCount() != 1) {
+                log.warn("Ignoring @RetryableEvent handler {}.{}: expected exactly one event parameter",
+                        targetClass.getSimpleName(), method.getName());
+                return;
+            }
+            Handler handler = new Handler(bean, targetClass.getName(), method,
+                    method.getParameterTypes()[0], annotation.maxRetries());
+            handlersByKey.put(key(handler.handlerClass(), handler.handlerMethod()), handler);
+            handlersByEventClass.computeIfAbsent(handler.eventClass(), k -> new CopyOnWriteArrayList<>())
+                    .add(handler);
+            log.info("Registered event handler {}.{} for {}",
+                    handler.handlerClass(), handler.handlerMethod(), handler.eventClass().getSimpleName());
+        });
+        return bean;
+    }
+
+    /**
+     * Handlers registered for the given event class.
+     */
+    public List<Handler> getHandlers(Class<?> eventClass) {
+        return handlersByEventClass.getOrDefault(eventClass, List.of());
+    }
+
+    /**
+     * Handler by class name and method name (as stored in outbox/DLQ rows).
+     *
+     * Rows written before handlers were keyed by fully qualified name hold the
+     * simple name; those resolve only while the simple name is unambiguous.
+     */
+    public Optional<Handler> find(String handlerClass, String handlerMethod) {
+        Handler handler = handlersByKey.get(key(handlerClass, handlerMethod));
+        if (handler != null || handlerClass == null || handlerClass.contains(".")) {
+            return Optional.ofNullable(handler);
+        }
+        List<Handler> legacy = handlersByKey.values().stream()
+                .filter(h -> h.handlerMethod().equals(handlerMethod)
+                        && AopUtils.getTargetClass(h.bean()).getSimpleName().equals(handlerClass))
+                .toList();
+        return legacy.size() == 1 ? Optional.of(legacy.get(0)) : Optional.empty();
+    }
+
+    private static String key(String handlerClass, String handlerMethod) {
+        return handlerClass + "#" + handlerMethod;
+    }
+
+    /**
+     * A resolved handler method.
+     *
+     * Invocation goes to the target bean rather than the proxy, so the @Async
+     * hand-off and the in-process retry aspect are skipped: the caller (outbox
+     * dispatcher or DLQ job) owns scheduling and retries.
+     */
+    public record Handler(Object bean, String handlerClass, Method method, Class<?> eventClass, int maxRetries) {
+
+        public String handlerMethod() {
+            return method.getName();
+        }
+
+        public void invoke(String payload, ObjectMapper objectMapper) throws Exception {
+            Object event = objectMapper.readValue(payload, eventClass);
+            Object target = AopProxyUtils.getSingletonTarget(bean);
+            ReflectionUtils.makeAccessible(method);
+            try {
+                method.invoke(target != null ? target : bean, event);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof Exception ex) {
+                    throw ex;
+                }
+                if (e.getCause() instanceof Error err) {
+                    throw err;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.tailor_shop.modules.event.service;
 
 import com.example.tailor_shop.modules.event.domain.FailedEventEntity;
 import com.example.tailor_shop.modules.event.domain.FailedEventEntity.FailedEventStatus;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity;
 import com.example.tailor_shop.modules.event.repository.FailedEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,7 +16,6 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.function.Consumer;
 
 /**
  * Service for handling event retries and dead-letter queue management.
@@ -33,12 +33,13 @@ public class EventRetryService {
 
     private final FailedEventRepository failedEventRepository;
     private final ObjectMapper objectMapper;
+    private final EventHandlerRegistry handlerRegistry;
 
     /**
      * Save a failed event to the dead-letter queue.
      * 
      * @param event The event that failed
-     * @param handlerClass Class name of the handler
+     * @param handlerClass Fully qualified class name of the handler
      * @param handlerMethod Method name of the handler
      * @param exception The exception that caused the failure
      * @param correlationId Correlation ID for tracing
@@ -69,12 +70,33 @@ public class EventRetryService {
         }
     }
 
+    /**
+     * Copy an outbox row that exhausted its attempts into the DLQ.
+     * The row is stored as DEAD so it waits for manual retry or skip.
+     */
+    @Transactional
+    public void saveDeadOutboxEvent(OutboxEventEntity outboxEvent, Throwable error) {
+        FailedEventEntity failedEvent = new FailedEventEntity();
+        failedEvent.setCorrelationId(outboxEvent.getCorrelationId());
+        failedEvent.setEventType(outboxEvent.getEventType());
+        failedEvent.setEventPayload(outboxEvent.getEventPayload());
+        failedEvent.setHandlerClass(outboxEvent.getHandlerClass());
+        failedEvent.setHandlerMethod(outboxEvent.getHandlerMethod());
+        failedEvent.setErrorMessage(error.getMessage());
+        failedEvent.setStackTrace(getStackTrace(error));
+        failedEvent.setRetryCount(outboxEvent.getAttempts());
+        failedEvent.setMaxRetries(outboxEvent.getMaxAttempts());
+        failedEvent.markDead("Outbox attempts exhausted (outbox id " + outboxEvent.getId() + ")");
+
+        failedEventRepository.save(failedEvent);
+    }
+
     /**
      * Process events ready for retry.
-     * Runs every minute.
+     * Runs every minute. Not wrapped in one transaction: each event is locked
+     * and saved on its own so a failing handler cannot roll back the batch.
      */
     @Scheduled(fixedDelay = 60000) // Every 1 minute
-    @Transactional
     public void processRetryQueue() {
         List<FailedEventEntity> eventsToRetry = failedEventRepository
                 .findEventsReadyForRetry(LocalDateTime.now());
@@ -102,26 +124,20 @@ public class EventRetryService {
     }
 
     /**
-     * Retry a specific failed event.
-     * This method should be overridden or configured with actual retry logic.
+     * Retry a specific failed event: resolve the registered handler,
+     * deserialize the payload into its event type and invoke it.
      */
-    private void retryEvent(FailedEventEntity failedEvent) {
+    private void retryEvent(FailedEventEntity failedEvent) throws Exception {
         log.info("Retrying event: id={}, type={}, attempt={}/{}",
                 failedEvent.getId(), failedEvent.getEventType(),
                 failedEvent.getRetryCount(), failedEvent.getMaxRetries());
-        
-        // TODO: Implement actual retry logic based on event type
-        // This would typically involve:
-        // 1. Deserialize the event payload
-        // 2. Find the appropriate handler
-        // 3. Invoke the handler
-        // For now, we just mark it as processed (demo)
-        
-        // Simulate retry logic
-        // Object event = objectMapper.readValue(failedEvent.getEventPayload(), eventClass);
-        // handler.handle(event);
-        
-        // If successful:
+
+        EventHandlerRegistry.Handler handler = handlerRegistry
+                .find(failedEvent.getHandlerClass(), failedEvent.getHandlerMethod())
+                .orElseThrow(() -> new IllegalStateException("No handler registered for "
+                        + failedEvent.getHandlerClass() + "." + failedEvent.getHandlerMethod()));
+        handler.invoke(failedEvent.getEventPayload(), objectMapper);
+
         failedEvent.markProcessed();
         failedEventRepository.save(failedEvent);
         
@@ -213,7 +229,7 @@ public class EventRetryService {
 
     // ==================== HELPERS ====================
 
-    private String getStackTrace(Exception e) {
+    private String getStackTrace(Throwable e) {
         StringWriter sw = new StringWriter();
         PrintWriter pw = new PrintWriter(sw);
         e.printStackTrace(pw);
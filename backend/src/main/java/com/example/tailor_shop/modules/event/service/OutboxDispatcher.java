@@ -0,0 +1,143 @@
+package com.example.tailor_shop.modules.event.service;
+
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity.OutboxStatus;
+import com.example.tailor_shop.modules.event.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Polls the transactional outbox and dispatches events to their handlers.
+ *
+ * Flow:
+ * 1. Release claims whose lease expired (crashed node)
+ * 2. Claim a batch with SELECT ... FOR UPDATE SKIP LOCKED and mark it PROCESSING
+ * 3. Dispatch each row outside the claim transaction
+ * 4. Mark PROCESSED, or schedule the next retry via nextRetryAt
+ * 5. On exhaustion, mark DEAD and copy to the DLQ for manual review
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventHandlerRegistry handlerRegistry;
+    private final EventRetryService eventRetryService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.lease-seconds:60}")
+    private int leaseSeconds;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            EventHandlerRegistry handlerRegistry,
+                            EventRetryService eventRetryService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlerRegistry = handlerRegistry;
+        this.eventRetryService = eventRetryService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Drain due outbox rows. Keeps claiming while full batches come back.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void poll() {
+        int released = outboxEventRepository.releaseExpiredClaims(LocalDateTime.now());
+        if (released > 0) {
+            log.warn("Outbox: released {} expired claim(s)", released);
+        }
+
+        List<OutboxEventEntity> batch;
+        do {
+            batch = claimBatch();
+            for (OutboxEventEntity row : batch) {
+                dispatch(row);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Lock and mark a batch as PROCESSING in one short transaction.
+     */
+    List<OutboxEventEntity> claimBatch() {
+        List<OutboxEventEntity> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEventEntity> rows = outboxEventRepository.lockDueBatch(now, batchSize);
+            for (OutboxEventEntity row : rows) {
+                row.setStatus(OutboxStatus.PROCESSING);
+                row.setLockedBy(nodeId);
+                row.setLockedUntil(now.plusSeconds(leaseSeconds));
+            }
+            return rows;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    void dispatch(OutboxEventEntity row) {
+        try {
+            EventHandlerRegistry.Handler handler = handlerRegistry
+                    .find(row.getHandlerClass(), row.getHandlerMethod())
+                    .orElseThrow(() -> new IllegalStateException(
+                            "No handler registered for " + row.getHandlerClass() + "." + row.getHandlerMethod()));
+            handler.invoke(row.getEventPayload(), objectMapper);
+            row.markProcessed();
+            log.debug("[{}] Outbox: dispatched {} to {}.{}",
+                    row.getCorrelationId(), row.getEventType(), row.getHandlerClass(), row.getHandlerMethod());
+        } catch (Exception e) {
+            row.scheduleNextRetry(e.getMessage());
+            if (row.getStatus() == OutboxStatus.DEAD) {
+                log.error("[{}] Outbox: {} for {}.{} exhausted {} attempts, moving to DLQ",
+                        row.getCorrelationId(), row.getEventType(), row.getHandlerClass(),
+                        row.getHandlerMethod(), row.getAttempts());
+                eventRetryService.saveDeadOutboxEvent(row, e);
+            } else {
+                log.warn("[{}] Outbox: {} for {}.{} failed (attempt {}/{}), next retry at {}: {}",
+                        row.getCorrelationId(), row.getEventType(), row.getHandlerClass(),
+                        row.getHandlerMethod(), row.getAttempts(), row.getMaxAttempts(),
+                        row.getNextRetryAt(), e.getMessage());
+            }
+        }
+        outboxEventRepository.save(row);
+    }
+
+    /**
+     * Clean up old processed rows.
+     * Runs daily at 3:30 AM.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void cleanupProcessed() {
+        int deleted = outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(7));
+        log.info("Cleaned up {} processed outbox events", deleted);
+    }
+
+    /**
+     * Outbox statistics.
+     */
+    public OutboxStats getStats() {
+        return new OutboxStats(
+                outboxEventRepository.countByStatus(OutboxStatus.PENDING),
+                outboxEventRepository.countByStatus(OutboxStatus.PROCESSING),
+                outboxEventRepository.countByStatus(OutboxStatus.DEAD),
+                outboxEventRepository.countByStatus(OutboxStatus.PROCESSED)
+        );
+    }
+
+    public record OutboxStats(long pending, long processing, long dead, long processed) {}
+}
@@ -0,0 +1,73 @@
+package com.example.tailor_shop.modules.event.service;
+
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity;
+import com.example.tailor_shop.modules.event.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes events to the transactional outbox.
+ *
+ * Call from inside the business transaction: the outbox rows commit or roll
+ * back together with the change that produced the event. One row is written
+ * per registered handler so each handler retries independently.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventHandlerRegistry handlerRegistry;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Store an event for asynchronous delivery to its registered handlers.
+     *
+     * @param event         The event to deliver
+     * @param correlationId Correlation ID for tracing
+     */
+    @Transactional
+    public void publish(Object event, String correlationId) {
+        List<EventHandlerRegistry.Handler> handlers = handlerRegistry.getHandlers(event.getClass());
+        if (handlers.isEmpty()) {
+            log.debug("No outbox handlers registered for {}", event.getClass().getSimpleName());
+            return;
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // Fail the business transaction rather than silently losing the event
+            throw new IllegalStateException("Failed to serialize event " + event.getClass().getSimpleName(), e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEventEntity> rows = new ArrayList<>(handlers.size());
+        for (EventHandlerRegistry.Handler handler : handlers) {
+            OutboxEventEntity row = new OutboxEventEntity();
+            row.setCorrelationId(correlationId != null ? correlationId : "unknown");
+            row.setEventType(event.getClass().getSimpleName());
+            row.setEventPayload(payload);
+            row.setHandlerClass(handler.handlerClass());
+            row.setHandlerMethod(handler.handlerMethod());
+            // maxRetries retries after the first attempt
+            row.setMaxAttempts(handler.maxRetries() + 1);
+            row.setNextRetryAt(now);
+            rows.add(row);
+        }
+        outboxEventRepository.saveAll(rows);
+
+        log.debug("[{}] Outbox: stored {} for {} handler(s)",
+                correlationId, event.getClass().getSimpleName(), rows.size());
+    }
+}
@@ -5,6 +5,7 @@ import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
 import com.example.tailor_shop.config.security.CustomUserDetails;
 import com.example.tailor_shop.modules.fabric.dto.ApplyFabricPromoRequest;
+import com.example.tailor_shop.modules.fabric.dto.FabricFacetsResponse;
 import com.example.tailor_shop.modules.fabric.dto.FabricFilterRequest;
 import com.example.tailor_shop.modules.fabric.dto.FabricHoldRequestRequest;
 import com.example.tailor_shop.modules.fabric.dto.FabricHoldRequestResponse;
@@ -57,6 +58,15 @@ public class FabricController {
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
     }
 
+    /**
+     * Facet counts cho filter hiện tại (public)
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<CommonResponse<FabricFacetsResponse>> facets(@Valid FabricFilterRequest filter) {
+        FabricFacetsResponse data = fabricService.facets(filter);
+        return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
+    }
+
     /**
      * Get fabric detail by ID (public)
      */
@@ -100,7 +100,9 @@ public class FabricEntity {
     @Builder.Default
     private Integer displayOrder = 0;
 
-    @Column(name = "view_count", nullable = false)
+    // Chỉ ViewCounter ghi cột này (view_count = view_count + delta)
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
     @Builder.Default
     private Integer viewCount = 0;
 
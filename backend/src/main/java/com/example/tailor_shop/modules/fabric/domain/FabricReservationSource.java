@@ -0,0 +1,9 @@
+package com.example.tailor_shop.modules.fabric.domain;
+
+/**
+ * Nguồn của một reservation tồn kho vải
+ */
+public enum FabricReservationSource {
+    ORDER,  // Đơn hàng vải (checkout)
+    HOLD    // Yêu cầu giữ vải đã được duyệt
+}
@@ -0,0 +1,11 @@
+package com.example.tailor_shop.modules.fabric.domain;
+
+/**
+ * Trạng thái reservation tồn kho vải
+ */
+public enum FabricReservationStatus {
+    ACTIVE,     // Đang giữ (reserved_quantity đã tăng)
+    CONSUMED,   // Đã xuất kho (quantity và reserved_quantity đã giảm)
+    RELEASED,   // Đã trả lại (hủy đơn / hủy giữ vải)
+    EXPIRED     // Hết hạn, được sweeper trả lại
+}
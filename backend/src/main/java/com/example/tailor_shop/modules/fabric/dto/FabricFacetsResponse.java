@@ -0,0 +1,44 @@
+package com.example.tailor_shop.modules.fabric.dto;
+
+import com.example.tailor_shop.modules.fabric.domain.FabricCategory;
+import com.example.tailor_shop.modules.fabric.domain.FabricPattern;
+import com.example.tailor_shop.modules.fabric.domain.FabricSeason;
+import com.example.tailor_shop.modules.fabric.domain.FabricStretch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO cho facet counts của catalog vải.
+ *
+ * Mỗi nhóm được đếm với tất cả filter trừ filter của chính nhóm đó, để client
+ * hiển thị số lượng khi đổi lựa chọn trong nhóm.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FabricFacetsResponse {
+
+    private long total; // Số fabric khớp toàn bộ filter
+    private Map<FabricCategory, Long> categories;
+    private Map<FabricPattern, Long> patterns;
+    private Map<FabricSeason, Long> seasons;
+    private Map<FabricStretch, Long> stretches;
+    private List<PriceBucket> priceBuckets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private BigDecimal minPrice; // Inclusive
+        private BigDecimal maxPrice; // Exclusive, null = không giới hạn
+        private long count;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.tailor_shop.modules.fabric.dto;
 
 import com.example.tailor_shop.modules.fabric.domain.FabricCategory;
 import com.example.tailor_shop.modules.fabric.domain.FabricPattern;
+import com.example.tailor_shop.modules.fabric.domain.FabricSeason;
+import com.example.tailor_shop.modules.fabric.domain.FabricStretch;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,6 +23,8 @@ public class FabricFilterRequest {
     private FabricCategory category;
     private String color;
     private FabricPattern pattern;
+    private FabricSeason season;
+    private FabricStretch stretch;
     private String material;
     private String origin;
     private Boolean isAvailable;
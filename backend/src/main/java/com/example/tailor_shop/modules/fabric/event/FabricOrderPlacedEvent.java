@@ -0,0 +1,40 @@
+package com.example.tailor_shop.modules.fabric.event;
+
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Event published (through the outbox) when a fabric order is checked out.
+ *
+ * Listeners:
+ * - FabricOrderEventListener: create the order's invoice
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE, onConstructor_ = @JsonCreator) // Outbox deserialization
+public class FabricOrderPlacedEvent {
+
+    private final Long orderId;
+    private final String orderCode;
+    private final Long customerId;
+    private final BigDecimal total;
+    private final String correlationId;
+
+    public FabricOrderPlacedEvent(FabricOrderEntity order, String correlationId) {
+        this.orderId = order.getId();
+        this.orderCode = order.getCode();
+        this.customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+        this.total = order.getTotal();
+        this.correlationId = correlationId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FabricOrderPlacedEvent[orderId=%d, orderCode=%s, total=%s]",
+                orderId, orderCode, total);
+    }
+}
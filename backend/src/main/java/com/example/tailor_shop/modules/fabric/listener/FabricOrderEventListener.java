@@ -0,0 +1,48 @@
+package com.example.tailor_shop.modules.fabric.listener;
+
+import com.example.tailor_shop.modules.billing.event.InvoicePaidEvent;
+import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
+import com.example.tailor_shop.modules.fabric.event.FabricOrderPlacedEvent;
+import com.example.tailor_shop.modules.fabric.service.FabricOrderInvoiceService;
+import com.example.tailor_shop.modules.fabric.service.FabricOrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event Listeners for fabric orders.
+ *
+ * Invoice creation is not on the checkout path: the order transaction stores a
+ * FabricOrderPlacedEvent in the outbox and the invoice is created here,
+ * retried on failure and saved to the DLQ after the last attempt.
+ *
+ * Online payments complete in the provider callback: the InvoicePaidEvent it
+ * stores marks the order PAID and consumes its fabric reservation here.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FabricOrderEventListener {
+
+    private final FabricOrderInvoiceService fabricOrderInvoiceService;
+    private final FabricOrderService fabricOrderService;
+
+    /**
+     * Handle fabric order placed - create invoice (idempotent: redelivery is a no-op).
+     */
+    @RetryableEvent(maxRetries = 5, saveToDlq = true)
+    public void handleOrderPlaced_CreateInvoice(FabricOrderPlacedEvent event) {
+        log.info("[{}] Creating invoice for fabric order: {}",
+                event.getCorrelationId(), event.getOrderCode());
+
+        fabricOrderInvoiceService.ensureInvoice(event.getOrderId());
+    }
+
+    /**
+     * Handle invoice paid - complete the fabric order (idempotent, no-op for other invoices).
+     */
+    @RetryableEvent(maxRetries = 5, saveToDlq = true)
+    public void handleInvoicePaid_CompleteOrder(InvoicePaidEvent event) {
+        fabricOrderService.onInvoicePaid(event.getInvoiceId());
+    }
+}
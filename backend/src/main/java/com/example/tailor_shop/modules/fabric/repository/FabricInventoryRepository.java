@@ -2,10 +2,12 @@ package com.example.tailor_shop.modules.fabric.repository;
 
 import com.example.tailor_shop.modules.fabric.domain.FabricInventoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +46,65 @@ public interface FabricInventoryRepository extends JpaRepository<FabricInventory
             "WHERE i.fabric.id = :fabricId AND i.isDeleted = false")
     BigDecimal sumAvailableQuantityByFabricId(@Param("fabricId") Long fabricId);
 
+    /**
+     * Available quantity cho nhiều fabric trong một query: [fabricId, available]
+     * (fabric không có inventory thì không có dòng)
+     */
+    @Query("SELECT i.fabric.id, SUM(i.quantity - i.reservedQuantity) FROM FabricInventoryEntity i " +
+            "WHERE i.fabric.id IN :fabricIds AND i.isDeleted = false " +
+            "GROUP BY i.fabric.id")
+    List<Object[]> sumAvailableQuantityByFabricIds(@Param("fabricIds") Collection<Long> fabricIds);
+
+    // ===== RESERVATION =====
+    // Reads go through scalar projections and writes are conditional UPDATEs,
+    // so no stale FabricInventoryEntity sits in the persistence context.
+
+    /**
+     * Các lô còn hàng của một fabric: [inventoryId, available], theo id (thứ tự khóa cố định)
+     */
+    @Query("SELECT i.id, i.quantity - i.reservedQuantity FROM FabricInventoryEntity i " +
+            "WHERE i.fabric.id = :fabricId AND i.isDeleted = false " +
+            "AND i.quantity - i.reservedQuantity > 0 ORDER BY i.id")
+    List<Object[]> findAvailableLots(@Param("fabricId") Long fabricId);
+
+    /**
+     * Các lô còn hàng của nhiều fabric trong một query: [fabricId, inventoryId, available]
+     */
+    @Query("SELECT i.fabric.id, i.id, i.quantity - i.reservedQuantity FROM FabricInventoryEntity i " +
+            "WHERE i.fabric.id IN :fabricIds AND i.isDeleted = false " +
+            "AND i.quantity - i.reservedQuantity > 0 ORDER BY i.fabric.id, i.id")
+    List<Object[]> findAvailableLotsByFabricIds(@Param("fabricIds") Collection<Long> fabricIds);
+
+    /**
+     * Giữ hàng trên một lô nếu còn đủ. Row lock giữ tới khi commit, nên hai
+     * checkout song song không thể cùng lấy phần cuối của một lô.
+     *
+     * @return 1 nếu đã giữ, 0 nếu lô không còn đủ hàng
+     */
+    @Modifying
+    @Query(value = "UPDATE fabric_inventory SET reserved_quantity = reserved_quantity + :qty " +
+            "WHERE id = :id AND is_deleted = FALSE AND quantity - reserved_quantity >= :qty",
+            nativeQuery = true)
+    int tryReserve(@Param("id") Long inventoryId, @Param("qty") BigDecimal quantity);
+
+    /**
+     * Trả lại phần đã giữ
+     */
+    @Modifying
+    @Query(value = "UPDATE fabric_inventory SET reserved_quantity = GREATEST(reserved_quantity - :qty, 0) " +
+            "WHERE id = :id",
+            nativeQuery = true)
+    int releaseReserved(@Param("id") Long inventoryId, @Param("qty") BigDecimal quantity);
+
+    /**
+     * Xuất kho phần đã giữ: giảm cả quantity và reserved_quantity
+     */
+    @Modifying
+    @Query(value = "UPDATE fabric_inventory SET quantity = GREATEST(quantity - :qty, 0), " +
+            "reserved_quantity = GREATEST(reserved_quantity - :qty, 0) WHERE id = :id",
+            nativeQuery = true)
+    int consumeReserved(@Param("id") Long inventoryId, @Param("qty") BigDecimal quantity);
+
     /**
      * Tìm các inventory có low stock
      */
@@ -3,9 +3,11 @@ package com.example.tailor_shop.modules.fabric.repository;
 import com.example.tailor_shop.modules.fabric.domain.FabricOrderEntity;
 import com.example.tailor_shop.modules.fabric.domain.FabricOrderStatus;
 import com.example.tailor_shop.modules.fabric.domain.PaymentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +19,20 @@ public interface FabricOrderRepository extends JpaRepository<FabricOrderEntity,
 
     Optional<FabricOrderEntity> findByCodeAndIsDeletedFalse(String code);
 
+    /**
+     * Find by ID with pessimistic write lock - serializes invoice creation for an order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM FabricOrderEntity o WHERE o.id = :id")
+    Optional<FabricOrderEntity> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Đơn của một invoice, khóa như findByIdForUpdate (invoice đã thanh toán / sweeper)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM FabricOrderEntity o WHERE o.invoice.id = :invoiceId")
+    Optional<FabricOrderEntity> findByInvoiceIdForUpdate(@Param("invoiceId") Long invoiceId);
+
     Page<FabricOrderEntity> findByCustomerIdAndIsDeletedFalse(Long customerId, Pageable pageable);
 
     @Query("SELECT o FROM FabricOrderEntity o WHERE o.isDeleted = false " +
@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 public interface FabricRepository extends JpaRepository<FabricEntity, Long> {
@@ -29,6 +30,11 @@ public interface FabricRepository extends JpaRepository<FabricEntity, Long> {
          */
         Optional<FabricEntity> findBySlugAndIsDeletedFalse(String slug);
 
+        /**
+         * Tất cả fabric chưa xóa (nạp FabricCatalog)
+         */
+        List<FabricEntity> findByIsDeletedFalse();
+
         /**
          * Search fabrics với filter
          * Note: Với custom @Query, Spring Data JPA không tự động apply sort từ Pageable
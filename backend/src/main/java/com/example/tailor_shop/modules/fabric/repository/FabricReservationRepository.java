@@ -0,0 +1,53 @@
+package com.example.tailor_shop.modules.fabric.repository;
+
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationSource;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface FabricReservationRepository extends JpaRepository<FabricReservationEntity, Long> {
+
+    /**
+     * Reservations của một nguồn (đơn hàng / yêu cầu giữ vải) theo trạng thái
+     */
+    List<FabricReservationEntity> findBySourceTypeAndSourceIdAndStatus(
+            FabricReservationSource sourceType, Long sourceId, FabricReservationStatus status
+    );
+
+    /**
+     * Chuyển trạng thái có điều kiện: chỉ một caller thắng (consume / release / sweeper),
+     * nên tồn kho không bao giờ bị trả lại hai lần
+     */
+    @Modifying
+    @Query("UPDATE FabricReservationEntity r SET r.status = :to, r.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") FabricReservationStatus from,
+                   @Param("to") FabricReservationStatus to);
+
+    /**
+     * Gia hạn các reservation ACTIVE của một nguồn (đơn đang được thanh toán)
+     */
+    @Modifying
+    @Query("UPDATE FabricReservationEntity r SET r.expiresAt = :expiresAt, r.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE r.sourceType = :sourceType AND r.sourceId = :sourceId " +
+            "AND r.status = com.example.tailor_shop.modules.fabric.domain.FabricReservationStatus.ACTIVE")
+    int extendExpiry(@Param("sourceType") FabricReservationSource sourceType,
+                     @Param("sourceId") Long sourceId,
+                     @Param("expiresAt") OffsetDateTime expiresAt);
+
+    /**
+     * Các nguồn có reservation ACTIVE đã hết hạn: [sourceType, sourceId]
+     */
+    @Query("SELECT DISTINCT r.sourceType, r.sourceId FROM FabricReservationEntity r " +
+            "WHERE r.status = com.example.tailor_shop.modules.fabric.domain.FabricReservationStatus.ACTIVE " +
+            "AND r.expiresAt < :now")
+    List<Object[]> findExpiredSources(@Param("now") OffsetDateTime now, Pageable pageable);
+}
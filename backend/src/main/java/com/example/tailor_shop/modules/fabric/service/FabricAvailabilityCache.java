@@ -0,0 +1,114 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived per-fabric cache of available quantity (SUM(quantity - reserved)).
+ *
+ * Used for display (cart hydration), never for stock checks: validation and
+ * checkout keep reading the inventory table. Missing fabrics are loaded in one
+ * grouped IN query.
+ *
+ * Inventory updates, hold approvals / cancellations and checkout call
+ * {@link #invalidate}: the entry is dropped immediately and again after commit,
+ * and a load that started before the invalidation is not cached. Entries
+ * expire after {@code fabric.availability.ttl-ms} to bound staleness from
+ * changes made on other nodes.
+ */
+@Component
+@Slf4j
+public class FabricAvailabilityCache {
+
+    private final FabricInventoryRepository fabricInventoryRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Sequence of the last invalidation per fabric, so a load racing an update is not cached
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${fabric.availability.ttl-ms:5000}")
+    private long ttlMs;
+
+    public FabricAvailabilityCache(FabricInventoryRepository fabricInventoryRepository) {
+        this.fabricInventoryRepository = fabricInventoryRepository;
+    }
+
+    /**
+     * Available quantity per fabric; fabrics without inventory map to zero.
+     */
+    public Map<Long, BigDecimal> getAvailable(Collection<Long> fabricIds) {
+        Map<Long, BigDecimal> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long fabricId : new LinkedHashSet<>(fabricIds)) {
+            Entry entry = entries.get(fabricId);
+            if (entry != null && entry.expiresAt() > now) {
+                result.put(fabricId, entry.available());
+            } else {
+                missing.add(fabricId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadSequence = sequence.get();
+        Map<Long, BigDecimal> loaded = new HashMap<>();
+        for (Object[] row : fabricInventoryRepository.sumAvailableQuantityByFabricIds(missing)) {
+            loaded.put((Long) row[0], row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
+        }
+
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        for (Long fabricId : missing) {
+            BigDecimal available = loaded.getOrDefault(fabricId, BigDecimal.ZERO);
+            result.put(fabricId, available);
+            if (invalidatedAt.getOrDefault(fabricId, 0L) <= loadSequence) {
+                entries.put(fabricId, new Entry(available, expiresAt));
+            }
+        }
+        log.debug("Loaded availability for {} fabric(s)", missing.size());
+        return result;
+    }
+
+    public BigDecimal getAvailable(Long fabricId) {
+        return getAvailable(List.of(fabricId)).get(fabricId);
+    }
+
+    /**
+     * Drop the fabric's entry now and once the current transaction commits.
+     */
+    public void invalidate(Long fabricId) {
+        evict(fabricId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(fabricId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long fabricId) {
+        invalidatedAt.put(fabricId, sequence.incrementAndGet());
+        entries.remove(fabricId);
+    }
+
+    private record Entry(BigDecimal available, long expiresAt) {
+    }
+}
@@ -0,0 +1,561 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.fabric.domain.FabricCategory;
+import com.example.tailor_shop.modules.fabric.domain.FabricEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricPattern;
+import com.example.tailor_shop.modules.fabric.domain.FabricSeason;
+import com.example.tailor_shop.modules.fabric.domain.FabricStretch;
+import com.example.tailor_shop.modules.fabric.dto.FabricFacetsResponse;
+import com.example.tailor_shop.modules.fabric.dto.FabricFilterRequest;
+import com.example.tailor_shop.modules.fabric.repository.FabricRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory fabric catalog for browsing and facet counts.
+ *
+ * Non-deleted fabrics are loaded once into slots (bit i = slot i) with one
+ * bitmap per category / pattern / season / stretch / color / material /
+ * origin value, per price bucket and for the available / featured flags.
+ * Filtering is an AND of bitmaps (price ranges via a price-sorted slot array,
+ * keyword by scanning the candidates), facet counts are intersections, and
+ * the database is only used to hydrate the requested page.
+ *
+ * The snapshot is immutable and swapped atomically. Create / update / delete
+ * patch only the affected slot, after commit; a periodic rebuild picks up
+ * changes made on other nodes.
+ *
+ * Matching follows searchFabrics: ORDER BY displayOrder, id, exact value
+ * filters and a substring keyword on name / description / code, both case-
+ * and accent-insensitive like the utf8mb4_unicode_ci columns.
+ *
+ * An explicit sort may use the keys of SORT_KEYS (nulls first ascending, as in
+ * MySQL, id breaking ties); any other property is rejected.
+ */
+@Component
+@Slf4j
+public class FabricCatalog {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Sort property (FabricEntity field) -> comparator on the snapshot row
+    private static final Map<String, Comparator<Row>> SORT_KEYS = Map.of(
+            "displayOrder", Comparator.comparingInt(Row::displayOrder),
+            "id", Comparator.comparing(Row::id),
+            "name", Comparator.comparing(Row::name, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "pricePerMeter", Comparator.comparing(Row::price, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "createdAt", Comparator.comparing(Row::createdAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+    private final FabricRepository fabricRepository;
+    // Ascending bucket boundaries: [0, b0), [b0, b1), ..., [bn, +inf)
+    private final BigDecimal[] priceBounds;
+
+    private volatile Snapshot snapshot;
+
+    public FabricCatalog(FabricRepository fabricRepository,
+                         @Value("${fabric.catalog.price-buckets:100000,200000,500000,1000000}") BigDecimal[] priceBounds) {
+        this.fabricRepository = fabricRepository;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+    }
+
+    /**
+     * Ids of the matching fabrics for the requested page, in display order
+     * unless the pageable is sorted.
+     *
+     * @throws BadRequestException if the sort uses a property outside SORT_KEYS
+     */
+    public Page<Long> search(FabricFilterRequest filter, Pageable pageable) {
+        Comparator<Row> comparator = comparator(pageable.getSort());
+        Snapshot current = snapshot();
+        BitSet matched = current.match(filter, null);
+        int total = matched.cardinality();
+
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        long offset = pageable.getOffset();
+        if (offset < total) {
+            // Mặc định dùng thứ tự display order đã tính sẵn, chỉ sort khi client yêu cầu
+            int[] order = comparator == null ? current.order : current.sorted(matched, comparator);
+            long skipped = 0;
+            for (int slot : order) {
+                if (!matched.get(slot)) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                ids.add(current.rows[slot].id());
+                if (ids.size() == pageable.getPageSize()) {
+                    break;
+                }
+            }
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    /**
+     * Facet counts; each group ignores its own filter.
+     */
+    public FabricFacetsResponse facets(FabricFilterRequest filter) {
+        Snapshot current = snapshot();
+
+        List<FabricFacetsResponse.PriceBucket> buckets = new ArrayList<>(current.byPriceBucket.length);
+        BitSet priceBase = current.match(filter, Facet.PRICE);
+        for (int b = 0; b < current.byPriceBucket.length; b++) {
+            buckets.add(FabricFacetsResponse.PriceBucket.builder()
+                    .minPrice(b == 0 ? BigDecimal.ZERO : priceBounds[b - 1])
+                    .maxPrice(b < priceBounds.length ? priceBounds[b] : null)
+                    .count(countAnd(priceBase, current.byPriceBucket[b]))
+                    .build());
+        }
+
+        return FabricFacetsResponse.builder()
+                .total(current.match(filter, null).cardinality())
+                .categories(counts(FabricCategory.class, current.byCategory, current.match(filter, Facet.CATEGORY)))
+                .patterns(counts(FabricPattern.class, current.byPattern, current.match(filter, Facet.PATTERN)))
+                .seasons(counts(FabricSeason.class, current.bySeason, current.match(filter, Facet.SEASON)))
+                .stretches(counts(FabricStretch.class, current.byStretch, current.match(filter, Facet.STRETCH)))
+                .priceBuckets(buckets)
+                .build();
+    }
+
+    /**
+     * Add or replace the fabric once the current transaction commits.
+     */
+    public void upsert(FabricEntity fabric) {
+        if (Boolean.TRUE.equals(fabric.getIsDeleted())) {
+            remove(fabric.getId());
+            return;
+        }
+        // Chụp giá trị ngay: entity có thể còn bị sửa trước khi commit xong
+        Row row = Row.of(fabric);
+        afterCommit(() -> apply(row.id(), row));
+    }
+
+    /**
+     * Drop the fabric once the current transaction commits.
+     */
+    public void remove(Long fabricId) {
+        afterCommit(() -> apply(fabricId, null));
+    }
+
+    /**
+     * Periodic rebuild: picks up changes made on other nodes.
+     */
+    @Scheduled(fixedDelayString = "${fabric.catalog.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the snapshot from the database.
+     */
+    public synchronized void refresh() {
+        List<FabricEntity> fabrics = fabricRepository.findByIsDeletedFalse();
+        Snapshot next = new Snapshot(priceBounds.length + 1);
+        for (FabricEntity fabric : fabrics) {
+            next.put(Row.of(fabric));
+        }
+        next.sort();
+        snapshot = next;
+        log.debug("Fabric catalog loaded {} fabric(s)", fabrics.size());
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Comparator for the requested sort, null when unsorted.
+     */
+    private static Comparator<Row> comparator(Sort sort) {
+        Comparator<Row> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Row> key = SORT_KEYS.get(order.getProperty());
+            if (key == null) {
+                throw new BadRequestException("Unsupported sort property: " + order.getProperty());
+            }
+            key = order.isAscending() ? key : key.reversed();
+            comparator = comparator == null ? key : comparator.thenComparing(key);
+        }
+        // id: thứ tự ổn định giữa các trang
+        return comparator == null ? null : comparator.thenComparing(SORT_KEYS.get("id"));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    refresh();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Copy-on-write patch of one slot. Serialized with refresh: a rebuild that
+     * read the table before the commit is installed first, then patched.
+     */
+    private synchronized void apply(Long fabricId, Row row) {
+        if (snapshot == null) {
+            return; // Chưa load: lần đọc đầu tiên sẽ đọc từ DB
+        }
+        Snapshot next = snapshot.copy();
+        next.delete(fabricId);
+        if (row != null) {
+            next.put(row);
+        }
+        next.sort();
+        snapshot = next;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> counts(Class<E> type, Map<E, BitSet> index, BitSet base) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            counts.put(value, countAnd(base, index.get(value)));
+        }
+        return counts;
+    }
+
+    private static long countAnd(BitSet base, BitSet bits) {
+        if (bits == null) {
+            return 0;
+        }
+        BitSet intersection = (BitSet) base.clone();
+        intersection.and(bits);
+        return intersection.cardinality();
+    }
+
+    /**
+     * Lowercase without diacritics ("Lụa Đỏ" -> "lua do"), null for blank.
+     */
+    static String fold(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return stripped.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    private enum Facet {
+        CATEGORY, PATTERN, SEASON, STRETCH, PRICE
+    }
+
+    /**
+     * The indexed fields of one fabric.
+     */
+    private record Row(Long id, int displayOrder, String name, OffsetDateTime createdAt, FabricCategory category,
+                       FabricPattern pattern, FabricSeason season, FabricStretch stretch, String color,
+                       String material, String origin, BigDecimal price, boolean available, boolean featured,
+                       String text) {
+
+        static Row of(FabricEntity fabric) {
+            String text = String.join("\n",
+                    fabric.getName() != null ? fabric.getName() : "",
+                    fabric.getDescription() != null ? fabric.getDescription() : "",
+                    fabric.getCode() != null ? fabric.getCode() : "");
+            return new Row(fabric.getId(),
+                    fabric.getDisplayOrder() != null ? fabric.getDisplayOrder() : 0,
+                    fold(fabric.getName()), fabric.getCreatedAt(),
+                    fabric.getCategory(), fabric.getPattern(), fabric.getSeason(), fabric.getStretch(),
+                    fold(fabric.getColor()), fold(fabric.getMaterial()), fold(fabric.getOrigin()),
+                    fabric.getPricePerMeter(),
+                    Boolean.TRUE.equals(fabric.getIsAvailable()),
+                    Boolean.TRUE.equals(fabric.getIsFeatured()),
+                    Objects.requireNonNullElse(fold(text), ""));
+        }
+    }
+
+    /**
+     * Slots and bitmaps. Mutable only while being built by refresh / apply,
+     * read only once published.
+     */
+    private final class Snapshot {
+
+        private Row[] rows;
+        private final Map<Long, Integer> slots;
+        private final BitSet live;
+        private final BitSet free; // Slots of deleted fabrics, reused
+        private final Map<FabricCategory, BitSet> byCategory;
+        private final Map<FabricPattern, BitSet> byPattern;
+        private final Map<FabricSeason, BitSet> bySeason;
+        private final Map<FabricStretch, BitSet> byStretch;
+        private final Map<String, BitSet> byColor;
+        private final Map<String, BitSet> byMaterial;
+        private final Map<String, BitSet> byOrigin;
+        private final BitSet available;
+        private final BitSet featured;
+        private final BitSet[] byPriceBucket;
+        // Derived by sort(): live slots in display order, priced slots in price order
+        private int[] order = new int[0];
+        private int[] byPrice = new int[0];
+        private BigDecimal[] prices = new BigDecimal[0];
+
+        Snapshot(int buckets) {
+            rows = new Row[16];
+            slots = new HashMap<>();
+            live = new BitSet();
+            free = new BitSet();
+            byCategory = new HashMap<>();
+            byPattern = new HashMap<>();
+            bySeason = new HashMap<>();
+            byStretch = new HashMap<>();
+            byColor = new HashMap<>();
+            byMaterial = new HashMap<>();
+            byOrigin = new HashMap<>();
+            available = new BitSet();
+            featured = new BitSet();
+            byPriceBucket = new BitSet[buckets];
+            for (int b = 0; b < buckets; b++) {
+                byPriceBucket[b] = new BitSet();
+            }
+        }
+
+        private Snapshot(Snapshot source) {
+            rows = source.rows.clone();
+            slots = new HashMap<>(source.slots);
+            live = (BitSet) source.live.clone();
+            free = (BitSet) source.free.clone();
+            byCategory = deepCopy(source.byCategory);
+            byPattern = deepCopy(source.byPattern);
+            bySeason = deepCopy(source.bySeason);
+            byStretch = deepCopy(source.byStretch);
+            byColor = deepCopy(source.byColor);
+            byMaterial = deepCopy(source.byMaterial);
+            byOrigin = deepCopy(source.byOrigin);
+            available = (BitSet) source.available.clone();
+            featured = (BitSet) source.featured.clone();
+            byPriceBucket = new BitSet[source.byPriceBucket.length];
+            for (int b = 0; b < byPriceBucket.length; b++) {
+                byPriceBucket[b] = (BitSet) source.byPriceBucket[b].clone();
+            }
+        }
+
+        Snapshot copy() {
+            return new Snapshot(this);
+        }
+
+        void put(Row row) {
+            int slot = free.isEmpty() ? slots.size() : free.nextSetBit(0);
+            free.clear(slot);
+            if (slot >= rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[slot] = row;
+            slots.put(row.id(), slot);
+            live.set(slot);
+            index(slot, row, true);
+        }
+
+        void delete(Long fabricId) {
+            Integer slot = slots.remove(fabricId);
+            if (slot == null) {
+                return;
+            }
+            index(slot, rows[slot], false);
+            rows[slot] = null;
+            live.clear(slot);
+            free.set(slot);
+        }
+
+        void sort() {
+            order = live.stream().boxed()
+                    .sorted(Comparator.<Integer>comparingInt(slot -> rows[slot].displayOrder())
+                            .thenComparing(slot -> rows[slot].id()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            byPrice = live.stream()
+                    .filter(slot -> rows[slot].price() != null)
+                    .boxed()
+                    .sorted(Comparator.comparing(slot -> rows[slot].price()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            prices = IntStream.of(byPrice).mapToObj(slot -> rows[slot].price()).toArray(BigDecimal[]::new);
+        }
+
+        /**
+         * The given slots ordered by the comparator.
+         */
+        int[] sorted(BitSet slots, Comparator<Row> comparator) {
+            return slots.stream().boxed()
+                    .sorted((a, b) -> comparator.compare(rows[a], rows[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * Slots matching the filter, ignoring the filter of {@code skip}.
+         */
+        BitSet match(FabricFilterRequest filter, Facet skip) {
+            BitSet result = (BitSet) live.clone();
+            if (filter == null) {
+                return result;
+            }
+            if (skip != Facet.CATEGORY) {
+                and(result, byCategory, filter.getCategory());
+            }
+            if (skip != Facet.PATTERN) {
+                and(result, byPattern, filter.getPattern());
+            }
+            if (skip != Facet.SEASON) {
+                and(result, bySeason, filter.getSeason());
+            }
+            if (skip != Facet.STRETCH) {
+                and(result, byStretch, filter.getStretch());
+            }
+            and(result, byColor, fold(filter.getColor()));
+            and(result, byMaterial, fold(filter.getMaterial()));
+            and(result, byOrigin, fold(filter.getOrigin()));
+            if (filter.getIsAvailable() != null) {
+                flag(result, available, filter.getIsAvailable());
+            }
+            if (filter.getIsFeatured() != null) {
+                flag(result, featured, filter.getIsFeatured());
+            }
+            if (skip != Facet.PRICE && (filter.getMinPrice() != null || filter.getMaxPrice() != null)) {
+                result.and(priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+            }
+            String keyword = fold(filter.getKeyword());
+            if (keyword != null) {
+                for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                    if (!rows[slot].text().contains(keyword)) {
+                        result.clear(slot);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private BitSet priceRange(BigDecimal min, BigDecimal max) {
+            // [from, to) in byPrice: min <= price <= max
+            int from = min != null ? firstIndex(p -> p.compareTo(min) >= 0) : 0;
+            int to = max != null ? firstIndex(p -> p.compareTo(max) > 0) : prices.length;
+            BitSet range = new BitSet();
+            for (int i = from; i < to; i++) {
+                range.set(byPrice[i]);
+            }
+            return range;
+        }
+
+        /**
+         * First index of {@code prices} satisfying a monotone predicate.
+         */
+        private int firstIndex(Predicate<BigDecimal> predicate) {
+            int lo = 0;
+            int hi = prices.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (predicate.test(prices[mid])) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        private void index(int slot, Row row, boolean value) {
+            set(byCategory, row.category(), slot, value);
+            set(byPattern, row.pattern(), slot, value);
+            set(bySeason, row.season(), slot, value);
+            set(byStretch, row.stretch(), slot, value);
+            set(byColor, row.color(), slot, value);
+            set(byMaterial, row.material(), slot, value);
+            set(byOrigin, row.origin(), slot, value);
+            available.set(slot, value && row.available());
+            featured.set(slot, value && row.featured());
+            if (row.price() != null) {
+                byPriceBucket[bucket(row.price())].set(slot, value);
+            }
+        }
+
+        private int bucket(BigDecimal price) {
+            int b = 0;
+            while (b < priceBounds.length && price.compareTo(priceBounds[b]) >= 0) {
+                b++;
+            }
+            return b;
+        }
+
+        private static <K> void set(Map<K, BitSet> index, K key, int slot, boolean value) {
+            if (key == null) {
+                return;
+            }
+            if (value) {
+                index.computeIfAbsent(key, k -> new BitSet()).set(slot);
+            } else {
+                BitSet bits = index.get(key);
+                if (bits != null) {
+                    bits.clear(slot);
+                }
+            }
+        }
+
+        private static <K> void and(BitSet result, Map<K, BitSet> index, K key) {
+            if (key == null) {
+                return;
+            }
+            BitSet bits = index.get(key);
+            if (bits == null) {
+                result.clear();
+            } else {
+                result.and(bits);
+            }
+        }
+
+        private static void flag(BitSet result, BitSet bits, boolean expected) {
+            if (expected) {
+                result.and(bits);
+            } else {
+                result.andNot(bits);
+            }
+        }
+
+        private static <K> Map<K, BitSet> deepCopy(Map<K, BitSet> source) {
+            Map<K, BitSet> copy = new HashMap<>(source.size() * 2);
+            source.forEach((key, bits) -> copy.put(key, (BitSet) bits.clone()));
+            return copy;
+        }
+    }
+}
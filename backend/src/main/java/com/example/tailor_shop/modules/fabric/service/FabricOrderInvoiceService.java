@@ -0,0 +1,119 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.config.exception.NotFoundException;
+import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
+import com.example.tailor_shop.modules.billing.domain.InvoiceStatus;
+import com.example.tailor_shop.modules.billing.domain.PaymentStatus;
+import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
+import com.example.tailor_shop.modules.billing.dto.InvoiceResponse;
+import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
+import com.example.tailor_shop.modules.billing.repository.PaymentTransactionRepository;
+import com.example.tailor_shop.modules.billing.service.InvoiceService;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderStatus;
+import com.example.tailor_shop.modules.fabric.repository.FabricOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.stream.Collectors;
+
+/**
+ * Invoice của đơn hàng vải.
+ *
+ * Được gọi bất đồng bộ từ outbox sau checkout, và đồng bộ khi khách thanh
+ * toán trước khi outbox kịp chạy. Order row bị khóa (SELECT ... FOR UPDATE)
+ * trong lúc tạo, nên hai lần gọi song song hay event bị giao lại cũng chỉ
+ * tạo một invoice.
+ *
+ * Khi đơn bị hủy (khách hủy / reservation hết hạn), invoice chưa thanh toán
+ * được void theo; đơn đang hoặc đã được thanh toán thì không được hủy.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FabricOrderInvoiceService {
+
+    private final FabricOrderRepository fabricOrderRepository;
+    private final InvoiceService invoiceService;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+
+    /**
+     * Invoice của đơn, tạo nếu chưa có.
+     *
+     * @return null nếu đơn đã hủy trước khi có invoice
+     */
+    @Transactional
+    public InvoiceEntity ensureInvoice(Long orderId) {
+        FabricOrderEntity order = fabricOrderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new NotFoundException("Order not found"));
+        if (order.getInvoice() != null) {
+            return order.getInvoice();
+        }
+        if (order.getStatus() == FabricOrderStatus.CANCELLED) {
+            log.info("Fabric order {} cancelled before invoicing, skipped", order.getCode());
+            return null;
+        }
+
+        InvoiceRequest invoiceRequest = InvoiceRequest.builder()
+                .customerId(order.getCustomer().getId())
+                .staffId(order.getCustomer().getId()) // Use customer as staff for now, or find staff
+                .currency("VND")
+                .discountAmount(order.getDiscountAmount())
+                .taxAmount(order.getTaxAmount())
+                .notes("Invoice for fabric order: " + order.getCode())
+                .items(order.getItems().stream()
+                        .map(item -> InvoiceRequest.ItemRequest.builder()
+                                .name(item.getFabricName() + " (" + item.getFabricCode() + ")")
+                                .quantity(item.getQuantity().intValue())
+                                .unitPrice(item.getPricePerMeter())
+                                .discountAmount(item.getDiscountAmount())
+                                .taxRate(BigDecimal.ZERO)
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+
+        InvoiceResponse invoiceResponse = invoiceService.create(invoiceRequest, order.getCustomer().getId());
+        // Chỉ cần khóa ngoại: reference thay vì đọc lại invoice vừa tạo
+        InvoiceEntity invoice = invoiceRepository.getReferenceById(invoiceResponse.getId());
+        order.setInvoice(invoice);
+        fabricOrderRepository.save(order);
+
+        log.info("Invoice {} created for fabric order {}", invoiceResponse.getCode(), order.getCode());
+        return invoice;
+    }
+
+    /**
+     * Đơn đang / đã được thanh toán: invoice đã có tiền vào, hoặc còn payment
+     * online chờ callback. Khóa invoice (cùng thứ tự với addPayment / handleCallback),
+     * nên không payment nào xen vào trước khi caller hủy đơn trong cùng transaction.
+     */
+    @Transactional
+    public boolean hasPayment(FabricOrderEntity order) {
+        if (order.getInvoice() == null) {
+            return false;
+        }
+        InvoiceEntity invoice = invoiceRepository.findByIdForUpdate(order.getInvoice().getId()).orElse(null);
+        if (invoice == null) {
+            return false;
+        }
+        return invoice.getPaidAmount().compareTo(BigDecimal.ZERO) > 0
+                || paymentTransactionRepository.existsByInvoiceIdAndStatus(invoice.getId(), PaymentStatus.pending);
+    }
+
+    /**
+     * Void invoice của đơn vừa bị hủy (gọi sau {@link #hasPayment} = false)
+     */
+    @Transactional
+    public void voidInvoice(FabricOrderEntity order) {
+        InvoiceEntity invoice = order.getInvoice();
+        if (invoice == null || invoice.getStatus() == InvoiceStatus.voided) {
+            return;
+        }
+        invoiceService.voidInvoice(invoice.getId(), null);
+        log.info("Invoice {} voided: fabric order {} cancelled", invoice.getCode(), order.getCode());
+    }
+}
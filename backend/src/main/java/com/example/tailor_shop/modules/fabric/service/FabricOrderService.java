@@ -20,5 +20,11 @@ public interface FabricOrderService {
 
     // Payment
     com.example.tailor_shop.modules.billing.dto.PaymentResponse processPayment(FabricPaymentRequest request, Long userId);
+
+    /**
+     * Invoice đã thanh toán đủ (mọi provider): đánh dấu đơn PAID và xuất kho phần đã giữ.
+     * Idempotent: outbox có thể giao lại event.
+     */
+    void onInvoicePaid(Long invoiceId);
 }
 
@@ -0,0 +1,304 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.fabric.domain.FabricEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricHoldRequestStatus;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderStatus;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationSource;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationStatus;
+import com.example.tailor_shop.modules.fabric.domain.PaymentStatus;
+import com.example.tailor_shop.modules.fabric.repository.FabricHoldRequestRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricOrderRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservation tồn kho vải trên fabric_inventory.
+ *
+ * Giữ hàng = tăng reserved_quantity của từng lô bằng một UPDATE có điều kiện
+ * (quantity - reserved_quantity >= qty), không đọc-rồi-ghi, nên checkout song
+ * song không thể bán quá tồn kho và không cần lock toàn cục. Một yêu cầu có
+ * thể trải trên nhiều lô; mỗi phần được ghi một dòng fabric_reservations.
+ * Nếu không đủ hàng thì ném BadRequestException và transaction của caller
+ * rollback luôn các phần đã giữ.
+ *
+ * Sau đó mỗi dòng ACTIVE kết thúc đúng một lần (chuyển trạng thái có điều kiện):
+ * - consume: xuất kho (đơn đã thanh toán, giữ vải đã hoàn tất)
+ * - release: trả lại (hủy đơn, hủy / từ chối giữ vải)
+ * - expire: sweeper trả lại các reservation quá expires_at; đơn đang / đã được
+ *   thanh toán thì được gia hạn thay vì hủy (InvoicePaidEvent sẽ consume)
+ *
+ * Phải được gọi trong transaction của caller (checkout, duyệt giữ vải, ...).
+ * Thứ tự khóa cố định (fabric id rồi inventory id) tránh deadlock giữa các checkout.
+ */
+@Service
+@Slf4j
+public class FabricReservationService {
+
+    // Số lần đọc lại các lô khi bị checkout khác tranh mất phần còn lại
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FabricInventoryRepository fabricInventoryRepository;
+    private final FabricReservationRepository fabricReservationRepository;
+    private final FabricOrderRepository fabricOrderRepository;
+    private final FabricHoldRequestRepository fabricHoldRequestRepository;
+    private final FabricAvailabilityCache fabricAvailabilityCache;
+    private final FabricOrderInvoiceService fabricOrderInvoiceService;
+    private final TransactionTemplate transactionTemplate;
+    private final int sweepBatchSize;
+    private final Duration orderTtl;
+
+    private final Counter reserved;
+    private final Counter rejected;
+    private final Counter contended;
+    private final Counter expired;
+
+    public FabricReservationService(FabricInventoryRepository fabricInventoryRepository,
+                                    FabricReservationRepository fabricReservationRepository,
+                                    FabricOrderRepository fabricOrderRepository,
+                                    FabricHoldRequestRepository fabricHoldRequestRepository,
+                                    FabricAvailabilityCache fabricAvailabilityCache,
+                                    FabricOrderInvoiceService fabricOrderInvoiceService,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${fabric.reservation.sweep-batch-size:200}") int sweepBatchSize,
+                                    @Value("${fabric.reservation.order-ttl-minutes:30}") long orderTtlMinutes) {
+        this.fabricInventoryRepository = fabricInventoryRepository;
+        this.fabricReservationRepository = fabricReservationRepository;
+        this.fabricOrderRepository = fabricOrderRepository;
+        this.fabricHoldRequestRepository = fabricHoldRequestRepository;
+        this.fabricAvailabilityCache = fabricAvailabilityCache;
+        this.fabricOrderInvoiceService = fabricOrderInvoiceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sweepBatchSize = sweepBatchSize;
+        this.orderTtl = Duration.ofMinutes(orderTtlMinutes);
+
+        this.reserved = meterRegistry.counter("fabric.reservation.reserved");
+        this.rejected = meterRegistry.counter("fabric.reservation.rejected");
+        this.contended = meterRegistry.counter("fabric.reservation.contended");
+        this.expired = meterRegistry.counter("fabric.reservation.expired");
+    }
+
+    /**
+     * Giữ {@code quantity} của một fabric cho một nguồn, trải trên các lô còn hàng.
+     *
+     * @param expiresAt null = giữ tới khi consume / release
+     * @throws BadRequestException nếu tồn kho không đủ
+     */
+    @Transactional
+    public void reserve(FabricReservationSource source, Long sourceId, FabricEntity fabric,
+                        BigDecimal quantity, OffsetDateTime expiresAt) {
+        reserveAll(source, sourceId, List.of(new Line(fabric, quantity)), expiresAt);
+    }
+
+    /**
+     * Giữ nhiều fabric cho một nguồn (checkout). Các lô của mọi fabric được đọc
+     * trong một query; chỉ fabric bị tranh chấp mới đọc lại lô của riêng nó.
+     * Các dòng reservation được ghi bằng một saveAll.
+     *
+     * @throws BadRequestException nếu một fabric không đủ hàng (caller rollback cả nhóm)
+     */
+    @Transactional
+    public void reserveAll(FabricReservationSource source, Long sourceId, List<Line> lines,
+                           OffsetDateTime expiresAt) {
+        // Gộp theo fabric, theo thứ tự id (thứ tự khóa cố định giữa các checkout)
+        Map<Long, Line> byFabric = new TreeMap<>();
+        for (Line line : lines) {
+            byFabric.merge(line.fabric().getId(), line,
+                    (a, b) -> new Line(a.fabric(), a.quantity().add(b.quantity())));
+        }
+
+        Map<Long, List<Object[]>> lots = new HashMap<>();
+        for (Object[] row : fabricInventoryRepository.findAvailableLotsByFabricIds(byFabric.keySet())) {
+            lots.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new Object[]{row[1], row[2]});
+        }
+
+        List<FabricReservationEntity> slices = new ArrayList<>();
+        for (Line line : byFabric.values()) {
+            reserveLine(source, sourceId, line, lots.getOrDefault(line.fabric().getId(), List.of()),
+                    expiresAt, slices);
+        }
+        fabricReservationRepository.saveAll(slices);
+
+        reserved.increment(byFabric.size());
+        byFabric.keySet().forEach(fabricAvailabilityCache::invalidate);
+    }
+
+    /**
+     * Xuất kho mọi reservation ACTIVE của nguồn.
+     *
+     * @return số reservation đã consume
+     */
+    @Transactional
+    public int consume(FabricReservationSource source, Long sourceId) {
+        return settle(source, sourceId, FabricReservationStatus.CONSUMED);
+    }
+
+    /**
+     * Trả lại mọi reservation ACTIVE của nguồn (idempotent).
+     *
+     * @return số reservation đã release
+     */
+    @Transactional
+    public int release(FabricReservationSource source, Long sourceId) {
+        return settle(source, sourceId, FabricReservationStatus.RELEASED);
+    }
+
+    /**
+     * Trả lại các reservation quá hạn, mỗi nguồn trong một transaction riêng.
+     * Đơn hàng chưa thanh toán (invoice bị void) và yêu cầu giữ vải hết hạn bị hủy theo.
+     *
+     * @return số nguồn đã xử lý
+     */
+    @Scheduled(fixedDelayString = "${fabric.reservation.sweep-interval-ms:60000}")
+    public int sweepExpired() {
+        List<Object[]> sources = fabricReservationRepository.findExpiredSources(
+                OffsetDateTime.now(), PageRequest.of(0, sweepBatchSize));
+        int swept = 0;
+        for (Object[] row : sources) {
+            FabricReservationSource source = (FabricReservationSource) row[0];
+            Long sourceId = (Long) row[1];
+            try {
+                Integer count = transactionTemplate.execute(status -> expire(source, sourceId));
+                swept++;
+                log.info("Expired {} fabric reservation(s) of {} {}", count, source, sourceId);
+            } catch (RuntimeException e) {
+                log.error("Failed to expire fabric reservations of {} {}: {}", source, sourceId, e.getMessage(), e);
+            }
+        }
+        return swept;
+    }
+
+    // ==================== HELPERS ====================
+
+    private void reserveLine(FabricReservationSource source, Long sourceId, Line line, List<Object[]> lots,
+                             OffsetDateTime expiresAt, List<FabricReservationEntity> slices) {
+        FabricEntity fabric = line.fabric();
+        BigDecimal remaining = line.quantity();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && remaining.signum() > 0; attempt++) {
+            if (attempt > 0) {
+                lots = fabricInventoryRepository.findAvailableLots(fabric.getId());
+            }
+            if (lots.isEmpty()) {
+                break;
+            }
+            for (Object[] lot : lots) {
+                Long inventoryId = (Long) lot[0];
+                BigDecimal take = remaining.min((BigDecimal) lot[1]);
+                if (take.signum() <= 0) {
+                    continue;
+                }
+                if (fabricInventoryRepository.tryReserve(inventoryId, take) == 0) {
+                    // Lô vừa bị checkout khác lấy bớt: đọc lại ở vòng sau
+                    contended.increment();
+                    continue;
+                }
+                slices.add(FabricReservationEntity.builder()
+                        .fabricId(fabric.getId())
+                        .inventoryId(inventoryId)
+                        .quantity(take)
+                        .sourceType(source)
+                        .sourceId(sourceId)
+                        .expiresAt(expiresAt)
+                        .build());
+                remaining = remaining.subtract(take);
+                if (remaining.signum() == 0) {
+                    break;
+                }
+            }
+        }
+
+        if (remaining.signum() > 0) {
+            rejected.increment();
+            throw new BadRequestException(String.format("Insufficient quantity for fabric %s. Available: %s",
+                    fabric.getCode(), line.quantity().subtract(remaining)));
+        }
+    }
+
+    private int expire(FabricReservationSource source, Long sourceId) {
+        FabricOrderEntity order = null;
+        if (source == FabricReservationSource.ORDER) {
+            // Khóa đơn rồi invoice: không payment nào xen vào giữa kiểm tra và hủy
+            order = fabricOrderRepository.findByIdForUpdate(sourceId).orElse(null);
+            if (order != null && fabricOrderInvoiceService.hasPayment(order)) {
+                fabricReservationRepository.extendExpiry(source, sourceId, OffsetDateTime.now().plus(orderTtl));
+                log.info("Fabric order {} has a pending or settled payment, reservation extended", order.getCode());
+                return 0;
+            }
+        }
+
+        int count = settle(source, sourceId, FabricReservationStatus.EXPIRED);
+        if (count == 0) {
+            return 0; // Đã được consume / release trong lúc sweep
+        }
+        expired.increment(count);
+
+        if (source == FabricReservationSource.ORDER) {
+            if (order != null && order.getStatus() == FabricOrderStatus.PENDING
+                    && order.getPaymentStatus() != PaymentStatus.PAID) {
+                order.setStatus(FabricOrderStatus.CANCELLED);
+                fabricOrderRepository.save(order);
+                fabricOrderInvoiceService.voidInvoice(order);
+                log.info("Unpaid fabric order {} cancelled: reservation expired", order.getCode());
+            }
+        } else {
+            fabricHoldRequestRepository.findById(sourceId)
+                    .filter(hold -> hold.getStatus() == FabricHoldRequestStatus.APPROVED)
+                    .ifPresent(hold -> {
+                        hold.setStatus(FabricHoldRequestStatus.CANCELLED);
+                        hold.setStaffNotes("Hết hạn giữ vải");
+                        fabricHoldRequestRepository.save(hold);
+                    });
+        }
+        return count;
+    }
+
+    private int settle(FabricReservationSource source, Long sourceId, FabricReservationStatus to) {
+        List<FabricReservationEntity> active = fabricReservationRepository
+                .findBySourceTypeAndSourceIdAndStatus(source, sourceId, FabricReservationStatus.ACTIVE);
+        int settled = 0;
+        for (FabricReservationEntity reservation : active) {
+            // Chỉ caller chuyển được trạng thái mới được động vào tồn kho
+            if (fabricReservationRepository.transition(
+                    reservation.getId(), FabricReservationStatus.ACTIVE, to) == 0) {
+                continue;
+            }
+            if (to == FabricReservationStatus.CONSUMED) {
+                fabricInventoryRepository.consumeReserved(reservation.getInventoryId(), reservation.getQuantity());
+            } else {
+                fabricInventoryRepository.releaseReserved(reservation.getInventoryId(), reservation.getQuantity());
+            }
+            fabricAvailabilityCache.invalidate(reservation.getFabricId());
+            settled++;
+        }
+        return settled;
+    }
+
+    /**
+     * Một dòng cần giữ: fabric và số lượng
+     */
+    public record Line(FabricEntity fabric, BigDecimal quantity) {
+    }
+}
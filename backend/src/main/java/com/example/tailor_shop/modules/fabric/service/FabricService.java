@@ -1,6 +1,7 @@
 package com.example.tailor_shop.modules.fabric.service;
 
 import com.example.tailor_shop.modules.fabric.dto.ApplyFabricPromoRequest;
+import com.example.tailor_shop.modules.fabric.dto.FabricFacetsResponse;
 import com.example.tailor_shop.modules.fabric.dto.FabricFilterRequest;
 import com.example.tailor_shop.modules.fabric.dto.FabricHoldRequestRequest;
 import com.example.tailor_shop.modules.fabric.dto.FabricHoldRequestResponse;
@@ -23,6 +24,11 @@ public interface FabricService {
      */
     Page<FabricResponse> list(FabricFilterRequest filter, Pageable pageable);
 
+    /**
+     * Facet counts (category, pattern, season, stretch, price) cho filter
+     */
+    FabricFacetsResponse facets(FabricFilterRequest filter);
+
     /**
      * Get fabric detail
      */
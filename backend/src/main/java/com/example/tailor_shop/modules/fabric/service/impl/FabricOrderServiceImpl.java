@@ -3,24 +3,23 @@ package com.example.tailor_shop.modules.fabric.service.impl;
 import com.example.tailor_shop.common.TraceIdUtil;
 import com.example.tailor_shop.config.exception.BadRequestException;
 import com.example.tailor_shop.config.exception.NotFoundException;
-import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
 import com.example.tailor_shop.modules.billing.domain.InvoiceStatus;
-import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
-import com.example.tailor_shop.modules.billing.dto.InvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.PaymentRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
 import com.example.tailor_shop.modules.billing.repository.InvoiceItemRepository;
-import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
 import com.example.tailor_shop.modules.billing.service.InvoiceService;
+import com.example.tailor_shop.modules.event.service.OutboxEventPublisher;
 import com.example.tailor_shop.modules.fabric.domain.*;
 import com.example.tailor_shop.modules.fabric.dto.*;
 import com.example.tailor_shop.modules.cart.domain.CartItemEntity;
 import com.example.tailor_shop.modules.cart.domain.CartItemType;
 import com.example.tailor_shop.modules.cart.repository.CartItemRepository;
-import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
 import com.example.tailor_shop.modules.fabric.repository.FabricOrderRepository;
 import com.example.tailor_shop.modules.fabric.repository.FabricRepository;
+import com.example.tailor_shop.modules.fabric.event.FabricOrderPlacedEvent;
+import com.example.tailor_shop.modules.fabric.service.FabricOrderInvoiceService;
 import com.example.tailor_shop.modules.fabric.service.FabricOrderService;
+import com.example.tailor_shop.modules.fabric.service.FabricReservationService;
 import com.example.tailor_shop.modules.promotion.dto.ApplyPromoCodeRequest;
 import com.example.tailor_shop.modules.promotion.dto.ApplyPromoCodeResponse;
 import com.example.tailor_shop.modules.promotion.service.PromotionService;
@@ -28,6 +27,7 @@ import com.example.tailor_shop.modules.user.domain.UserEntity;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -37,7 +37,9 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -52,12 +54,16 @@ public class FabricOrderServiceImpl implements FabricOrderService {
     private final CartItemRepository cartItemRepository; // From Cart module (only for checkout)
     private final FabricOrderRepository fabricOrderRepository;
     private final FabricRepository fabricRepository;
-    private final FabricInventoryRepository fabricInventoryRepository;
     private final UserRepository userRepository;
     private final PromotionService promotionService;
     private final InvoiceService invoiceService;
-    private final InvoiceRepository invoiceRepository;
     private final InvoiceItemRepository invoiceItemRepository;
+    private final FabricReservationService fabricReservationService;
+    private final FabricOrderInvoiceService fabricOrderInvoiceService;
+    private final OutboxEventPublisher outboxEventPublisher;
+
+    @Value("${fabric.reservation.order-ttl-minutes:30}")
+    private long orderReservationTtlMinutes;
 
     // ========== CHECKOUT & ORDER ==========
     // Note: Cart operations đã được tách ra CartService (module riêng)
@@ -82,30 +88,32 @@ public class FabricOrderServiceImpl implements FabricOrderService {
             }
         });
 
+        // Load tất cả fabric của giỏ trong một query (không findById từng item)
+        Map<Long, FabricEntity> fabrics = fabricRepository.findAllById(cartItems.stream()
+                        .map(CartItemEntity::getItemId)
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .stream()
+                .filter(f -> Boolean.FALSE.equals(f.getIsDeleted()))
+                .collect(Collectors.toMap(FabricEntity::getId, Function.identity()));
+
         // Calculate subtotal and validate availability
         BigDecimal subtotal = BigDecimal.ZERO;
         List<FabricOrderItemEntity> orderItems = new ArrayList<>();
+        List<FabricReservationService.Line> toReserve = new ArrayList<>(cartItems.size());
 
         for (CartItemEntity cartItem : cartItems) {
             // Get fabric from itemId (since CartItemEntity is now generic)
-            FabricEntity fabric = fabricRepository.findById(cartItem.getItemId())
-                    .filter(f -> Boolean.FALSE.equals(f.getIsDeleted()))
-                    .orElseThrow(() -> new NotFoundException("Fabric not found for cart item: " + cartItem.getId()));
+            FabricEntity fabric = fabrics.get(cartItem.getItemId());
+            if (fabric == null) {
+                throw new NotFoundException("Fabric not found for cart item: " + cartItem.getId());
+            }
             if (!Boolean.TRUE.equals(fabric.getIsAvailable())) {
                 throw new BadRequestException("Fabric " + fabric.getCode() + " is not available");
             }
 
-            BigDecimal availableQuantity = fabricInventoryRepository
-                    .sumAvailableQuantityByFabricId(fabric.getId());
-            if (availableQuantity == null) {
-                availableQuantity = BigDecimal.ZERO;
-            }
-            if (cartItem.getQuantity().compareTo(availableQuantity) > 0) {
-                throw new BadRequestException(
-                        String.format("Insufficient quantity for fabric %s. Available: %s",
-                                fabric.getCode(), availableQuantity)
-                );
-            }
+            // Tồn kho được kiểm tra và giữ nguyên tử khi reserve (sau khi tạo order)
+            toReserve.add(new FabricReservationService.Line(fabric, cartItem.getQuantity()));
 
             BigDecimal itemSubtotal = fabric.getPricePerMeter().multiply(cartItem.getQuantity());
             subtotal = subtotal.add(itemSubtotal);
@@ -202,30 +210,17 @@ public class FabricOrderServiceImpl implements FabricOrderService {
 
         order = fabricOrderRepository.save(order);
 
-        // Create invoice using InvoiceService
-        InvoiceRequest invoiceRequest = InvoiceRequest.builder()
-                .customerId(customer.getId())
-                .staffId(customer.getId()) // Use customer as staff for now, or find staff
-                .currency("VND")
-                .discountAmount(order.getDiscountAmount())
-                .taxAmount(order.getTaxAmount())
-                .notes("Invoice for fabric order: " + order.getCode())
-                .items(order.getItems().stream()
-                        .map(item -> InvoiceRequest.ItemRequest.builder()
-                                .name(item.getFabricName() + " (" + item.getFabricCode() + ")")
-                                .quantity(item.getQuantity().intValue())
-                                .unitPrice(item.getPricePerMeter())
-                                .discountAmount(item.getDiscountAmount())
-                                .taxRate(BigDecimal.ZERO)
-                                .build())
-                        .collect(Collectors.toList()))
-                .build();
+        // Giữ hàng: UPDATE có điều kiện trên từng lô, thiếu hàng thì rollback cả checkout.
+        // COD không có bước thanh toán nên giữ tới khi hủy; đơn trả trước hết hạn nếu không thanh toán.
+        OffsetDateTime reservationExpiresAt = request.getPaymentMethod() == PaymentMethod.COD
+                ? null
+                : OffsetDateTime.now().plusMinutes(orderReservationTtlMinutes);
+        fabricReservationService.reserveAll(FabricReservationSource.ORDER, order.getId(),
+                toReserve, reservationExpiresAt);
 
-        InvoiceResponse invoiceResponse = invoiceService.create(invoiceRequest, customer.getId());
-        InvoiceEntity invoice = invoiceRepository.findById(invoiceResponse.getId())
-                .orElseThrow(() -> new NotFoundException("Invoice not found after creation"));
-        order.setInvoice(invoice);
-        order = fabricOrderRepository.save(order);
+        // Invoice được tạo bất đồng bộ qua outbox (cùng commit với order), không nằm trên checkout path
+        String correlationId = TraceIdUtil.getOrCreateTraceId();
+        outboxEventPublisher.publish(new FabricOrderPlacedEvent(order, correlationId), correlationId);
 
         // Clear cart items (only FABRIC items that were checked out)
         cartItemRepository.deleteByUserIdAndIds(userId, request.getCartItemIds());
@@ -276,15 +271,51 @@ public class FabricOrderServiceImpl implements FabricOrderService {
         if (order.getPaymentStatus() == com.example.tailor_shop.modules.fabric.domain.PaymentStatus.PAID) {
             throw new BadRequestException("Cannot cancel paid order. Please request refund.");
         }
+        if (fabricOrderInvoiceService.hasPayment(order)) {
+            throw new BadRequestException("Cannot cancel order with a payment in progress");
+        }
 
         order.setStatus(FabricOrderStatus.CANCELLED);
         fabricOrderRepository.save(order);
+        fabricReservationService.release(FabricReservationSource.ORDER, order.getId());
+        fabricOrderInvoiceService.voidInvoice(order);
 
         log.info("[TraceId: {}] Order cancelled: code={}, userId={}",
                 TraceIdUtil.getTraceId(), order.getCode(), userId);
     }
 
+    @Override
+    @Transactional
+    public void onInvoicePaid(Long invoiceId) {
+        FabricOrderEntity order = fabricOrderRepository.findByInvoiceIdForUpdate(invoiceId).orElse(null);
+        if (order == null || order.getPaymentStatus() == PaymentStatus.PAID) {
+            return; // Invoice không thuộc đơn vải, hoặc đã xử lý (thanh toán tiền mặt / giao lại)
+        }
+        if (order.getStatus() == FabricOrderStatus.CANCELLED) {
+            log.error("[TraceId: {}] Invoice {} paid for cancelled fabric order {}, refund manually",
+                    TraceIdUtil.getTraceId(), invoiceId, order.getCode());
+            return;
+        }
+        markPaid(order);
+        fabricOrderRepository.save(order);
+
+        log.info("[TraceId: {}] Fabric order {} paid via invoice {}",
+                TraceIdUtil.getTraceId(), order.getCode(), invoiceId);
+    }
+
     // ========== PRIVATE HELPERS ==========
+
+    private void markPaid(FabricOrderEntity order) {
+        order.setPaymentStatus(PaymentStatus.PAID);
+        if (order.getStatus() == FabricOrderStatus.PENDING) {
+            order.setStatus(FabricOrderStatus.CONFIRMED);
+        }
+        // Đã thanh toán: xuất kho phần đã giữ
+        if (fabricReservationService.consume(FabricReservationSource.ORDER, order.getId()) == 0) {
+            log.warn("[TraceId: {}] Order {} paid without an active fabric reservation",
+                    TraceIdUtil.getTraceId(), order.getCode());
+        }
+    }
     // Note: Cart item conversion đã được xử lý trong CartService
 
     private FabricOrderResponse toOrderResponse(FabricOrderEntity entity) {
@@ -366,8 +397,8 @@ public class FabricOrderServiceImpl implements FabricOrderService {
             throw new BadRequestException("Cannot pay for order in status: " + order.getStatus());
         }
 
-        // Verify invoice exists
-        if (order.getInvoice() == null) {
+        // Invoice thường đã được outbox tạo; nếu khách thanh toán ngay sau checkout thì tạo tại đây
+        if (order.getInvoice() == null && fabricOrderInvoiceService.ensureInvoice(order.getId()) == null) {
             throw new BadRequestException("Invoice not found for this order");
         }
 
@@ -384,13 +415,11 @@ public class FabricOrderServiceImpl implements FabricOrderService {
         // Process payment via InvoiceService
         PaymentResponse paymentResponse = invoiceService.addPayment(paymentRequest, userId);
 
-        // Update order payment status based on payment result
+        // Update order payment status based on payment result.
+        // Provider online (pending): hoàn tất khi callback thành công, qua InvoicePaidEvent -> onInvoicePaid
         com.example.tailor_shop.modules.billing.domain.PaymentStatus billingStatus = paymentResponse.getStatus();
         if (billingStatus == com.example.tailor_shop.modules.billing.domain.PaymentStatus.success) {
-            order.setPaymentStatus(PaymentStatus.PAID);
-            if (order.getStatus() == FabricOrderStatus.PENDING) {
-                order.setStatus(FabricOrderStatus.CONFIRMED);
-            }
+            markPaid(order);
         } else if (billingStatus == com.example.tailor_shop.modules.billing.domain.PaymentStatus.failed) {
             order.setPaymentStatus(PaymentStatus.FAILED);
         }
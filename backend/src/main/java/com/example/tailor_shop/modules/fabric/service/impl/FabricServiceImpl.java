@@ -1,6 +1,7 @@
 package com.example.tailor_shop.modules.fabric.service.impl;
 
 import com.example.tailor_shop.common.TraceIdUtil;
+import com.example.tailor_shop.common.ViewCounter;
 import com.example.tailor_shop.config.exception.BadRequestException;
 import com.example.tailor_shop.config.exception.NotFoundException;
 import com.example.tailor_shop.modules.fabric.domain.FabricEntity;
@@ -8,7 +9,9 @@ import com.example.tailor_shop.modules.fabric.domain.FabricHoldRequestEntity;
 import com.example.tailor_shop.modules.fabric.domain.FabricHoldRequestStatus;
 import com.example.tailor_shop.modules.fabric.domain.FabricHoldRequestType;
 import com.example.tailor_shop.modules.fabric.domain.FabricInventoryEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationSource;
 import com.example.tailor_shop.modules.fabric.dto.ApplyFabricPromoRequest;
+import com.example.tailor_shop.modules.fabric.dto.FabricFacetsResponse;
 import com.example.tailor_shop.modules.fabric.dto.FabricFilterRequest;
 import com.example.tailor_shop.modules.fabric.dto.FabricHoldRequestRequest;
 import com.example.tailor_shop.modules.fabric.dto.FabricHoldRequestResponse;
@@ -21,6 +24,9 @@ import com.example.tailor_shop.modules.fabric.dto.UpdateHoldRequestStatusRequest
 import com.example.tailor_shop.modules.fabric.repository.FabricHoldRequestRepository;
 import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
 import com.example.tailor_shop.modules.fabric.repository.FabricRepository;
+import com.example.tailor_shop.modules.fabric.service.FabricAvailabilityCache;
+import com.example.tailor_shop.modules.fabric.service.FabricCatalog;
+import com.example.tailor_shop.modules.fabric.service.FabricReservationService;
 import com.example.tailor_shop.modules.fabric.service.FabricService;
 import com.example.tailor_shop.modules.promotion.dto.ApplyPromoCodeRequest;
 import com.example.tailor_shop.modules.promotion.dto.ApplyPromoCodeResponse;
@@ -31,14 +37,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -52,6 +63,10 @@ public class FabricServiceImpl implements FabricService {
     private final UserRepository userRepository;
     private final PromotionService promotionService;
     private final ObjectMapper objectMapper;
+    private final FabricAvailabilityCache fabricAvailabilityCache;
+    private final FabricReservationService fabricReservationService;
+    private final ViewCounter viewCounter;
+    private final FabricCatalog fabricCatalog;
 
     @Override
     @Transactional(readOnly = true)
@@ -60,30 +75,32 @@ public class FabricServiceImpl implements FabricService {
             log.debug("[TraceId: {}] Listing fabrics with filter: {}, pageable: {}",
                     TraceIdUtil.getTraceId(), filter, pageable);
 
-            // Filter by low stock if needed
-            Page<FabricEntity> page = fabricRepository.searchFabrics(
-                    filter != null ? filter.getCategory() : null,
-                    filter != null ? filter.getColor() : null,
-                    filter != null ? filter.getPattern() : null,
-                    filter != null ? filter.getMaterial() : null,
-                    filter != null ? filter.getOrigin() : null,
-                    filter != null ? filter.getIsAvailable() : null,
-                    filter != null ? filter.getIsFeatured() : null,
-                    filter != null ? filter.getMinPrice() : null,
-                    filter != null ? filter.getMaxPrice() : null,
-                    filter != null ? filter.getKeyword() : null,
-                    pageable);
+            // Filter / sort / page trên catalog in-memory, DB chỉ để hydrate trang
+            Page<Long> ids = fabricCatalog.search(filter, pageable);
+            Map<Long, FabricEntity> fabrics = fabricRepository.findAllById(ids.getContent()).stream()
+                    .collect(Collectors.toMap(FabricEntity::getId, Function.identity()));
 
             log.debug("[TraceId: {}] Found {} fabrics, converting to response",
-                    TraceIdUtil.getTraceId(), page.getTotalElements());
-
-            return page.map(this::toResponse);
+                    TraceIdUtil.getTraceId(), ids.getTotalElements());
+
+            // Giữ thứ tự của catalog; fabric vừa bị xóa trên node khác thì bỏ qua
+            List<FabricResponse> content = ids.getContent().stream()
+                    .map(fabrics::get)
+                    .filter(f -> f != null && Boolean.FALSE.equals(f.getIsDeleted()))
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+            return new PageImpl<>(content, pageable, ids.getTotalElements());
         } catch (Exception e) {
             log.error("[TraceId: {}] Error listing fabrics: {}", TraceIdUtil.getTraceId(), e.getMessage(), e);
             throw e;
         }
     }
 
+    @Override
+    public FabricFacetsResponse facets(FabricFilterRequest filter) {
+        return fabricCatalog.facets(filter);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public FabricResponse detail(Long id) {
@@ -164,6 +181,7 @@ public class FabricServiceImpl implements FabricService {
                 .build();
 
         entity = fabricRepository.save(entity);
+        fabricCatalog.upsert(entity);
 
         log.info("[TraceId: {}] Fabric created: id={}, code={}, name={}",
                 TraceIdUtil.getTraceId(), entity.getId(), entity.getCode(), entity.getName());
@@ -227,6 +245,7 @@ public class FabricServiceImpl implements FabricService {
         entity.setDisplayOrder(request.getDisplayOrder() != null ? request.getDisplayOrder() : 0);
 
         entity = fabricRepository.save(entity);
+        fabricCatalog.upsert(entity);
 
         log.info("[TraceId: {}] Fabric updated: id={}, code={}",
                 TraceIdUtil.getTraceId(), entity.getId(), entity.getCode());
@@ -250,20 +269,16 @@ public class FabricServiceImpl implements FabricService {
         }
 
         fabricRepository.save(entity);
+        fabricCatalog.remove(id);
 
         log.info("[TraceId: {}] Fabric deleted: id={}, code={}",
                 TraceIdUtil.getTraceId(), id, entity.getCode());
     }
 
     @Override
-    @Transactional
     public void incrementViewCount(Long id) {
-        FabricEntity entity = fabricRepository.findById(id)
-                .filter(f -> Boolean.FALSE.equals(f.getIsDeleted()))
-                .orElseThrow(() -> new NotFoundException("Fabric not found"));
-
-        entity.setViewCount(entity.getViewCount() + 1);
-        fabricRepository.save(entity);
+        // Controller gọi sau detail (đã kiểm tra tồn tại): chỉ cộng vào bộ đếm, flush theo batch
+        viewCounter.record(ViewCounter.Target.FABRIC, id);
     }
 
     @Override
@@ -308,9 +323,10 @@ public class FabricServiceImpl implements FabricService {
                         .build());
 
         inventory.setQuantity(request.getQuantity());
-        inventory.setReservedQuantity(request.getReservedQuantity() != null
-                ? request.getReservedQuantity()
-                : BigDecimal.ZERO);
+        // Không gửi reservedQuantity thì giữ nguyên phần đang được reservation giữ
+        if (request.getReservedQuantity() != null) {
+            inventory.setReservedQuantity(request.getReservedQuantity());
+        }
         inventory.setMinStockLevel(request.getMinStockLevel());
         inventory.setMaxStockLevel(request.getMaxStockLevel());
         inventory.setUnit(request.getUnit() != null ? request.getUnit() : "METER");
@@ -323,6 +339,7 @@ public class FabricServiceImpl implements FabricService {
         }
 
         inventory = fabricInventoryRepository.save(inventory);
+        fabricAvailabilityCache.invalidate(fabricId);
 
         log.info("[TraceId: {}] Fabric inventory updated: fabricId={}, location={}, quantity={}",
                 TraceIdUtil.getTraceId(), fabricId, request.getLocation(), request.getQuantity());
@@ -440,23 +457,23 @@ public class FabricServiceImpl implements FabricService {
                 .orElseThrow(() -> new NotFoundException("User not found")));
         entity.setHandledAt(java.time.OffsetDateTime.now());
 
-        // If approved HOLD request, reserve quantity
-        if (newStatus == FabricHoldRequestStatus.APPROVED &&
-                entity.getType() == FabricHoldRequestType.HOLD) {
-            // Find or create inventory entry
-            FabricInventoryEntity inventory = fabricInventoryRepository
-                    .findByFabricIdAndLocationAndIsDeletedFalse(
-                            entity.getFabric().getId(), null)
-                    .orElse(FabricInventoryEntity.builder()
-                            .fabric(entity.getFabric())
-                            .location("DEFAULT")
-                            .quantity(BigDecimal.ZERO)
-                            .reservedQuantity(BigDecimal.ZERO)
-                            .build());
-
-            inventory.setReservedQuantity(
-                    inventory.getReservedQuantity().add(entity.getQuantity()));
-            fabricInventoryRepository.save(inventory);
+        // HOLD request: duyệt thì giữ hàng (thiếu hàng -> BadRequest), hoàn tất thì xuất kho,
+        // từ chối / hủy sau khi đã duyệt thì trả lại
+        if (entity.getType() == FabricHoldRequestType.HOLD) {
+            if (newStatus == FabricHoldRequestStatus.APPROVED && currentStatus != FabricHoldRequestStatus.APPROVED) {
+                if (entity.getQuantity() == null || entity.getQuantity().signum() <= 0) {
+                    throw new BadRequestException("Hold quantity is required");
+                }
+                OffsetDateTime expiresAt = entity.getExpiryDate() != null
+                        ? entity.getExpiryDate().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime()
+                        : null;
+                fabricReservationService.reserve(FabricReservationSource.HOLD, entity.getId(),
+                        entity.getFabric(), entity.getQuantity(), expiresAt);
+            } else if (newStatus == FabricHoldRequestStatus.COMPLETED) {
+                fabricReservationService.consume(FabricReservationSource.HOLD, entity.getId());
+            } else if (newStatus == FabricHoldRequestStatus.REJECTED || newStatus == FabricHoldRequestStatus.CANCELLED) {
+                fabricReservationService.release(FabricReservationSource.HOLD, entity.getId());
+            }
         }
 
         entity = fabricHoldRequestRepository.save(entity);
@@ -488,16 +505,7 @@ public class FabricServiceImpl implements FabricService {
         // If approved HOLD request, release reserved quantity
         if (entity.getStatus() == FabricHoldRequestStatus.APPROVED &&
                 entity.getType() == FabricHoldRequestType.HOLD) {
-            FabricInventoryEntity inventory = fabricInventoryRepository
-                    .findByFabricIdAndLocationAndIsDeletedFalse(
-                            entity.getFabric().getId(), null)
-                    .orElse(null);
-
-            if (inventory != null) {
-                inventory.setReservedQuantity(
-                        inventory.getReservedQuantity().subtract(entity.getQuantity()));
-                fabricInventoryRepository.save(inventory);
-            }
+            fabricReservationService.release(FabricReservationSource.HOLD, entity.getId());
         }
 
         entity.setStatus(FabricHoldRequestStatus.CANCELLED);
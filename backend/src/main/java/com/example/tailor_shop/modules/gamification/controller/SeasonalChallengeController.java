@@ -5,6 +5,7 @@ import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
 import com.example.tailor_shop.modules.gamification.domain.Season;
 import com.example.tailor_shop.modules.gamification.dto.*;
+import com.example.tailor_shop.modules.gamification.service.LeaderboardService;
 import com.example.tailor_shop.modules.gamification.service.SeasonalChallengeService;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import jakarta.validation.Valid;
@@ -27,6 +28,7 @@ import java.util.List;
 public class SeasonalChallengeController {
 
     private final SeasonalChallengeService challengeService;
+    private final LeaderboardService leaderboardService;
     private final UserRepository userRepository;
 
     // ==================== PUBLIC ENDPOINTS ====================
@@ -134,6 +136,47 @@ public class SeasonalChallengeController {
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), response));
     }
 
+    // ==================== LEADERBOARD ENDPOINTS ====================
+
+    /**
+     * Get top users of a challenge
+     */
+    @GetMapping("/{challengeId}/leaderboard")
+    public ResponseEntity<CommonResponse<List<LeaderboardEntryResponse>>> getLeaderboard(
+            @PathVariable Long challengeId,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("API: Get leaderboard for challenge {} limit {}", challengeId, limit);
+        List<LeaderboardEntryResponse> top = leaderboardService.getTop(challengeId, limit);
+        return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), top));
+    }
+
+    /**
+     * Get my rank in a challenge
+     */
+    @GetMapping("/{challengeId}/leaderboard/me")
+    public ResponseEntity<CommonResponse<LeaderboardEntryResponse>> getMyRank(
+            @PathVariable Long challengeId,
+            Authentication authentication) {
+        Long userId = getUserIdFromAuth(authentication);
+        log.debug("API: Get rank of user {} in challenge {}", userId, challengeId);
+        LeaderboardEntryResponse rank = leaderboardService.getRank(challengeId, userId);
+        return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), rank));
+    }
+
+    /**
+     * Get the users ranked just above and below me
+     */
+    @GetMapping("/{challengeId}/leaderboard/around-me")
+    public ResponseEntity<CommonResponse<List<LeaderboardEntryResponse>>> getAroundMe(
+            @PathVariable Long challengeId,
+            @RequestParam(defaultValue = "5") int radius,
+            Authentication authentication) {
+        Long userId = getUserIdFromAuth(authentication);
+        log.debug("API: Get leaderboard around user {} in challenge {}", userId, challengeId);
+        List<LeaderboardEntryResponse> around = leaderboardService.getAround(challengeId, userId, radius);
+        return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), around));
+    }
+
     // ==================== ADMIN ENDPOINTS ====================
 
     /**
@@ -0,0 +1,24 @@
+package com.example.tailor_shop.modules.gamification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Leaderboard Entry Response DTO - Thứ hạng của user trong 1 challenge
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+
+    private Long challengeId;
+    private Long userId;
+    private String userName;
+
+    // Rank (1 = top), null if the user has no progress yet
+    private Long rank;
+    private Long score;
+}
@@ -2,6 +2,9 @@ package com.example.tailor_shop.modules.gamification.repository;
 
 import com.example.tailor_shop.modules.gamification.domain.DailyCheckin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -14,6 +17,19 @@ public interface DailyCheckinRepository extends JpaRepository<DailyCheckin, Long
     // Check if already checked in today (anti-fraud)
     boolean existsByUserIdAndCheckinDate(Long userId, LocalDate checkinDate);
 
+    // Idempotent check-in: the unique (user_id, checkin_date) key is the guard. Only the duplicate key is
+    // absorbed (other errors propagate); it resets LAST_INSERT_ID to 0, so lastInsertId() afterwards is the
+    // new row id, or 0 if already checked in. Native SQL skips @PrePersist: created_at is set here.
+    @Modifying
+    @Query(value = "INSERT INTO daily_checkin (user_id, checkin_date, streak_day, points_earned, created_at) " +
+            "VALUES (:userId, :checkinDate, :streakDay, :pointsEarned, NOW()) " +
+            "ON DUPLICATE KEY UPDATE id = id + LAST_INSERT_ID(0)", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("checkinDate") LocalDate checkinDate,
+                        @Param("streakDay") int streakDay, @Param("pointsEarned") int pointsEarned);
+
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long lastInsertId();
+
     Optional<DailyCheckin> findByUserIdAndCheckinDate(Long userId, LocalDate checkinDate);
 
     // Get check-in history for calendar view
@@ -4,6 +4,7 @@ import com.example.tailor_shop.modules.gamification.domain.PointsTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,11 +23,42 @@ public interface PointsTransactionRepository extends JpaRepository<PointsTransac
             "AND t.createdAt >= :startOfDay")
     int sumPointsEarnedToday(@Param("userId") Long userId, @Param("startOfDay") LocalDateTime startOfDay);
 
-    // Find expiring points
-    @Query("SELECT t FROM PointsTransaction t " +
-            "WHERE t.transactionType = 'EARN' AND t.isExpired = false " +
-            "AND t.expiresAt IS NOT NULL AND t.expiresAt <= :expireDate")
-    List<PointsTransaction> findExpiringPoints(@Param("expireDate") LocalDateTime expireDate);
+    // Points of one user expiring before the date (idx_transaction_user_expiring)
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM points_transaction " +
+            "WHERE user_id = :userId AND is_expired = false " +
+            "AND expires_at IS NOT NULL AND expires_at <= :expireDate AND transaction_type = 'EARN'",
+            nativeQuery = true)
+    int sumExpiringPointsByUser(@Param("userId") Long userId, @Param("expireDate") LocalDateTime expireDate);
+
+    // ===== Set-based expiry (PointsExpiryJob) =====
+
+    // Lowest id still to expire, via idx_transaction_expires (skips already expired history)
+    @Query(value = "SELECT MIN(id) FROM points_transaction " +
+            "WHERE transaction_type = 'EARN' AND is_expired = false " +
+            "AND expires_at IS NOT NULL AND expires_at <= :now", nativeQuery = true)
+    Long findFirstExpiringId(@Param("now") LocalDateTime now);
+
+    // Next chunk of expiring ids after the cursor; rows are locked until the chunk commits
+    @Query(value = "SELECT id FROM points_transaction " +
+            "WHERE id > :afterId AND transaction_type = 'EARN' AND is_expired = false " +
+            "AND expires_at IS NOT NULL AND expires_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockExpiringChunk(@Param("afterId") long afterId, @Param("now") LocalDateTime now,
+                                 @Param("limit") int limit);
+
+    // Expiring amount per user in [fromId, toId] -> [user_id, sum], ordered by user_id
+    @Query(value = "SELECT user_id, SUM(amount) FROM points_transaction " +
+            "WHERE id BETWEEN :fromId AND :toId AND transaction_type = 'EARN' AND is_expired = false " +
+            "AND expires_at IS NOT NULL AND expires_at <= :now " +
+            "GROUP BY user_id ORDER BY user_id", nativeQuery = true)
+    List<Object[]> sumExpiringByUser(@Param("fromId") long fromId, @Param("toId") long toId,
+                                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE points_transaction SET is_expired = true " +
+            "WHERE id BETWEEN :fromId AND :toId AND transaction_type = 'EARN' AND is_expired = false " +
+            "AND expires_at IS NOT NULL AND expires_at <= :now", nativeQuery = true)
+    int markExpired(@Param("fromId") long fromId, @Param("toId") long toId, @Param("now") LocalDateTime now);
 
     // Check if already earned from source (anti-fraud for reviews)
     boolean existsByUserIdAndSourceAndSourceId(Long userId, PointsTransaction.PointsSource source, Long sourceId);
@@ -56,6 +56,15 @@ public interface SeasonalChallengeRepository extends JpaRepository<SeasonalChall
             "ORDER BY c.displayOrder ASC")
     List<SeasonalChallengeEntity> findCurrentlyActiveChallenges(@Param("now") OffsetDateTime now);
 
+    /**
+     * Active challenges that have not ended yet, including grand prizes and
+     * upcoming ones (ChallengeIndex)
+     */
+    @Query("SELECT c FROM SeasonalChallengeEntity c " +
+            "WHERE c.isActive = true " +
+            "AND c.endDate >= :now")
+    List<SeasonalChallengeEntity> findActiveNotEnded(@Param("now") OffsetDateTime now);
+
     /**
      * Find grand prizes for a season
      */
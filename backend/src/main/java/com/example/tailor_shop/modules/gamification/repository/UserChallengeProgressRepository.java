@@ -97,4 +97,59 @@ public interface UserChallengeProgressRepository extends JpaRepository<UserChall
             @Param("userId") Long userId,
             @Param("challengeId") Long challengeId,
             @Param("amount") Long amount);
+
+    /**
+     * Mark completed once the target is reached; returns 1 only for the
+     * increment that completes the challenge
+     */
+    @Modifying
+    @Query(value = "UPDATE user_challenge_progress " +
+            "SET is_completed = true, completed_at = COALESCE(completed_at, CURRENT_TIMESTAMP) " +
+            "WHERE user_id = :userId AND challenge_id = :challengeId " +
+            "AND is_completed = false AND current_progress >= :target", nativeQuery = true)
+    int markCompletedIfReached(
+            @Param("userId") Long userId,
+            @Param("challengeId") Long challengeId,
+            @Param("target") Long target);
+
+    /**
+     * Complete a challenge outright (grand prize)
+     */
+    @Modifying
+    @Query(value = "UPDATE user_challenge_progress " +
+            "SET current_progress = :target, is_completed = true, " +
+            "completed_at = COALESCE(completed_at, CURRENT_TIMESTAMP) " +
+            "WHERE user_id = :userId AND challenge_id = :challengeId AND is_completed = false",
+            nativeQuery = true)
+    int complete(
+            @Param("userId") Long userId,
+            @Param("challengeId") Long challengeId,
+            @Param("target") Long target);
+
+    /**
+     * Count how many of the given challenges the user has completed
+     */
+    @Query("SELECT COUNT(p) FROM UserChallengeProgressEntity p " +
+            "WHERE p.user.id = :userId " +
+            "AND p.challenge.id IN :challengeIds " +
+            "AND p.isCompleted = true")
+    long countCompletedAmong(
+            @Param("userId") Long userId,
+            @Param("challengeIds") List<Long> challengeIds);
+
+    /**
+     * Current progress of one user (read after an increment, while the row is locked)
+     */
+    @Query(value = "SELECT current_progress FROM user_challenge_progress " +
+            "WHERE user_id = :userId AND challenge_id = :challengeId", nativeQuery = true)
+    Long findCurrentProgress(
+            @Param("userId") Long userId,
+            @Param("challengeId") Long challengeId);
+
+    /**
+     * All non-zero progress of a challenge as [user_id, current_progress] (leaderboard rebuild)
+     */
+    @Query(value = "SELECT user_id, current_progress FROM user_challenge_progress " +
+            "WHERE challenge_id = :challengeId AND current_progress > 0", nativeQuery = true)
+    List<Object[]> findScoresByChallengeId(@Param("challengeId") Long challengeId);
 }
@@ -2,12 +2,26 @@ package com.example.tailor_shop.modules.gamification.repository;
 
 import com.example.tailor_shop.modules.gamification.domain.UserCheckinStreak;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.Optional;
 
 @Repository
 public interface UserCheckinStreakRepository extends JpaRepository<UserCheckinStreak, Long> {
 
     Optional<UserCheckinStreak> findByUserId(Long userId);
+
+    // Record today's check-in with the already computed streak, creating the row on first check-in
+    @Modifying
+    @Query(value = "INSERT INTO user_checkin_streak " +
+            "(user_id, current_streak, longest_streak, last_checkin_date, total_checkins) " +
+            "VALUES (:userId, :streak, :streak, :today, 1) " +
+            "ON DUPLICATE KEY UPDATE current_streak = :streak, " +
+            "longest_streak = GREATEST(longest_streak, :streak), " +
+            "last_checkin_date = :today, total_checkins = total_checkins + 1", nativeQuery = true)
+    int recordCheckin(@Param("userId") Long userId, @Param("streak") int streak, @Param("today") LocalDate today);
 }
@@ -14,6 +14,24 @@ public interface UserPointsWalletRepository extends JpaRepository<UserPointsWall
 
     Optional<UserPointsWallet> findByUserId(Long userId);
 
+    // Creates the wallet if missing; safe against concurrent first earns
+    @Modifying
+    @Query(value = "INSERT INTO user_points_wallet (user_id) VALUES (:userId) " +
+            "ON DUPLICATE KEY UPDATE user_id = user_id", nativeQuery = true)
+    int createIfAbsent(@Param("userId") Long userId);
+
+    // Add points in one statement, creating the wallet on first earn
+    @Modifying
+    @Query(value = "INSERT INTO user_points_wallet (user_id, balance, total_earned) VALUES (:userId, :amount, :amount) " +
+            "ON DUPLICATE KEY UPDATE balance = balance + :amount, total_earned = total_earned + :amount",
+            nativeQuery = true)
+    int creditPoints(@Param("userId") Long userId, @Param("amount") int amount);
+
+    // Current balance, bypassing the persistence context (read after an atomic update)
+    @Query(value = "SELECT balance FROM user_points_wallet WHERE user_id = :userId", nativeQuery = true)
+    Integer findBalance(@Param("userId") Long userId);
+
+    // Atomic balance changes: the row lock is held until commit, so balance_after is exact
     @Modifying
     @Query("UPDATE UserPointsWallet w SET w.balance = w.balance + :amount, w.totalEarned = w.totalEarned + :amount WHERE w.userId = :userId")
     int addPoints(@Param("userId") Long userId, @Param("amount") int amount);
@@ -21,4 +39,10 @@ public interface UserPointsWalletRepository extends JpaRepository<UserPointsWall
     @Modifying
     @Query("UPDATE UserPointsWallet w SET w.balance = w.balance - :amount, w.totalSpent = w.totalSpent + :amount WHERE w.userId = :userId AND w.balance >= :amount")
     int spendPoints(@Param("userId") Long userId, @Param("amount") int amount);
+
+    // Expire up to the current balance. MySQL applies SET left to right: total_expired uses the old balance
+    @Modifying
+    @Query(value = "UPDATE user_points_wallet SET total_expired = total_expired + LEAST(:amount, balance), " +
+            "balance = GREATEST(balance - :amount, 0) WHERE user_id = :userId", nativeQuery = true)
+    int expirePoints(@Param("userId") Long userId, @Param("amount") int amount);
 }
@@ -0,0 +1,187 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.modules.gamification.domain.ChallengeType;
+import com.example.tailor_shop.modules.gamification.domain.SeasonalChallengeEntity;
+import com.example.tailor_shop.modules.gamification.repository.SeasonalChallengeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory index of active (and upcoming) seasonal challenges.
+ *
+ * Challenges are grouped by {@link ChallengeType}, then split into
+ * unconditional ones and ones keyed by their condition value
+ * ("category:vest" -> "vest"), so tracking an order looks up only the
+ * challenges it can match instead of scanning every active challenge.
+ * Grand prizes keep their sub-challenge ids for the completion check.
+ *
+ * The snapshot is immutable and swapped atomically; it is rebuilt after
+ * commit on create / update / deactivate, and periodically so that changes
+ * made on other nodes and challenges reaching their start date are picked up.
+ */
+@Component
+@Slf4j
+public class ChallengeIndex {
+
+    private final SeasonalChallengeRepository challengeRepository;
+
+    private volatile Snapshot snapshot;
+
+    public ChallengeIndex(SeasonalChallengeRepository challengeRepository) {
+        this.challengeRepository = challengeRepository;
+    }
+
+    /**
+     * Challenges of the given type that are running now and whose condition
+     * matches the product category.
+     */
+    public List<IndexedChallenge> match(ChallengeType type, String productCategory, OffsetDateTime now) {
+        Snapshot current = snapshot();
+        List<IndexedChallenge> result = new ArrayList<>();
+        addRunning(result, current.unconditional.getOrDefault(type, List.of()), now);
+        if (productCategory != null) {
+            Map<String, List<IndexedChallenge>> byValue = current.byCondition.get(type);
+            if (byValue != null) {
+                addRunning(result, byValue.getOrDefault(productCategory.toLowerCase(Locale.ROOT), List.of()), now);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Grand prize with the given id, or null if it is not an active grand prize.
+     */
+    public GrandPrize grandPrize(Long challengeId) {
+        return challengeId != null ? snapshot().grandPrizes.get(challengeId) : null;
+    }
+
+    /**
+     * Rebuild once the current transaction commits (challenge created, updated or deactivated).
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gamification.challenge-index.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the snapshot from the database.
+     */
+    public synchronized void refresh() {
+        List<SeasonalChallengeEntity> challenges = challengeRepository.findActiveNotEnded(OffsetDateTime.now());
+
+        Map<ChallengeType, List<IndexedChallenge>> unconditional = new EnumMap<>(ChallengeType.class);
+        Map<ChallengeType, Map<String, List<IndexedChallenge>>> byCondition = new EnumMap<>(ChallengeType.class);
+        Map<Long, GrandPrize> grandPrizes = new HashMap<>();
+
+        for (SeasonalChallengeEntity challenge : challenges) {
+            if (Boolean.TRUE.equals(challenge.getIsGrandPrize())) {
+                List<Long> subIds = challengeRepository.findSubChallenges(challenge.getId()).stream()
+                        .map(SeasonalChallengeEntity::getId)
+                        .toList();
+                grandPrizes.put(challenge.getId(), new GrandPrize(challenge.getId(), challenge.getCode(),
+                        challenge.getTargetValue(), subIds));
+                continue;
+            }
+
+            IndexedChallenge indexed = new IndexedChallenge(
+                    challenge.getId(),
+                    challenge.getCode(),
+                    challenge.getTargetValue(),
+                    challenge.getParentChallenge() != null ? challenge.getParentChallenge().getId() : null,
+                    challenge.getStartDate(),
+                    challenge.getEndDate());
+
+            String value = conditionValue(challenge.getConditionKey());
+            if (value == null) {
+                unconditional.computeIfAbsent(challenge.getChallengeType(), t -> new ArrayList<>()).add(indexed);
+            } else {
+                byCondition.computeIfAbsent(challenge.getChallengeType(), t -> new HashMap<>())
+                        .computeIfAbsent(value, v -> new ArrayList<>())
+                        .add(indexed);
+            }
+        }
+
+        snapshot = new Snapshot(unconditional, byCondition, grandPrizes);
+        log.debug("Challenge index compiled {} challenge(s), {} grand prize(s)",
+                challenges.size() - grandPrizes.size(), grandPrizes.size());
+    }
+
+    // ==================== HELPERS ====================
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    refresh();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void addRunning(List<IndexedChallenge> result, List<IndexedChallenge> candidates,
+                                   OffsetDateTime now) {
+        for (IndexedChallenge challenge : candidates) {
+            if (!challenge.startDate().isAfter(now) && !challenge.endDate().isBefore(now)) {
+                result.add(challenge);
+            }
+        }
+    }
+
+    /**
+     * Lower-cased value of a "category:x" / "fabric_type:x" condition; null when
+     * the challenge matches every order (no condition, malformed or unknown key).
+     */
+    static String conditionValue(String conditionKey) {
+        if (conditionKey == null || conditionKey.isEmpty()) {
+            return null;
+        }
+        String[] parts = conditionKey.split(":");
+        if (parts.length != 2) {
+            return null;
+        }
+        return switch (parts[0]) {
+            case "category", "fabric_type" -> parts[1].toLowerCase(Locale.ROOT);
+            default -> null;
+        };
+    }
+
+    public record IndexedChallenge(Long id, String code, Long targetValue, Long parentId,
+                                   OffsetDateTime startDate, OffsetDateTime endDate) {
+    }
+
+    public record GrandPrize(Long id, String code, Long targetValue, List<Long> subChallengeIds) {
+    }
+
+    private record Snapshot(Map<ChallengeType, List<IndexedChallenge>> unconditional,
+                            Map<ChallengeType, Map<String, List<IndexedChallenge>>> byCondition,
+                            Map<Long, GrandPrize> grandPrizes) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.modules.gamification.repository.UserChallengeProgressRepository;
+import com.example.tailor_shop.modules.gamification.service.ChallengeIndex.GrandPrize;
+import com.example.tailor_shop.modules.gamification.service.ChallengeIndex.IndexedChallenge;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces challenge progress increments per (user, challenge).
+ *
+ * Tracking an order or review only adds to an in-memory pending amount; a
+ * periodic flush applies each pending (user, challenge) with atomic SQL
+ * (create-if-missing, increment, mark completed when the target is reached),
+ * so a burst of orders from one user costs one write per challenge.
+ *
+ * Grand prize completion is checked only when an increment actually
+ * completes a sub-challenge, with one COUNT over the sub-challenges.
+ *
+ * Written progress is pushed to the {@link LeaderboardService} after commit.
+ *
+ * Pending amounts are flushed on shutdown (retried a few times; anything
+ * still unwritten is logged with its amount so it can be re-applied), and
+ * increments arriving after that are written immediately. A failed write
+ * is re-queued for the next flush. Only a crash loses pending amounts,
+ * bounded by the flush interval.
+ */
+@Component
+@Slf4j
+public class ChallengeProgressAggregator {
+
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+
+    private final UserChallengeProgressRepository progressRepository;
+    private final ChallengeIndex challengeIndex;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public ChallengeProgressAggregator(UserChallengeProgressRepository progressRepository,
+                                       ChallengeIndex challengeIndex,
+                                       LeaderboardService leaderboardService,
+                                       PlatformTransactionManager transactionManager) {
+        this.progressRepository = progressRepository;
+        this.challengeIndex = challengeIndex;
+        this.leaderboardService = leaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue {@code amount} of progress for the user on the challenge.
+     */
+    public void add(Long userId, IndexedChallenge challenge, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        pending.merge(new Key(userId, challenge.id()), new Pending(challenge, amount), Pending::plus);
+        if (closed) {
+            // Shutting down: no more scheduled flushes, write through
+            flush();
+        }
+    }
+
+    /**
+     * Apply all pending increments.
+     *
+     * @return number of (user, challenge) pairs written
+     */
+    @Scheduled(fixedDelayString = "${gamification.progress.flush-interval-ms:2000}")
+    public int flush() {
+        int written = 0;
+        List<Key> keys = new ArrayList<>(pending.keySet());
+        for (Key key : keys) {
+            Pending entry = pending.remove(key);
+            if (entry == null) {
+                continue;
+            }
+            try {
+                Long progress = transactionTemplate.execute(status -> apply(key.userId(), entry));
+                written++;
+                if (progress != null) {
+                    leaderboardService.onProgress(key.challengeId(), key.userId(), progress);
+                }
+            } catch (DataIntegrityViolationException e) {
+                // User or challenge deleted meanwhile: nothing to retry
+                log.warn("Dropped challenge progress for user {} challenge {}: {}",
+                        key.userId(), key.challengeId(), e.getMessage());
+            } catch (RuntimeException e) {
+                pending.merge(key, entry, Pending::plus);
+                log.warn("Failed to flush challenge progress for user {} challenge {}, will retry",
+                        key.userId(), key.challengeId(), e);
+            }
+        }
+        if (written > 0) {
+            log.debug("Flushed challenge progress for {} (user, challenge) pair(s)", written);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        closed = true;
+        for (int attempt = 0; attempt < SHUTDOWN_FLUSH_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            flush();
+        }
+        pending.forEach((key, entry) -> log.error("Challenge progress not written on shutdown: user {} challenge {} amount {}",
+                key.userId(), key.challengeId(), entry.amount()));
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * @return the user's progress after the increment
+     */
+    private Long apply(Long userId, Pending entry) {
+        IndexedChallenge challenge = entry.challenge();
+        progressRepository.createIfNotExists(userId, challenge.id());
+        progressRepository.incrementProgress(userId, challenge.id(), entry.amount());
+
+        if (progressRepository.markCompletedIfReached(userId, challenge.id(), challenge.targetValue()) == 1) {
+            log.debug("User {} completed challenge {}", userId, challenge.code());
+            if (challenge.parentId() != null) {
+                checkGrandPrizeCompletion(userId, challengeIndex.grandPrize(challenge.parentId()));
+            }
+        }
+        return progressRepository.findCurrentProgress(userId, challenge.id());
+    }
+
+    private void checkGrandPrizeCompletion(Long userId, GrandPrize grandPrize) {
+        if (grandPrize == null || grandPrize.subChallengeIds().isEmpty()) {
+            return;
+        }
+        long completed = progressRepository.countCompletedAmong(userId, grandPrize.subChallengeIds());
+        if (completed < grandPrize.subChallengeIds().size()) {
+            return;
+        }
+        progressRepository.createIfNotExists(userId, grandPrize.id());
+        if (progressRepository.complete(userId, grandPrize.id(), grandPrize.targetValue()) == 1) {
+            log.info("User {} completed grand prize: {}", userId, grandPrize.code());
+        }
+    }
+
+    private record Key(Long userId, Long challengeId) {
+    }
+
+    private record Pending(IndexedChallenge challenge, long amount) {
+
+        Pending plus(Pending other) {
+            return new Pending(challenge, amount + other.amount);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Optional Redis bitmap of check-ins: one key per user per month, bit
+ * (day - 1) set once the check-in committed. Gives O(1) "checked in today"
+ * reads without touching MySQL.
+ *
+ * Without Redis every method is a no-op / "unknown" and callers fall back to
+ * the database. daily_checkin stays the source of truth: a missing bit only
+ * costs a database check, and errors are never propagated.
+ */
+@Component
+@Slf4j
+public class CheckinBitmap {
+
+    private static final String KEY_PREFIX = "checkin:";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Duration TTL = Duration.ofDays(62);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public CheckinBitmap(@Qualifier("customStringRedisTemplate")
+                         ObjectProvider<RedisTemplate<String, String>> redisTemplate) {
+        this.redisTemplate = redisTemplate.getIfAvailable();
+    }
+
+    public boolean isEnabled() {
+        return redisTemplate != null;
+    }
+
+    /**
+     * True only if the bitmap says the user checked in on the date; false when unknown.
+     */
+    public boolean isCheckedIn(Long userId, LocalDate date) {
+        if (redisTemplate == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(key(userId, date), date.getDayOfMonth() - 1));
+        } catch (RuntimeException e) {
+            log.warn("Check-in bitmap read failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Set the bit once the current transaction commits.
+     */
+    public void markAfterCommit(Long userId, LocalDate date) {
+        if (redisTemplate == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark(userId, date);
+                }
+            });
+        } else {
+            mark(userId, date);
+        }
+    }
+
+    private void mark(Long userId, LocalDate date) {
+        try {
+            String key = key(userId, date);
+            redisTemplate.opsForValue().setBit(key, date.getDayOfMonth() - 1, true);
+            redisTemplate.expire(key, TTL);
+        } catch (RuntimeException e) {
+            log.warn("Check-in bitmap write failed: {}", e.getMessage());
+        }
+    }
+
+    private static String key(Long userId, LocalDate date) {
+        return KEY_PREFIX + userId + ":" + date.format(MONTH);
+    }
+}
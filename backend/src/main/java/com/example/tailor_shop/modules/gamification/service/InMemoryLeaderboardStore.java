@@ -0,0 +1,82 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process leaderboards (one {@link RankedSkipList} per challenge), used
+ * when Redis is not configured.
+ */
+@Component
+@ConditionalOnExpression("'${spring.data.redis.host:}' == ''")
+public class InMemoryLeaderboardStore implements LeaderboardStore {
+
+    private final Map<Long, RankedSkipList> boards = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean exists(Long challengeId) {
+        return boards.containsKey(challengeId);
+    }
+
+    @Override
+    public void set(Long challengeId, Long userId, long score) {
+        RankedSkipList board = boards.computeIfAbsent(challengeId, id -> new RankedSkipList());
+        synchronized (board) {
+            board.put(userId, score);
+        }
+    }
+
+    @Override
+    public void replace(Long challengeId, Map<Long, Long> scores) {
+        RankedSkipList board = new RankedSkipList();
+        scores.forEach(board::put);
+        boards.put(challengeId, board);
+    }
+
+    @Override
+    public List<Entry> top(Long challengeId, int limit) {
+        return range(challengeId, 1, limit);
+    }
+
+    @Override
+    public Entry find(Long challengeId, Long userId) {
+        RankedSkipList board = boards.get(challengeId);
+        if (board == null) {
+            return null;
+        }
+        synchronized (board) {
+            int rank = board.rank(userId);
+            return rank > 0 ? new Entry(userId, board.score(userId), rank) : null;
+        }
+    }
+
+    @Override
+    public List<Entry> around(Long challengeId, Long userId, int radius) {
+        RankedSkipList board = boards.get(challengeId);
+        if (board == null) {
+            return List.of();
+        }
+        synchronized (board) {
+            int rank = board.rank(userId);
+            return rank > 0 ? toEntries(board.range(rank - radius, rank + radius)) : List.of();
+        }
+    }
+
+    private List<Entry> range(Long challengeId, int from, int to) {
+        RankedSkipList board = boards.get(challengeId);
+        if (board == null) {
+            return List.of();
+        }
+        synchronized (board) {
+            return toEntries(board.range(from, to));
+        }
+    }
+
+    private static List<Entry> toEntries(List<long[]> rows) {
+        return rows.stream().map(r -> new Entry(r[0], r[1], r[2])).toList();
+    }
+}
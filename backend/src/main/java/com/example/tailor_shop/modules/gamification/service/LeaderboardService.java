@@ -0,0 +1,151 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.config.exception.NotFoundException;
+import com.example.tailor_shop.modules.gamification.dto.LeaderboardEntryResponse;
+import com.example.tailor_shop.modules.gamification.repository.SeasonalChallengeRepository;
+import com.example.tailor_shop.modules.gamification.repository.UserChallengeProgressRepository;
+import com.example.tailor_shop.modules.user.domain.UserEntity;
+import com.example.tailor_shop.modules.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-challenge leaderboards over {@link LeaderboardStore}.
+ *
+ * Scores are the users' current_progress. A board is built from
+ * user_challenge_progress on first use (after a restart or a Redis flush),
+ * then kept up to date by {@link ChallengeProgressAggregator} with the
+ * absolute progress after each flush, and re-synced from MySQL periodically.
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_RADIUS = 50;
+
+    private final LeaderboardStore store;
+    private final UserChallengeProgressRepository progressRepository;
+    private final SeasonalChallengeRepository challengeRepository;
+    private final UserRepository userRepository;
+
+    private final Set<Long> loaded = ConcurrentHashMap.newKeySet();
+
+    public LeaderboardService(LeaderboardStore store,
+                              UserChallengeProgressRepository progressRepository,
+                              SeasonalChallengeRepository challengeRepository,
+                              UserRepository userRepository) {
+        this.store = store;
+        this.progressRepository = progressRepository;
+        this.challengeRepository = challengeRepository;
+        this.userRepository = userRepository;
+    }
+
+    public List<LeaderboardEntryResponse> getTop(Long challengeId, int limit) {
+        ensureLoaded(challengeId);
+        return toResponses(challengeId, store.top(challengeId, clamp(limit, 1, MAX_LIMIT)));
+    }
+
+    public LeaderboardEntryResponse getRank(Long challengeId, Long userId) {
+        ensureLoaded(challengeId);
+        LeaderboardStore.Entry entry = store.find(challengeId, userId);
+        if (entry == null) {
+            return LeaderboardEntryResponse.builder()
+                    .challengeId(challengeId)
+                    .userId(userId)
+                    .score(0L)
+                    .build();
+        }
+        return toResponses(challengeId, List.of(entry)).get(0);
+    }
+
+    public List<LeaderboardEntryResponse> getAround(Long challengeId, Long userId, int radius) {
+        ensureLoaded(challengeId);
+        return toResponses(challengeId, store.around(challengeId, userId, clamp(radius, 0, MAX_RADIUS)));
+    }
+
+    /**
+     * Progress written for the user (called after the write committed).
+     */
+    public void onProgress(Long challengeId, Long userId, long progress) {
+        try {
+            ensureLoaded(challengeId);
+            store.set(challengeId, userId, progress);
+        } catch (RuntimeException e) {
+            // The board is re-synced from MySQL; never fail progress tracking for it
+            loaded.remove(challengeId);
+            log.warn("Failed to update leaderboard for challenge {}: {}", challengeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Re-sync boards in use from MySQL: picks up progress written by other
+     * nodes (in-process boards) and repairs any missed update.
+     */
+    @Scheduled(fixedDelayString = "${gamification.leaderboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (Long challengeId : List.copyOf(loaded)) {
+            rebuild(challengeId);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Only existing challenges get a board, so unknown ids from the API do
+     * not grow {@link #loaded} (re-synced on every reconcile) or the store.
+     */
+    private void ensureLoaded(Long challengeId) {
+        if (loaded.contains(challengeId)) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded.contains(challengeId)) {
+                if (!challengeRepository.existsById(challengeId)) {
+                    throw new NotFoundException("Challenge not found: " + challengeId);
+                }
+                if (!store.exists(challengeId)) {
+                    rebuild(challengeId);
+                }
+                loaded.add(challengeId);
+            }
+        }
+    }
+
+    private void rebuild(Long challengeId) {
+        Map<Long, Long> scores = new HashMap<>();
+        for (Object[] row : progressRepository.findScoresByChallengeId(challengeId)) {
+            scores.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        store.replace(challengeId, scores);
+        log.debug("Rebuilt leaderboard for challenge {} with {} user(s)", challengeId, scores.size());
+    }
+
+    private List<LeaderboardEntryResponse> toResponses(Long challengeId, List<LeaderboardStore.Entry> entries) {
+        Map<Long, String> names = userRepository.findAllById(entries.stream().map(LeaderboardStore.Entry::userId).toList())
+                .stream()
+                .collect(Collectors.toMap(UserEntity::getId, u -> u.getName() != null ? u.getName() : "",
+                        (a, b) -> a));
+        return entries.stream()
+                .map(e -> LeaderboardEntryResponse.builder()
+                        .challengeId(challengeId)
+                        .userId(e.userId())
+                        .userName(names.get(e.userId()))
+                        .rank(e.rank())
+                        .score(e.score())
+                        .build())
+                .toList();
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
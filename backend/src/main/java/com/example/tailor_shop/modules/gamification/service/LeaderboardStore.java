@@ -0,0 +1,50 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted per-challenge scores (progress), highest first.
+ *
+ * Backed by Redis sorted sets when Redis is configured
+ * ({@link RedisLeaderboardStore}), otherwise by in-process skip lists
+ * ({@link InMemoryLeaderboardStore}).
+ */
+public interface LeaderboardStore {
+
+    /**
+     * Whether a board exists for the challenge (false after a restart or a Redis flush).
+     */
+    boolean exists(Long challengeId);
+
+    /**
+     * Set the user's score (absolute, so re-applying an update is harmless).
+     */
+    void set(Long challengeId, Long userId, long score);
+
+    /**
+     * Replace the whole board (rebuild from MySQL).
+     */
+    void replace(Long challengeId, Map<Long, Long> scores);
+
+    /**
+     * Ranks 1..limit.
+     */
+    List<Entry> top(Long challengeId, int limit);
+
+    /**
+     * The user's entry, or null if the user is not on the board.
+     */
+    Entry find(Long challengeId, Long userId);
+
+    /**
+     * Up to {@code radius} entries above and below the user; empty if the user is not on the board.
+     */
+    List<Entry> around(Long challengeId, Long userId, int radius);
+
+    /**
+     * @param rank 1-based
+     */
+    record Entry(long userId, long score, long rank) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.modules.gamification.repository.PointsTransactionRepository;
+import com.example.tailor_shop.modules.gamification.repository.UserPointsWalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunked, set-based expiry of earned points.
+ *
+ * Expiring transactions are processed in id order, {@code points.expiry.batch-size}
+ * at a time. Each chunk is one short transaction:
+ * - lock the chunk's rows (SELECT ... FOR UPDATE)
+ * - SUM the expiring amount per user, one wallet UPDATE per user
+ * - mark the whole id range expired with one UPDATE
+ *
+ * A committed chunk is never picked up again (is_expired = true), so a run
+ * that crashes simply resumes from the first unexpired row on the next run.
+ * The row locks make concurrent runs on several nodes safe: the second runner
+ * waits, then finds the rows already expired.
+ */
+@Component
+@Slf4j
+public class PointsExpiryJob {
+
+    private final PointsTransactionRepository transactionRepository;
+    private final UserPointsWalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastProcessedId = new AtomicLong();
+    private final Counter expiredTransactions;
+    private final Counter expiredPoints;
+    private final Counter walletUpdates;
+    private final Timer chunkTimer;
+
+    @Value("${points.expiry.batch-size:1000}")
+    private int batchSize;
+
+    public PointsExpiryJob(PointsTransactionRepository transactionRepository,
+                           UserPointsWalletRepository walletRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.expiredTransactions = meterRegistry.counter("points.expiry.transactions");
+        this.expiredPoints = meterRegistry.counter("points.expiry.points");
+        this.walletUpdates = meterRegistry.counter("points.expiry.wallet.updates");
+        this.chunkTimer = meterRegistry.timer("points.expiry.chunk");
+        meterRegistry.gauge("points.expiry.running", running, r -> r.get() ? 1 : 0);
+        meterRegistry.gauge("points.expiry.last.id", lastProcessedId);
+    }
+
+    /**
+     * Daily run, off-peak.
+     */
+    @Scheduled(cron = "${points.expiry.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Expire every earned transaction whose expires_at has passed.
+     *
+     * @return number of transactions expired, or 0 if a run is already in progress on this node
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Points expiry already running, skipped");
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Long first = transactionRepository.findFirstExpiringId(now);
+            if (first == null) {
+                return 0;
+            }
+
+            long cursor = first - 1;
+            int total = 0;
+            int chunks = 0;
+            ChunkResult chunk;
+            while ((chunk = runChunk(cursor, now)) != null) {
+                cursor = chunk.lastId();
+                total += chunk.transactions();
+                lastProcessedId.set(cursor);
+                if (++chunks % 100 == 0) {
+                    log.info("Points expiry progress: {} transaction(s) in {} chunk(s), last id {}",
+                            total, chunks, cursor);
+                }
+            }
+
+            log.info("Expired {} point transactions in {} chunk(s)", total, chunks);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Process the next chunk after {@code afterId} in its own transaction.
+     *
+     * @return null when nothing is left to expire
+     */
+    private ChunkResult runChunk(long afterId, LocalDateTime now) {
+        return chunkTimer.record(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = transactionRepository.lockExpiringChunk(afterId, now, batchSize);
+            if (ids.isEmpty()) {
+                return null;
+            }
+            long fromId = ids.get(0);
+            long toId = ids.get(ids.size() - 1);
+
+            // Users in id order, so concurrent wallet writers always lock in the same order
+            long points = 0;
+            List<Object[]> perUser = transactionRepository.sumExpiringByUser(fromId, toId, now);
+            for (Object[] row : perUser) {
+                int amount = ((Number) row[1]).intValue();
+                if (amount > 0) {
+                    walletRepository.expirePoints(((Number) row[0]).longValue(), amount);
+                    points += amount;
+                }
+            }
+            int marked = transactionRepository.markExpired(fromId, toId, now);
+
+            expiredTransactions.increment(marked);
+            expiredPoints.increment(points);
+            walletUpdates.increment(perUser.size());
+            return new ChunkResult(toId, marked);
+        }));
+    }
+
+    private record ChunkResult(long lastId, int transactions) {
+    }
+}
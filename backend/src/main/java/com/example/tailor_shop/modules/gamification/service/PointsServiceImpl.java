@@ -31,6 +31,8 @@ public class PointsServiceImpl implements PointsService {
     private final PointsTransactionRepository transactionRepository;
     private final DailyCheckinRepository checkinRepository;
     private final UserCheckinStreakRepository streakRepository;
+    private final PointsExpiryJob expiryJob;
+    private final CheckinBitmap checkinBitmap;
 
     // ========== CONFIG VALUES ==========
     private static final int VALUE_PER_POINT = 500; // 1 xu = 500đ
@@ -56,14 +58,7 @@ public class PointsServiceImpl implements PointsService {
 
         // Calculate expiring points
         LocalDateTime expiryCheck = LocalDateTime.now().plusDays(30);
-        List<PointsTransaction> expiring = transactionRepository.findExpiringPoints(expiryCheck)
-                .stream()
-                .filter(t -> t.getUserId().equals(userId))
-                .collect(Collectors.toList());
-
-        int expiringPoints = expiring.stream()
-                .mapToInt(PointsTransaction::getAmount)
-                .sum();
+        int expiringPoints = transactionRepository.sumExpiringPointsByUser(userId, expiryCheck);
 
         return WalletResponse.builder()
                 .userId(userId)
@@ -91,6 +86,31 @@ public class PointsServiceImpl implements PointsService {
                 });
     }
 
+    // ========== WALLET LEDGER ==========
+    // Balance changes are single atomic UPDATEs (no read-modify-write of the entity),
+    // so concurrent earn/redeem on the same wallet never lose updates.
+
+    /**
+     * Add points, returns the balance after the change
+     */
+    private int credit(Long userId, int amount) {
+        walletRepository.creditPoints(userId, amount);
+        return walletRepository.findBalance(userId);
+    }
+
+    /**
+     * Spend points if the balance covers them
+     *
+     * @return balance after the change, or null if the balance is insufficient
+     */
+    private Integer debit(Long userId, int amount) {
+        walletRepository.createIfAbsent(userId);
+        if (walletRepository.spendPoints(userId, amount) == 0) {
+            return null;
+        }
+        return walletRepository.findBalance(userId);
+    }
+
     @Override
     public List<TransactionResponse> getTransactions(Long userId, int page, int size) {
         Page<PointsTransaction> transactions = transactionRepository
@@ -136,16 +156,14 @@ public class PointsServiceImpl implements PointsService {
         int allowedPoints = Math.min(pointsToEarn, MAX_POINTS_PER_DAY - earnedToday);
 
         // Add points to wallet
-        UserPointsWallet wallet = getOrCreateWallet(userId);
-        wallet.addPoints(allowedPoints);
-        walletRepository.save(wallet);
+        int balanceAfter = credit(userId, allowedPoints);
 
         // Create transaction record
         LocalDateTime expiresAt = LocalDateTime.now().plusMonths(EXPIRY_MONTHS);
         PointsTransaction transaction = PointsTransaction.earn(
                 userId, allowedPoints, PointsTransaction.PointsSource.ORDER,
                 orderId, "Điểm thưởng từ đơn hàng #" + orderId,
-                wallet.getBalance(), expiresAt);
+                balanceAfter, expiresAt);
         transactionRepository.save(transaction);
 
         log.info("User {} earned {} points from order {}", userId, allowedPoints, orderId);
@@ -157,16 +175,12 @@ public class PointsServiceImpl implements PointsService {
     public CheckinResponse checkin(Long userId) {
         LocalDate today = LocalDate.now();
 
-        // Anti-fraud: Check if already checked in today
-        if (checkinRepository.existsByUserIdAndCheckinDate(userId, today)) {
-            log.warn("User {} already checked in today", userId);
-            return CheckinResponse.builder()
-                    .success(false)
-                    .message("Bạn đã điểm danh hôm nay rồi!")
-                    .build();
+        // Repeated taps: answered from the Redis bitmap without touching MySQL (when configured)
+        if (checkinBitmap.isCheckedIn(userId, today)) {
+            return alreadyCheckedIn(userId);
         }
 
-        // Get or create streak
+        // Streak values computed in memory; the entity is not modified (written below in one upsert)
         UserCheckinStreak streak = streakRepository.findByUserId(userId)
                 .orElseGet(() -> UserCheckinStreak.builder()
                         .userId(userId)
@@ -174,53 +188,57 @@ public class PointsServiceImpl implements PointsService {
                         .longestStreak(0)
                         .totalCheckins(0)
                         .build());
-
-        // Calculate today's streak day and points
         int streakDay = streak.getNextStreakDay();
         int pointsToEarn = CHECKIN_POINTS[Math.min(streakDay - 1, CHECKIN_POINTS.length - 1)];
 
-        // Record check-in
-        streak.recordCheckin();
-        streakRepository.save(streak);
+        // Anti-fraud: the unique (user_id, checkin_date) key is the guard, no pre-check
+        checkinRepository.insertIfAbsent(userId, today, streakDay, pointsToEarn);
+        Long checkinId = checkinRepository.lastInsertId();
+        if (checkinId == null || checkinId == 0) {
+            checkinBitmap.markAfterCommit(userId, today);
+            return alreadyCheckedIn(userId);
+        }
 
-        // Save check-in record
-        DailyCheckin checkin = DailyCheckin.builder()
-                .userId(userId)
-                .checkinDate(today)
-                .streakDay(streakDay)
-                .pointsEarned(pointsToEarn)
-                .build();
-        checkinRepository.save(checkin);
-
-        // Add points to wallet
-        UserPointsWallet wallet = getOrCreateWallet(userId);
-        wallet.addPoints(pointsToEarn);
-        walletRepository.save(wallet);
+        // Streak (today's streak day is the new current streak) and wallet: one statement each
+        streakRepository.recordCheckin(userId, streakDay, today);
+        int balanceAfter = credit(userId, pointsToEarn);
 
         // Create transaction
         LocalDateTime expiresAt = LocalDateTime.now().plusMonths(EXPIRY_MONTHS);
         PointsTransaction transaction = PointsTransaction.earn(
                 userId, pointsToEarn, PointsTransaction.PointsSource.CHECKIN,
-                checkin.getId(), "Điểm danh ngày " + streakDay,
-                wallet.getBalance(), expiresAt);
+                checkinId, "Điểm danh ngày " + streakDay,
+                balanceAfter, expiresAt);
         transactionRepository.save(transaction);
+        checkinBitmap.markAfterCommit(userId, today);
 
         log.info("User {} checked in: day={}, points={}, streak={}",
-                userId, streakDay, pointsToEarn, streak.getCurrentStreak());
+                userId, streakDay, pointsToEarn, streakDay);
 
         return CheckinResponse.builder()
                 .success(true)
                 .pointsEarned(pointsToEarn)
                 .streakDay(streakDay)
-                .currentStreak(streak.getCurrentStreak())
-                .newBalance(wallet.getBalance())
+                .currentStreak(streakDay)
+                .newBalance(balanceAfter)
                 .checkinDate(today)
                 .message("Điểm danh thành công! +" + pointsToEarn + " xu")
                 .build();
     }
 
+    private CheckinResponse alreadyCheckedIn(Long userId) {
+        log.warn("User {} already checked in today", userId);
+        return CheckinResponse.builder()
+                .success(false)
+                .message("Bạn đã điểm danh hôm nay rồi!")
+                .build();
+    }
+
     @Override
     public CheckinStatusResponse getCheckinStatus(Long userId) {
+        // A set bit is authoritative (O(1)); only on a miss does the streak row decide
+        boolean checkedInToday = checkinBitmap.isCheckedIn(userId, LocalDate.now());
+
         UserCheckinStreak streak = streakRepository.findByUserId(userId)
                 .orElse(UserCheckinStreak.builder()
                         .userId(userId)
@@ -229,8 +247,7 @@ public class PointsServiceImpl implements PointsService {
                         .totalCheckins(0)
                         .build());
 
-        LocalDate today = LocalDate.now();
-        boolean canCheckin = streak.canCheckinToday();
+        boolean canCheckin = !checkedInToday && streak.canCheckinToday();
         int nextDay = streak.getNextStreakDay();
         int nextPoints = CHECKIN_POINTS[Math.min(nextDay - 1, CHECKIN_POINTS.length - 1)];
 
@@ -270,15 +287,13 @@ public class PointsServiceImpl implements PointsService {
 
         int pointsToEarn = 20; // Fixed points for review
 
-        UserPointsWallet wallet = getOrCreateWallet(userId);
-        wallet.addPoints(pointsToEarn);
-        walletRepository.save(wallet);
+        int balanceAfter = credit(userId, pointsToEarn);
 
         LocalDateTime expiresAt = LocalDateTime.now().plusMonths(EXPIRY_MONTHS);
         PointsTransaction transaction = PointsTransaction.earn(
                 userId, pointsToEarn, PointsTransaction.PointsSource.REVIEW,
                 reviewId, "Điểm thưởng viết đánh giá",
-                wallet.getBalance(), expiresAt);
+                balanceAfter, expiresAt);
         transactionRepository.save(transaction);
 
         log.info("User {} earned {} points from review {}", userId, pointsToEarn, reviewId);
@@ -290,15 +305,13 @@ public class PointsServiceImpl implements PointsService {
     public TransactionResponse earnFromReferral(Long referrerId, Long referredUserId, Long orderId) {
         int pointsToEarn = 100; // Fixed points for referral
 
-        UserPointsWallet wallet = getOrCreateWallet(referrerId);
-        wallet.addPoints(pointsToEarn);
-        walletRepository.save(wallet);
+        int balanceAfter = credit(referrerId, pointsToEarn);
 
         LocalDateTime expiresAt = LocalDateTime.now().plusMonths(EXPIRY_MONTHS);
         PointsTransaction transaction = PointsTransaction.earn(
                 referrerId, pointsToEarn, PointsTransaction.PointsSource.REFERRAL,
                 orderId, "Thưởng giới thiệu khách hàng mới",
-                wallet.getBalance(), expiresAt);
+                balanceAfter, expiresAt);
         transactionRepository.save(transaction);
 
         log.info("User {} earned {} points from referral", referrerId, pointsToEarn);
@@ -391,17 +404,15 @@ public class PointsServiceImpl implements PointsService {
     @Override
     @Transactional
     public TransactionResponse redeemForOrder(Long userId, Long orderId, Integer pointsAmount) {
-        UserPointsWallet wallet = getOrCreateWallet(userId);
-
-        if (!wallet.spendPoints(pointsAmount)) {
+        Integer balanceAfter = debit(userId, pointsAmount);
+        if (balanceAfter == null) {
             throw new IllegalArgumentException("Số dư xu không đủ");
         }
-        walletRepository.save(wallet);
 
         PointsTransaction transaction = PointsTransaction.spend(
                 userId, pointsAmount, PointsTransaction.PointsSource.REDEMPTION,
                 orderId, "Đổi xu giảm giá đơn hàng #" + orderId,
-                wallet.getBalance());
+                balanceAfter);
         transactionRepository.save(transaction);
 
         log.info("User {} redeemed {} points for order {}", userId, pointsAmount, orderId);
@@ -413,19 +424,16 @@ public class PointsServiceImpl implements PointsService {
     @Override
     @Transactional
     public TransactionResponse adminAdjust(Long userId, Integer amount, String reason, Long adminId) {
-        UserPointsWallet wallet = getOrCreateWallet(userId);
-
-        if (amount > 0) {
-            wallet.addPoints(amount);
-        } else {
-            wallet.spendPoints(Math.abs(amount));
+        // The ledger row must match the balance change: a debit beyond the balance is rejected
+        Integer balanceAfter = amount > 0 ? credit(userId, amount) : debit(userId, Math.abs(amount));
+        if (balanceAfter == null) {
+            throw new IllegalArgumentException("Số dư xu không đủ");
         }
-        walletRepository.save(wallet);
 
         PointsTransaction transaction = PointsTransaction.builder()
                 .userId(userId)
                 .amount(amount)
-                .balanceAfter(wallet.getBalance())
+                .balanceAfter(balanceAfter)
                 .transactionType(PointsTransaction.TransactionType.ADMIN_ADJUST)
                 .source(PointsTransaction.PointsSource.ADMIN)
                 .sourceId(adminId)
@@ -438,26 +446,9 @@ public class PointsServiceImpl implements PointsService {
     }
 
     @Override
-    @Transactional
     public int expireOldPoints() {
-        LocalDateTime expireDate = LocalDateTime.now();
-        List<PointsTransaction> expiring = transactionRepository.findExpiringPoints(expireDate);
-
-        int count = 0;
-        for (PointsTransaction t : expiring) {
-            t.setIsExpired(true);
-            transactionRepository.save(t);
-
-            UserPointsWallet wallet = walletRepository.findByUserId(t.getUserId()).orElse(null);
-            if (wallet != null) {
-                wallet.expirePoints(t.getAmount());
-                walletRepository.save(wallet);
-            }
-            count++;
-        }
-
-        log.info("Expired {} point transactions", count);
-        return count;
+        // Chunked set-based job, one short transaction per chunk
+        return expiryJob.run();
     }
 
     @Override
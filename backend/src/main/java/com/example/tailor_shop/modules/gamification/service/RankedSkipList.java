@@ -0,0 +1,188 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list of (userId, score) ordered by score desc, then userId asc, with
+ * span counts on every link (as in Redis zsets), so rank lookups and range by
+ * rank are O(log n) instead of a scan.
+ *
+ * Not thread safe: callers synchronize on the instance.
+ */
+final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double P = 0.25;
+
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private final Map<Long, Long> scores = new HashMap<>();
+    private int level = 1;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    Long score(long userId) {
+        return scores.get(userId);
+    }
+
+    /**
+     * Insert or move the user to {@code score}.
+     */
+    void put(long userId, long score) {
+        Long old = scores.put(userId, score);
+        if (old != null) {
+            if (old == score) {
+                return;
+            }
+            delete(userId, old);
+        }
+        insert(userId, score);
+    }
+
+    /**
+     * 1-based rank, or 0 if the user is not in the list.
+     */
+    int rank(long userId) {
+        Long score = scores.get(userId);
+        if (score == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].score, x.next[i].userId, score, userId) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.userId == userId) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Entries with 1-based rank in [from, to], as {userId, score, rank}.
+     */
+    List<long[]> range(int from, int to) {
+        List<long[]> result = new ArrayList<>();
+        from = Math.max(from, 1);
+        to = Math.min(to, size);
+        if (from > to) {
+            return result;
+        }
+        // Descend to the node at rank `from`
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= from) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        for (int rank = from; rank <= to && x != null; rank++, x = x.next[0]) {
+            result.add(new long[] { x.userId, x.score, rank });
+        }
+        return result;
+    }
+
+    // ==================== HELPERS ====================
+
+    private void insert(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i].score, x.next[i].userId, score, userId) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = newLevel;
+        }
+
+        Node node = new Node(userId, score, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    private void delete(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].score, x.next[i].userId, score, userId) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node target = x.next[0];
+        if (target == null || target.userId != userId) {
+            return;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    private static int compare(long scoreA, long userA, long scoreB, long userB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB ? -1 : 1;
+        }
+        return Long.compare(userA, userB);
+    }
+
+    private static int randomLevel() {
+        int level = 1;
+        while (level < MAX_LEVEL && ThreadLocalRandom.current().nextDouble() < P) {
+            level++;
+        }
+        return level;
+    }
+
+    private static final class Node {
+        final long userId;
+        final long score;
+        final Node[] next;
+        final int[] span;
+
+        Node(long userId, long score, int level) {
+            this.userId = userId;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
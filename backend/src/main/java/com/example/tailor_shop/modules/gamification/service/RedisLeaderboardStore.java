@@ -0,0 +1,105 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Leaderboards as Redis sorted sets: one key per challenge, member = user id,
+ * score = progress. Shared by all nodes.
+ */
+@Component
+@ConditionalOnExpression("'${spring.data.redis.host:}' != ''")
+public class RedisLeaderboardStore implements LeaderboardStore {
+
+    private static final String KEY_PREFIX = "leaderboard:challenge:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisLeaderboardStore(@Qualifier("customStringRedisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean exists(Long challengeId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key(challengeId)));
+    }
+
+    @Override
+    public void set(Long challengeId, Long userId, long score) {
+        redisTemplate.opsForZSet().add(key(challengeId), userId.toString(), score);
+    }
+
+    @Override
+    public void replace(Long challengeId, Map<Long, Long> scores) {
+        if (scores.isEmpty()) {
+            redisTemplate.delete(key(challengeId));
+            return;
+        }
+        // Build aside, then swap atomically so readers never see a partial board.
+        // The temp key is unique per rebuild: nodes reconciling the same board
+        // concurrently must not write into each other's copy.
+        String tmp = key(challengeId) + ":rebuild:" + UUID.randomUUID();
+        Set<TypedTuple<String>> tuples = new HashSet<>();
+        scores.forEach((userId, score) -> tuples.add(new DefaultTypedTuple<>(userId.toString(), score.doubleValue())));
+        try {
+            redisTemplate.opsForZSet().add(tmp, tuples);
+            redisTemplate.rename(tmp, key(challengeId));
+        } catch (RuntimeException e) {
+            redisTemplate.delete(tmp);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Entry> top(Long challengeId, int limit) {
+        return range(challengeId, 0, limit - 1);
+    }
+
+    @Override
+    public Entry find(Long challengeId, Long userId) {
+        Long index = redisTemplate.opsForZSet().reverseRank(key(challengeId), userId.toString());
+        if (index == null) {
+            return null;
+        }
+        Double score = redisTemplate.opsForZSet().score(key(challengeId), userId.toString());
+        return new Entry(userId, score != null ? score.longValue() : 0, index + 1);
+    }
+
+    @Override
+    public List<Entry> around(Long challengeId, Long userId, int radius) {
+        Long index = redisTemplate.opsForZSet().reverseRank(key(challengeId), userId.toString());
+        if (index == null) {
+            return List.of();
+        }
+        return range(challengeId, Math.max(0, index - radius), index + radius);
+    }
+
+    private List<Entry> range(Long challengeId, long start, long end) {
+        Set<TypedTuple<String>> tuples = redisTemplate.opsForZSet().reverseRangeWithScores(key(challengeId), start, end);
+        List<Entry> result = new ArrayList<>();
+        if (tuples == null) {
+            return result;
+        }
+        long rank = start + 1;
+        for (TypedTuple<String> tuple : tuples) {
+            long score = tuple.getScore() != null ? tuple.getScore().longValue() : 0;
+            result.add(new Entry(Long.parseLong(tuple.getValue()), score, rank++));
+        }
+        return result;
+    }
+
+    private static String key(Long challengeId) {
+        return KEY_PREFIX + challengeId;
+    }
+}
@@ -32,6 +32,8 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
     private final SeasonalChallengeRepository challengeRepository;
     private final UserChallengeProgressRepository progressRepository;
     private final UserRepository userRepository;
+    private final ChallengeIndex challengeIndex;
+    private final ChallengeProgressAggregator progressAggregator;
 
     // ==================== PUBLIC ENDPOINTS ====================
 
@@ -223,51 +225,25 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
     // ==================== PROGRESS TRACKING ====================
 
     @Override
-    @Transactional
     public void trackOrderProgress(Long userId, Long orderValue, String productCategory) {
         log.debug("Tracking order progress for user: {} value: {} category: {}",
                 userId, orderValue, productCategory);
 
+        // Only the challenges this order can match (index), written by the aggregator's flush
         OffsetDateTime now = OffsetDateTime.now();
-        List<SeasonalChallengeEntity> activeChallenges = challengeRepository.findCurrentlyActiveChallenges(now);
-
-        for (SeasonalChallengeEntity challenge : activeChallenges) {
-            boolean shouldTrack = false;
-            long incrementAmount = 0;
-
-            switch (challenge.getChallengeType()) {
-                case ORDER_COUNT:
-                    shouldTrack = matchesCondition(challenge, productCategory);
-                    incrementAmount = 1;
-                    break;
-                case ORDER_VALUE:
-                    shouldTrack = matchesCondition(challenge, productCategory);
-                    incrementAmount = orderValue;
-                    break;
-                case PRODUCT_CATEGORY:
-                case FABRIC_PURCHASE:
-                    shouldTrack = matchesCondition(challenge, productCategory);
-                    incrementAmount = 1;
-                    break;
-                default:
-                    continue;
-            }
-
-            if (shouldTrack) {
-                incrementProgressInternal(userId, challenge, incrementAmount);
-            }
-        }
+        trackMatching(userId, ChallengeType.ORDER_COUNT, productCategory, 1L, now);
+        trackMatching(userId, ChallengeType.ORDER_VALUE, productCategory, orderValue, now);
+        trackMatching(userId, ChallengeType.PRODUCT_CATEGORY, productCategory, 1L, now);
+        trackMatching(userId, ChallengeType.FABRIC_PURCHASE, productCategory, 1L, now);
     }
 
     @Override
-    @Transactional
     public void trackReviewProgress(Long userId) {
         log.debug("Tracking review progress for user: {}", userId);
         trackChallengeType(userId, ChallengeType.REVIEW_COUNT, 1L);
     }
 
     @Override
-    @Transactional
     public void trackReferralProgress(Long userId) {
         log.debug("Tracking referral progress for user: {}", userId);
         trackChallengeType(userId, ChallengeType.REFERRAL_COUNT, 1L);
@@ -342,6 +318,7 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
         }
 
         challenge = challengeRepository.save(challenge);
+        challengeIndex.refreshAfterCommit();
         log.info("Challenge created successfully: {}", challenge.getId());
 
         return mapToResponse(challenge);
@@ -376,6 +353,7 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
         Optional.ofNullable(request.getIsActive()).ifPresent(challenge::setIsActive);
 
         challenge = challengeRepository.save(challenge);
+        challengeIndex.refreshAfterCommit();
         log.info("Challenge updated successfully: {}", challengeId);
 
         return mapToResponse(challenge);
@@ -391,6 +369,7 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
 
         challenge.setIsActive(false);
         challengeRepository.save(challenge);
+        challengeIndex.refreshAfterCommit();
 
         log.info("Challenge deactivated: {}", challengeId);
     }
@@ -398,13 +377,16 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
     // ==================== PRIVATE HELPER METHODS ====================
 
     private void trackChallengeType(Long userId, ChallengeType type, Long amount) {
-        OffsetDateTime now = OffsetDateTime.now();
-        List<SeasonalChallengeEntity> activeChallenges = challengeRepository.findCurrentlyActiveChallenges(now);
+        trackMatching(userId, type, null, amount, OffsetDateTime.now());
+    }
 
-        for (SeasonalChallengeEntity challenge : activeChallenges) {
-            if (challenge.getChallengeType() == type) {
-                incrementProgressInternal(userId, challenge, amount);
-            }
+    private void trackMatching(Long userId, ChallengeType type, String productCategory, Long amount,
+                               OffsetDateTime now) {
+        if (amount == null) {
+            return;
+        }
+        for (ChallengeIndex.IndexedChallenge challenge : challengeIndex.match(type, productCategory, now)) {
+            progressAggregator.add(userId, challenge, amount);
         }
     }
 
@@ -462,26 +444,6 @@ public class SeasonalChallengeServiceImpl implements SeasonalChallengeService {
         }
     }
 
-    private boolean matchesCondition(SeasonalChallengeEntity challenge, String productCategory) {
-        if (challenge.getConditionKey() == null || challenge.getConditionKey().isEmpty()) {
-            return true; // No condition = matches all
-        }
-
-        // Parse condition (format: "key:value")
-        String[] parts = challenge.getConditionKey().split(":");
-        if (parts.length != 2)
-            return true;
-
-        String key = parts[0];
-        String value = parts[1];
-
-        return switch (key) {
-            case "category" -> value.equalsIgnoreCase(productCategory);
-            case "fabric_type" -> value.equalsIgnoreCase(productCategory);
-            default -> true;
-        };
-    }
-
     private String buildRewardDescription(SeasonalChallengeEntity challenge) {
         StringBuilder sb = new StringBuilder();
         if (challenge.getRewardPoints() != null && challenge.getRewardPoints() > 0) {
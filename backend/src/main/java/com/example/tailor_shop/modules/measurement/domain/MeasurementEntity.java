@@ -8,7 +8,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "measurements")
+@Table(name = "measurements", indexes = {
+        @Index(name = "idx_measure_order_latest", columnList = "order_id, is_latest")
+})
 public class MeasurementEntity {
 
     @Id
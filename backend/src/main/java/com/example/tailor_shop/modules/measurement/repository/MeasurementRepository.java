@@ -1,13 +1,18 @@
 package com.example.tailor_shop.modules.measurement.repository;
 
 import com.example.tailor_shop.modules.measurement.domain.MeasurementEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface MeasurementRepository extends JpaRepository<MeasurementEntity, Long> {
 
@@ -23,10 +28,37 @@ public interface MeasurementRepository extends JpaRepository<MeasurementEntity,
             Pageable pageable
     );
 
+    /**
+     * Latest version của mọi order trong {@code orderIds}, một query cho cả trang.
+     * Một order có thể có nhiều group: mới nhất (id lớn nhất) đứng trước.
+     */
+    @Query("""
+            SELECT m FROM MeasurementEntity m
+            WHERE m.isLatest = true AND m.order.id IN :orderIds
+            ORDER BY m.id DESC
+            """)
+    List<MeasurementEntity> findLatestByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     List<MeasurementEntity> findByGroupIdOrderByVersionDesc(String groupId);
 
     MeasurementEntity findFirstByGroupIdAndIsLatestTrue(String groupId);
 
     MeasurementEntity findFirstByOrderAndIsLatestTrue(com.example.tailor_shop.modules.order.domain.OrderEntity order);
-}
 
+    /**
+     * Khóa version hiện tại của group: các lần sửa đồng thời cùng group chạy lần lượt.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MeasurementEntity m WHERE m.groupId = :groupId AND m.isLatest = true")
+    List<MeasurementEntity> findLatestInGroupForUpdate(@Param("groupId") String groupId);
+
+    @Query("SELECT MAX(m.version) FROM MeasurementEntity m WHERE m.groupId = :groupId")
+    Integer findMaxVersion(@Param("groupId") String groupId);
+
+    /**
+     * Gỡ cờ latest của group bằng một UPDATE, không load / ghi lại lịch sử.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE MeasurementEntity m SET m.isLatest = false WHERE m.groupId = :groupId AND m.isLatest = true")
+    int clearLatest(@Param("groupId") String groupId);
+}
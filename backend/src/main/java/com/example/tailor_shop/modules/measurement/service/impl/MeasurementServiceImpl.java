@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -105,16 +106,19 @@ public class MeasurementServiceImpl implements MeasurementService {
             }
         }
 
-        // mark old latest = false
-        List<MeasurementEntity> history = measurementRepository.findByGroupIdOrderByVersionDesc(current.getGroupId());
-        history.stream().filter(MeasurementEntity::getIsLatest).forEach(h -> h.setIsLatest(false));
-        measurementRepository.saveAll(history);
+        // Khóa version latest rồi gỡ cờ bằng một UPDATE: lịch sử không bị load hay ghi lại
+        String groupId = current.getGroupId();
+        int version = measurementRepository.findLatestInGroupForUpdate(groupId).stream()
+                .mapToInt(MeasurementEntity::getVersion)
+                .max()
+                .orElseGet(() -> Optional.ofNullable(measurementRepository.findMaxVersion(groupId)).orElse(0));
+        measurementRepository.clearLatest(groupId);
 
         MeasurementEntity entity = new MeasurementEntity();
-        entity.setGroupId(current.getGroupId());
+        entity.setGroupId(groupId);
         entity.setCustomer(customer);
         entity.setOrder(order);
-        entity.setVersion(history.get(0).getVersion() + 1);
+        entity.setVersion(version + 1);
         entity.setIsLatest(true);
         applyRequest(entity, request);
         if (currentUserId != null) {
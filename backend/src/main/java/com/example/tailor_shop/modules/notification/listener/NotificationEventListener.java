@@ -8,7 +8,6 @@ import com.example.tailor_shop.modules.order.event.OrderCreatedEvent;
 import com.example.tailor_shop.modules.order.event.OrderStatusChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
@@ -21,6 +20,9 @@ import org.springframework.transaction.event.TransactionalEventListener;
  * persistence.
  * 
  * This is a cross-cutting concern that spans multiple domains.
+ *
+ * Handlers run on the committing thread: send() only queues to the
+ * NotificationDispatcher, so there is nothing to hand off to a pool.
  */
 @Component
 @RequiredArgsConstructor
@@ -35,7 +37,6 @@ public class NotificationEventListener {
      * Send order confirmation when order is created.
      */
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async
     public void sendOrderConfirmation(OrderCreatedEvent event) {
         log.info("[{}] Sending order confirmation to: {}",
                 event.getCorrelationId(), event.getCustomerEmail());
@@ -65,7 +66,6 @@ public class NotificationEventListener {
      * Notify customer when order status changes.
      */
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async
     public void notifyOrderStatusChange(OrderStatusChangedEvent event) {
         log.info("[{}] Notifying customer about order status change: {} -> {}",
                 event.getCorrelationId(), event.getOldStatus(), event.getNewStatus());
@@ -96,7 +96,6 @@ public class NotificationEventListener {
      * Notify customer when order is cancelled.
      */
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async
     public void notifyOrderCancellation(OrderCancelledEvent event) {
         log.info("[{}] Notifying customer about order cancellation: {}",
                 event.getCorrelationId(), event.getOrderCode());
@@ -130,7 +129,6 @@ public class NotificationEventListener {
      * Send flash sale purchase confirmation.
      */
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async
     public void sendFlashSalePurchaseConfirmation(FlashSalePurchaseEvent event) {
         log.info("[{}] Sending flash sale confirmation to: {}",
                 event.getCorrelationId(), event.getCustomerEmail());
@@ -160,7 +158,6 @@ public class NotificationEventListener {
      * Notify customer when their reservation expires.
      */
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async
     public void notifyReservationExpiry(ReservationExpiredEvent event) {
         log.info("[{}] Notifying customer about expired reservation: {}",
                 event.getCorrelationId(), event.getReservationId());
@@ -0,0 +1,225 @@
+package com.example.tailor_shop.modules.notification.service;
+
+import com.example.tailor_shop.modules.notification.domain.NotificationEntity;
+import com.example.tailor_shop.modules.notification.dto.NotificationResponse;
+import com.example.tailor_shop.modules.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batched delivery of in-app notifications.
+ *
+ * {@link #enqueue} only offers to a bounded queue; when the queue is full the
+ * notification is dropped and counted (notification.dispatch.dropped) instead
+ * of blocking the caller. A periodic flush drains the queue in batches:
+ * - identical notifications to the same user within a batch are coalesced
+ * - the batch is persisted with one saveAll in one transaction
+ * - each user gets one WebSocket frame per batch: the notification itself, or
+ *   a JSON array (oldest first) when a burst produced several
+ *
+ * The flush runs on its own notificationFlushScheduler thread rather than
+ * the shared @Scheduled pool, so a slow job elsewhere never delays delivery.
+ *
+ * Broadcasts fan out through the broker on notificationBroadcastExecutor, so
+ * a flash sale announcement never runs on the caller's thread.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final String USER_DESTINATION = "/queue/notifications";
+    private static final String BROADCAST_DESTINATION = "/topic/notifications";
+
+    private final NotificationRepository notificationRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Executor broadcastExecutor;
+    private final TaskScheduler flushScheduler;
+    private final Duration flushInterval;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<NotificationEntity> queue;
+    private final int batchSize;
+
+    private final AtomicInteger pendingBroadcasts = new AtomicInteger();
+    private final Counter enqueued;
+    private final Counter coalesced;
+    private final Counter droppedQueueFull;
+    private final Counter droppedPersistFailed;
+    private final Counter droppedBroadcast;
+    private final Timer flushTimer;
+    private ScheduledFuture<?> flushTask;
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  @Qualifier("notificationBroadcastExecutor") Executor broadcastExecutor,
+                                  @Qualifier("notificationFlushScheduler") TaskScheduler flushScheduler,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.dispatch.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notification.dispatch.batch-size:500}") int batchSize,
+                                  @Value("${notification.dispatch.flush-interval-ms:200}") long flushIntervalMs) {
+        this.notificationRepository = notificationRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.broadcastExecutor = broadcastExecutor;
+        this.flushScheduler = flushScheduler;
+        this.flushInterval = Duration.ofMillis(flushIntervalMs);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        this.enqueued = meterRegistry.counter("notification.dispatch.enqueued");
+        this.coalesced = meterRegistry.counter("notification.dispatch.coalesced");
+        this.droppedQueueFull = meterRegistry.counter("notification.dispatch.dropped", "reason", "queue_full");
+        this.droppedPersistFailed = meterRegistry.counter("notification.dispatch.dropped", "reason", "persist_failed");
+        this.droppedBroadcast = meterRegistry.counter("notification.dispatch.dropped", "reason", "broadcast_rejected");
+        this.flushTimer = meterRegistry.timer("notification.dispatch.flush");
+        meterRegistry.gauge("notification.dispatch.backlog", queue, BlockingQueue::size);
+        meterRegistry.gauge("notification.broadcast.backlog", pendingBroadcasts);
+    }
+
+    @PostConstruct
+    public void start() {
+        flushTask = flushScheduler.scheduleWithFixedDelay(this::flush, flushInterval);
+    }
+
+    /**
+     * Queue a notification for persistence and delivery.
+     *
+     * @return false if the queue is full and the notification was dropped
+     */
+    public boolean enqueue(NotificationEntity notification) {
+        if (!queue.offer(notification)) {
+            droppedQueueFull.increment();
+            log.debug("Notification queue full, dropped notification for user {}", notification.getUserId());
+            return false;
+        }
+        enqueued.increment();
+        return true;
+    }
+
+    /**
+     * Push a notification to every connected user on the broadcast executor.
+     */
+    public void broadcast(NotificationResponse notification) {
+        pendingBroadcasts.incrementAndGet();
+        try {
+            broadcastExecutor.execute(() -> {
+                try {
+                    messagingTemplate.convertAndSend(BROADCAST_DESTINATION, notification);
+                    log.debug("Broadcast notification sent: {}", notification.title());
+                } catch (Exception e) {
+                    log.warn("Failed to broadcast notification: {}", e.getMessage());
+                } finally {
+                    pendingBroadcasts.decrementAndGet();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            pendingBroadcasts.decrementAndGet();
+            droppedBroadcast.increment();
+            log.warn("Broadcast executor saturated, dropped broadcast: {}", notification.title());
+        }
+    }
+
+    /**
+     * Persist and deliver everything queued so far, batch by batch.
+     *
+     * @return number of notifications persisted
+     */
+    public int flush() {
+        int persisted = 0;
+        List<NotificationEntity> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<NotificationEntity> current = batch;
+            persisted += flushTimer.record(() -> flushBatch(current));
+            batch = new ArrayList<>(Math.min(batchSize, 1024));
+        }
+        return persisted;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        flush();
+    }
+
+    // ==================== HELPERS ====================
+
+    private int flushBatch(List<NotificationEntity> batch) {
+        Map<Long, Map<Fingerprint, NotificationEntity>> byUser = new LinkedHashMap<>();
+        for (NotificationEntity notification : batch) {
+            Map<Fingerprint, NotificationEntity> forUser =
+                    byUser.computeIfAbsent(notification.getUserId(), id -> new LinkedHashMap<>());
+            if (forUser.putIfAbsent(Fingerprint.of(notification), notification) != null) {
+                coalesced.increment();
+            }
+        }
+
+        List<NotificationEntity> toSave = new ArrayList<>(batch.size());
+        byUser.values().forEach(forUser -> toSave.addAll(forUser.values()));
+
+        List<NotificationEntity> saved;
+        try {
+            saved = transactionTemplate.execute(status -> notificationRepository.saveAll(toSave));
+        } catch (RuntimeException e) {
+            droppedPersistFailed.increment(toSave.size());
+            log.error("Failed to persist {} notification(s): {}", toSave.size(), e.getMessage(), e);
+            return 0;
+        }
+        if (saved == null) {
+            return 0;
+        }
+
+        Map<Long, List<NotificationResponse>> responses = new LinkedHashMap<>();
+        for (NotificationEntity entity : saved) {
+            responses.computeIfAbsent(entity.getUserId(), id -> new ArrayList<>())
+                    .add(NotificationService.toResponse(entity));
+        }
+        responses.forEach(this::pushToUser);
+
+        log.debug("Flushed {} notification(s) to {} user(s)", saved.size(), responses.size());
+        return saved.size();
+    }
+
+    private void pushToUser(Long userId, List<NotificationResponse> notifications) {
+        Object payload = notifications.size() == 1 ? notifications.get(0) : notifications;
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), USER_DESTINATION, payload);
+        } catch (Exception e) {
+            log.warn("Failed to send WebSocket notification to user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * What makes two notifications to the same user duplicates.
+     */
+    private record Fingerprint(String type, String title, String message, String link) {
+
+        static Fingerprint of(NotificationEntity n) {
+            return new Fingerprint(n.getType(), n.getTitle(), n.getMessage(), n.getLink());
+        }
+    }
+}
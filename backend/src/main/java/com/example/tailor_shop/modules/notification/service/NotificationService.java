@@ -7,12 +7,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Notification Service — persists notifications to DB and pushes via WebSocket.
+ * Notification Service — persists notifications to DB and pushes via WebSocket
+ * (batched through {@link NotificationDispatcher}).
  */
 @Service
 @RequiredArgsConstructor
@@ -20,15 +20,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationDispatcher notificationDispatcher;
 
     /**
      * Send a notification to a specific user.
-     * Persists to DB and pushes via WebSocket to
-     * /user/{userId}/queue/notifications.
+     * Queued to the {@link NotificationDispatcher}, which persists in batches
+     * and pushes via WebSocket to /user/{userId}/queue/notifications.
+     *
+     * @return false if the notification queue is full and it was dropped
      */
-    @Transactional
-    public NotificationResponse send(Long userId, String type, String title, String message, String icon, String link) {
+    public boolean send(Long userId, String type, String title, String message, String icon, String link) {
         NotificationEntity entity = NotificationEntity.builder()
                 .userId(userId)
                 .type(type)
@@ -37,26 +38,12 @@ public class NotificationService {
                 .icon(icon)
                 .link(link)
                 .build();
-
-        entity = notificationRepository.save(entity);
-        NotificationResponse response = toResponse(entity);
-
-        try {
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/notifications",
-                    response);
-            log.debug("WebSocket notification sent to user {}: {}", userId, title);
-        } catch (Exception e) {
-            log.warn("Failed to send WebSocket notification to user {}: {}", userId, e.getMessage());
-        }
-
-        return response;
+        return notificationDispatcher.enqueue(entity);
     }
 
     /**
      * Broadcast a notification to all connected users.
-     * Persists per-user and pushes to /topic/notifications.
+     * Pushed to /topic/notifications on the broadcast executor, not persisted.
      */
     public void broadcast(String type, String title, String message, String icon, String link) {
         NotificationResponse broadcast = NotificationResponse.builder()
@@ -66,13 +53,7 @@ public class NotificationService {
                 .icon(icon)
                 .link(link)
                 .build();
-
-        try {
-            messagingTemplate.convertAndSend("/topic/notifications", broadcast);
-            log.debug("Broadcast notification sent: {}", title);
-        } catch (Exception e) {
-            log.warn("Failed to broadcast notification: {}", e.getMessage());
-        }
+        notificationDispatcher.broadcast(broadcast);
     }
 
     /**
@@ -81,7 +62,7 @@ public class NotificationService {
     @Transactional(readOnly = true)
     public Page<NotificationResponse> getNotifications(Long userId, Pageable pageable) {
         return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
-                .map(this::toResponse);
+                .map(NotificationService::toResponse);
     }
 
     /**
@@ -113,7 +94,7 @@ public class NotificationService {
         return notificationRepository.markAllAsReadByUserId(userId);
     }
 
-    private NotificationResponse toResponse(NotificationEntity entity) {
+    static NotificationResponse toResponse(NotificationEntity entity) {
         return NotificationResponse.builder()
                 .id(entity.getId())
                 .type(entity.getType())
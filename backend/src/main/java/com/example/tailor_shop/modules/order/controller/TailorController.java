@@ -69,6 +69,7 @@ public class TailorController {
             @PageableDefault(size = 20) Pageable pageable) {
         Page<OrderEntity> orders = orderRepository.findUnassignedOrders(pageable);
         Page<OrderResponse> summaries = orders.map(this::mapToSummary);
+        orderService.attachLatestMeasurements(summaries.getContent());
 
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), summaries));
     }
@@ -84,6 +85,7 @@ public class TailorController {
         Long tailorId = getUserId(principal);
         Page<OrderEntity> orders = orderRepository.findByTailorIdAndStatus(tailorId, status, pageable);
         Page<OrderResponse> summaries = orders.map(this::mapToSummary);
+        orderService.attachLatestMeasurements(summaries.getContent());
 
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), summaries));
     }
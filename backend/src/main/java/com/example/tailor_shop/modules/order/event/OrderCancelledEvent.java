@@ -1,6 +1,9 @@
 package com.example.tailor_shop.modules.order.event;
 
 import com.example.tailor_shop.modules.order.domain.OrderEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.math.BigDecimal;
@@ -16,6 +19,7 @@ import java.time.LocalDateTime;
  * - RefundService: Process refund if applicable
  */
 @Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE, onConstructor_ = @JsonCreator) // Outbox deserialization
 public class OrderCancelledEvent {
 
     private final Long orderId;
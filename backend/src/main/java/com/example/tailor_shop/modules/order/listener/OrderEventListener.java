@@ -1,73 +1,57 @@
 package com.example.tailor_shop.modules.order.listener;
 
+import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
+import com.example.tailor_shop.modules.billing.domain.InvoiceStatus;
+import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
+import com.example.tailor_shop.modules.billing.service.InvoiceService;
 import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
 import com.example.tailor_shop.modules.order.event.OrderCancelledEvent;
 import com.example.tailor_shop.modules.order.event.OrderCreatedEvent;
 import com.example.tailor_shop.modules.order.event.OrderStatusChangedEvent;
+import com.example.tailor_shop.modules.order.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
 
 /**
  * Event Listeners for Order-related events.
- * 
+ *
  * Features:
- * - Auto-create invoice when order is created
- * - Auto-create appointment when order is created
- * - Release inventory when order is cancelled
- * - Automatic retry with exponential backoff (@RetryableEvent)
+ * - Make sure an order has its invoice once it is created
+ * - Void the unpaid invoice when an order is cancelled
+ * - @RetryableEvent handlers are delivered through the transactional outbox
+ *   (OutboxEventPublisher / OutboxDispatcher), retried via nextRetryAt
  * - Failed events saved to Dead-Letter Queue
+ *
+ * Handlers must be idempotent: the outbox delivers at least once.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventListener {
 
-    // TODO: Inject services when implementing
-    // private final InvoiceService invoiceService;
-    // private final AppointmentService appointmentService;
-    // private final InventoryService inventoryService;
+    private final OrderService orderService;
+    private final InvoiceService invoiceService;
+    private final InvoiceRepository invoiceRepository;
 
     /**
      * Handle order created event - create invoice.
-     * 
-     * @RetryableEvent: Auto-retry 3 times with exponential backoff.
-     *                  On final failure, event is saved to DLQ for manual
-     *                  processing.
+     *
+     * The invoice is normally created in the order transaction; this handler
+     * creates it when that step failed (and does nothing otherwise).
+     *
+     * @RetryableEvent: Dispatched from the outbox, retried 3 times with
+     *                  exponential backoff. On final failure, event is saved
+     *                  to DLQ for manual processing.
      */
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async("eventExecutor")
     @RetryableEvent(maxRetries = 3, saveToDlq = true)
     public void handleOrderCreated_CreateInvoice(OrderCreatedEvent event) {
-        log.info("[{}] Creating invoice for order: {}",
-                event.getCorrelationId(), event.getOrderCode());
-
-        // TODO: Uncomment when InvoiceService is ready
-        // invoiceService.createForOrder(event.getOrderId());
-
-        log.info("[{}] Invoice created successfully for order: {}",
-                event.getCorrelationId(), event.getOrderCode());
-    }
-
-    /**
-     * Handle order created event - create appointment.
-     */
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async("eventExecutor")
-    @RetryableEvent(maxRetries = 3, saveToDlq = true)
-    public void handleOrderCreated_CreateAppointment(OrderCreatedEvent event) {
-        log.info("[{}] Creating appointment for order: {}",
-                event.getCorrelationId(), event.getOrderCode());
-
-        // TODO: Uncomment when AppointmentService is ready
-        // appointmentService.createForOrder(event.getOrderId(), event.getCustomerId());
-
-        log.info("[{}] Appointment created successfully for order: {}",
-                event.getCorrelationId(), event.getOrderCode());
+        orderService.ensureInvoice(event.getOrderId());
+        log.info("[{}] Invoice ensured for order: {}", event.getCorrelationId(), event.getOrderCode());
     }
 
     /**
@@ -89,26 +73,28 @@ public class OrderEventListener {
     }
 
     /**
-     * Handle order cancelled event - release inventory and process refund.
-     * Critical operation - retry and save to DLQ on failure.
+     * Handle order cancelled event - void the order's unpaid invoice.
+     * Critical operation - dispatched from the outbox, retried and saved to DLQ on failure.
+     *
+     * Invoices with payments are left as they are: the refund is done by staff.
      */
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async("eventExecutor")
     @RetryableEvent(maxRetries = 5, saveToDlq = true) // More retries for critical operation
     public void handleOrderCancelled(OrderCancelledEvent event) {
         log.info("[{}] Order {} cancelled, reason: {}",
                 event.getCorrelationId(), event.getOrderCode(), event.getCancellationReason());
 
-        // Release reserved fabric stock
-        // TODO: inventoryService.releaseReservation(event.getOrderId());
-        log.info("[{}] Released inventory for cancelled order: {}",
-                event.getCorrelationId(), event.getOrderCode());
-
-        // Process refund if required
-        if (event.isRequiresRefund()) {
-            log.info("[{}] Processing refund for order: {} amount: {}",
-                    event.getCorrelationId(), event.getOrderCode(), event.getTotalAmount());
-            // TODO: refundService.processRefund(event);
+        InvoiceEntity invoice = invoiceRepository.findByOrderIdAndIsDeletedFalse(event.getOrderId()).orElse(null);
+        if (invoice == null || invoice.getStatus() == InvoiceStatus.voided
+                || invoice.getStatus() == InvoiceStatus.refunded) {
+            return;
+        }
+        if (invoice.getPaidAmount() != null && invoice.getPaidAmount().compareTo(BigDecimal.ZERO) > 0) {
+            log.warn("[{}] Order {} cancelled but invoice {} has payments ({}), refund manually",
+                    event.getCorrelationId(), event.getOrderCode(), invoice.getCode(), invoice.getPaidAmount());
+            return;
         }
+        invoiceService.voidInvoice(invoice.getId(), null);
+        log.info("[{}] Voided invoice {} of cancelled order: {}",
+                event.getCorrelationId(), invoice.getCode(), event.getOrderCode());
     }
 }
@@ -25,6 +25,11 @@ public interface OrderService {
 
     OrderResponse detail(Long id);
 
+    /**
+     * Gắn số đo latest vào các order trong danh sách (một query cho cả danh sách).
+     */
+    void attachLatestMeasurements(java.util.List<OrderResponse> orders);
+
     OrderResponse create(OrderResquest request, java.util.List<org.springframework.web.multipart.MultipartFile> files, Long currentUserId);
 
     OrderResponse updateStatus(Long id, UpdateOrderStatusRequest request);
@@ -35,5 +40,10 @@ public interface OrderService {
 
     OrderResponse createWizard(OrderWizardRequest request, Long currentUserId);
 
+    /**
+     * Tạo hóa đơn cho đơn hàng nếu chưa có (idempotent, dùng khi tạo đồng bộ bị lỗi).
+     */
+    void ensureInvoice(Long orderId);
+
     OrderResponse update(Long id, com.example.tailor_shop.modules.order.dto.UpdateOrderRequest request, Long currentUserId);
 }
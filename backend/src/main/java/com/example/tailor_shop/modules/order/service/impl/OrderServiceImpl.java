@@ -21,6 +21,10 @@ import com.example.tailor_shop.modules.appointment.domain.AppointmentType;
 import com.example.tailor_shop.modules.billing.service.InvoiceService;
 import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
 import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
+import com.example.tailor_shop.modules.event.service.OutboxEventPublisher;
+import com.example.tailor_shop.modules.order.event.OrderCancelledEvent;
+import com.example.tailor_shop.modules.order.event.OrderCreatedEvent;
+import com.example.tailor_shop.common.TraceIdUtil;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,6 +37,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -52,6 +59,7 @@ public class OrderServiceImpl implements OrderService {
     private final AppointmentService appointmentService;
     private final InvoiceService invoiceService;
     private final InvoiceRepository invoiceRepository;
+    private final OutboxEventPublisher outboxEventPublisher;
 
     public OrderServiceImpl(OrderRepository orderRepository,
                             OrderItemRepository orderItemRepository,
@@ -63,7 +71,8 @@ public class OrderServiceImpl implements OrderService {
                             MeasurementRepository measurementRepository,
                             AppointmentService appointmentService,
                             InvoiceService invoiceService,
-                            InvoiceRepository invoiceRepository) {
+                            InvoiceRepository invoiceRepository,
+                            OutboxEventPublisher outboxEventPublisher) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.orderTimelineRepository = orderTimelineRepository;
@@ -75,6 +84,7 @@ public class OrderServiceImpl implements OrderService {
         this.appointmentService = appointmentService;
         this.invoiceService = invoiceService;
         this.invoiceRepository = invoiceRepository;
+        this.outboxEventPublisher = outboxEventPublisher;
     }
 
     @Override
@@ -88,8 +98,23 @@ public class OrderServiceImpl implements OrderService {
                                     java.time.LocalDate dueDate,
                                     String search,
                                     Pageable pageable) {
-        return orderRepository.search(status, customerId, tailorId, fromDate, toDate, appointmentDate, dueDate, normalize(search), pageable)
+        Page<OrderResponse> page = orderRepository.search(status, customerId, tailorId, fromDate, toDate, appointmentDate, dueDate, normalize(search), pageable)
                 .map(this::mapToSummary);
+        attachLatestMeasurements(page.getContent());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void attachLatestMeasurements(java.util.List<OrderResponse> orders) {
+        Map<Long, OrderResponse.Measurement> latest = latestMeasurements(
+                orders.stream().map(OrderResponse::getId).toList());
+        for (OrderResponse order : orders) {
+            OrderResponse.Measurement measurement = latest.get(order.getId());
+            if (measurement != null) {
+                order.setMeasurement(measurement);
+            }
+        }
     }
 
     @Override
@@ -184,6 +209,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         addTimeline(order, order.getStatus(), "Order created");
+        publishOrderCreated(order);
 
         // Tự động tạo hóa đơn sau khi tạo đơn hàng
         try {
@@ -196,6 +222,14 @@ public class OrderServiceImpl implements OrderService {
         return mapToDetail(order);
     }
 
+    /**
+     * Store OrderCreatedEvent in the outbox within the order transaction.
+     */
+    private void publishOrderCreated(OrderEntity order) {
+        String correlationId = TraceIdUtil.getOrCreateTraceId();
+        outboxEventPublisher.publish(new OrderCreatedEvent(order, correlationId), correlationId);
+    }
+
     private boolean hasMeasurementData(OrderResquest.Measurement meas) {
         return meas.getChest() != null || meas.getWaist() != null || meas.getHip() != null
                 || meas.getShoulder() != null || meas.getSleeve() != null || meas.getInseam() != null
@@ -232,6 +266,15 @@ public class OrderServiceImpl implements OrderService {
 
         addTimeline(order, target, request.getNote());
 
+        if (target == OrderStatus.CANCELLED) {
+            boolean requiresRefund = order.getDepositAmount() != null
+                    && order.getDepositAmount().compareTo(BigDecimal.ZERO) > 0;
+            String correlationId = TraceIdUtil.getOrCreateTraceId();
+            outboxEventPublisher.publish(
+                    new OrderCancelledEvent(order, request.getNote(), null, requiresRefund, correlationId),
+                    correlationId);
+        }
+
         return mapToDetail(order);
     }
 
@@ -296,6 +339,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         addTimeline(order, order.getStatus(), "Order created via wizard");
+        publishOrderCreated(order);
         log.debug("Timeline added for order {}", order.getId());
         
         // Tự động tạo hóa đơn sau khi tạo đơn hàng
@@ -591,31 +635,9 @@ public class OrderServiceImpl implements OrderService {
             return dt;
         }).collect(Collectors.toList()));
 
-        var measurementPage = measurementRepository.findLatest(
-                null,
-                order.getId(),
-                PageRequest.of(0, 1)
-        );
-        if (!measurementPage.isEmpty()) {
-            MeasurementEntity m = measurementPage.getContent().get(0);
-            OrderResponse.Measurement dm = new OrderResponse.Measurement();
-            dm.setChest(m.getChest());
-            dm.setWaist(m.getWaist());
-            dm.setHip(m.getHip());
-            dm.setShoulder(m.getShoulder());
-            dm.setSleeve(m.getSleeve());
-            dm.setBicep(m.getBicep());
-            dm.setHeight(m.getHeight());
-            dm.setWeight(m.getWeight());
-            dm.setNeck(m.getNeck());
-            dm.setThigh(m.getThigh());
-            dm.setCrotch(m.getCrotch());
-            dm.setAnkle(m.getAnkle());
-            dm.setShirtLength(m.getShirtLength());
-            dm.setPantsLength(m.getPantsLength());
-            dm.setFitPreference(m.getFitPreference());
-            dm.setNote(m.getNote());
-            dto.setMeasurement(dm);
+        OrderResponse.Measurement measurement = latestMeasurements(java.util.List.of(order.getId())).get(order.getId());
+        if (measurement != null) {
+            dto.setMeasurement(measurement);
         }
 
         // Lấy thông tin hóa đơn nếu có
@@ -632,6 +654,42 @@ public class OrderServiceImpl implements OrderService {
         return dto;
     }
 
+    /**
+     * Số đo latest theo orderId, một query cho cả danh sách.
+     * Order có nhiều group số đo thì lấy group mới nhất.
+     */
+    private Map<Long, OrderResponse.Measurement> latestMeasurements(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, OrderResponse.Measurement> result = new HashMap<>();
+        for (MeasurementEntity m : measurementRepository.findLatestByOrderIds(orderIds)) {
+            result.computeIfAbsent(m.getOrder().getId(), id -> toOrderMeasurement(m));
+        }
+        return result;
+    }
+
+    private OrderResponse.Measurement toOrderMeasurement(MeasurementEntity m) {
+        OrderResponse.Measurement dm = new OrderResponse.Measurement();
+        dm.setChest(m.getChest());
+        dm.setWaist(m.getWaist());
+        dm.setHip(m.getHip());
+        dm.setShoulder(m.getShoulder());
+        dm.setSleeve(m.getSleeve());
+        dm.setBicep(m.getBicep());
+        dm.setHeight(m.getHeight());
+        dm.setWeight(m.getWeight());
+        dm.setNeck(m.getNeck());
+        dm.setThigh(m.getThigh());
+        dm.setCrotch(m.getCrotch());
+        dm.setAnkle(m.getAnkle());
+        dm.setShirtLength(m.getShirtLength());
+        dm.setPantsLength(m.getPantsLength());
+        dm.setFitPreference(m.getFitPreference());
+        dm.setNote(m.getNote());
+        return dm;
+    }
+
     private String generateCode() {
         String code;
         do {
@@ -654,33 +712,52 @@ public class OrderServiceImpl implements OrderService {
      */
     private void createInvoiceForOrder(OrderEntity order, Long currentUserId) {
         try {
-            // Kiểm tra xem đơn hàng có items không
-            java.util.List<OrderItemEntity> orderItems = orderItemRepository.findByOrder(order);
-            if (orderItems == null || orderItems.isEmpty()) {
-                log.debug("Skipping invoice creation for order {}: no items found", order.getId());
-                return;
-            }
-
-            // Tìm staffId: ưu tiên tailorId, sau đó tìm staff mặc định
-            Long staffId = findStaffIdForInvoice(order, currentUserId);
-            if (staffId == null) {
-                log.warn("Cannot create invoice for order {}: no staff found", order.getId());
-                return;
-            }
-
-            // Tạo InvoiceRequest từ OrderEntity
-            InvoiceRequest invoiceRequest = buildInvoiceRequestFromOrder(order, staffId);
-
-            // Tạo hóa đơn
-            invoiceService.create(invoiceRequest, currentUserId);
-            log.info("Successfully created invoice for order {}", order.getId());
-            // Note: invoiceId sẽ được set trong mapToDetail() khi query lại
+            issueInvoice(order, currentUserId);
         } catch (Exception e) {
             // KHÔNG throw exception để không rollback transaction của order
             // Chỉ log error và tiếp tục, order vẫn được tạo thành công
             log.error("Error creating invoice for order {}: {}", order.getId(), e.getMessage(), e);
-            log.warn("Order {} was created successfully but invoice creation failed. Invoice can be created manually later.", order.getId());
+            log.warn("Order {} was created successfully but invoice creation failed. "
+                    + "OrderCreatedEvent handler will retry it.", order.getId());
+        }
+    }
+
+    @Override
+    public void ensureInvoice(Long orderId) {
+        OrderEntity order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new NotFoundException("Order not found"));
+        if (order.getStatus() == OrderStatus.CANCELLED
+                || invoiceRepository.findByOrderIdAndIsDeletedFalse(orderId).isPresent()) {
+            return;
         }
+        issueInvoice(order, null);
+    }
+
+    /**
+     * Tạo hóa đơn từ các item của đơn hàng; lỗi được ném ra cho caller.
+     */
+    private void issueInvoice(OrderEntity order, Long currentUserId) {
+        // Kiểm tra xem đơn hàng có items không
+        java.util.List<OrderItemEntity> orderItems = orderItemRepository.findByOrder(order);
+        if (orderItems == null || orderItems.isEmpty()) {
+            log.debug("Skipping invoice creation for order {}: no items found", order.getId());
+            return;
+        }
+
+        // Tìm staffId: ưu tiên tailorId, sau đó tìm staff mặc định
+        Long staffId = findStaffIdForInvoice(order, currentUserId);
+        if (staffId == null) {
+            log.warn("Cannot create invoice for order {}: no staff found", order.getId());
+            return;
+        }
+
+        // Tạo InvoiceRequest từ OrderEntity
+        InvoiceRequest invoiceRequest = buildInvoiceRequestFromOrder(order, staffId);
+
+        // Tạo hóa đơn
+        invoiceService.create(invoiceRequest, currentUserId);
+        log.info("Successfully created invoice for order {}", order.getId());
+        // Note: invoiceId sẽ được set trong mapToDetail() khi query lại
     }
 
     /**
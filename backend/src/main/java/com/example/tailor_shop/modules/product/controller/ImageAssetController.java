@@ -3,6 +3,7 @@ package com.example.tailor_shop.modules.product.controller;
 import com.example.tailor_shop.common.CommonResponse;
 import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
+import com.example.tailor_shop.common.ViewCounter;
 import com.example.tailor_shop.config.storage.ImageProcessingService;
 import com.example.tailor_shop.config.storage.S3StorageService;
 import com.example.tailor_shop.modules.product.dto.ImageAssetRequest;
@@ -39,6 +40,7 @@ public class ImageAssetController {
     private final ImageClassificationService classificationService;
     private final ImageProcessingService imageProcessingService;
     private final GeminiVisionService geminiVisionService;
+    private final ViewCounter viewCounter;
 
     @Value("${image-processing.enabled:true}")
     private boolean imageProcessingEnabled;
@@ -618,6 +620,7 @@ public class ImageAssetController {
     @GetMapping("/{id}")
     public ResponseEntity<CommonResponse<ImageAssetResponse>> getById(@PathVariable Long id) {
         ImageAssetResponse response = imageAssetService.getById(id);
+        viewCounter.record(ViewCounter.Target.IMAGE_ASSET, response.getId());
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), response));
     }
 
@@ -3,6 +3,7 @@ package com.example.tailor_shop.modules.product.controller;
 import com.example.tailor_shop.common.CommonResponse;
 import com.example.tailor_shop.common.ResponseUtil;
 import com.example.tailor_shop.common.TraceIdUtil;
+import com.example.tailor_shop.common.ViewCounter;
 import com.example.tailor_shop.config.security.CustomUserDetails;
 import com.example.tailor_shop.modules.product.dto.ProductDetailResponse;
 import com.example.tailor_shop.modules.product.dto.ProductFilterRequest;
@@ -34,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class ProductController {
 
     private final ProductService productService;
+    private final ViewCounter viewCounter;
 
     @GetMapping
     public ResponseEntity<CommonResponse<Page<ProductListItemResponse>>> list(
@@ -51,6 +53,7 @@ public class ProductController {
             @AuthenticationPrincipal CustomUserDetails principal) {
         Long currentUserId = principal != null ? principal.getId() : null;
         ProductDetailResponse data = productService.detail(key, currentUserId);
+        viewCounter.record(ViewCounter.Target.PRODUCT, data.getId());
         return ResponseEntity.ok(ResponseUtil.success(TraceIdUtil.getOrCreateTraceId(), data));
     }
 
@@ -129,6 +129,11 @@ public class ImageAssetEntity {
     @JoinColumn(name = "style_id")
     private StyleEntity style;
 
+    // Chỉ ViewCounter ghi cột này (view_count = view_count + delta)
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long viewCount;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private OffsetDateTime createdAt;
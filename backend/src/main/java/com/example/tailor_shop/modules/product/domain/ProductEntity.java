@@ -76,6 +76,11 @@ public class ProductEntity {
     @Builder.Default
     private Integer sold = 0;
 
+    // Chỉ ViewCounter ghi cột này (view_count = view_count + delta)
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long viewCount;
+
     @Column(name = "is_deleted", nullable = false)
     @Builder.Default
     private Boolean isDeleted = false;
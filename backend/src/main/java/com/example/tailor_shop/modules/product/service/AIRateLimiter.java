@@ -4,6 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 /**
@@ -32,11 +34,14 @@ public class AIRateLimiter {
         
         try {
             semaphore.acquire(); // Wait for available slot
-            log.debug("Acquired semaphore, executing AI call");
-            return aiCall.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("AI call interrupted", e);
+        }
+
+        try {
+            log.debug("Acquired semaphore, executing AI call");
+            return aiCall.get();
         } finally {
             semaphore.release();
             log.debug("Released semaphore");
@@ -46,34 +51,40 @@ public class AIRateLimiter {
     /**
      * Simple rate limiter implementation
      * Giới hạn số lượng requests per second
+     *
+     * Ticket được đặt chỗ bằng CAS, sleep nằm ngoài mọi lock nên không pin
+     * carrier thread khi chạy trên virtual threads và không serialize các caller.
      */
     private static class SimpleRateLimiter {
-        private final double permitsPerSecond;
-        private long nextFreeTicketMicros;
-        private final Object lock = new Object();
+        private final long intervalMicros;
+        private final AtomicLong nextFreeTicketMicros;
 
         public SimpleRateLimiter(double permitsPerSecond) {
-            this.permitsPerSecond = permitsPerSecond;
-            this.nextFreeTicketMicros = System.nanoTime() / 1000;
+            this.intervalMicros = (long) (1_000_000 / permitsPerSecond);
+            this.nextFreeTicketMicros = new AtomicLong(System.nanoTime() / 1000);
         }
 
         public void acquire() {
-            synchronized (lock) {
-                long now = System.nanoTime() / 1000;
-                long waitMicros = Math.max(0, nextFreeTicketMicros - now);
-                
-                if (waitMicros > 0) {
-                    try {
-                        Thread.sleep(waitMicros / 1000, (int) ((waitMicros % 1000) * 1000));
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Rate limiter interrupted", e);
-                    }
+            long now;
+            long ticket;
+            while (true) {
+                now = System.nanoTime() / 1000;
+                long next = nextFreeTicketMicros.get();
+                ticket = Math.max(now, next);
+                if (nextFreeTicketMicros.compareAndSet(next, ticket + intervalMicros)) {
+                    break;
+                }
+            }
+
+            long waitMicros = ticket - now;
+            if (waitMicros > 0) {
+                try {
+                    TimeUnit.MICROSECONDS.sleep(waitMicros);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Rate limiter interrupted", e);
                 }
-                
-                nextFreeTicketMicros = Math.max(now, nextFreeTicketMicros) + (long) (1_000_000 / permitsPerSecond);
             }
         }
     }
 }
-
@@ -0,0 +1,66 @@
+package com.example.tailor_shop.modules.promotion.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Usage slot held for one invoice until it is paid (COMMITTED) or
+ * voided/rolled back/expired (RELEASED). Counted in promotion_usage_counters.
+ */
+@Entity
+@Table(name = "promotion_reservations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_promotion_reservation_invoice", columnNames = "invoice_id"),
+        indexes = {
+                @Index(name = "idx_promotion_reservation_promotion", columnList = "promotion_id, status"),
+                @Index(name = "idx_promotion_reservation_status_created", columnList = "status, created_at")
+        })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionReservationEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "promotion_id", nullable = false)
+    private Long promotionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private PromotionReservationStatus status = PromotionReservationStatus.RESERVED;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
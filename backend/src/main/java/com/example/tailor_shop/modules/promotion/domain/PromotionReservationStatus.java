@@ -0,0 +1,7 @@
+package com.example.tailor_shop.modules.promotion.domain;
+
+public enum PromotionReservationStatus {
+    RESERVED,   // Đã giữ chỗ (invoice chưa thanh toán)
+    COMMITTED,  // Đã sử dụng (invoice đã thanh toán)
+    RELEASED    // Đã trả lại (invoice bị hủy hoặc rollback)
+}
@@ -0,0 +1,50 @@
+package com.example.tailor_shop.modules.promotion.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Claimed usages (reserved + used) of a promotion, per user and in total
+ * (user_id = 0). Updated only through the conditional UPDATEs in
+ * PromotionReservationRepository.
+ */
+@Entity
+@Table(name = "promotion_usage_counters")
+@IdClass(PromotionUsageCounterEntity.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionUsageCounterEntity {
+
+    @Id
+    @Column(name = "promotion_id", nullable = false)
+    private Long promotionId;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "claimed", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer claimed;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long promotionId;
+        private Long userId;
+    }
+}
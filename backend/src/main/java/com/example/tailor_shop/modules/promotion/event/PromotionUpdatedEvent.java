@@ -0,0 +1,24 @@
+package com.example.tailor_shop.modules.promotion.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Event được publish khi promotion được sửa hoặc xóa
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionUpdatedEvent {
+    private Long promotionId;
+    private String code;
+    private boolean deleted;
+    private OffsetDateTime updatedAt;
+}
@@ -10,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PromotionRepository extends JpaRepository<PromotionEntity, Long> {
@@ -35,11 +37,27 @@ public interface PromotionRepository extends JpaRepository<PromotionEntity, Long
             "AND p.endDate >= :date")
     Page<PromotionEntity> findActivePublicPromotions(@Param("date") LocalDate date, Pageable pageable);
 
+    /**
+     * All active public promotions regardless of dates (PromotionEngine checks dates per request)
+     */
+    @Query("SELECT p FROM PromotionEntity p WHERE p.isDeleted = false " +
+            "AND p.status = 'ACTIVE' " +
+            "AND p.isPublic = true")
+    List<PromotionEntity> findAllActivePublic();
+
     @Query("SELECT COUNT(pu) FROM PromotionUsageEntity pu WHERE pu.promotion.id = :promotionId")
     Long countUsagesByPromotionId(@Param("promotionId") Long promotionId);
 
     @Query("SELECT COUNT(pu) FROM PromotionUsageEntity pu " +
             "WHERE pu.promotion.id = :promotionId AND pu.user.id = :userId")
     Long countUsagesByPromotionIdAndUserId(@Param("promotionId") Long promotionId, @Param("userId") Long userId);
-}
 
+    /**
+     * Usage counts of one user for many promotions: rows of [promotionId, count]
+     */
+    @Query("SELECT pu.promotion.id, COUNT(pu) FROM PromotionUsageEntity pu " +
+            "WHERE pu.user.id = :userId AND pu.promotion.id IN :promotionIds " +
+            "GROUP BY pu.promotion.id")
+    List<Object[]> countUsagesByUserIdGroupByPromotion(@Param("userId") Long userId,
+                                                        @Param("promotionIds") Collection<Long> promotionIds);
+}
@@ -0,0 +1,71 @@
+package com.example.tailor_shop.modules.promotion.repository;
+
+import com.example.tailor_shop.modules.promotion.domain.PromotionReservationEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PromotionReservationRepository extends JpaRepository<PromotionReservationEntity, Long> {
+
+    Optional<PromotionReservationEntity> findByInvoiceId(Long invoiceId);
+
+    /**
+     * Move a reservation from RESERVED to a final status. Returns 0 if it was
+     * already committed/released (makes commit and release idempotent).
+     */
+    @Modifying
+    @Query(value = "UPDATE promotion_reservations SET status = :status, updated_at = CURRENT_TIMESTAMP(6) " +
+            "WHERE id = :id AND status = 'RESERVED'", nativeQuery = true)
+    int finish(@Param("id") Long id, @Param("status") String status);
+
+    /**
+     * RESERVED reservations older than the cutoff (invoice never paid nor voided,
+     * or orphaned before the invoice was attached), oldest first
+     */
+    @Query("SELECT r FROM PromotionReservationEntity r " +
+            "WHERE r.status = com.example.tailor_shop.modules.promotion.domain.PromotionReservationStatus.RESERVED " +
+            "AND r.createdAt < :cutoff ORDER BY r.createdAt")
+    List<PromotionReservationEntity> findStaleReserved(@Param("cutoff") OffsetDateTime cutoff, Pageable pageable);
+
+    // ==================== COUNTERS (promotion_usage_counters) ====================
+
+    /**
+     * Create the counter row, seeded from the usages recorded before counters
+     * existed (userId = 0 counts every user). No-op if the row exists.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO promotion_usage_counters (promotion_id, user_id, claimed) " +
+            "SELECT :promotionId, :userId, COUNT(*) FROM promotion_usages " +
+            "WHERE promotion_id = :promotionId AND (:userId = 0 OR user_id = :userId) " +
+            "ON DUPLICATE KEY UPDATE claimed = claimed", nativeQuery = true)
+    void createCounterIfNotExists(@Param("promotionId") Long promotionId, @Param("userId") Long userId);
+
+    /**
+     * Claim one usage if the counter is below the limit (null = unlimited).
+     * Returns 1 if claimed, 0 if the limit is reached.
+     */
+    @Modifying
+    @Query(value = "UPDATE promotion_usage_counters SET claimed = claimed + 1 " +
+            "WHERE promotion_id = :promotionId AND user_id = :userId " +
+            "AND (:limit IS NULL OR claimed < :limit)", nativeQuery = true)
+    int tryClaim(@Param("promotionId") Long promotionId, @Param("userId") Long userId,
+                 @Param("limit") Integer limit);
+
+    @Modifying
+    @Query(value = "UPDATE promotion_usage_counters SET claimed = GREATEST(claimed - 1, 0) " +
+            "WHERE promotion_id = :promotionId AND user_id IN (0, :userId)", nativeQuery = true)
+    int unclaim(@Param("promotionId") Long promotionId, @Param("userId") Long userId);
+
+    /**
+     * Total and per-user claimed counts in one query: rows of [userId, claimed]
+     */
+    @Query(value = "SELECT user_id, claimed FROM promotion_usage_counters " +
+            "WHERE promotion_id = :promotionId AND user_id IN (0, :userId)", nativeQuery = true)
+    List<Object[]> findClaimed(@Param("promotionId") Long promotionId, @Param("userId") Long userId);
+}
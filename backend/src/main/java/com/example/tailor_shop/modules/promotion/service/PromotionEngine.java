@@ -0,0 +1,256 @@
+package com.example.tailor_shop.modules.promotion.service;
+
+import com.example.tailor_shop.modules.promotion.domain.PromotionEntity;
+import com.example.tailor_shop.modules.promotion.event.PromotionActivatedEvent;
+import com.example.tailor_shop.modules.promotion.event.PromotionDeactivatedEvent;
+import com.example.tailor_shop.modules.promotion.event.PromotionExpiredEvent;
+import com.example.tailor_shop.modules.promotion.event.PromotionUpdatedEvent;
+import com.example.tailor_shop.modules.promotion.event.PromotionUsageLimitReachedEvent;
+import com.example.tailor_shop.modules.promotion.repository.PromotionRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled index of active public promotions for cart suggestions.
+ *
+ * Active public promotions are loaded once and compiled into bitmaps
+ * (bit i = i-th promotion in priority order): one per product id, one per
+ * category, one for unrestricted promotions, and cumulative bitmaps over the
+ * sorted min-order thresholds. Matching a cart is then a few BitSet ORs/ANDs
+ * with no JSON parsing and no queries.
+ *
+ * The snapshot is immutable and swapped atomically. It is rebuilt after commit
+ * on the Promotion*Event lifecycle events, and periodically so that changes
+ * made on other nodes are picked up.
+ */
+@Component
+@Slf4j
+public class PromotionEngine {
+
+    private static final TypeReference<List<Object>> LIST_TYPE = new TypeReference<>() {};
+
+    private final PromotionRepository promotionRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public PromotionEngine(PromotionRepository promotionRepository, ObjectMapper objectMapper) {
+        this.promotionRepository = promotionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Promotions applicable to the cart on the given day, in priority order.
+     * Returned entities are detached, shared snapshots: read only.
+     */
+    public List<PromotionEntity> match(Collection<Long> productIds, Collection<String> categoryIds,
+                                       BigDecimal orderAmount, LocalDate today) {
+        Snapshot current = snapshot();
+        BitSet candidates = (BitSet) current.unrestricted.clone();
+        if (productIds != null) {
+            for (Long productId : productIds) {
+                BitSet bits = current.byProduct.get(productId);
+                if (bits != null) {
+                    candidates.or(bits);
+                }
+            }
+        }
+        if (categoryIds != null) {
+            for (String categoryId : categoryIds) {
+                BitSet bits = current.byCategory.get(categoryId);
+                if (bits != null) {
+                    candidates.or(bits);
+                }
+            }
+        }
+        candidates.and(current.minOrderAtMost(orderAmount));
+
+        List<PromotionEntity> result = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            PromotionEntity promotion = current.promotions[i];
+            if (!today.isBefore(promotion.getStartDate()) && !today.isAfter(promotion.getEndDate())) {
+                result.add(promotion);
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivated(PromotionActivatedEvent event) {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeactivated(PromotionDeactivatedEvent event) {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUpdated(PromotionUpdatedEvent event) {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpired(PromotionExpiredEvent event) {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsageLimitReached(PromotionUsageLimitReachedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Periodic rebuild: picks up changes made on other nodes.
+     */
+    @Scheduled(fixedDelayString = "${promotion.engine.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the snapshot from the database.
+     */
+    public synchronized void refresh() {
+        List<PromotionEntity> active = promotionRepository.findAllActivePublic();
+        snapshot = compile(active);
+        log.debug("Promotion engine compiled {} active promotion(s)", active.size());
+    }
+
+    // ==================== HELPERS ====================
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    refresh();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot compile(List<PromotionEntity> active) {
+        PromotionEntity[] promotions = active.stream()
+                .filter(p -> p.getStartDate() != null && p.getEndDate() != null)
+                .sorted(Comparator.comparing((PromotionEntity p) -> p.getPriority() != null ? p.getPriority() : 0)
+                        .reversed()
+                        .thenComparing(PromotionEntity::getCreatedAt,
+                                Comparator.nullsLast(Comparator.<OffsetDateTime>reverseOrder())))
+                .toArray(PromotionEntity[]::new);
+
+        Map<Long, BitSet> byProduct = new HashMap<>();
+        Map<String, BitSet> byCategory = new HashMap<>();
+        BitSet unrestricted = new BitSet(promotions.length);
+
+        for (int i = 0; i < promotions.length; i++) {
+            List<Object> products = parse(promotions[i].getApplicableProductIds());
+            List<Object> categories = parse(promotions[i].getApplicableCategoryIds());
+            if (products.isEmpty() && categories.isEmpty()) {
+                unrestricted.set(i);
+                continue;
+            }
+            for (Object product : products) {
+                Long productId = toLong(product);
+                if (productId != null) {
+                    byProduct.computeIfAbsent(productId, k -> new BitSet()).set(i);
+                }
+            }
+            for (Object category : categories) {
+                byCategory.computeIfAbsent(String.valueOf(category), k -> new BitSet()).set(i);
+            }
+        }
+
+        // thresholds[k] ascending; atMost[k] = promotions with minOrderValue <= thresholds[k]
+        Integer[] order = new Integer[promotions.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> minOrder(promotions[i])));
+        BigDecimal[] thresholds = new BigDecimal[order.length];
+        BitSet[] atMost = new BitSet[order.length];
+        BitSet running = new BitSet(promotions.length);
+        for (int k = 0; k < order.length; k++) {
+            running.set(order[k]);
+            thresholds[k] = minOrder(promotions[order[k]]);
+            atMost[k] = (BitSet) running.clone();
+        }
+
+        return new Snapshot(promotions, Map.copyOf(byProduct), Map.copyOf(byCategory), unrestricted,
+                thresholds, atMost);
+    }
+
+    private List<Object> parse(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, LIST_TYPE);
+        } catch (Exception e) {
+            log.error("Error converting JSON to list: {}", json, e);
+            return List.of();
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.valueOf(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal minOrder(PromotionEntity promotion) {
+        return promotion.getMinOrderValue() != null ? promotion.getMinOrderValue() : BigDecimal.ZERO;
+    }
+
+    private record Snapshot(PromotionEntity[] promotions,
+                            Map<Long, BitSet> byProduct,
+                            Map<String, BitSet> byCategory,
+                            BitSet unrestricted,
+                            BigDecimal[] thresholds,
+                            BitSet[] atMost) {
+
+        /**
+         * Promotions whose min order value is at most {@code amount}.
+         */
+        BitSet minOrderAtMost(BigDecimal amount) {
+            // Last index with thresholds[k] <= amount
+            int lo = 0;
+            int hi = thresholds.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (thresholds[mid].compareTo(amount) <= 0) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found < 0 ? new BitSet() : atMost[found];
+        }
+    }
+}
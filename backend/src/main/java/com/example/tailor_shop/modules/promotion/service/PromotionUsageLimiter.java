@@ -0,0 +1,217 @@
+package com.example.tailor_shop.modules.promotion.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.config.exception.NotFoundException;
+import com.example.tailor_shop.modules.promotion.domain.PromotionEntity;
+import com.example.tailor_shop.modules.promotion.domain.PromotionReservationEntity;
+import com.example.tailor_shop.modules.promotion.domain.PromotionReservationStatus;
+import com.example.tailor_shop.modules.promotion.repository.PromotionRepository;
+import com.example.tailor_shop.modules.promotion.repository.PromotionReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Atomic usage limits for promotions (total and per user).
+ *
+ * promotion_usage_counters holds claimed = reserved + used per promotion
+ * (user_id = 0 is the total) and per (promotion, user). A usage is claimed with
+ * a conditional UPDATE ... WHERE claimed < limit, so concurrent checkouts on any
+ * node can never claim more than the limit.
+ *
+ * Lifecycle, tied to the invoice:
+ * - reserve: when an invoice is created with a promotion
+ * - commit: when the invoice is fully paid (trackPromotionUsageOnPayment)
+ * - release: when the invoice is voided, or its creating transaction rolls back
+ * - expire: reservations still RESERVED after the TTL are released by a sweep,
+ *   so unpaid invoices do not hold slots forever; if such an invoice is paid
+ *   later, commit counts the usage again (without the limit)
+ */
+@Service
+@Slf4j
+public class PromotionUsageLimiter {
+
+    private static final long TOTAL = 0L;
+
+    private final PromotionReservationRepository reservationRepository;
+    private final PromotionRepository promotionRepository;
+    private final TransactionTemplate requiresNew;
+    private final Duration reservationTtl;
+    private final int sweepBatchSize;
+
+    public PromotionUsageLimiter(PromotionReservationRepository reservationRepository,
+                                 PromotionRepository promotionRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${promotion.reservation.ttl-minutes:1440}") long ttlMinutes,
+                                 @Value("${promotion.reservation.sweep-batch-size:200}") int sweepBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.promotionRepository = promotionRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reservationTtl = Duration.ofMinutes(ttlMinutes);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Check limits without claiming (apply/preview). One query for both counters.
+     */
+    public void check(PromotionEntity promotion, Long userId) {
+        long total = 0;
+        long user = 0;
+        for (Object[] row : reservationRepository.findClaimed(promotion.getId(), userId)) {
+            if (((Number) row[0]).longValue() == TOTAL) {
+                total = ((Number) row[1]).longValue();
+            } else {
+                user = ((Number) row[1]).longValue();
+            }
+        }
+
+        if (promotion.getMaxUsageTotal() != null && total >= promotion.getMaxUsageTotal()) {
+            throw new BadRequestException("Promotion has reached maximum usage limit");
+        }
+        if (Boolean.TRUE.equals(promotion.getIsSingleUse()) && user > 0) {
+            throw new BadRequestException("Promotion can only be used once per user");
+        }
+        if (promotion.getMaxUsagePerUser() != null && user >= promotion.getMaxUsagePerUser()) {
+            throw new BadRequestException("You have reached maximum usage limit for this promotion");
+        }
+    }
+
+    /**
+     * Claim one usage for the user. Runs in its own short transaction so the
+     * hot total counter row is locked only for the claim itself; if the caller's
+     * transaction rolls back, the reservation is released.
+     *
+     * @return reservation id, to be attached to the invoice with {@link #attachInvoice}
+     */
+    public Long reserve(Long promotionId, Long userId) {
+        PromotionEntity promotion = promotionRepository.findById(promotionId)
+                .orElseThrow(() -> new NotFoundException("Promotion not found"));
+
+        Long reservationId = requiresNew.execute(status -> {
+            reservationRepository.createCounterIfNotExists(promotionId, TOTAL);
+            reservationRepository.createCounterIfNotExists(promotionId, userId);
+
+            // Per-user row first (no contention), then the shared total row;
+            // a failure rolls back both claims
+            if (reservationRepository.tryClaim(promotionId, userId, perUserLimit(promotion)) == 0) {
+                throw new BadRequestException(Boolean.TRUE.equals(promotion.getIsSingleUse())
+                        ? "Promotion can only be used once per user"
+                        : "You have reached maximum usage limit for this promotion");
+            }
+            if (reservationRepository.tryClaim(promotionId, TOTAL, promotion.getMaxUsageTotal()) == 0) {
+                throw new BadRequestException("Promotion has reached maximum usage limit");
+            }
+
+            return reservationRepository.save(PromotionReservationEntity.builder()
+                    .promotionId(promotionId)
+                    .userId(userId)
+                    .build()).getId();
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        requiresNew.executeWithoutResult(s -> release(reservationId, promotionId, userId));
+                    }
+                }
+            });
+        }
+        return reservationId;
+    }
+
+    public void attachInvoice(Long reservationId, Long invoiceId) {
+        reservationRepository.findById(reservationId).ifPresent(reservation -> {
+            reservation.setInvoiceId(invoiceId);
+            reservationRepository.save(reservation);
+        });
+    }
+
+    /**
+     * Invoice paid: the reserved usage becomes used. Invoices created before
+     * reservations existed have none, and reservations released by the expiry
+     * sweep no longer hold a slot, so their usage is counted here.
+     */
+    public void commit(Long invoiceId, Long promotionId, Long userId) {
+        PromotionReservationEntity reservation = reservationRepository.findByInvoiceId(invoiceId).orElse(null);
+        if (reservation != null) {
+            if (reservationRepository.finish(reservation.getId(), PromotionReservationStatus.COMMITTED.name()) == 1
+                    || reservation.getStatus() == PromotionReservationStatus.COMMITTED) {
+                return;
+            }
+            // Released (expired) before the payment arrived
+            reservation.setStatus(PromotionReservationStatus.COMMITTED);
+            reservationRepository.save(reservation);
+        }
+        reservationRepository.createCounterIfNotExists(promotionId, TOTAL);
+        reservationRepository.createCounterIfNotExists(promotionId, userId);
+        reservationRepository.tryClaim(promotionId, userId, null);
+        reservationRepository.tryClaim(promotionId, TOTAL, null);
+    }
+
+    /**
+     * Invoice voided: give the reserved usage back.
+     */
+    public void release(Long invoiceId) {
+        reservationRepository.findByInvoiceId(invoiceId)
+                .ifPresent(r -> release(r.getId(), r.getPromotionId(), r.getUserId()));
+    }
+
+    /**
+     * Release reservations still RESERVED after the TTL, each in its own
+     * transaction.
+     *
+     * @return number of reservations released
+     */
+    @Scheduled(fixedDelayString = "${promotion.reservation.sweep-interval-ms:300000}")
+    public int sweepExpired() {
+        List<PromotionReservationEntity> stale = reservationRepository.findStaleReserved(
+                OffsetDateTime.now().minus(reservationTtl), PageRequest.of(0, sweepBatchSize));
+        int released = 0;
+        for (PromotionReservationEntity r : stale) {
+            try {
+                Boolean done = requiresNew.execute(status -> release(r.getId(), r.getPromotionId(), r.getUserId()));
+                if (Boolean.TRUE.equals(done)) {
+                    released++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to release expired promotion reservation {}: {}", r.getId(), e.getMessage(), e);
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} expired promotion reservation(s)", released);
+        }
+        return released;
+    }
+
+    private boolean release(Long reservationId, Long promotionId, Long userId) {
+        // Only the RESERVED -> RELEASED transition gives the slot back (idempotent)
+        if (reservationRepository.finish(reservationId, PromotionReservationStatus.RELEASED.name()) == 1) {
+            reservationRepository.unclaim(promotionId, userId);
+            log.debug("Released promotion {} reservation {} for user {}", promotionId, reservationId, userId);
+            return true;
+        }
+        return false;
+    }
+
+    private static Integer perUserLimit(PromotionEntity promotion) {
+        Integer limit = promotion.getMaxUsagePerUser();
+        if (Boolean.TRUE.equals(promotion.getIsSingleUse())) {
+            limit = limit != null ? Math.min(limit, 1) : 1;
+        }
+        return limit;
+    }
+}
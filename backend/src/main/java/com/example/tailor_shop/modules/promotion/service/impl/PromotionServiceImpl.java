@@ -18,10 +18,13 @@ import com.example.tailor_shop.modules.promotion.event.PromotionActivatedEvent;
 import com.example.tailor_shop.modules.promotion.event.PromotionAppliedEvent;
 import com.example.tailor_shop.modules.promotion.event.PromotionDeactivatedEvent;
 import com.example.tailor_shop.modules.promotion.event.PromotionExpiredEvent;
+import com.example.tailor_shop.modules.promotion.event.PromotionUpdatedEvent;
 import com.example.tailor_shop.modules.promotion.event.PromotionUsageLimitReachedEvent;
 import com.example.tailor_shop.modules.promotion.repository.PromotionRepository;
 import com.example.tailor_shop.modules.promotion.repository.PromotionUsageRepository;
+import com.example.tailor_shop.modules.promotion.service.PromotionEngine;
 import com.example.tailor_shop.modules.promotion.service.PromotionService;
+import com.example.tailor_shop.modules.promotion.service.PromotionUsageLimiter;
 import com.example.tailor_shop.modules.user.domain.UserEntity;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -39,7 +42,9 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -52,6 +57,8 @@ public class PromotionServiceImpl implements PromotionService {
     private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final PromotionEngine promotionEngine;
+    private final PromotionUsageLimiter promotionUsageLimiter;
 
     @Override
     @Transactional(readOnly = true)
@@ -202,6 +209,12 @@ public class PromotionServiceImpl implements PromotionService {
         }
 
         entity = promotionRepository.save(entity);
+        eventPublisher.publishEvent(PromotionUpdatedEvent.builder()
+                .promotionId(entity.getId())
+                .code(entity.getCode())
+                .deleted(false)
+                .updatedAt(OffsetDateTime.now())
+                .build());
         return toResponse(entity, null);
     }
 
@@ -214,6 +227,12 @@ public class PromotionServiceImpl implements PromotionService {
                     .orElseThrow(() -> new NotFoundException("Promotion not found"));
             entity.setIsDeleted(true);
             promotionRepository.save(entity);
+            eventPublisher.publishEvent(PromotionUpdatedEvent.builder()
+                    .promotionId(entity.getId())
+                    .code(entity.getCode())
+                    .deleted(true)
+                    .updatedAt(OffsetDateTime.now())
+                    .build());
             log.info("[TraceId: {}] Promotion {} deleted successfully", 
                     com.example.tailor_shop.common.TraceIdUtil.getTraceId(), id);
         } catch (NotFoundException e) {
@@ -532,18 +551,9 @@ public class PromotionServiceImpl implements PromotionService {
     }
 
     private void validateUsageLimits(PromotionEntity promotion, Long userId) {
-        Long totalUsage = promotionRepository.countUsagesByPromotionId(promotion.getId());
-        if (promotion.getMaxUsageTotal() != null && totalUsage >= promotion.getMaxUsageTotal()) {
-            throw new BadRequestException("Promotion has reached maximum usage limit");
-        }
-
-        Long userUsage = promotionRepository.countUsagesByPromotionIdAndUserId(promotion.getId(), userId);
-        if (promotion.getIsSingleUse() && userUsage > 0) {
-            throw new BadRequestException("Promotion can only be used once per user");
-        }
-        if (promotion.getMaxUsagePerUser() != null && userUsage >= promotion.getMaxUsagePerUser()) {
-            throw new BadRequestException("You have reached maximum usage limit for this promotion");
-        }
+        // Counters include usages reserved by unpaid invoices; the actual claim
+        // happens atomically in PromotionUsageLimiter.reserve when the invoice is created
+        promotionUsageLimiter.check(promotion, userId);
     }
 
     private BigDecimal calculateDiscount(PromotionEntity promotion, BigDecimal orderAmount) {
@@ -584,6 +594,10 @@ public class PromotionServiceImpl implements PromotionService {
         }
 
         Long userUsage = promotionRepository.countUsagesByPromotionIdAndUserId(promotion.getId(), userId);
+        return isWithinUserLimits(promotion, userUsage);
+    }
+
+    private boolean isWithinUserLimits(PromotionEntity promotion, long userUsage) {
         if (promotion.getIsSingleUse() != null && promotion.getIsSingleUse() && userUsage > 0) {
             return false;
         }
@@ -623,32 +637,20 @@ public class PromotionServiceImpl implements PromotionService {
     @Override
     @Transactional(readOnly = true)
     public List<PromotionSuggestionResponse> getSuggestions(PromotionSuggestionRequest request, Long userId) {
-        LocalDate today = LocalDate.now();
-        org.springframework.data.domain.Sort sort = org.springframework.data.domain.Sort.by(
-                org.springframework.data.domain.Sort.Order.desc("priority"),
-                org.springframework.data.domain.Sort.Order.desc("createdAt")
-        );
-        org.springframework.data.domain.PageRequest pageable = org.springframework.data.domain.PageRequest.of(0, 50, sort);
-        Page<PromotionEntity> activePromotions = promotionRepository.findActivePublicPromotions(today, pageable);
+        // Product/category/min-order matching runs against the compiled index (no queries, no JSON parsing)
+        List<PromotionEntity> applicable = promotionEngine.match(request.getProductIds(), request.getCategoryIds(),
+                request.getOrderAmount(), LocalDate.now());
 
-        List<PromotionSuggestionResponse> suggestions = new ArrayList<>();
+        // Per-user usage counts: one grouped query for all promotions with per-user limits
+        Map<Long, Long> userUsages = userId != null ? countUserUsages(applicable, userId) : Map.of();
 
-        for (PromotionEntity promotion : activePromotions.getContent()) {
-            // Check if applicable
-            if (!isApplicable(promotion, request.getProductIds(), request.getCategoryIds())) {
-                continue;
-            }
-
-            // Check minimum order value
-            if (promotion.getMinOrderValue() != null &&
-                    request.getOrderAmount().compareTo(promotion.getMinOrderValue()) < 0) {
-                continue;
-            }
+        List<PromotionSuggestionResponse> suggestions = new ArrayList<>();
 
+        for (PromotionEntity promotion : applicable) {
             // Check eligibility for user
             boolean isEligible = true;
             if (userId != null) {
-                isEligible = isEligibleForUser(promotion, userId);
+                isEligible = isWithinUserLimits(promotion, userUsages.getOrDefault(promotion.getId(), 0L));
             }
 
             // Calculate discount
@@ -728,6 +730,21 @@ public class PromotionServiceImpl implements PromotionService {
                 .build();
     }
 
+    private Map<Long, Long> countUserUsages(List<PromotionEntity> promotions, Long userId) {
+        List<Long> limitedIds = promotions.stream()
+                .filter(p -> Boolean.TRUE.equals(p.getIsSingleUse()) || p.getMaxUsagePerUser() != null)
+                .map(PromotionEntity::getId)
+                .toList();
+        if (limitedIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> usages = new HashMap<>();
+        for (Object[] row : promotionRepository.countUsagesByUserIdGroupByPromotion(userId, limitedIds)) {
+            usages.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return usages;
+    }
+
     private String formatCurrency(BigDecimal amount) {
         return String.format("%,d", amount.longValue());
     }
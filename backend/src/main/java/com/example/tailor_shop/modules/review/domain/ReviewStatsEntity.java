@@ -0,0 +1,60 @@
+package com.example.tailor_shop.modules.review.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Review statistics read model - một dòng cho mỗi product / image asset.
+ * Chỉ tính review APPROVED và chưa xóa; cập nhật bằng delta (ReviewStatsRepository.applyDelta).
+ */
+@Entity
+@Table(name = "review_stats", uniqueConstraints = @UniqueConstraint(name = "uk_review_stats_target",
+        columnNames = { "target_type", "target_id" }))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewStatsEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private ReviewType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Column(name = "count_1", nullable = false)
+    private Long count1;
+
+    @Column(name = "count_2", nullable = false)
+    private Long count2;
+
+    @Column(name = "count_3", nullable = false)
+    private Long count3;
+
+    @Column(name = "count_4", nullable = false)
+    private Long count4;
+
+    @Column(name = "count_5", nullable = false)
+    private Long count5;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "approved_count", nullable = false)
+    private Long approvedCount;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private OffsetDateTime updatedAt;
+}
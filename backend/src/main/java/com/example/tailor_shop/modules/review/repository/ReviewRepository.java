@@ -9,7 +9,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<ReviewEntity, Long> {
@@ -67,48 +66,8 @@ public interface ReviewRepository extends JpaRepository<ReviewEntity, Long> {
                         @Param("keyword") String keyword,
                         Pageable pageable);
 
-        /**
-         * Đếm số review theo product và status
-         */
-        Long countByProductIdAndStatusAndIsDeletedFalse(Long productId, ReviewStatus status);
-
         /**
          * Đếm số review theo order và status
          */
         Long countByOrderIdAndStatusAndIsDeletedFalse(Long orderId, ReviewStatus status);
-
-        /**
-         * Tính average rating theo product
-         */
-        @Query("SELECT AVG(r.rating) FROM ReviewEntity r " +
-                        "WHERE r.product.id = :productId AND r.status = 'APPROVED' AND r.isDeleted = false")
-        Double calculateAverageRatingByProductId(@Param("productId") Long productId);
-
-        /**
-         * Tính average rating theo image asset
-         */
-        @Query("SELECT AVG(r.rating) FROM ReviewEntity r " +
-                        "WHERE r.imageAsset.id = :imageAssetId AND r.status = 'APPROVED' AND r.isDeleted = false")
-        Double calculateAverageRatingByImageAssetId(@Param("imageAssetId") Long imageAssetId);
-
-        /**
-         * Đếm số review theo image asset và status
-         */
-        Long countByImageAssetIdAndStatusAndIsDeletedFalse(Long imageAssetId, ReviewStatus status);
-
-        /**
-         * Lấy distribution rating cho product
-         */
-        @Query("SELECT r.rating, COUNT(r) FROM ReviewEntity r " +
-                        "WHERE r.product.id = :productId AND r.status = 'APPROVED' AND r.isDeleted = false " +
-                        "GROUP BY r.rating")
-        List<Object[]> countReviewsByRatingForProduct(@Param("productId") Long productId);
-
-        /**
-         * Lấy distribution rating cho image asset
-         */
-        @Query("SELECT r.rating, COUNT(r) FROM ReviewEntity r " +
-                        "WHERE r.imageAsset.id = :imageAssetId AND r.status = 'APPROVED' AND r.isDeleted = false " +
-                        "GROUP BY r.rating")
-        List<Object[]> countReviewsByRatingForImageAsset(@Param("imageAssetId") Long imageAssetId);
 }
@@ -0,0 +1,69 @@
+package com.example.tailor_shop.modules.review.repository;
+
+import com.example.tailor_shop.modules.review.domain.ReviewStatsEntity;
+import com.example.tailor_shop.modules.review.domain.ReviewType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ReviewStatsRepository extends JpaRepository<ReviewStatsEntity, Long> {
+
+        Optional<ReviewStatsEntity> findByTargetTypeAndTargetId(ReviewType targetType, Long targetId);
+
+        /**
+         * Cộng delta vào stats của target (tạo dòng nếu chưa có), một câu lệnh atomic
+         */
+        @Modifying
+        @Query(value = "INSERT INTO review_stats " +
+                        "(target_type, target_id, count_1, count_2, count_3, count_4, count_5, rating_sum, approved_count) " +
+                        "VALUES (:targetType, :targetId, :d1, :d2, :d3, :d4, :d5, :sumDelta, :countDelta) " +
+                        "ON DUPLICATE KEY UPDATE count_1 = count_1 + :d1, count_2 = count_2 + :d2, " +
+                        "count_3 = count_3 + :d3, count_4 = count_4 + :d4, count_5 = count_5 + :d5, " +
+                        "rating_sum = rating_sum + :sumDelta, approved_count = approved_count + :countDelta",
+                        nativeQuery = true)
+        int applyDelta(@Param("targetType") String targetType, @Param("targetId") Long targetId,
+                        @Param("d1") long d1, @Param("d2") long d2, @Param("d3") long d3,
+                        @Param("d4") long d4, @Param("d5") long d5,
+                        @Param("sumDelta") long sumDelta, @Param("countDelta") long countDelta);
+
+        /**
+         * Seed stats từ các review APPROVED chưa xóa (một lần, khi bảng còn trống).
+         * Target đã có dòng thì giữ nguyên, chạy lại trên node khác không cộng trùng.
+         */
+        @Modifying
+        @Query(value = "INSERT INTO review_stats " +
+                        "(target_type, target_id, count_1, count_2, count_3, count_4, count_5, rating_sum, approved_count) " +
+                        "SELECT r.type, CASE r.type WHEN 'PRODUCT' THEN r.product_id ELSE r.image_asset_id END AS tid, " +
+                        "SUM(r.rating = 1), SUM(r.rating = 2), SUM(r.rating = 3), SUM(r.rating = 4), SUM(r.rating = 5), " +
+                        "SUM(r.rating), COUNT(*) FROM reviews r " +
+                        "WHERE r.status = 'APPROVED' AND r.is_deleted = FALSE " +
+                        "AND ((r.type = 'PRODUCT' AND r.product_id IS NOT NULL) " +
+                        "OR (r.type = 'IMAGE_ASSET' AND r.image_asset_id IS NOT NULL)) " +
+                        "GROUP BY r.type, tid " +
+                        "ON DUPLICATE KEY UPDATE target_id = review_stats.target_id",
+                        nativeQuery = true)
+        int seedFromReviews();
+
+        /**
+         * Product rating của mọi product có stats (sau khi seed)
+         */
+        @Modifying
+        @Query(value = "UPDATE products p JOIN review_stats s " +
+                        "ON s.target_type = 'PRODUCT' AND s.target_id = p.id " +
+                        "SET p.rating = ROUND(s.rating_sum / s.approved_count, 2) " +
+                        "WHERE s.approved_count > 0", nativeQuery = true)
+        int refreshAllProductRatings();
+
+        /**
+         * Product rating = rating_sum / approved_count, không scan bảng reviews
+         */
+        @Modifying
+        @Query(value = "UPDATE products p JOIN review_stats s " +
+                        "ON s.target_type = 'PRODUCT' AND s.target_id = p.id " +
+                        "SET p.rating = ROUND(s.rating_sum / s.approved_count, 2) " +
+                        "WHERE p.id = :productId AND s.approved_count > 0", nativeQuery = true)
+        int refreshProductRating(@Param("productId") Long productId);
+}
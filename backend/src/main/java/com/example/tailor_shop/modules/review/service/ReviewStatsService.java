@@ -0,0 +1,167 @@
+package com.example.tailor_shop.modules.review.service;
+
+import com.example.tailor_shop.config.redis.CacheConfig;
+import com.example.tailor_shop.modules.review.domain.ReviewEntity;
+import com.example.tailor_shop.modules.review.domain.ReviewStatsEntity;
+import com.example.tailor_shop.modules.review.domain.ReviewStatus;
+import com.example.tailor_shop.modules.review.domain.ReviewType;
+import com.example.tailor_shop.modules.review.dto.ReviewStatisticsResponse;
+import com.example.tailor_shop.modules.review.repository.ReviewStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Review statistics read model (review_stats).
+ *
+ * Một review được tính khi APPROVED và chưa xóa. Mỗi lần create / update /
+ * moderate / delete, service so sánh rating được tính trước và sau thay đổi
+ * và cộng delta bằng một câu upsert, trong cùng transaction với review.
+ * Product rating được tính lại từ dòng stats (sum / count), không AVG.
+ *
+ * Đọc stats là một lookup theo unique key, cache theo CacheConfig khi có Redis.
+ *
+ * Lần khởi động đầu tiên (bảng trống) stats được seed từ các review sẵn có.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewStatsService {
+
+    private final ReviewStatsRepository reviewStatsRepository;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    /**
+     * Rating review đang đóng góp vào stats, null nếu không được tính.
+     */
+    public static Integer countedRating(ReviewEntity review) {
+        return review.getStatus() == ReviewStatus.APPROVED && !Boolean.TRUE.equals(review.getIsDeleted())
+                ? review.getRating()
+                : null;
+    }
+
+    /**
+     * Áp dụng thay đổi của review vào stats.
+     *
+     * @param before {@link #countedRating} chụp trước khi review bị sửa
+     */
+    @Transactional
+    public void apply(ReviewEntity review, Integer before) {
+        Integer after = countedRating(review);
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        Target target = target(review);
+        if (target == null) {
+            return; // Order / fabric reviews không có stats
+        }
+
+        long[] perStar = new long[6];
+        long sumDelta = 0;
+        long countDelta = 0;
+        if (before != null) {
+            perStar[before]--;
+            sumDelta -= before;
+            countDelta--;
+        }
+        if (after != null) {
+            perStar[after]++;
+            sumDelta += after;
+            countDelta++;
+        }
+        reviewStatsRepository.applyDelta(target.type().name(), target.id(),
+                perStar[1], perStar[2], perStar[3], perStar[4], perStar[5], sumDelta, countDelta);
+
+        if (target.type() == ReviewType.PRODUCT) {
+            reviewStatsRepository.refreshProductRating(target.id());
+        }
+        evict(target);
+        log.debug("Review stats {}:{} updated: {} -> {}", target.type(), target.id(), before, after);
+    }
+
+    /**
+     * Seed một lần: review_stats trống nhưng đã có review (dữ liệu trước khi có read model).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (reviewStatsRepository.count() > 0) {
+            return;
+        }
+        int seeded = reviewStatsRepository.seedFromReviews();
+        if (seeded > 0) {
+            reviewStatsRepository.refreshAllProductRatings();
+            log.info("Review stats seeded for {} target(s) from existing reviews", seeded);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.REVIEW_STATS_CACHE, key = "#targetType.name() + ':' + #targetId")
+    public ReviewStatisticsResponse getStatistics(ReviewType targetType, Long targetId) {
+        ReviewStatsEntity stats = reviewStatsRepository.findByTargetTypeAndTargetId(targetType, targetId)
+                .orElse(null);
+
+        Map<Integer, Long> distribution = new HashMap<>();
+        long total = 0;
+        BigDecimal average = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+        if (stats != null) {
+            distribution.put(1, stats.getCount1());
+            distribution.put(2, stats.getCount2());
+            distribution.put(3, stats.getCount3());
+            distribution.put(4, stats.getCount4());
+            distribution.put(5, stats.getCount5());
+            total = stats.getApprovedCount();
+            if (total > 0) {
+                average = BigDecimal.valueOf(stats.getRatingSum())
+                        .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+            }
+        } else {
+            for (int i = 1; i <= 5; i++) {
+                distribution.put(i, 0L);
+            }
+        }
+
+        return ReviewStatisticsResponse.builder()
+                .averageRating(average)
+                .totalReviews(total)
+                .ratingDistribution(distribution)
+                .build();
+    }
+
+    // === Helpers ===
+
+    private static Target target(ReviewEntity review) {
+        if (review.getType() == ReviewType.PRODUCT && review.getProduct() != null) {
+            return new Target(ReviewType.PRODUCT, review.getProduct().getId());
+        }
+        if (review.getType() == ReviewType.IMAGE_ASSET && review.getImageAsset() != null) {
+            return new Target(ReviewType.IMAGE_ASSET, review.getImageAsset().getId());
+        }
+        return null;
+    }
+
+    private void evict(Target target) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null ? manager.getCache(CacheConfig.REVIEW_STATS_CACHE) : null;
+        if (cache != null) {
+            // Transaction-aware cache manager: evicted after commit
+            cache.evict(target.type().name() + ":" + target.id());
+        }
+    }
+
+    private record Target(ReviewType type, Long id) {
+    }
+}
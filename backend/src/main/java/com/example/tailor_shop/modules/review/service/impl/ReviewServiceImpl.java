@@ -15,11 +15,13 @@ import com.example.tailor_shop.modules.review.dto.ReviewFilterRequest;
 import com.example.tailor_shop.modules.review.dto.ReviewRequest;
 import com.example.tailor_shop.modules.review.dto.ReviewResponse;
 import com.example.tailor_shop.modules.review.dto.ReviewStatisticsResponse;
+import com.example.tailor_shop.modules.review.event.ReviewApprovedEvent;
 import com.example.tailor_shop.modules.review.event.ReviewCreatedEvent;
 import com.example.tailor_shop.modules.review.repository.ReviewHelpfulVoteRepository;
 import com.example.tailor_shop.modules.review.repository.ReviewImageRepository;
 import com.example.tailor_shop.modules.review.repository.ReviewRepository;
 import com.example.tailor_shop.modules.review.service.ReviewService;
+import com.example.tailor_shop.modules.review.service.ReviewStatsService;
 import com.example.tailor_shop.modules.user.domain.UserEntity;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -51,6 +53,7 @@ public class ReviewServiceImpl implements ReviewService {
         private final OrderRepository orderRepository;
         private final UserRepository userRepository;
         private final ImageAssetRepository imageAssetRepository;
+        private final ReviewStatsService reviewStatsService;
         private final ApplicationEventPublisher eventPublisher;
 
         @Override
@@ -109,7 +112,7 @@ public class ReviewServiceImpl implements ReviewService {
                 entity = reviewRepository.save(entity);
                 saveImages(entity, request.getImageUrls());
 
-                updateProductRating(productId);
+                reviewStatsService.apply(entity, null);
 
                 publishReviewCreatedEvent(entity, userId);
 
@@ -144,6 +147,8 @@ public class ReviewServiceImpl implements ReviewService {
                 entity = reviewRepository.save(entity);
                 saveImages(entity, request.getImageUrls());
 
+                reviewStatsService.apply(entity, null);
+
                 publishReviewCreatedEvent(entity, userId);
 
                 return toResponse(entity, userId);
@@ -176,6 +181,8 @@ public class ReviewServiceImpl implements ReviewService {
                 entity = reviewRepository.save(entity);
                 saveImages(entity, request.getImageUrls());
 
+                reviewStatsService.apply(entity, null);
+
                 publishReviewCreatedEvent(entity, userId);
 
                 return toResponse(entity, userId);
@@ -191,6 +198,7 @@ public class ReviewServiceImpl implements ReviewService {
                         throw new BadRequestException("You can only update your own review");
                 }
 
+                Integer countedBefore = ReviewStatsService.countedRating(entity);
                 entity.setRating(request.getRating());
                 entity.setTitle(request.getTitle());
                 entity.setComment(request.getComment());
@@ -203,9 +211,7 @@ public class ReviewServiceImpl implements ReviewService {
 
                 ReviewEntity saved = reviewRepository.save(entity);
 
-                if (entity.getType() == ReviewType.PRODUCT && entity.getProduct() != null) {
-                        updateProductRating(entity.getProduct().getId());
-                }
+                reviewStatsService.apply(saved, countedBefore);
 
                 return toResponse(saved, userId);
         }
@@ -220,12 +226,11 @@ public class ReviewServiceImpl implements ReviewService {
                         throw new BadRequestException("You can only delete your own review");
                 }
 
+                Integer countedBefore = ReviewStatsService.countedRating(entity);
                 entity.setIsDeleted(true);
                 reviewRepository.save(entity);
 
-                if (entity.getType() == ReviewType.PRODUCT && entity.getProduct() != null) {
-                        updateProductRating(entity.getProduct().getId());
-                }
+                reviewStatsService.apply(entity, countedBefore);
         }
 
         @Override
@@ -280,6 +285,8 @@ public class ReviewServiceImpl implements ReviewService {
                 ReviewEntity entity = reviewRepository.findById(id)
                                 .orElseThrow(() -> new NotFoundException("Review not found"));
 
+                Integer countedBefore = ReviewStatsService.countedRating(entity);
+                ReviewStatus statusBefore = entity.getStatus();
                 switch (action.toUpperCase()) {
                         case "APPROVE":
                                 entity.setStatus(ReviewStatus.APPROVED);
@@ -300,8 +307,9 @@ public class ReviewServiceImpl implements ReviewService {
 
                 ReviewEntity saved = reviewRepository.save(entity);
 
-                if (entity.getType() == ReviewType.PRODUCT && entity.getProduct() != null) {
-                        updateProductRating(entity.getProduct().getId());
+                reviewStatsService.apply(saved, countedBefore);
+                if (statusBefore != ReviewStatus.APPROVED && saved.getStatus() == ReviewStatus.APPROVED) {
+                        publishReviewApprovedEvent(saved, moderatedBy);
                 }
 
                 return toResponse(saved, moderatedBy);
@@ -311,43 +319,21 @@ public class ReviewServiceImpl implements ReviewService {
         @Transactional(readOnly = true)
         public ReviewStatisticsResponse getStatistics(Long productId, Long imageAssetId, Long orderId,
                         ReviewType type) {
-                Double avgRating = 0.0;
+                // O(1): một dòng review_stats (cached), không aggregate trên bảng reviews
+                if (productId != null) {
+                        return reviewStatsService.getStatistics(ReviewType.PRODUCT, productId);
+                }
+                if (imageAssetId != null) {
+                        return reviewStatsService.getStatistics(ReviewType.IMAGE_ASSET, imageAssetId);
+                }
 
-                ReviewStatisticsResponse.ReviewStatisticsResponseBuilder builder = ReviewStatisticsResponse.builder();
-                long totalReviews = 0;
                 Map<Integer, Long> distribution = new HashMap<>();
                 for (int i = 1; i <= 5; i++) {
                         distribution.put(i, 0L);
                 }
-
-                if (productId != null) {
-                        avgRating = reviewRepository.calculateAverageRatingByProductId(productId);
-                        totalReviews = reviewRepository.countByProductIdAndStatusAndIsDeletedFalse(productId,
-                                        ReviewStatus.APPROVED);
-                        List<Object[]> stats = reviewRepository.countReviewsByRatingForProduct(productId);
-                        for (Object[] stat : stats) {
-                                Integer rating = (Integer) stat[0];
-                                Long count = (Long) stat[1];
-                                distribution.put(rating, count);
-                        }
-                } else if (imageAssetId != null) {
-                        avgRating = reviewRepository.calculateAverageRatingByImageAssetId(imageAssetId);
-                        totalReviews = reviewRepository.countByImageAssetIdAndStatusAndIsDeletedFalse(imageAssetId,
-                                        ReviewStatus.APPROVED);
-                        List<Object[]> stats = reviewRepository.countReviewsByRatingForImageAsset(imageAssetId);
-                        for (Object[] stat : stats) {
-                                Integer rating = (Integer) stat[0];
-                                Long count = (Long) stat[1];
-                                distribution.put(rating, count);
-                        }
-                }
-
-                if (avgRating == null)
-                        avgRating = 0.0;
-
-                return builder
-                                .averageRating(BigDecimal.valueOf(avgRating).setScale(2, RoundingMode.HALF_UP))
-                                .totalReviews(totalReviews)
+                return ReviewStatisticsResponse.builder()
+                                .averageRating(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP))
+                                .totalReviews(0L)
                                 .ratingDistribution(distribution)
                                 .build();
         }
@@ -387,16 +373,6 @@ public class ReviewServiceImpl implements ReviewService {
                 }
         }
 
-        private void updateProductRating(Long productId) {
-                Double avgRating = reviewRepository.calculateAverageRatingByProductId(productId);
-                if (avgRating != null) {
-                        ProductEntity product = productRepository.findById(productId)
-                                        .orElseThrow(() -> new NotFoundException("Product not found"));
-                        product.setRating(BigDecimal.valueOf(avgRating).setScale(2, RoundingMode.HALF_UP));
-                        productRepository.save(product);
-                }
-        }
-
         private void publishReviewCreatedEvent(ReviewEntity entity, Long userId) {
                 ReviewCreatedEvent event = ReviewCreatedEvent.builder()
                                 .reviewId(entity.getId())
@@ -410,6 +386,19 @@ public class ReviewServiceImpl implements ReviewService {
                                 TraceIdUtil.getTraceId(), entity.getType(), entity.getId(), userId, entity.getRating());
         }
 
+        private void publishReviewApprovedEvent(ReviewEntity entity, Long moderatedBy) {
+                eventPublisher.publishEvent(ReviewApprovedEvent.builder()
+                                .reviewId(entity.getId())
+                                .type(entity.getType())
+                                .productId(entity.getProduct() != null ? entity.getProduct().getId() : null)
+                                .orderId(entity.getOrder() != null ? entity.getOrder().getId() : null)
+                                .userId(entity.getUser().getId())
+                                .rating(entity.getRating())
+                                .approvedAt(entity.getModeratedAt())
+                                .moderatedBy(moderatedBy)
+                                .build());
+        }
+
         private ReviewResponse toResponse(ReviewEntity entity, Long currentUserId) {
                 boolean isHelpfulByCurrentUser = false;
                 if (currentUserId != null) {
@@ -0,0 +1,69 @@
+package com.example.tailor_shop.modules.user.repository;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tạo khách vãng lai hàng loạt (JDBC batch, không qua từng save của JPA).
+ */
+@Repository
+public class CustomerBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CustomerBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert các khách theo số điện thoại; số đã tồn tại (username / email / phone
+     * unique) bị bỏ qua, kể cả khi node khác vừa tạo cùng lúc.
+     *
+     * @param nameByPhone    tên khách theo số điện thoại
+     * @param passwordHash   mật khẩu mặc định đã mã hoá
+     */
+    public void insertIgnore(Map<String, String> nameByPhone, String passwordHash, Long roleId) {
+        if (nameByPhone.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<SqlParameterSource> rows = new ArrayList<>(nameByPhone.size());
+        nameByPhone.forEach((phone, name) -> rows.add(new MapSqlParameterSource()
+                .addValue("username", phone)
+                .addValue("password", passwordHash)
+                .addValue("name", name)
+                .addValue("email", phone + "@customer.local")
+                .addValue("phone", phone)
+                .addValue("roleId", roleId)
+                .addValue("now", now)));
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO users "
+                        + "(username, password, name, email, phone, status, role_id, is_deleted, created_at, updated_at) "
+                        + "VALUES (:username, :password, :name, :email, :phone, 'active', :roleId, FALSE, :now, :now)",
+                rows.toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Id của các user (chưa xoá) theo số điện thoại.
+     */
+    public Map<String, Long> findIdsByPhone(Collection<String> phones) {
+        Map<String, Long> ids = new LinkedHashMap<>();
+        if (phones.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query("SELECT id, phone FROM users WHERE phone IN (:phones) AND is_deleted = FALSE",
+                new MapSqlParameterSource("phones", phones),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("phone"), rs.getLong("id")));
+        return ids;
+    }
+}
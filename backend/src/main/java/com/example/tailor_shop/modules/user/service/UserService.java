@@ -6,6 +6,7 @@ import com.example.tailor_shop.modules.user.dto.UserResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserService {
@@ -23,6 +24,14 @@ public interface UserService {
 
     Optional<UserResponseDTO> findCustomerByPhone(String phone);
 
+    /**
+     * Id khách hàng theo số điện thoại, tạo khách vãng lai (role CUSTOMER, mật khẩu
+     * mặc định) cho các số chưa có.
+     *
+     * @param nameByPhone tên khách theo số điện thoại (dùng khi phải tạo mới)
+     */
+    Map<String, Long> upsertCustomersByPhone(Map<String, String> nameByPhone);
+
     Page<UserResponseDTO> findTailors(Pageable pageable);
 
     UserResponseDTO getProfile(Long userId);
@@ -1,5 +1,6 @@
 package com.example.tailor_shop.modules.user.service.impl;
 
+import com.example.tailor_shop.config.exception.BadRequestException;
 import com.example.tailor_shop.config.exception.BusinessException;
 import com.example.tailor_shop.config.exception.ErrorCode;
 import com.example.tailor_shop.modules.user.domain.RoleEntity;
@@ -7,6 +8,7 @@ import com.example.tailor_shop.modules.user.domain.UserEntity;
 import com.example.tailor_shop.modules.user.dto.ProfileUpdateRequest;
 import com.example.tailor_shop.modules.user.dto.UserRequestDTO;
 import com.example.tailor_shop.modules.user.dto.UserResponseDTO;
+import com.example.tailor_shop.modules.user.repository.CustomerBatchRepository;
 import com.example.tailor_shop.modules.user.repository.RoleRepository;
 import com.example.tailor_shop.modules.user.repository.UserRepository;
 import com.example.tailor_shop.modules.user.service.UserService;
@@ -16,6 +18,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -25,14 +29,17 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomerBatchRepository customerBatchRepository;
 
     public UserServiceImpl(
             UserRepository userRepository,
             RoleRepository roleRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            CustomerBatchRepository customerBatchRepository) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.customerBatchRepository = customerBatchRepository;
     }
 
     @Override
@@ -140,6 +147,36 @@ public class UserServiceImpl implements UserService {
                 .map(this::toResponseDTO);
     }
 
+    @Override
+    public Map<String, Long> upsertCustomersByPhone(Map<String, String> nameByPhone) {
+        Map<String, Long> ids = customerBatchRepository.findIdsByPhone(nameByPhone.keySet());
+        Map<String, String> missing = new LinkedHashMap<>(nameByPhone);
+        missing.keySet().removeAll(ids.keySet());
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        missing.forEach((phone, name) -> {
+            if (name == null || name.isBlank()) {
+                throw new BadRequestException("Customer Name is required for new customer: " + phone);
+            }
+        });
+
+        RoleEntity customerRole = roleRepository.findByCode("CUSTOMER")
+                .orElseThrow(() -> new BusinessException(ErrorCode.ROLE_NOT_FOUND));
+        // Mã hoá một lần cho cả lô: mật khẩu mặc định giống nhau, BCrypt chậm có chủ đích
+        customerBatchRepository.insertIgnore(missing, passwordEncoder.encode("123456"), customerRole.getId());
+        ids.putAll(customerBatchRepository.findIdsByPhone(missing.keySet()));
+
+        for (String phone : missing.keySet()) {
+            if (!ids.containsKey(phone)) {
+                // username / email trùng với một user khác (hoặc user đã bị xoá)
+                throw new BadRequestException("Cannot create customer with phone " + phone);
+            }
+        }
+        return ids;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<UserResponseDTO> findTailors(Pageable pageable) {
@@ -0,0 +1,31 @@
+-- =====================================================
+-- V26: Transactional Outbox
+-- Events written with the business change, dispatched by OutboxDispatcher
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    correlation_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_payload TEXT NOT NULL,
+    handler_class VARCHAR(255) NOT NULL,
+    handler_method VARCHAR(100) NOT NULL,
+
+    -- Dispatch state
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING, PROCESSING, PROCESSED, DEAD',
+    attempts INT NOT NULL DEFAULT 0,
+    max_attempts INT NOT NULL DEFAULT 3,
+    next_retry_at DATETIME(6) NOT NULL,
+    locked_by VARCHAR(100),
+    locked_until DATETIME(6),
+    last_error TEXT,
+
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at DATETIME(6),
+    processed_at DATETIME(6),
+
+    -- Claim query: status = 'PENDING' AND next_retry_at <= ? ... FOR UPDATE SKIP LOCKED
+    INDEX idx_outbox_status_next_retry (status, next_retry_at),
+    INDEX idx_outbox_status_locked_until (status, locked_until),
+    INDEX idx_outbox_correlation (correlation_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,16 @@
+-- =====================================================
+-- V27: Per (staff, day) booking lock rows
+-- AppointmentServiceImpl upserts the row inside the booking transaction; the
+-- row lock serializes bookings of the same staff/day across nodes while
+-- bookings of other staff or days proceed in parallel.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS appointment_day_locks (
+    staff_id BIGINT NOT NULL,
+    lock_date DATE NOT NULL,
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (staff_id, lock_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Overlap check under the lock: staff_id = ? AND appointment_date = ?
+CREATE INDEX idx_appt_staff_date ON appointments (staff_id, appointment_date);
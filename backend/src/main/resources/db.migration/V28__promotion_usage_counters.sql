@@ -0,0 +1,32 @@
+-- =====================================================
+-- V28: Atomic promotion usage counters
+-- claimed = reserved (unpaid invoices) + used; user_id = 0 is the total row.
+-- Limits are enforced with a conditional UPDATE ... WHERE claimed < limit.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS promotion_usage_counters (
+    promotion_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL DEFAULT 0 COMMENT '0 = total across all users',
+    claimed INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (promotion_id, user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS promotion_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    promotion_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    invoice_id BIGINT,
+    status VARCHAR(20) NOT NULL DEFAULT 'RESERVED' COMMENT 'RESERVED, COMMITTED, RELEASED',
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at DATETIME(6),
+
+    UNIQUE KEY uk_promotion_reservation_invoice (invoice_id),
+    INDEX idx_promotion_reservation_promotion (promotion_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seed counters from recorded usages
+INSERT INTO promotion_usage_counters (promotion_id, user_id, claimed)
+SELECT promotion_id, 0, COUNT(*) FROM promotion_usages GROUP BY promotion_id;
+
+INSERT INTO promotion_usage_counters (promotion_id, user_id, claimed)
+SELECT promotion_id, user_id, COUNT(*) FROM promotion_usages GROUP BY promotion_id, user_id;
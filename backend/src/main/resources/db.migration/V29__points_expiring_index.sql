@@ -0,0 +1,8 @@
+-- =====================================================
+-- V29: Per-user expiring points lookup
+-- Covering index for the wallet's "points expiring in 30 days" SUM:
+-- equality on (user_id, is_expired), range on expires_at, amount read from the index.
+-- =====================================================
+
+CREATE INDEX idx_transaction_user_expiring
+    ON points_transaction (user_id, is_expired, expires_at, transaction_type, amount);
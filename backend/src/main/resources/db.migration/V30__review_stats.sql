@@ -0,0 +1,39 @@
+-- =====================================================
+-- V30: Review statistics read model
+-- One row per reviewed product / image asset, counting APPROVED, non-deleted
+-- reviews only. Maintained with atomic delta upserts on every status change,
+-- so statistics and product rating never scan the reviews table.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS review_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    target_type VARCHAR(20) NOT NULL COMMENT 'PRODUCT or IMAGE_ASSET',
+    target_id BIGINT NOT NULL,
+    count_1 BIGINT NOT NULL DEFAULT 0,
+    count_2 BIGINT NOT NULL DEFAULT 0,
+    count_3 BIGINT NOT NULL DEFAULT 0,
+    count_4 BIGINT NOT NULL DEFAULT 0,
+    count_5 BIGINT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    approved_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_review_stats_target (target_type, target_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seed from existing approved reviews
+INSERT INTO review_stats (target_type, target_id, count_1, count_2, count_3, count_4, count_5, rating_sum, approved_count)
+SELECT 'PRODUCT', product_id,
+       SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5),
+       SUM(rating), COUNT(*)
+FROM reviews
+WHERE product_id IS NOT NULL AND status = 'APPROVED' AND is_deleted = FALSE
+GROUP BY product_id;
+
+INSERT INTO review_stats (target_type, target_id, count_1, count_2, count_3, count_4, count_5, rating_sum, approved_count)
+SELECT 'IMAGE_ASSET', image_asset_id,
+       SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5),
+       SUM(rating), COUNT(*)
+FROM reviews
+WHERE image_asset_id IS NOT NULL AND status = 'APPROVED' AND is_deleted = FALSE
+GROUP BY image_asset_id;
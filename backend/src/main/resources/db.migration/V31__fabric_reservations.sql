@@ -0,0 +1,28 @@
+-- =====================================================
+-- V31: Fabric inventory reservations
+-- One row per (source, inventory lot) slice of reserved fabric. Reserving
+-- increments fabric_inventory.reserved_quantity with a conditional UPDATE
+-- (quantity - reserved_quantity >= qty); the row records what to release or
+-- consume later. ACTIVE rows with expires_at in the past are released by the
+-- sweeper.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS fabric_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fabric_id BIGINT NOT NULL,
+    inventory_id BIGINT NOT NULL,
+    quantity DECIMAL(10,2) NOT NULL,
+    source_type VARCHAR(20) NOT NULL COMMENT 'ORDER or HOLD',
+    source_id BIGINT NOT NULL COMMENT 'fabric_orders.id or fabric_hold_requests.id',
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' COMMENT 'ACTIVE, CONSUMED, RELEASED, EXPIRED',
+    expires_at TIMESTAMP NULL COMMENT 'NULL = held until consumed or released',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_fabric_reservations_fabric FOREIGN KEY (fabric_id) REFERENCES fabrics(id),
+    CONSTRAINT fk_fabric_reservations_inventory FOREIGN KEY (inventory_id) REFERENCES fabric_inventory(id),
+    INDEX idx_fabric_reservations_source (source_type, source_id, status),
+    INDEX idx_fabric_reservations_expiry (status, expires_at),
+    CONSTRAINT chk_fabric_reservations_source CHECK (source_type IN ('ORDER', 'HOLD')),
+    CONSTRAINT chk_fabric_reservations_status CHECK (status IN ('ACTIVE', 'CONSUMED', 'RELEASED', 'EXPIRED'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
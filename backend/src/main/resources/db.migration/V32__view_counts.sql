@@ -0,0 +1,11 @@
+-- =====================================================
+-- V32: View counters for products and image assets
+-- Same column as fabrics.view_count. Written only by ViewCounter flushes
+-- (view_count = view_count + delta), never by entity saves.
+-- =====================================================
+
+ALTER TABLE products
+    ADD COLUMN view_count INT NOT NULL DEFAULT 0 COMMENT 'Total detail views';
+
+ALTER TABLE image_assets
+    ADD COLUMN view_count INT NOT NULL DEFAULT 0 COMMENT 'Total detail views';
@@ -0,0 +1,9 @@
+-- =====================================================
+-- V33: Unpaid-customers report
+-- Covering index for the GROUP BY customer_id aggregate over issued /
+-- partial_paid invoices: equality on (status, is_deleted), grouped by
+-- customer_id, amounts read from the index.
+-- =====================================================
+
+CREATE INDEX idx_invoices_unpaid_customer
+    ON invoices (status, is_deleted, customer_id, total, paid_amount, due_amount);
@@ -0,0 +1,19 @@
+-- =====================================================
+-- V34: Idempotent payment callbacks
+-- provider_ref identifies a transaction at the provider: make it unique
+-- (also indexes the callback lookup). Every callback delivery is recorded
+-- under a unique idempotency key; a redelivery hits the key and is ignored.
+-- =====================================================
+
+CREATE UNIQUE INDEX uk_payment_tx_provider_ref ON payment_transactions (provider_ref);
+
+CREATE TABLE IF NOT EXISTS payment_callback_receipts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    idempotency_key VARCHAR(191) NOT NULL,
+    provider_ref VARCHAR(100) NOT NULL,
+    success BOOLEAN NOT NULL,
+    raw_payload TEXT NULL,
+    received_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_payment_callback_key UNIQUE (idempotency_key),
+    INDEX idx_payment_callback_ref (provider_ref)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,9 @@
+-- =====================================================
+-- V35: Latest measurement per order
+-- Order list / tailor views load the latest measurement of a whole page
+-- with one "order_id IN (...) AND is_latest" query; cover it with one index.
+-- Editing a measurement flips is_latest of its group with one UPDATE
+-- (already covered by idx_measure_group_latest).
+-- =====================================================
+
+CREATE INDEX idx_measure_order_latest ON measurements (order_id, is_latest);
@@ -0,0 +1,81 @@
+package com.example.tailor_shop.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ViewCounter Unit Tests")
+class ViewCounterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ViewCounter viewCounter;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        viewCounter = new ViewCounter(jdbcTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Views are aggregated per id and written as one batched delta update")
+    @SuppressWarnings("unchecked")
+    void aggregatesAndBatches() {
+        IntStream.range(0, 1000).parallel().forEach(i -> viewCounter.record(ViewCounter.Target.FABRIC, 7L));
+        viewCounter.record(ViewCounter.Target.FABRIC, 3L);
+
+        assertEquals(1001, viewCounter.flush());
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE fabrics SET view_count = view_count + ?"),
+                args.capture());
+        // Ascending ids, [delta, id]
+        assertArrayEquals(new Object[]{1L, 3L}, args.getValue().get(0));
+        assertArrayEquals(new Object[]{1000L, 7L}, args.getValue().get(1));
+
+        assertEquals(0, viewCounter.flush());
+    }
+
+    @Test
+    @DisplayName("A failed flush keeps the views for the next one")
+    void failedFlushRetries() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("lock wait timeout"))
+                .thenReturn(new int[]{1});
+        viewCounter.record(ViewCounter.Target.PRODUCT, 1L);
+        viewCounter.record(ViewCounter.Target.PRODUCT, 1L);
+
+        assertEquals(0, viewCounter.flush());
+        assertEquals(2, viewCounter.flush());
+    }
+
+    @Test
+    @DisplayName("A schema error drops the views instead of re-queueing them forever")
+    void schemaErrorDrops() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new BadSqlGrammarException("flush", "UPDATE image_assets ...",
+                        new java.sql.SQLSyntaxErrorException("Unknown column 'view_count'")));
+        viewCounter.record(ViewCounter.Target.IMAGE_ASSET, 1L);
+
+        assertEquals(0, viewCounter.flush());
+        assertEquals(0, viewCounter.flush());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.tailor_shop.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("BoundedVirtualThreadExecutor Unit Tests")
+class BoundedVirtualThreadExecutorTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedVirtualThreadExecutorTest.class);
+
+    private static final int TASKS = 300;
+    private static final long IO_MS = 20;
+
+    @Test
+    @DisplayName("Never runs more tasks than the concurrency limit")
+    void respectsConcurrencyLimit() throws Exception {
+        BoundedVirtualThreadExecutor executor =
+                new BoundedVirtualThreadExecutor("test-", 4, null, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch firstWave = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(50);
+
+        // Submitter blocks on the 5th task until a permit frees up
+        Thread submitter = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < 50; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    firstWave.countDown();
+                    await(release);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+        });
+
+        assertTrue(firstWave.await(10, TimeUnit.SECONDS));
+        assertEquals(4, executor.getActiveCount());
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        submitter.join();
+
+        assertEquals(4, maxRunning.get());
+        executor.destroy();
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    @DisplayName("Rejects when no permit frees up within the acquire timeout")
+    void rejectsWhenSaturated() {
+        BoundedVirtualThreadExecutor executor =
+                new BoundedVirtualThreadExecutor("test-", 1, Duration.ofMillis(20), Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+        release.countDown();
+    }
+
+    /**
+     * Blocking tasks (S3/SMTP/JDBC calls) are bounded only by the limit, not
+     * by a thread pool: all of them are parked at once. The platform pool this
+     * replaces (eventExecutor) could run 15.
+     */
+    @Test
+    @DisplayName("Blocking tasks up to the limit are all in flight at once")
+    void blockingTasksUpToLimitRunConcurrently() throws Exception {
+        BoundedVirtualThreadExecutor executor =
+                new BoundedVirtualThreadExecutor("load-", TASKS, Duration.ofMillis(20), Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(TASKS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(TASKS, executor.getActiveCount());
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+        release.countDown();
+        executor.destroy();
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    /**
+     * Load check: mixed CPU / blocking-I/O tasks on a pool shaped like
+     * eventExecutor (5-15 threads, queue 500: it never grows past 5 before the
+     * queue is full) and on the virtual-thread executor. Wall-clock, so it
+     * only runs on demand: mvn test -Dtest=BoundedVirtualThreadExecutorTest -DloadTests=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTests", matches = "true")
+    @DisplayName("Load: mixed I/O throughput against an eventExecutor-shaped pool")
+    void mixedLoadThroughput() throws Exception {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(5);
+        pool.setMaxPoolSize(15);
+        pool.setQueueCapacity(500);
+        pool.initialize();
+        BoundedVirtualThreadExecutor virtual =
+                new BoundedVirtualThreadExecutor("load-", TASKS, Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+        double pooled = throughput(pool);
+        double onVirtual = throughput(virtual);
+        log.info("{} tasks, {} ms I/O each: platform pool {}/s, virtual threads {}/s",
+                TASKS, IO_MS, Math.round(pooled), Math.round(onVirtual));
+
+        pool.shutdown();
+        virtual.destroy();
+        assertTrue(onVirtual > pooled * 2);
+    }
+
+    /**
+     * Tasks per second for TASKS tasks of a little CPU work plus one blocking call.
+     */
+    private static double throughput(Executor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        AtomicLong sink = new AtomicLong(); // Giữ kết quả CPU để JIT không bỏ vòng lặp
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            int seed = i;
+            executor.execute(() -> {
+                long hash = seed;
+                for (int k = 0; k < 50_000; k++) {
+                    hash = hash * 31 + k;
+                }
+                sink.addAndGet(hash);
+                sleep(IO_MS); // Blocking call (S3 / SMTP / JDBC)
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        return TASKS * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
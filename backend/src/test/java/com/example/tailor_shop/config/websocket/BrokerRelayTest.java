@@ -0,0 +1,152 @@
+package com.example.tailor_shop.config.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Three nodes, each with its own broker channel, connected through an
+ * in-memory stand-in for Redis pub/sub.
+ */
+@DisplayName("BrokerRelay multi-node delivery")
+class BrokerRelayTest {
+
+    private InMemoryBus bus;
+    private Node a;
+    private Node b;
+    private Node c;
+
+    @BeforeEach
+    void setUp() {
+        bus = new InMemoryBus();
+        a = new Node(bus);
+        b = new Node(bus);
+        c = new Node(bus);
+    }
+
+    @Test
+    @DisplayName("/topic messages reach every node exactly once")
+    void topicReachesAllNodes() {
+        a.send("/topic/notifications", "{\"title\":\"Flash Sale\"}");
+
+        assertEquals(List.of("/topic/notifications"), a.destinations());
+        assertEquals(List.of("/topic/notifications"), b.destinations());
+        assertEquals(List.of("/topic/notifications"), c.destinations());
+        assertEquals("{\"title\":\"Flash Sale\"}", b.delivered.get(0));
+    }
+
+    @Test
+    @DisplayName("/user messages go only to the node holding the user's session")
+    void userRoutedToOwningNode() {
+        b.relay.userConnected("s1", "7");
+        int before = bus.published;
+
+        a.send("/user/7/queue/notifications", "{\"id\":1}");
+
+        assertEquals(List.of("/user/7/queue/notifications"), b.destinations());
+        assertTrue(c.destinations().isEmpty());
+        assertEquals(1, bus.published - before);
+    }
+
+    @Test
+    @DisplayName("A node that joins later learns existing sessions, disconnects stop routing")
+    void presenceSyncAndDisconnect() {
+        b.relay.userConnected("s1", "7");
+        b.relay.userConnected("s2", "7");
+        Node late = new Node(bus);
+
+        late.send("/user/7/queue/notifications", "{\"id\":1}");
+        assertEquals(1, b.destinations().size());
+
+        b.relay.userDisconnected("s1");
+        b.relay.userDisconnected("s1");
+        late.send("/user/7/queue/notifications", "{\"id\":2}");
+        assertEquals(2, b.destinations().size());
+
+        b.relay.userDisconnected("s2");
+        late.send("/user/7/queue/notifications", "{\"id\":3}");
+        assertEquals(2, b.destinations().size());
+    }
+
+    private static final class Node {
+
+        final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        final List<Message<?>> messages = new CopyOnWriteArrayList<>();
+        final BrokerRelay relay;
+
+        @SuppressWarnings("unchecked")
+        Node(InMemoryBus bus) {
+            ObjectProvider<MessageChannel> channelProvider = mock(ObjectProvider.class);
+            when(channelProvider.getObject()).thenReturn(brokerChannel);
+            relay = new BrokerRelay(bus, new ObjectMapper(), channelProvider, new SimpleMeterRegistry(), 180_000);
+            brokerChannel.addInterceptor(relay);
+            // Stands in for the simple broker / user destination handler
+            brokerChannel.subscribe(message -> {
+                messages.add(message);
+                delivered.add(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+            });
+            relay.start();
+        }
+
+        void send(String destination, String json) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(destination);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            brokerChannel.send(MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8),
+                    accessor.getMessageHeaders()));
+        }
+
+        List<String> destinations() {
+            List<String> result = new ArrayList<>();
+            messages.forEach(m -> result.add(SimpMessageHeaderAccessor.getDestination(m.getHeaders())));
+            return result;
+        }
+    }
+
+    /**
+     * Synchronous pub/sub with Redis semantics: every subscriber of a channel,
+     * including the publisher itself, receives each message.
+     */
+    private static final class InMemoryBus implements BrokerRelayBus {
+
+        private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+        int published;
+
+        @Override
+        public void publish(String channel, String message) {
+            if (!channel.equals(BrokerRelay.PRESENCE_CHANNEL)) {
+                published++;
+            }
+            subscribers.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+        }
+
+        @Override
+        public void subscribe(String channel, Consumer<String> listener) {
+            subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.tailor_shop.modules.appointment.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("StaffDayAvailability Unit Tests")
+class StaffDayAvailabilityTest {
+
+    // 08:00-12:00 and 13:00-17:00 (lunch break), 15 minute buffer
+    private final StaffDayAvailability day = new StaffDayAvailability(
+            new int[][] { { 480, 720 }, { 780, 1020 } }, 15, 0L);
+
+    @Test
+    @DisplayName("Rejects times outside working intervals or spanning the break")
+    void outsideWorkingHours() {
+        assertEquals(StaffDayAvailability.Verdict.OUTSIDE_WORKING_HOURS, day.check(420, 480, null));
+        assertEquals(StaffDayAvailability.Verdict.OUTSIDE_WORKING_HOURS, day.check(690, 810, null));
+        assertEquals(StaffDayAvailability.Verdict.OK, day.check(480, 720, null));
+    }
+
+    @Test
+    @DisplayName("Conflicts include the buffer and ignore the excluded appointment")
+    void conflictWithBuffer() {
+        day.book(1L, 540, 600);
+
+        assertEquals(StaffDayAvailability.Verdict.CONFLICT, day.check(600, 630, null));
+        assertEquals(StaffDayAvailability.Verdict.OK, day.check(615, 645, null));
+        assertEquals(StaffDayAvailability.Verdict.OK, day.check(600, 630, 1L));
+
+        day.release(1L);
+        assertEquals(StaffDayAvailability.Verdict.OK, day.check(600, 630, null));
+    }
+
+    @Test
+    @DisplayName("Free windows subtract bookings and drop gaps shorter than the duration")
+    void freeWindows() {
+        day.book(1L, 540, 600); // blocks 08:45-10:15
+        day.book(2L, 800, 960); // blocks 13:05-16:15
+
+        List<int[]> free = day.freeWindows(30);
+
+        assertEquals(3, free.size());
+        assertArrayEquals(new int[] { 480, 525 }, free.get(0));
+        assertArrayEquals(new int[] { 615, 720 }, free.get(1));
+        assertArrayEquals(new int[] { 975, 1020 }, free.get(2));
+    }
+
+    @Test
+    @DisplayName("A day without working intervals is closed")
+    void closedDay() {
+        StaffDayAvailability closed = new StaffDayAvailability(new int[0][], 15, 0L);
+        assertEquals(StaffDayAvailability.Verdict.CLOSED, closed.check(540, 600, null));
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.tailor_shop.modules.appointment.service.impl;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.appointment.domain.AppointmentEntity;
+import com.example.tailor_shop.modules.appointment.domain.AppointmentType;
+import com.example.tailor_shop.modules.appointment.dto.AppointmentRequest;
+import com.example.tailor_shop.modules.appointment.dto.AvailableSlotResponse;
+import com.example.tailor_shop.modules.appointment.dto.WorkingSlotResponse;
+import com.example.tailor_shop.modules.appointment.repository.AppointmentRepository;
+import com.example.tailor_shop.modules.appointment.repository.WorkingSlotRepository;
+import com.example.tailor_shop.modules.appointment.service.AvailabilityEngine;
+import com.example.tailor_shop.modules.appointment.service.StaffDayBookingLock;
+import com.example.tailor_shop.modules.appointment.service.WorkingSlotService;
+import com.example.tailor_shop.modules.order.domain.OrderEntity;
+import com.example.tailor_shop.modules.order.repository.OrderRepository;
+import com.example.tailor_shop.modules.user.domain.RoleEntity;
+import com.example.tailor_shop.modules.user.domain.UserEntity;
+import com.example.tailor_shop.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many parallel bookers against a simulated table: appointments become
+ * visible to other transactions only on commit, like in the database.
+ */
+@DisplayName("AppointmentServiceImpl concurrent booking")
+class AppointmentServiceImplConcurrencyTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private final List<AppointmentEntity> committed = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private AppointmentServiceImpl service;
+    private WorkingSlotService workingSlotService;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        WorkingSlotRepository workingSlotRepository = mock(WorkingSlotRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+
+        UserEntity customer = user(100L);
+        OrderEntity order = new OrderEntity();
+        order.setId(1L);
+        order.setCustomer(customer);
+
+        when(orderRepository.findById(anyLong())).thenReturn(Optional.of(order));
+        when(userRepository.findById(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            return Optional.of(id.equals(100L) ? customer : user(id));
+        });
+
+        when(appointmentRepository.save(any(AppointmentEntity.class))).thenAnswer(inv -> {
+            AppointmentEntity entity = inv.getArgument(0);
+            ReflectionTestUtils.setField(entity, "id", ids.incrementAndGet());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.add(entity);
+                }
+            });
+            return entity;
+        });
+        when(appointmentRepository.findByStaffAndDate(anyLong(), any())).thenAnswer(inv ->
+                committed.stream()
+                        .filter(a -> a.getStaff().getId().equals(inv.getArgument(0))
+                                && a.getAppointmentDate().equals(inv.getArgument(1)))
+                        .toList());
+        when(appointmentRepository.findOverlappingAppointments(anyLong(), any(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    LocalTime effectiveStart = inv.getArgument(2);
+                    LocalTime effectiveEnd = inv.getArgument(3);
+                    return committed.stream()
+                            .filter(a -> a.getStaff().getId().equals(inv.getArgument(0))
+                                    && a.getAppointmentDate().equals(inv.getArgument(1))
+                                    && a.getAppointmentTime().isBefore(effectiveEnd)
+                                    && a.getEstimatedEndTime().isAfter(effectiveStart))
+                            .toList();
+                });
+
+        AvailabilityEngine engine = new AvailabilityEngine(appointmentRepository, workingSlotRepository);
+        ReflectionTestUtils.setField(engine, "ttlSeconds", 300L);
+        StaffDayBookingLock bookingLock = new StaffDayBookingLock(appointmentRepository);
+        ReflectionTestUtils.setField(bookingLock, "lockTimeoutMs", 10_000L);
+
+        workingSlotService = mock(WorkingSlotService.class);
+        service = new AppointmentServiceImpl(appointmentRepository, userRepository, orderRepository,
+                workingSlotService, workingSlotRepository, engine, bookingLock);
+        pool = Executors.newFixedThreadPool(32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Only one of many parallel bookers gets the same slot")
+    void sameSlotBookedOnce() throws Exception {
+        List<LocalTime> times = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            times.add(LocalTime.of(9, 0));
+        }
+
+        int booked = runBookers(1L, times);
+
+        assertEquals(1, booked);
+        assertEquals(1, committed.size());
+    }
+
+    @Test
+    @DisplayName("Parallel bookers of different slots never overlap")
+    void differentSlotsNeverOverlap() throws Exception {
+        // 8 non-overlapping 60m slots (90m apart covers the 15m buffer), 6 bookers each,
+        // plus bookers that straddle two slots
+        List<LocalTime> times = new ArrayList<>();
+        for (int slot = 0; slot < 8; slot++) {
+            LocalTime start = LocalTime.of(8, 0).plusMinutes(90L * slot);
+            for (int i = 0; i < 6; i++) {
+                times.add(start);
+                times.add(start.plusMinutes(45));
+            }
+        }
+
+        runBookers(1L, times);
+
+        for (int i = 0; i < committed.size(); i++) {
+            for (int j = i + 1; j < committed.size(); j++) {
+                AppointmentEntity a = committed.get(i);
+                AppointmentEntity b = committed.get(j);
+                assertFalse(a.getAppointmentTime().isBefore(b.getEstimatedEndTime().plusMinutes(15))
+                                && b.getAppointmentTime().isBefore(a.getEstimatedEndTime().plusMinutes(15)),
+                        "Overlapping bookings at " + a.getAppointmentTime() + " and " + b.getAppointmentTime());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Different staff are booked independently")
+    void differentStaffIndependent() throws Exception {
+        List<Future<Integer>> results = new ArrayList<>();
+        ExecutorService staffPool = Executors.newFixedThreadPool(4);
+        try {
+            for (long staffId = 1; staffId <= 4; staffId++) {
+                long id = staffId;
+                results.add(staffPool.submit(() -> runBookers(id, List.of(
+                        LocalTime.of(10, 0), LocalTime.of(10, 0), LocalTime.of(10, 0), LocalTime.of(10, 0)))));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            staffPool.shutdownNow();
+        }
+        assertEquals(4, committed.size());
+    }
+
+    @Test
+    @DisplayName("A booking cancelled on another node frees the slot despite this node's cache")
+    void staleCacheDoesNotRejectBooking() {
+        assertTrue(bookInTransaction(1L, LocalTime.of(10, 0)));
+        assertTrue(slots(service.getAvailableSlots(1L, DATE, 60)).stream().noneMatch(s -> s.startsWith("10:00")));
+
+        // Another node cancels: the row is gone but this node's cached day is not told.
+        committed.clear();
+
+        assertTrue(bookInTransaction(1L, LocalTime.of(10, 0)));
+        assertEquals(1, committed.size());
+    }
+
+    @Test
+    @DisplayName("Without a staff, free slots of every staff working that day are merged")
+    void availableSlotsAcrossStaff() {
+        assertTrue(bookInTransaction(1L, LocalTime.of(9, 0)));
+        when(workingSlotService.listAll(DATE, Pageable.unpaged())).thenReturn(new PageImpl<>(List.of(
+                workingSlot(1L), workingSlot(2L), workingSlot(1L))));
+
+        List<String> merged = slots(service.getAvailableSlots(null, DATE, 60));
+
+        List<String> expected = new ArrayList<>(new TreeSet<>(slots(Stream.concat(
+                service.getAvailableSlots(1L, DATE, 60).stream(),
+                service.getAvailableSlots(2L, DATE, 60).stream()).toList())));
+        assertEquals(expected, merged);
+        assertNotEquals(slots(service.getAvailableSlots(1L, DATE, 60)), merged);
+    }
+
+    // ==================== HELPERS ====================
+
+    private int runBookers(Long staffId, List<LocalTime> times) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (LocalTime time : times) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return bookInTransaction(staffId, time);
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(30, TimeUnit.SECONDS)) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Run create() in a simulated transaction: commit callbacks on success,
+     * rollback completion on a rejected booking.
+     */
+    private boolean bookInTransaction(Long staffId, LocalTime time) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            AppointmentRequest request = new AppointmentRequest();
+            request.setOrderId(1L);
+            request.setCustomerId(100L);
+            request.setStaffId(staffId);
+            request.setType(AppointmentType.fitting);
+            request.setAppointmentDate(DATE);
+            request.setAppointmentTime(time);
+            request.setDurationMinutes(60);
+
+            boolean booked;
+            try {
+                service.create(request, 1L);
+                booked = true;
+            } catch (BadRequestException e) {
+                booked = false;
+            }
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (booked) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, booked
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+            return booked;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static List<String> slots(List<AvailableSlotResponse> slots) {
+        return slots.stream().map(slot -> slot.getStartTime() + "-" + slot.getEndTime()).toList();
+    }
+
+    private static WorkingSlotResponse workingSlot(Long staffId) {
+        WorkingSlotResponse slot = new WorkingSlotResponse();
+        slot.setStaffId(staffId);
+        return slot;
+    }
+
+    private static UserEntity user(Long id) {
+        RoleEntity role = new RoleEntity();
+        role.setCode("STAFF");
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setRole(role);
+        return user;
+    }
+}
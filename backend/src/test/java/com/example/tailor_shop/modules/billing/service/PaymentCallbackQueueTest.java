@@ -0,0 +1,302 @@
+package com.example.tailor_shop.modules.billing.service;
+
+import com.example.tailor_shop.config.exception.BusinessException;
+import com.example.tailor_shop.modules.billing.domain.PaymentStatus;
+import com.example.tailor_shop.modules.billing.dto.PaymentCallbackRequest;
+import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
+import com.example.tailor_shop.modules.billing.repository.PaymentTransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Local stub payment provider: delivers every callback several times (provider
+ * retries) in random order from parallel clients. The stub ledger below is a
+ * plain read-modify-write with simulated DB latency, so it only stays correct
+ * if callbacks of one invoice never overlap.
+ */
+@DisplayName("PaymentCallbackQueue Unit Tests")
+class PaymentCallbackQueueTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentCallbackQueueTest.class);
+
+    private static final int INVOICES = 100;
+    private static final int TRANSACTIONS_PER_INVOICE = 3;
+    private static final int DELIVERIES = 2;
+    private static final long AMOUNT = 100_000;
+    private static final long LATENCY_MS = 2;
+
+    @Test
+    @DisplayName("Callbacks of one invoice never overlap and each transaction is applied once")
+    void serializesPerInvoice() throws Exception {
+        StubLedger ledger = new StubLedger();
+
+        runProvider(queue(ledger));
+
+        assertEquals(1, ledger.maxOverlap.get());
+        for (long invoiceId = 0; invoiceId < INVOICES; invoiceId++) {
+            assertEquals(AMOUNT * TRANSACTIONS_PER_INVOICE, ledger.paid.get(invoiceId)[0]);
+        }
+        assertEquals(INVOICES * TRANSACTIONS_PER_INVOICE * (DELIVERIES - 1), ledger.duplicates.get());
+    }
+
+    @Test
+    @DisplayName("Callbacks of different invoices run at the same time")
+    void invoicesRunInParallel() throws Exception {
+        PaymentCallbackQueue queue = new PaymentCallbackQueue(
+                mock(PaymentTransactionRepository.class), mock(InvoiceService.class), 5000);
+        int invoices = 4;
+        CountDownLatch allRunning = new CountDownLatch(invoices);
+
+        // Mỗi task chỉ xong khi cả 4 cùng đang chạy: nếu bị xếp hàng chung thì task đầu hết giờ chờ
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (long invoiceId = 0; invoiceId < invoices; invoiceId++) {
+            results.add(queue.submit(invoiceId, () -> {
+                allRunning.countDown();
+                try {
+                    return allRunning.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+        }
+
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+        }
+        queue.destroy();
+    }
+
+    @Test
+    @DisplayName("A failed callback does not block the next ones of the same invoice")
+    void failureDoesNotBlockChain() throws Exception {
+        PaymentCallbackQueue queue = new PaymentCallbackQueue(
+                mock(PaymentTransactionRepository.class), mock(InvoiceService.class), 5000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> failed = queue.submit(1L, () -> {
+            await(release);
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> next = queue.submit(1L, () -> "ok");
+        release.countDown();
+
+        assertEquals("ok", next.get(5, TimeUnit.SECONDS));
+        assertTrue(failed.isCompletedExceptionally());
+        for (int i = 0; i < 100 && queue.pendingInvoices() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, queue.pendingInvoices());
+        queue.destroy();
+    }
+
+    @Test
+    @DisplayName("Errors of handleCallback reach the caller unchanged")
+    void propagatesErrors() {
+        PaymentTransactionRepository repository = mock(PaymentTransactionRepository.class);
+        InvoiceService invoiceService = mock(InvoiceService.class);
+        when(repository.findInvoiceIdByProviderRef("ref-1")).thenReturn(Optional.of(1L));
+        when(invoiceService.handleCallback(any())).thenThrow(new IllegalArgumentException("bad"));
+        PaymentCallbackQueue queue = new PaymentCallbackQueue(repository, invoiceService, 5000);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> queue.handle(PaymentCallbackRequest.builder().providerRef("ref-1").success(true).build()));
+        queue.destroy();
+    }
+
+    @Test
+    @DisplayName("A callback still queued at the timeout answers 503 and is processed anyway")
+    void timeoutIsRetryable() throws Exception {
+        PaymentTransactionRepository repository = mock(PaymentTransactionRepository.class);
+        InvoiceService invoiceService = mock(InvoiceService.class);
+        when(repository.findInvoiceIdByProviderRef("ref-1")).thenReturn(Optional.of(1L));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(1);
+        when(invoiceService.handleCallback(any())).thenAnswer(inv -> {
+            await(release);
+            handled.countDown();
+            return PaymentResponse.builder().status(PaymentStatus.success).build();
+        });
+        PaymentCallbackQueue queue = new PaymentCallbackQueue(repository, invoiceService, 50);
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> queue.handle(PaymentCallbackRequest.builder().providerRef("ref-1").success(true).build()));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getErrorCode().getHttpStatus());
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        queue.destroy();
+    }
+
+    /**
+     * Throughput against the stub provider: per-invoice chains vs every callback
+     * in one serialized lane. Only runs on demand:
+     * mvn test -Dtest=PaymentCallbackQueueTest -DloadTests=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTests", matches = "true")
+    @DisplayName("Load: per-invoice chains against a single serialized lane")
+    void throughput() throws Exception {
+        callbacksPerSecond(false); // warm-up
+        double perInvoice = callbacksPerSecond(false);
+        double singleLane = callbacksPerSecond(true);
+
+        log.info("{} deliveries, {} ms ledger latency: single lane {}/s, per-invoice chains {}/s",
+                INVOICES * TRANSACTIONS_PER_INVOICE * DELIVERIES, LATENCY_MS,
+                Math.round(singleLane), Math.round(perInvoice));
+        assertTrue(perInvoice > 2 * singleLane);
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Submits straight to the chains: the mocks behind handle() would dominate the timing.
+     */
+    private static double callbacksPerSecond(boolean singleLane) throws Exception {
+        StubLedger ledger = new StubLedger();
+        PaymentCallbackQueue queue = new PaymentCallbackQueue(
+                mock(PaymentTransactionRepository.class), mock(InvoiceService.class), 30_000);
+        List<String> deliveries = deliveries();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<PaymentResponse>> results = new ArrayList<>();
+        for (String ref : deliveries) {
+            PaymentCallbackRequest request = PaymentCallbackRequest.builder().providerRef(ref).success(true).build();
+            results.add(queue.submit(singleLane ? 0L : invoiceOf(ref), () -> {
+                try {
+                    return ledger.apply(request);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        queue.destroy();
+
+        assertEquals(1, ledger.maxOverlap.get());
+        return deliveries.size() / seconds;
+    }
+
+    private static PaymentCallbackQueue queue(StubLedger ledger) {
+        PaymentTransactionRepository repository = mock(PaymentTransactionRepository.class);
+        when(repository.findInvoiceIdByProviderRef(anyString()))
+                .thenAnswer(inv -> Optional.of(invoiceOf(inv.getArgument(0))));
+        InvoiceService invoiceService = mock(InvoiceService.class);
+        when(invoiceService.handleCallback(any())).thenAnswer(inv -> ledger.apply(inv.getArgument(0)));
+        return new PaymentCallbackQueue(repository, invoiceService, 30_000);
+    }
+
+    /**
+     * Gửi tất cả callback (mỗi callback {@link #DELIVERIES} lần, thứ tự ngẫu nhiên) song song
+     * và chờ tới khi mọi callback có kết quả.
+     */
+    private static void runProvider(PaymentCallbackQueue queue) throws Exception {
+        List<String> deliveries = deliveries();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PaymentResponse>> responses = new ArrayList<>();
+            for (String ref : deliveries) {
+                responses.add(clients.submit(() -> queue.handle(
+                        PaymentCallbackRequest.builder().providerRef(ref).success(true).build())));
+            }
+            for (Future<PaymentResponse> response : responses) {
+                assertEquals(PaymentStatus.success, response.get(30, TimeUnit.SECONDS).getStatus());
+            }
+        }
+        queue.destroy();
+    }
+
+    /**
+     * Mỗi callback {@link #DELIVERIES} lần, thứ tự ngẫu nhiên (seed cố định).
+     */
+    private static List<String> deliveries() {
+        List<String> deliveries = new ArrayList<>();
+        for (int invoice = 0; invoice < INVOICES; invoice++) {
+            for (int tx = 0; tx < TRANSACTIONS_PER_INVOICE; tx++) {
+                for (int d = 0; d < DELIVERIES; d++) {
+                    deliveries.add("inv-" + invoice + "-tx-" + tx);
+                }
+            }
+        }
+        Collections.shuffle(deliveries, new Random(42));
+        return deliveries;
+    }
+
+    private static long invoiceOf(String providerRef) {
+        return Long.parseLong(providerRef.split("-")[1]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stand-in for handleCallback: check-then-act without any locking.
+     */
+    private static class StubLedger {
+        final Map<Long, long[]> paid = new ConcurrentHashMap<>();
+        final Map<Long, Set<String>> settled = new ConcurrentHashMap<>();
+        final Map<Long, AtomicInteger> running = new ConcurrentHashMap<>();
+        final AtomicInteger maxOverlap = new AtomicInteger();
+        final AtomicInteger duplicates = new AtomicInteger();
+
+        PaymentResponse apply(PaymentCallbackRequest request) throws InterruptedException {
+            long invoiceId = invoiceOf(request.getProviderRef());
+            AtomicInteger inFlight = running.computeIfAbsent(invoiceId, k -> new AtomicInteger());
+            maxOverlap.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Set<String> done = settled.computeIfAbsent(invoiceId, k -> new HashSet<>());
+                long[] balance = paid.computeIfAbsent(invoiceId, k -> new long[1]);
+                if (done.contains(request.getProviderRef())) {
+                    duplicates.incrementAndGet();
+                } else {
+                    long current = balance[0];
+                    Thread.sleep(LATENCY_MS);
+                    balance[0] = current + AMOUNT;
+                    done.add(request.getProviderRef());
+                }
+                return PaymentResponse.builder()
+                        .invoiceId(invoiceId)
+                        .providerRef(request.getProviderRef())
+                        .status(PaymentStatus.success)
+                        .build();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.tailor_shop.modules.billing.service;
+
+import com.example.tailor_shop.modules.billing.dto.ReportFormat;
+import com.example.tailor_shop.modules.billing.dto.UnpaidCustomerResponse;
+import com.example.tailor_shop.modules.billing.repository.UnpaidCustomerReportRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("UnpaidCustomerReportService Unit Tests")
+class UnpaidCustomerReportServiceTest {
+
+    private UnpaidCustomerReportRepository reportRepository;
+    private UnpaidCustomerReportService service;
+
+    @BeforeEach
+    void setUp() {
+        reportRepository = mock(UnpaidCustomerReportRepository.class);
+        service = new UnpaidCustomerReportService(reportRepository, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("A page carries the invoices of its customers only")
+    void listAttachesInvoices() {
+        Pageable pageable = PageRequest.of(0, 2);
+        when(reportRepository.findPage("an", pageable)).thenReturn(new PageImpl<>(
+                List.of(customer(1L, "An", "500000"), customer(2L, "Anh", "200000")), pageable, 5));
+        UnpaidCustomerResponse.UnpaidInvoiceSummary invoice = UnpaidCustomerResponse.UnpaidInvoiceSummary.builder()
+                .id(10L).code("INV-10").dueAmount(new BigDecimal("500000")).build();
+        when(reportRepository.findInvoices(List.of(1L, 2L))).thenReturn(Map.of(1L, List.of(invoice)));
+
+        List<UnpaidCustomerResponse> content = service.list("an", pageable).getContent();
+
+        assertEquals(List.of(invoice), content.get(0).getInvoices());
+        assertEquals(List.of(), content.get(1).getInvoices());
+    }
+
+    @Test
+    @DisplayName("CSV export writes one escaped line per streamed customer")
+    void exportCsv() throws Exception {
+        streamRows(customer(1L, "Nguyễn \"Bé\"", "123.50"), customer(2L, "=HYPERLINK()", "7"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, service.export(ReportFormat.csv, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("\uFEFFcustomer_id,"));
+        assertEquals("1,\"Nguyễn \"\"Bé\"\"\",\"0901\",1,123.50,0,123.50", lines[1]);
+        assertEquals("2,\"'=HYPERLINK()\",\"0901\",1,7,0,7", lines[2]);
+    }
+
+    @Test
+    @DisplayName("JSON export is a single array")
+    void exportJson() throws Exception {
+        streamRows(customer(1L, "An", "10"), customer(2L, "Bình", "5"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(ReportFormat.json, out);
+
+        JsonNode rows = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals(2, rows.size());
+        assertEquals("Bình", rows.get(1).get("customerName").asText());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamRows(UnpaidCustomerResponse... rows) {
+        doAnswer(inv -> {
+            Consumer<UnpaidCustomerResponse> consumer = inv.getArgument(0);
+            for (UnpaidCustomerResponse row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(reportRepository).streamAll(any());
+    }
+
+    private static UnpaidCustomerResponse customer(Long id, String name, String due) {
+        return UnpaidCustomerResponse.builder()
+                .customerId(id)
+                .customerName(name)
+                .customerPhone("0901")
+                .totalInvoices(1)
+                .totalAmount(new BigDecimal(due))
+                .totalPaid(BigDecimal.ZERO)
+                .totalDue(new BigDecimal(due))
+                .build();
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.tailor_shop.modules.billing.service.impl;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.billing.domain.InvoiceEntity;
+import com.example.tailor_shop.modules.billing.domain.InvoiceItemEntity;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceRequest;
+import com.example.tailor_shop.modules.billing.dto.BulkInvoiceResponse;
+import com.example.tailor_shop.modules.billing.dto.InvoiceRequest;
+import com.example.tailor_shop.modules.billing.repository.InvoiceBatchRepository;
+import com.example.tailor_shop.modules.billing.repository.InvoiceItemRepository;
+import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
+import com.example.tailor_shop.modules.order.domain.OrderEntity;
+import com.example.tailor_shop.modules.order.repository.OrderRepository;
+import com.example.tailor_shop.modules.user.domain.UserEntity;
+import com.example.tailor_shop.modules.user.repository.UserRepository;
+import com.example.tailor_shop.modules.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk invoice creation against repositories that count one round trip per
+ * call, compared with calling create() once per invoice.
+ */
+@DisplayName("InvoiceServiceImpl bulk creation")
+class InvoiceServiceImplBulkTest {
+
+    private static final int INVOICES = 200;
+    private static final long STAFF_ID = 2L;
+
+    private final Map<Long, UserEntity> users = new HashMap<>();
+    private final Map<Long, OrderEntity> orders = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong(10_000);
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    private InvoiceRepository invoiceRepository;
+    private InvoiceBatchRepository invoiceBatchRepository;
+    private OrderRepository orderRepository;
+    private UserRepository userRepository;
+    private UserService userService;
+    private InvoiceServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        users.put(STAFF_ID, user(STAFF_ID));
+        for (long i = 0; i < INVOICES; i++) {
+            UserEntity customer = user(100 + i);
+            users.put(customer.getId(), customer);
+            OrderEntity order = new OrderEntity();
+            order.setId(1000 + i);
+            order.setCustomer(customer);
+            orders.put(order.getId(), order);
+        }
+
+        invoiceRepository = mock(InvoiceRepository.class);
+        InvoiceItemRepository invoiceItemRepository = mock(InvoiceItemRepository.class);
+        invoiceBatchRepository = mock(InvoiceBatchRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        userRepository = mock(UserRepository.class);
+        userService = mock(UserService.class);
+
+        when(userRepository.findById(anyLong())).thenAnswer(roundTrip(inv ->
+                Optional.ofNullable(users.get(inv.<Long>getArgument(0)))));
+        // Proxy của JPA: không tốn round trip
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(inv -> users.get(inv.<Long>getArgument(0)));
+        when(orderRepository.findById(anyLong())).thenAnswer(roundTrip(inv ->
+                Optional.ofNullable(orders.get(inv.<Long>getArgument(0)))));
+        when(invoiceRepository.save(any(InvoiceEntity.class))).thenAnswer(roundTrip(inv -> {
+            InvoiceEntity invoice = inv.getArgument(0);
+            invoice.setId(ids.incrementAndGet());
+            invoice.setTransactions(new ArrayList<>());
+            return invoice;
+        }));
+        when(invoiceItemRepository.saveAll(anyList())).thenAnswer(roundTrip(inv -> inv.getArgument(0)));
+
+        when(userRepository.findAllById(anyIterable())).thenAnswer(roundTrip(inv -> {
+            List<UserEntity> found = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> Optional.ofNullable(users.get(id)).ifPresent(found::add));
+            return found;
+        }));
+        when(orderRepository.findAllById(anyIterable())).thenAnswer(roundTrip(inv -> {
+            List<OrderEntity> found = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> Optional.ofNullable(orders.get(id)).ifPresent(found::add));
+            return found;
+        }));
+        doAnswer(roundTrip(inv -> {
+            inv.<List<InvoiceEntity>>getArgument(0).forEach(invoice -> invoice.setId(ids.incrementAndGet()));
+            return null;
+        })).when(invoiceBatchRepository).insertInvoices(anyList());
+        doAnswer(roundTrip(inv -> null)).when(invoiceBatchRepository).insertItems(anyList());
+
+        service = new InvoiceServiceImpl(invoiceRepository, invoiceItemRepository, invoiceBatchRepository,
+                null, null, orderRepository, userRepository, userService, null, null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Each reference type is resolved once and rows are written in one batch per table")
+    void resolvesOncePerType() {
+        BulkInvoiceResponse response = service.createBulk(bulk(INVOICES), STAFF_ID);
+
+        assertEquals(INVOICES, response.getCreated());
+        assertEquals(INVOICES, response.getInvoices().stream().map(BulkInvoiceResponse.CreatedInvoice::getCode)
+                .distinct().count());
+        assertEquals(1000L, response.getInvoices().get(0).getOrderId());
+        assertEquals(new BigDecimal("220000"), response.getInvoices().get(0).getTotal());
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verify(orderRepository, times(1)).findAllById(anyIterable());
+        verify(invoiceBatchRepository, times(1)).insertInvoices(anyList());
+        verify(invoiceBatchRepository, times(1)).insertItems(anyList());
+        verify(userRepository, never()).findById(anyLong());
+        verify(userService, never()).upsertCustomersByPhone(anyMap());
+    }
+
+    @Test
+    @DisplayName("Walk-in customers are upserted in one call, one row per phone")
+    void upsertsWalkInCustomers() {
+        users.put(500L, user(500L));
+        users.put(501L, user(501L));
+        when(userService.upsertCustomersByPhone(anyMap())).thenReturn(Map.of("0901", 500L, "0902", 501L));
+        List<InvoiceRequest> requests = List.of(walkIn("0901", null), walkIn("0902", "Bình"), walkIn("0901", "An"));
+
+        BulkInvoiceResponse response = service.createBulk(new BulkInvoiceRequest(requests), STAFF_ID);
+
+        verify(userService).upsertCustomersByPhone(Map.of("0901", "An", "0902", "Bình"));
+        assertEquals(List.of(500L, 501L, 500L), response.getInvoices().stream()
+                .map(BulkInvoiceResponse.CreatedInvoice::getCustomerId).toList());
+    }
+
+    @Test
+    @DisplayName("A bad entry fails the whole batch and names its index")
+    void rejectsForeignOrder() {
+        BulkInvoiceRequest request = bulk(3);
+        request.getInvoices().get(2).setOrderId(1000L);
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> service.createBulk(request, STAFF_ID));
+
+        assertTrue(e.getMessage().startsWith("invoices[2]:"));
+        verify(invoiceBatchRepository, never()).insertInvoices(anyList());
+    }
+
+    @Test
+    @DisplayName("Bulk creation costs a fixed number of round trips, create() a few per invoice")
+    void countsRoundTrips() {
+        BulkInvoiceRequest request = bulk(INVOICES);
+
+        roundTrips.set(0);
+        request.getInvoices().forEach(invoice -> service.create(invoice, STAFF_ID));
+        long singleTrips = roundTrips.getAndSet(0);
+
+        service.createBulk(request, STAFF_ID);
+        long bulkTrips = roundTrips.get();
+
+        assertEquals(4, bulkTrips);
+        assertTrue(singleTrips >= 2L * INVOICES);
+    }
+
+    @Test
+    @DisplayName("Batch inserts stamp created_at and updated_at on every invoice and item row")
+    void stampsTimestamps() {
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        Map<String, SqlParameterSource[]> batches = new HashMap<>();
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            batches.put(sql.substring(0, sql.indexOf(" (")), inv.getArgument(1));
+            return new int[0];
+        });
+        InvoiceServiceImpl batchService = new InvoiceServiceImpl(invoiceRepository, mock(InvoiceItemRepository.class),
+                new InvoiceBatchRepository(jdbcTemplate), null, null, orderRepository, userRepository, userService,
+                null, null, null, null, null, null);
+
+        Instant before = Instant.now();
+        batchService.createBulk(bulk(3), STAFF_ID);
+        Instant after = Instant.now();
+
+        assertEquals(3, batches.get("INSERT INTO invoices").length);
+        assertEquals(6, batches.get("INSERT INTO invoice_items").length);
+        for (SqlParameterSource[] rows : batches.values()) {
+            for (SqlParameterSource row : rows) {
+                Instant now = ((Timestamp) row.getValue("now")).toInstant();
+                assertFalse(now.isBefore(before) || now.isAfter(after));
+            }
+        }
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("created_at, updated_at)"), any(SqlParameterSource[].class));
+        verify(jdbcTemplate, times(2)).batchUpdate(contains(":now, :now)"), any(SqlParameterSource[].class));
+    }
+
+    // ==================== HELPERS ====================
+
+    private <T> Answer<T> roundTrip(Answer<T> answer) {
+        return inv -> {
+            roundTrips.incrementAndGet();
+            return answer.answer(inv);
+        };
+    }
+
+    private static BulkInvoiceRequest bulk(int count) {
+        List<InvoiceRequest> requests = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            requests.add(InvoiceRequest.builder()
+                    .orderId(1000 + i)
+                    .customerId(100 + i)
+                    .staffId(STAFF_ID)
+                    .currency("VND")
+                    .taxAmount(new BigDecimal("20000"))
+                    .items(items())
+                    .build());
+        }
+        return new BulkInvoiceRequest(requests);
+    }
+
+    private static InvoiceRequest walkIn(String phone, String name) {
+        return InvoiceRequest.builder()
+                .customerPhone(phone)
+                .customerName(name)
+                .currency("VND")
+                .items(items())
+                .build();
+    }
+
+    private static List<InvoiceRequest.ItemRequest> items() {
+        return List.of(
+                InvoiceRequest.ItemRequest.builder().name("Vải lụa").quantity(2)
+                        .unitPrice(new BigDecimal("50000")).build(),
+                InvoiceRequest.ItemRequest.builder().name("Công may").quantity(1)
+                        .unitPrice(new BigDecimal("100000")).build());
+    }
+
+    private static UserEntity user(Long id) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setName("User " + id);
+        return user;
+    }
+}
@@ -14,9 +14,12 @@ import com.example.tailor_shop.modules.billing.dto.InvoiceResponse;
 import com.example.tailor_shop.modules.billing.dto.PaymentCallbackRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentRequest;
 import com.example.tailor_shop.modules.billing.dto.PaymentResponse;
+import com.example.tailor_shop.modules.billing.event.InvoicePaidEvent;
 import com.example.tailor_shop.modules.billing.repository.InvoiceItemRepository;
 import com.example.tailor_shop.modules.billing.repository.InvoiceRepository;
+import com.example.tailor_shop.modules.billing.repository.PaymentCallbackReceiptRepository;
 import com.example.tailor_shop.modules.billing.repository.PaymentTransactionRepository;
+import com.example.tailor_shop.modules.event.service.OutboxEventPublisher;
 import com.example.tailor_shop.modules.order.domain.OrderEntity;
 import com.example.tailor_shop.modules.order.repository.OrderRepository;
 import com.example.tailor_shop.modules.user.domain.RoleEntity;
@@ -69,12 +72,18 @@ class InvoiceServiceImplTest {
     @Mock
     private PaymentTransactionRepository paymentTransactionRepository;
 
+    @Mock
+    private PaymentCallbackReceiptRepository paymentCallbackReceiptRepository;
+
     @Mock
     private OrderRepository orderRepository;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private OutboxEventPublisher outboxEventPublisher;
+
     @InjectMocks
     private InvoiceServiceImpl invoiceService;
 
@@ -553,7 +562,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("500000"))
                 .build();
 
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invoice));
         when(paymentTransactionRepository.save(any(PaymentTransactionEntity.class))).thenAnswer(invocation -> {
             PaymentTransactionEntity tx = invocation.getArgument(0);
             tx.setId(1L);
@@ -574,7 +583,7 @@ class InvoiceServiceImplTest {
         assertNotNull(result.getPaidAt());
         assertNotNull(result.getProviderRef());
 
-        verify(invoiceRepository, times(1)).findById(1L);
+        verify(invoiceRepository, times(1)).findByIdForUpdate(1L);
         verify(paymentTransactionRepository, times(1)).save(any(PaymentTransactionEntity.class));
         verify(invoiceRepository, times(1)).save(any(InvoiceEntity.class));
 
@@ -596,7 +605,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("1000000"))
                 .build();
 
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invoice));
         when(paymentTransactionRepository.save(any(PaymentTransactionEntity.class))).thenAnswer(invocation -> {
             PaymentTransactionEntity tx = invocation.getArgument(0);
             tx.setId(1L);
@@ -628,7 +637,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("500000"))
                 .build();
 
-        when(invoiceRepository.findById(999L)).thenReturn(Optional.empty());
+        when(invoiceRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(NotFoundException.class, () -> {
@@ -648,7 +657,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("500000"))
                 .build();
 
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invoice));
 
         // When & Then
         assertThrows(BadRequestException.class, () -> {
@@ -667,7 +676,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("2000000")) // Exceeds dueAmount (1000000)
                 .build();
 
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invoice));
 
         // When & Then
         assertThrows(BadRequestException.class, () -> {
@@ -686,7 +695,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("1000000")) // Full amount
                 .build();
 
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invoice));
         when(paymentTransactionRepository.save(any(PaymentTransactionEntity.class))).thenAnswer(invocation -> {
             PaymentTransactionEntity tx = invocation.getArgument(0);
             tx.setId(1L);
@@ -730,8 +739,9 @@ class InvoiceServiceImplTest {
                 .rawPayload("{\"status\":\"success\"}")
                 .build();
 
-        when(paymentTransactionRepository.findByProviderRef("ref-123"))
-                .thenReturn(Optional.of(transaction));
+        stubCallbackLookup(transaction);
+        when(paymentCallbackReceiptRepository.record(eq("vnpay:ref-123:success"), eq("ref-123"), eq(true), any()))
+                .thenReturn(true);
         when(paymentTransactionRepository.save(any(PaymentTransactionEntity.class)))
                 .thenReturn(transaction);
         when(invoiceRepository.save(any(InvoiceEntity.class))).thenReturn(invoice);
@@ -744,9 +754,14 @@ class InvoiceServiceImplTest {
         assertEquals(PaymentStatus.success, result.getStatus());
         assertNotNull(result.getPaidAt());
 
-        verify(paymentTransactionRepository, times(1)).findByProviderRef("ref-123");
+        verify(invoiceRepository, times(1)).findByIdForUpdate(1L);
+        verify(paymentTransactionRepository, times(1)).findByProviderRefForUpdate("ref-123");
         verify(paymentTransactionRepository, times(1)).save(any(PaymentTransactionEntity.class));
         verify(invoiceRepository, times(1)).save(any(InvoiceEntity.class));
+        // Fully paid: the owning module (fabric order, ...) completes through the outbox
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(outboxEventPublisher).publish(event.capture(), any());
+        assertEquals(1L, ((InvoicePaidEvent) event.getValue()).getInvoiceId());
     }
 
     @Test
@@ -769,8 +784,9 @@ class InvoiceServiceImplTest {
                 .rawPayload("{\"status\":\"failed\"}")
                 .build();
 
-        when(paymentTransactionRepository.findByProviderRef("ref-123"))
-                .thenReturn(Optional.of(transaction));
+        stubCallbackLookup(transaction);
+        when(paymentCallbackReceiptRepository.record(eq("vnpay:ref-123:failed"), eq("ref-123"), eq(false), any()))
+                .thenReturn(true);
         when(paymentTransactionRepository.save(any(PaymentTransactionEntity.class)))
                 .thenReturn(transaction);
         when(invoiceRepository.save(any(InvoiceEntity.class))).thenReturn(invoice);
@@ -796,7 +812,7 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("1000000"))
                 .build();
 
-        when(paymentTransactionRepository.findByProviderRef("ref-999"))
+        when(paymentTransactionRepository.findInvoiceIdByProviderRef("ref-999"))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -825,8 +841,8 @@ class InvoiceServiceImplTest {
                 .amount(new BigDecimal("1000000"))
                 .build();
 
-        when(paymentTransactionRepository.findByProviderRef("ref-123"))
-                .thenReturn(Optional.of(transaction));
+        stubCallbackLookup(transaction);
+        when(paymentCallbackReceiptRepository.record(any(), any(), eq(true), any())).thenReturn(true);
 
         // When
         PaymentResponse result = invoiceService.handleCallback(request);
@@ -840,6 +856,68 @@ class InvoiceServiceImplTest {
         verify(invoiceRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Handle callback - Redelivered idempotency key is ignored")
+    void testHandleCallback_DuplicateKey() {
+        // Given
+        PaymentTransactionEntity transaction = PaymentTransactionEntity.builder()
+                .id(1L)
+                .invoice(invoice)
+                .provider(PaymentProvider.vnpay)
+                .status(PaymentStatus.pending)
+                .amount(new BigDecimal("1000000"))
+                .providerRef("ref-123")
+                .build();
+
+        PaymentCallbackRequest request = PaymentCallbackRequest.builder()
+                .provider(PaymentProvider.vnpay)
+                .providerRef("ref-123")
+                .idempotencyKey("evt-1")
+                .success(true)
+                .build();
+
+        stubCallbackLookup(transaction);
+        when(paymentCallbackReceiptRepository.record(eq("vnpay:ref-123:evt-1"), eq("ref-123"), eq(true), isNull()))
+                .thenReturn(false);
+
+        // When
+        PaymentResponse result = invoiceService.handleCallback(request);
+
+        // Then
+        assertEquals(PaymentStatus.pending, result.getStatus());
+        assertEquals(BigDecimal.ZERO, invoice.getPaidAmount());
+        verify(paymentTransactionRepository, never()).save(any());
+        verify(invoiceRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Handle callback - Amount mismatch")
+    void testHandleCallback_AmountMismatch() {
+        // Given
+        PaymentTransactionEntity transaction = PaymentTransactionEntity.builder()
+                .id(1L)
+                .invoice(invoice)
+                .provider(PaymentProvider.vnpay)
+                .status(PaymentStatus.pending)
+                .amount(new BigDecimal("1000000"))
+                .providerRef("ref-123")
+                .build();
+
+        PaymentCallbackRequest request = PaymentCallbackRequest.builder()
+                .provider(PaymentProvider.vnpay)
+                .providerRef("ref-123")
+                .success(true)
+                .amount(new BigDecimal("1"))
+                .build();
+
+        stubCallbackLookup(transaction);
+        when(paymentCallbackReceiptRepository.record(any(), any(), eq(true), any())).thenReturn(true);
+
+        // When & Then
+        assertThrows(BadRequestException.class, () -> invoiceService.handleCallback(request));
+        verify(invoiceRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Void invoice - Success")
     void testVoidInvoice_Success() {
@@ -892,5 +970,12 @@ class InvoiceServiceImplTest {
         });
         verify(invoiceRepository, never()).save(any());
     }
-}
 
+    private void stubCallbackLookup(PaymentTransactionEntity transaction) {
+        when(paymentTransactionRepository.findInvoiceIdByProviderRef(transaction.getProviderRef()))
+                .thenReturn(Optional.of(invoice.getId()));
+        when(invoiceRepository.findByIdForUpdate(invoice.getId())).thenReturn(Optional.of(invoice));
+        when(paymentTransactionRepository.findByProviderRefForUpdate(transaction.getProviderRef()))
+                .thenReturn(Optional.of(transaction));
+    }
+}
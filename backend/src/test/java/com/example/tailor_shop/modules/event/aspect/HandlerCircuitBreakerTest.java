@@ -0,0 +1,72 @@
+package com.example.tailor_shop.modules.event.aspect;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("HandlerCircuitBreaker Unit Tests")
+class HandlerCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final HandlerCircuitBreaker breaker =
+            new HandlerCircuitBreaker(3, Duration.ofSeconds(30), now::get);
+
+    @Test
+    @DisplayName("Opens after consecutive failures reach the threshold")
+    void opensAfterThreshold() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(HandlerCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    @DisplayName("Success resets the failure count")
+    void successResets() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Half-open allows a single trial after the open duration")
+    void halfOpenSingleTrial() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(HandlerCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordSuccess();
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    @DisplayName("Failed trial re-opens the circuit")
+    void failedTrialReopens() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(HandlerCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.tailor_shop.modules.event.aspect;
+
+import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
+import com.example.tailor_shop.modules.event.service.EventRetryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Circuit breaker and bulkhead as seen through the aspect. Handlers have
+ * maxRetries = 0, so every outcome is synchronous (proceed, reject, or DLQ)
+ * except bulkhead deferrals, which come back on the aspect's timer.
+ */
+@DisplayName("RetryableEventAspect Unit Tests")
+class RetryableEventAspectTest {
+
+    private static final int THRESHOLD = 2;
+    private static final int OPEN_SECONDS = 30;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private EventRetryService eventRetryService;
+    private RetryableEventAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        eventRetryService = mock(EventRetryService.class);
+        aspect = new RetryableEventAspect(eventRetryService, Runnable::run, new SimpleMeterRegistry(), now::get);
+        ReflectionTestUtils.setField(aspect, "failureThreshold", THRESHOLD);
+        ReflectionTestUtils.setField(aspect, "openSeconds", OPEN_SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aspect.shutdown();
+    }
+
+    @Test
+    @DisplayName("Failures open the circuit, a half-open trial success closes it")
+    void openHalfOpenClose() throws Throwable {
+        openCircuit();
+
+        invoke("handle", () -> { });
+        assertEquals(THRESHOLD, calls.get()); // Rejected while open: handler not called
+        assertEquals(HandlerCircuitBreaker.State.OPEN, breaker("handle").getState());
+
+        now.addAndGet(Duration.ofSeconds(OPEN_SECONDS).toNanos());
+        invoke("handle", () -> { });
+        assertEquals(THRESHOLD + 1, calls.get());
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker("handle").getState());
+        verify(eventRetryService, times(THRESHOLD + 1)).saveFailedEvent(any(), eq(Handlers.class.getName()), eq("handle"),
+                any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("A failed half-open trial re-opens the circuit")
+    void failedTrialReopens() throws Throwable {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(OPEN_SECONDS).toNanos());
+
+        invoke("handle", () -> { throw new IllegalStateException("still down"); });
+
+        assertEquals(HandlerCircuitBreaker.State.OPEN, breaker("handle").getState());
+    }
+
+    @Test
+    @DisplayName("A call rejected by the bulkhead does not use up the half-open trial")
+    void bulkheadRejectKeepsTrial() throws Throwable {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(OPEN_SECONDS).toNanos());
+
+        HandlerGuard guard = guard("handle");
+        guard.getBulkhead().acquire();
+        invoke("handle", () -> { });
+        guard.getBulkhead().release();
+        assertEquals(THRESHOLD, calls.get());
+
+        invoke("handle", () -> { });
+        assertEquals(THRESHOLD + 1, calls.get());
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker("handle").getState());
+    }
+
+    @Test
+    @DisplayName("A saturated bulkhead defers calls without using retries: nothing reaches the DLQ")
+    void saturatedBulkheadDefers() throws Throwable {
+        int events = 5;
+        invoke("handle", () -> { }); // Tạo guard
+        HandlerGuard guard = guard("handle");
+        guard.getBulkhead().acquire();
+
+        for (int i = 0; i < events; i++) {
+            invoke("handle", () -> { });
+        }
+        assertEquals(1, calls.get());
+        Thread.sleep(300); // Vài vòng back-off trong khi bulkhead vẫn đầy
+        assertEquals(1, calls.get());
+        guard.getBulkhead().release();
+
+        for (int i = 0; i < 100 && calls.get() < events + 1; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(events + 1, calls.get());
+        assertTrue(guard.getThrottled().count() >= events * 2);
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker("handle").getState());
+        verify(eventRetryService, never()).saveFailedEvent(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Non-retryable exceptions reach the caller and do not count as failures")
+    void nonRetryableDoesNotTrip() throws Throwable {
+        for (int i = 0; i < THRESHOLD + 1; i++) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> invoke("validate", () -> { throw new IllegalArgumentException("bad input"); }));
+        }
+
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker("validate").getState());
+        verify(eventRetryService, never()).saveFailedEvent(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("A non-retryable half-open trial frees the trial slot")
+    void nonRetryableTrialReleased() throws Throwable {
+        for (int i = 0; i < THRESHOLD; i++) {
+            invoke("validate", () -> { throw new IllegalStateException("down"); });
+        }
+        now.addAndGet(Duration.ofSeconds(OPEN_SECONDS).toNanos());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> invoke("validate", () -> { throw new IllegalArgumentException("bad input"); }));
+        assertEquals(HandlerCircuitBreaker.State.HALF_OPEN, breaker("validate").getState());
+
+        invoke("validate", () -> { });
+        assertEquals(HandlerCircuitBreaker.State.CLOSED, breaker("validate").getState());
+    }
+
+    // ==================== HELPERS ====================
+
+    private void openCircuit() throws Throwable {
+        for (int i = 0; i < THRESHOLD; i++) {
+            invoke("handle", () -> { throw new IllegalStateException("down"); });
+        }
+        assertEquals(HandlerCircuitBreaker.State.OPEN, breaker("handle").getState());
+    }
+
+    private void invoke(String methodName, Body body) throws Throwable {
+        Method method = Handlers.class.getMethod(methodName, Ping.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getTarget()).thenReturn(new Handlers());
+        when(joinPoint.getArgs()).thenReturn(new Object[]{new Ping("corr-1")});
+        when(joinPoint.proceed()).thenAnswer(inv -> {
+            calls.incrementAndGet();
+            body.run();
+            return null;
+        });
+        aspect.handleRetryableEvent(joinPoint, method.getAnnotation(RetryableEvent.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private HandlerGuard guard(String methodName) {
+        return ((Map<String, HandlerGuard>) ReflectionTestUtils.getField(aspect, "guards"))
+                .get(Handlers.class.getName() + "." + methodName);
+    }
+
+    private HandlerCircuitBreaker breaker(String methodName) {
+        return guard(methodName).getCircuitBreaker();
+    }
+
+    interface Body {
+        void run() throws Exception;
+    }
+
+    record Ping(String correlationId) {
+        public String getCorrelationId() {
+            return correlationId;
+        }
+    }
+
+    static class Handlers {
+        @RetryableEvent(maxRetries = 0, maxConcurrent = 1)
+        public void handle(Ping ping) {
+        }
+
+        @RetryableEvent(maxRetries = 0, maxConcurrent = 1, noRetryOn = IllegalArgumentException.class)
+        public void validate(Ping ping) {
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.tailor_shop.modules.event.service;
+
+import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity.OutboxStatus;
+import com.example.tailor_shop.modules.event.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("OutboxDispatcher Unit Tests")
+class OutboxDispatcherTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private EventRetryService eventRetryService;
+    private TestHandlers handlers;
+    private EventHandlerRegistry registry;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        eventRetryService = mock(EventRetryService.class);
+        handlers = new TestHandlers();
+        registry = new EventHandlerRegistry();
+        registry.postProcessAfterInitialization(handlers, "testHandlers");
+
+        dispatcher = new OutboxDispatcher(outboxEventRepository, registry, eventRetryService,
+                new ObjectMapper(), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 60);
+    }
+
+    @Test
+    @DisplayName("A delivered row is marked PROCESSED and its claim released")
+    void marksProcessed() {
+        OutboxEventEntity row = row("handle", 3);
+        row.setStatus(OutboxStatus.PROCESSING);
+        row.setLockedBy("node-1");
+
+        dispatcher.dispatch(row);
+
+        assertEquals(List.of("hello"), handlers.received);
+        assertEquals(OutboxStatus.PROCESSED, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertNotNull(row.getProcessedAt());
+        assertNull(row.getLockedBy());
+        verify(outboxEventRepository).save(row);
+        verify(eventRetryService, never()).saveDeadOutboxEvent(any(), any());
+    }
+
+    @Test
+    @DisplayName("Failures are rescheduled with growing backoff, then moved to the DLQ")
+    void retriesWithBackoffThenDead() {
+        OutboxEventEntity row = row("fail", 3);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch(row);
+        assertEquals(OutboxStatus.PENDING, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertEquals("boom", row.getLastError());
+        assertBetween(before.plusSeconds(5), row.getNextRetryAt(), Duration.ofSeconds(2));
+
+        before = LocalDateTime.now();
+        dispatcher.dispatch(row);
+        assertEquals(OutboxStatus.PENDING, row.getStatus());
+        assertBetween(before.plusSeconds(30), row.getNextRetryAt(), Duration.ofSeconds(2));
+
+        dispatcher.dispatch(row);
+        assertEquals(OutboxStatus.DEAD, row.getStatus());
+        assertEquals(3, row.getAttempts());
+        verify(eventRetryService, times(1)).saveDeadOutboxEvent(eq(row), any(IllegalStateException.class));
+        verify(outboxEventRepository, times(3)).save(row);
+    }
+
+    @Test
+    @DisplayName("A row without a registered handler is retried like a failure, then dead-lettered")
+    void handlerNotFound() {
+        OutboxEventEntity row = row("missing", 2);
+
+        dispatcher.dispatch(row);
+        assertEquals(OutboxStatus.PENDING, row.getStatus());
+        assertTrue(row.getLastError().contains("TestHandlers.missing"));
+
+        dispatcher.dispatch(row);
+        assertEquals(OutboxStatus.DEAD, row.getStatus());
+        verify(eventRetryService).saveDeadOutboxEvent(eq(row), any(IllegalStateException.class));
+        assertEquals(List.of(), handlers.received);
+    }
+
+    @Test
+    @DisplayName("poll claims batches until a partial batch comes back")
+    void pollDrainsFullBatches() {
+        OutboxEventEntity a = row("handle", 3);
+        OutboxEventEntity b = row("handle", 3);
+        OutboxEventEntity c = row("handle", 3);
+        when(outboxEventRepository.lockDueBatch(any(), anyInt()))
+                .thenReturn(List.of(a, b))
+                .thenReturn(List.of(c));
+
+        dispatcher.poll();
+
+        verify(outboxEventRepository, times(2)).lockDueBatch(any(), eq(2));
+        assertEquals(3, handlers.received.size());
+        for (OutboxEventEntity row : List.of(a, b, c)) {
+            assertEquals(OutboxStatus.PROCESSED, row.getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Handlers are keyed by fully qualified class: same simple names do not collide")
+    void sameSimpleNameInAnotherClass() {
+        Other.TestHandlers other = new Other.TestHandlers();
+        registry.postProcessAfterInitialization(other, "otherTestHandlers");
+
+        dispatcher.dispatch(row("handle", 3));
+        OutboxEventEntity otherRow = row("handle", 3);
+        otherRow.setHandlerClass(Other.TestHandlers.class.getName());
+        dispatcher.dispatch(otherRow);
+
+        assertEquals(List.of("hello"), handlers.received);
+        assertEquals(List.of("hello"), other.received);
+        // Row cũ lưu simple name: không còn xác định được handler nào
+        assertTrue(registry.find("TestHandlers", "handle").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rows stored with a simple class name still resolve while it is unambiguous")
+    void legacySimpleName() {
+        OutboxEventEntity row = row("handle", 3);
+        row.setHandlerClass("TestHandlers");
+
+        dispatcher.dispatch(row);
+
+        assertEquals(OutboxStatus.PROCESSED, row.getStatus());
+        assertEquals(List.of("hello"), handlers.received);
+    }
+
+    // ==================== HELPERS ====================
+
+    private static OutboxEventEntity row(String handlerMethod, int maxAttempts) {
+        OutboxEventEntity row = new OutboxEventEntity();
+        row.setCorrelationId("corr-1");
+        row.setEventType("Ping");
+        row.setEventPayload("{\"value\":\"hello\"}");
+        row.setHandlerClass(TestHandlers.class.getName());
+        row.setHandlerMethod(handlerMethod);
+        row.setMaxAttempts(maxAttempts);
+        row.setNextRetryAt(LocalDateTime.now());
+        return row;
+    }
+
+    private static void assertBetween(LocalDateTime expected, LocalDateTime actual, Duration tolerance) {
+        assertTrue(!actual.isBefore(expected) && actual.isBefore(expected.plus(tolerance)),
+                "expected ~" + expected + " but was " + actual);
+    }
+
+    record Ping(String value) {
+    }
+
+    static class TestHandlers {
+        final List<String> received = new ArrayList<>();
+
+        @RetryableEvent(maxRetries = 2)
+        public void handle(Ping ping) {
+            received.add(ping.value());
+        }
+
+        @RetryableEvent(maxRetries = 2)
+        public void fail(Ping ping) {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    static class Other {
+
+        static class TestHandlers {
+            final List<String> received = new ArrayList<>();
+
+            @RetryableEvent(maxRetries = 2)
+            public void handle(Ping ping) {
+                received.add(ping.value());
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tailor_shop.modules.event.service;
+
+import com.example.tailor_shop.modules.event.annotation.RetryableEvent;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity;
+import com.example.tailor_shop.modules.event.domain.OutboxEventEntity.OutboxStatus;
+import com.example.tailor_shop.modules.event.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("OutboxEventPublisher Unit Tests")
+class OutboxEventPublisherTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private OutboxEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+        registry.postProcessAfterInitialization(new Handlers(), "handlers");
+        publisher = new OutboxEventPublisher(outboxEventRepository, registry, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("One PENDING row per registered handler, due now")
+    @SuppressWarnings("unchecked")
+    void oneRowPerHandler() {
+        publisher.publish(new Created(7L), "corr-1");
+
+        ArgumentCaptor<List<OutboxEventEntity>> rows = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(rows.capture());
+        assertEquals(List.of("first", "second"),
+                rows.getValue().stream().map(OutboxEventEntity::getHandlerMethod).sorted().toList());
+        for (OutboxEventEntity row : rows.getValue()) {
+            assertEquals(Handlers.class.getName(), row.getHandlerClass());
+            assertEquals("Created", row.getEventType());
+            assertEquals("{\"orderId\":7}", row.getEventPayload());
+            assertEquals("corr-1", row.getCorrelationId());
+            assertEquals(OutboxStatus.PENDING, row.getStatus());
+        }
+        // maxRetries lần thử lại sau lần đầu
+        assertEquals(List.of(2, 5), rows.getValue().stream()
+                .map(OutboxEventEntity::getMaxAttempts).sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Events without handlers write nothing")
+    void noHandlers() {
+        publisher.publish("unhandled", "corr-1");
+
+        verify(outboxEventRepository, never()).saveAll(anyList());
+    }
+
+    record Created(Long orderId) {
+    }
+
+    static class Handlers {
+        @RetryableEvent(maxRetries = 1)
+        public void first(Created event) {
+        }
+
+        @RetryableEvent(maxRetries = 4)
+        public void second(Created event) {
+        }
+    }
+}
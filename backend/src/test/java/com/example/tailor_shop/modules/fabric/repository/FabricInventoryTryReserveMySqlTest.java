@@ -0,0 +1,162 @@
+package com.example.tailor_shop.modules.fabric.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the native UPDATE of {@link FabricInventoryRepository#tryReserve}
+ * (read from its {@code @Query}, so the test follows the SQL) from many
+ * connections against a real MySQL. Each connection reserves in its own
+ * transaction and commits, like parallel checkouts.
+ *
+ * Only runs on demand, against a scratch schema (the test creates and drops
+ * its own table):
+ * mvn test -Dtest=FabricInventoryTryReserveMySqlTest -Dmysql.url="jdbc:mysql://localhost:3306/scratch?user=...&password=..."
+ */
+@EnabledIfSystemProperty(named = "mysql.url", matches = ".+")
+@DisplayName("FabricInventoryRepository.tryReserve against MySQL")
+class FabricInventoryTryReserveMySqlTest {
+
+    private static final Pattern PARAM = Pattern.compile(":(\\w+)");
+    private static final int CONNECTIONS = 32;
+    private static final int ATTEMPTS_PER_CONNECTION = 4;
+
+    private final String url = System.getProperty("mysql.url");
+    private final String table = "fabric_inventory_it_" + System.nanoTime();
+
+    private String sql;
+    private List<String> params;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String query = FabricInventoryRepository.class
+                .getMethod("tryReserve", Long.class, BigDecimal.class)
+                .getAnnotation(Query.class)
+                .value()
+                .replace("fabric_inventory", table);
+        params = new ArrayList<>();
+        Matcher matcher = PARAM.matcher(query);
+        while (matcher.find()) {
+            params.add(matcher.group(1));
+        }
+        sql = matcher.replaceAll("?");
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, "
+                    + "quantity DECIMAL(10,2) NOT NULL, reserved_quantity DECIMAL(10,2) NOT NULL, "
+                    + "is_deleted BOOLEAN NOT NULL) ENGINE=InnoDB");
+            statement.execute("INSERT INTO " + table + " VALUES (1, 10.00, 0.00, FALSE), (2, 10.00, 0.00, TRUE)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel reservations never take more than the lot holds")
+    void neverOverReserves() throws Exception {
+        BigDecimal slice = new BigDecimal("1.50");
+        int reserved = runReservations(1L, slice);
+
+        // 10 / 1.5: six slices fit, the seventh would leave the lot short
+        assertEquals(6, reserved);
+        BigDecimal[] row = read(1L);
+        assertTrue(row[1].compareTo(row[0]) <= 0, "reserved " + row[1] + " > quantity " + row[0]);
+        assertEquals(0, slice.multiply(BigDecimal.valueOf(reserved)).compareTo(row[1]));
+    }
+
+    @Test
+    @DisplayName("Deleted lots are never reserved")
+    void deletedLotSkipped() throws Exception {
+        assertEquals(0, runReservations(2L, BigDecimal.ONE));
+        assertEquals(0, read(2L)[1].signum());
+    }
+
+    // ==================== HELPERS ====================
+
+    private int runReservations(Long id, BigDecimal quantity) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONNECTIONS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                futures.add(pool.submit(() -> {
+                    try (Connection connection = DriverManager.getConnection(url)) {
+                        connection.setAutoCommit(false);
+                        start.await();
+                        int reserved = 0;
+                        for (int attempt = 0; attempt < ATTEMPTS_PER_CONNECTION; attempt++) {
+                            reserved += tryReserve(connection, id, quantity);
+                            connection.commit();
+                        }
+                        return reserved;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int reserved = 0;
+            for (Future<Integer> future : futures) {
+                reserved += future.get(60, TimeUnit.SECONDS);
+            }
+            return reserved;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int tryReserve(Connection connection, Long id, BigDecimal quantity) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                switch (params.get(i)) {
+                    case "id" -> statement.setLong(i + 1, id);
+                    case "qty" -> statement.setBigDecimal(i + 1, quantity);
+                    default -> throw new IllegalStateException("Unexpected parameter :" + params.get(i));
+                }
+            }
+            return statement.executeUpdate();
+        }
+    }
+
+    private BigDecimal[] read(Long id) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT quantity, reserved_quantity FROM " + table + " WHERE id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet rs = statement.executeQuery()) {
+                assertTrue(rs.next());
+                return new BigDecimal[]{rs.getBigDecimal(1), rs.getBigDecimal(2)};
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("FabricAvailabilityCache Unit Tests")
+class FabricAvailabilityCacheTest {
+
+    private FabricInventoryRepository fabricInventoryRepository;
+    private FabricAvailabilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        fabricInventoryRepository = mock(FabricInventoryRepository.class);
+        cache = new FabricAvailabilityCache(fabricInventoryRepository);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("Misses are loaded in one query, fabrics without inventory are zero")
+    void batchLoadsMisses() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, new BigDecimal("12.5")});
+        when(fabricInventoryRepository.sumAvailableQuantityByFabricIds(anyCollection())).thenReturn(rows);
+
+        Map<Long, BigDecimal> available = cache.getAvailable(List.of(1L, 2L, 1L));
+
+        assertEquals(new BigDecimal("12.5"), available.get(1L));
+        assertEquals(BigDecimal.ZERO, available.get(2L));
+
+        cache.getAvailable(List.of(1L, 2L));
+        verify(fabricInventoryRepository, times(1)).sumAvailableQuantityByFabricIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Invalidation forces a reload of that fabric only")
+    void invalidateReloads() {
+        List<Object[]> before = new ArrayList<>();
+        before.add(new Object[]{1L, new BigDecimal("10")});
+        before.add(new Object[]{2L, new BigDecimal("20")});
+        List<Object[]> after = new ArrayList<>();
+        after.add(new Object[]{1L, new BigDecimal("7")});
+        when(fabricInventoryRepository.sumAvailableQuantityByFabricIds(anyCollection()))
+                .thenReturn(before, after);
+
+        cache.getAvailable(List.of(1L, 2L));
+        cache.invalidate(1L);
+        Map<Long, BigDecimal> available = cache.getAvailable(List.of(1L, 2L));
+
+        assertEquals(new BigDecimal("7"), available.get(1L));
+        assertEquals(new BigDecimal("20"), available.get(2L));
+        verify(fabricInventoryRepository).sumAvailableQuantityByFabricIds(List.of(1L));
+    }
+}
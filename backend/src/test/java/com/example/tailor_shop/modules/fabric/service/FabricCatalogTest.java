@@ -0,0 +1,152 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.fabric.domain.FabricCategory;
+import com.example.tailor_shop.modules.fabric.domain.FabricEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricPattern;
+import com.example.tailor_shop.modules.fabric.domain.FabricSeason;
+import com.example.tailor_shop.modules.fabric.dto.FabricFacetsResponse;
+import com.example.tailor_shop.modules.fabric.dto.FabricFilterRequest;
+import com.example.tailor_shop.modules.fabric.repository.FabricRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("FabricCatalog Unit Tests")
+class FabricCatalogTest {
+
+    private FabricRepository fabricRepository;
+    private FabricCatalog catalog;
+    private final List<FabricEntity> fabrics = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fabrics.add(fabric(1L, "Lụa Hà Đông", FabricCategory.SILK, FabricPattern.SOLID, FabricSeason.SUMMER,
+                "Đỏ", "350000", 2, true));
+        fabrics.add(fabric(2L, "Cotton kẻ sọc", FabricCategory.COTTON, FabricPattern.STRIPED, FabricSeason.ALL_SEASON,
+                "Trắng", "90000", 1, true));
+        fabrics.add(fabric(3L, "Lụa tơ tằm", FabricCategory.SILK, FabricPattern.FLORAL, FabricSeason.SUMMER,
+                "đỏ", "1200000", 1, false));
+        fabrics.add(fabric(4L, "Dạ len", FabricCategory.WOOL, FabricPattern.CHECKED, FabricSeason.WINTER,
+                "Xám", "500000", 0, true));
+
+        fabricRepository = mock(FabricRepository.class);
+        when(fabricRepository.findByIsDeletedFalse()).thenReturn(fabrics);
+        catalog = new FabricCatalog(fabricRepository,
+                new BigDecimal[]{new BigDecimal("100000"), new BigDecimal("200000"),
+                        new BigDecimal("500000"), new BigDecimal("1000000")});
+    }
+
+    @Test
+    @DisplayName("Filters match searchFabrics: display order, exact values, accent-insensitive keyword")
+    void filtersAndOrders() {
+        assertEquals(List.of(4L, 2L, 3L, 1L), ids(new FabricFilterRequest()));
+        assertEquals(List.of(3L, 1L), ids(FabricFilterRequest.builder().category(FabricCategory.SILK).build()));
+        assertEquals(List.of(3L, 1L), ids(FabricFilterRequest.builder().keyword("lua").build()));
+        assertEquals(List.of(1L), ids(FabricFilterRequest.builder().keyword("HA DONG").build()));
+        assertEquals(List.of(3L, 1L), ids(FabricFilterRequest.builder().color("DO").build()));
+        assertEquals(List.of(3L), ids(FabricFilterRequest.builder().isAvailable(false).build()));
+        assertEquals(List.of(4L, 1L), ids(FabricFilterRequest.builder()
+                .minPrice(new BigDecimal("350000")).maxPrice(new BigDecimal("500000")).build()));
+        assertEquals(List.of(), ids(FabricFilterRequest.builder().material("Không có").build()));
+
+        Page<Long> page = catalog.search(new FabricFilterRequest(), PageRequest.of(1, 2));
+        assertEquals(List.of(3L, 1L), page.getContent());
+        assertEquals(4, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Each facet group is counted without its own filter")
+    void facets() {
+        FabricFacetsResponse facets = catalog.facets(FabricFilterRequest.builder()
+                .category(FabricCategory.SILK).build());
+
+        assertEquals(2, facets.getTotal());
+        assertEquals(2, facets.getCategories().get(FabricCategory.SILK));
+        assertEquals(1, facets.getCategories().get(FabricCategory.COTTON));
+        assertEquals(0, facets.getCategories().get(FabricCategory.LINEN));
+        assertEquals(1, facets.getPatterns().get(FabricPattern.FLORAL));
+        assertEquals(0, facets.getPatterns().get(FabricPattern.STRIPED));
+        assertEquals(2, facets.getSeasons().get(FabricSeason.SUMMER));
+
+        List<FabricFacetsResponse.PriceBucket> buckets = facets.getPriceBuckets();
+        assertEquals(5, buckets.size());
+        assertEquals(List.of(0L, 0L, 1L, 0L, 1L),
+                buckets.stream().map(FabricFacetsResponse.PriceBucket::getCount).toList());
+        assertNull(buckets.get(4).getMaxPrice());
+    }
+
+    @Test
+    @DisplayName("Create / update / delete patch the snapshot without reloading it")
+    void incrementalUpdates() {
+        ids(new FabricFilterRequest()); // Load
+
+        FabricEntity updated = fabric(2L, "Lụa kẻ sọc", FabricCategory.SILK, FabricPattern.STRIPED,
+                FabricSeason.ALL_SEASON, "Trắng", "150000", 1, true);
+        catalog.upsert(updated);
+        catalog.remove(1L);
+        catalog.upsert(fabric(5L, "Linen", FabricCategory.LINEN, FabricPattern.SOLID, FabricSeason.SUMMER,
+                "Be", "250000", 0, true));
+
+        FabricFilterRequest silk = FabricFilterRequest.builder().category(FabricCategory.SILK).build();
+        assertEquals(List.of(2L, 3L), ids(silk));
+        assertEquals(List.of(4L, 5L, 2L, 3L), ids(new FabricFilterRequest()));
+        assertEquals(0, catalog.facets(new FabricFilterRequest()).getCategories().get(FabricCategory.COTTON));
+        assertEquals(List.of(2L), ids(FabricFilterRequest.builder().keyword("ke soc").build()));
+        verify(fabricRepository, times(1)).findByIsDeletedFalse();
+    }
+
+    @Test
+    @DisplayName("Requested sort is applied after filtering; unknown properties are rejected")
+    void sorts() {
+        FabricFilterRequest all = new FabricFilterRequest();
+        assertEquals(List.of(3L, 4L, 1L, 2L), catalog.search(all,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "pricePerMeter"))).getContent());
+        // Accent-insensitive: cotton, da len, lua ha dong, lua to tam
+        assertEquals(List.of(1L, 3L), catalog.search(all,
+                PageRequest.of(1, 2, Sort.by("name"))).getContent());
+        assertEquals(List.of(1L, 2L, 3L, 4L), catalog.search(all,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "displayOrder"))).getContent());
+
+        assertThrows(BadRequestException.class, () -> catalog.search(all,
+                PageRequest.of(0, 20, Sort.by("stockQuantity"))));
+    }
+
+    private List<Long> ids(FabricFilterRequest filter) {
+        return catalog.search(filter, PageRequest.of(0, 20)).getContent();
+    }
+
+    private static FabricEntity fabric(Long id, String name, FabricCategory category, FabricPattern pattern,
+                                       FabricSeason season, String color, String price, int displayOrder,
+                                       boolean available) {
+        return FabricEntity.builder()
+                .id(id)
+                .code("FAB-" + id)
+                .name(name)
+                .category(category)
+                .pattern(pattern)
+                .season(season)
+                .color(color)
+                .pricePerMeter(new BigDecimal(price))
+                .isAvailable(available)
+                .isFeatured(false)
+                .displayOrder(displayOrder)
+                .isDeleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.tailor_shop.modules.fabric.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.fabric.domain.FabricEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderStatus;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationSource;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationStatus;
+import com.example.tailor_shop.modules.fabric.repository.FabricHoldRequestRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricInventoryRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricOrderRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parallel checkouts of one fabric stocked in three lots. The inventory rows
+ * behave like the database: the conditional UPDATE is atomic per row, and a
+ * failed checkout rolls back the slices it had already reserved.
+ *
+ * The repository is mocked, so this covers the service's lot walk and
+ * rollback only; the SQL guard of tryReserve is exercised against MySQL by
+ * {@code FabricInventoryTryReserveMySqlTest}.
+ */
+@DisplayName("FabricReservationService concurrent checkouts")
+class FabricReservationServiceConcurrencyTest {
+
+    private static final Long FABRIC_ID = 1L;
+
+    private final Object table = new Object();
+    private final Map<Long, BigDecimal[]> lots = new LinkedHashMap<>(); // id -> {quantity, reserved}
+    private final List<FabricReservationEntity> reservations = new ArrayList<>();
+    // Slices reserved by the current checkout, undone if it fails (the transaction rollback)
+    private final ThreadLocal<List<Object[]>> undoLog = ThreadLocal.withInitial(ArrayList::new);
+
+    private FabricReservationRepository reservationRepository;
+    private FabricOrderRepository orderRepository;
+    private FabricOrderInvoiceService orderInvoiceService;
+    private FabricReservationService service;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        lots.put(10L, new BigDecimal[]{new BigDecimal("40"), BigDecimal.ZERO});
+        lots.put(11L, new BigDecimal[]{new BigDecimal("25"), BigDecimal.ZERO});
+        lots.put(12L, new BigDecimal[]{new BigDecimal("35"), BigDecimal.ZERO});
+
+        FabricInventoryRepository inventoryRepository = mock(FabricInventoryRepository.class);
+        reservationRepository = mock(FabricReservationRepository.class);
+        orderRepository = mock(FabricOrderRepository.class);
+        orderInvoiceService = mock(FabricOrderInvoiceService.class);
+
+        when(inventoryRepository.findAvailableLots(FABRIC_ID)).thenAnswer(inv -> {
+            synchronized (table) {
+                List<Object[]> rows = new ArrayList<>();
+                lots.forEach((id, row) -> {
+                    BigDecimal available = row[0].subtract(row[1]);
+                    if (available.signum() > 0) {
+                        rows.add(new Object[]{id, available});
+                    }
+                });
+                return rows;
+            }
+        });
+        when(inventoryRepository.findAvailableLotsByFabricIds(anyCollection())).thenAnswer(inv -> {
+            synchronized (table) {
+                List<Object[]> rows = new ArrayList<>();
+                lots.forEach((id, row) -> {
+                    BigDecimal available = row[0].subtract(row[1]);
+                    if (available.signum() > 0) {
+                        rows.add(new Object[]{FABRIC_ID, id, available});
+                    }
+                });
+                return rows;
+            }
+        });
+        when(inventoryRepository.tryReserve(anyLong(), any(BigDecimal.class))).thenAnswer(inv -> {
+            synchronized (table) {
+                BigDecimal[] row = lots.get((Long) inv.getArgument(0));
+                BigDecimal qty = inv.getArgument(1);
+                if (row[0].subtract(row[1]).compareTo(qty) < 0) {
+                    return 0;
+                }
+                row[1] = row[1].add(qty);
+                undoLog.get().add(new Object[]{inv.getArgument(0), qty});
+                return 1;
+            }
+        });
+        when(reservationRepository.saveAll(anyList())).thenAnswer(inv -> {
+            synchronized (table) {
+                List<FabricReservationEntity> slices = inv.getArgument(0);
+                reservations.addAll(slices);
+                return slices;
+            }
+        });
+
+        service = new FabricReservationService(inventoryRepository, reservationRepository,
+                orderRepository, mock(FabricHoldRequestRepository.class),
+                mock(FabricAvailabilityCache.class), orderInvoiceService,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 200, 30);
+        pool = Executors.newFixedThreadPool(64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("No lot is ever oversold and every reserved meter belongs to a successful checkout")
+    void zeroOversell() throws Exception {
+        FabricEntity fabric = FabricEntity.builder().id(FABRIC_ID).code("FAB-1").build();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long orderId = i;
+            // 1..7 m per order: demand ~8000 m against 100 m of stock
+            BigDecimal qty = BigDecimal.valueOf(orderId % 7 + 1);
+            futures.add(pool.submit(() -> {
+                start.await();
+                undoLog.get().clear();
+                try {
+                    service.reserve(FabricReservationSource.ORDER, orderId, fabric, qty, null);
+                    return qty;
+                } catch (BadRequestException insufficient) {
+                    rollback();
+                    return BigDecimal.ZERO;
+                }
+            }));
+        }
+        start.countDown();
+
+        BigDecimal sold = BigDecimal.ZERO;
+        for (Future<BigDecimal> future : futures) {
+            sold = sold.add(future.get(30, TimeUnit.SECONDS));
+        }
+
+        BigDecimal reserved = BigDecimal.ZERO;
+        for (BigDecimal[] row : lots.values()) {
+            assertTrue(row[1].compareTo(row[0]) <= 0, "lot oversold");
+            reserved = reserved.add(row[1]);
+        }
+        assertEquals(0, sold.compareTo(reserved));
+        assertTrue(sold.compareTo(new BigDecimal("100")) <= 0);
+        // Stock is not stranded: at most a few meters stay unsold (too little for the remaining orders)
+        assertTrue(sold.compareTo(new BigDecimal("94")) >= 0, "sold only " + sold);
+        assertEquals(0, reserved.compareTo(reservations.stream()
+                .map(FabricReservationEntity::getQuantity)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+    }
+
+    @Test
+    @DisplayName("A reservation is settled once even if release and consume race")
+    void settlesOnce() {
+        FabricReservationEntity reservation = FabricReservationEntity.builder()
+                .id(5L).fabricId(FABRIC_ID).inventoryId(10L).quantity(BigDecimal.TEN)
+                .sourceType(FabricReservationSource.ORDER).sourceId(7L).build();
+        when(reservationRepository.findBySourceTypeAndSourceIdAndStatus(
+                FabricReservationSource.ORDER, 7L, FabricReservationStatus.ACTIVE)).thenReturn(List.of(reservation));
+        when(reservationRepository.transition(eq(5L), eq(FabricReservationStatus.ACTIVE), any()))
+                .thenReturn(1, 0);
+
+        assertEquals(1, service.consume(FabricReservationSource.ORDER, 7L));
+        assertEquals(0, service.release(FabricReservationSource.ORDER, 7L));
+    }
+
+    @Test
+    @DisplayName("Sweeper extends orders with a payment in flight, cancels the others and voids their invoice")
+    void sweepSkipsOrdersBeingPaid() {
+        FabricOrderEntity paying = FabricOrderEntity.builder().id(7L).code("FO-7").build();
+        FabricOrderEntity abandoned = FabricOrderEntity.builder().id(8L).code("FO-8").build();
+        when(reservationRepository.findExpiredSources(any(), any())).thenReturn(List.of(
+                new Object[]{FabricReservationSource.ORDER, 7L}, new Object[]{FabricReservationSource.ORDER, 8L}));
+        when(orderRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(paying));
+        when(orderRepository.findByIdForUpdate(8L)).thenReturn(Optional.of(abandoned));
+        when(orderInvoiceService.hasPayment(paying)).thenReturn(true);
+        when(reservationRepository.findBySourceTypeAndSourceIdAndStatus(
+                FabricReservationSource.ORDER, 8L, FabricReservationStatus.ACTIVE)).thenReturn(List.of(
+                FabricReservationEntity.builder().id(9L).fabricId(FABRIC_ID).inventoryId(10L)
+                        .quantity(BigDecimal.ONE).sourceType(FabricReservationSource.ORDER).sourceId(8L).build()));
+        when(reservationRepository.transition(9L, FabricReservationStatus.ACTIVE, FabricReservationStatus.EXPIRED))
+                .thenReturn(1);
+
+        assertEquals(2, service.sweepExpired());
+
+        verify(reservationRepository).extendExpiry(eq(FabricReservationSource.ORDER), eq(7L), any());
+        assertEquals(FabricOrderStatus.PENDING, paying.getStatus());
+        verify(orderInvoiceService, never()).voidInvoice(paying);
+        assertEquals(FabricOrderStatus.CANCELLED, abandoned.getStatus());
+        verify(orderInvoiceService).voidInvoice(abandoned);
+    }
+
+    @Test
+    @DisplayName("Insufficient stock is rejected with what was available")
+    void insufficient() {
+        FabricEntity fabric = FabricEntity.builder().id(FABRIC_ID).code("FAB-1").build();
+
+        BadRequestException e = assertThrows(BadRequestException.class, () ->
+                service.reserve(FabricReservationSource.ORDER, 1L, fabric, new BigDecimal("101"), null));
+        assertTrue(e.getMessage().contains("Available: 100"));
+    }
+
+    /**
+     * What the transaction rollback does for a failed checkout.
+     */
+    private void rollback() {
+        synchronized (table) {
+            for (Object[] slice : undoLog.get()) {
+                BigDecimal[] row = lots.get((Long) slice[0]);
+                row[1] = row[1].subtract((BigDecimal) slice[1]);
+            }
+        }
+        undoLog.get().clear();
+    }
+}
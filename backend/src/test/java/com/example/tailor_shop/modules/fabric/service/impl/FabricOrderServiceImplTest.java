@@ -0,0 +1,86 @@
+package com.example.tailor_shop.modules.fabric.service.impl;
+
+import com.example.tailor_shop.modules.billing.repository.InvoiceItemRepository;
+import com.example.tailor_shop.modules.billing.service.InvoiceService;
+import com.example.tailor_shop.modules.cart.repository.CartItemRepository;
+import com.example.tailor_shop.modules.event.service.OutboxEventPublisher;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderEntity;
+import com.example.tailor_shop.modules.fabric.domain.FabricOrderStatus;
+import com.example.tailor_shop.modules.fabric.domain.FabricReservationSource;
+import com.example.tailor_shop.modules.fabric.domain.PaymentStatus;
+import com.example.tailor_shop.modules.fabric.repository.FabricOrderRepository;
+import com.example.tailor_shop.modules.fabric.repository.FabricRepository;
+import com.example.tailor_shop.modules.fabric.service.FabricOrderInvoiceService;
+import com.example.tailor_shop.modules.fabric.service.FabricReservationService;
+import com.example.tailor_shop.modules.promotion.service.PromotionService;
+import com.example.tailor_shop.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Online payments: the provider callback pays the invoice, and the
+ * InvoicePaidEvent handler completes the fabric order.
+ */
+@DisplayName("FabricOrderServiceImpl payment callback path")
+class FabricOrderServiceImplTest {
+
+    private static final Long INVOICE_ID = 30L;
+
+    private FabricOrderRepository orderRepository;
+    private FabricReservationService reservationService;
+    private FabricOrderServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(FabricOrderRepository.class);
+        reservationService = mock(FabricReservationService.class);
+        service = new FabricOrderServiceImpl(mock(CartItemRepository.class), orderRepository,
+                mock(FabricRepository.class), mock(UserRepository.class), mock(PromotionService.class),
+                mock(InvoiceService.class), mock(InvoiceItemRepository.class), reservationService,
+                mock(FabricOrderInvoiceService.class), mock(OutboxEventPublisher.class));
+    }
+
+    @Test
+    @DisplayName("Paid invoice marks the order PAID and consumes its reservation once")
+    void invoicePaidCompletesOrder() {
+        FabricOrderEntity order = FabricOrderEntity.builder().id(7L).code("FO-7").build();
+        when(orderRepository.findByInvoiceIdForUpdate(INVOICE_ID)).thenReturn(Optional.of(order));
+        when(reservationService.consume(FabricReservationSource.ORDER, 7L)).thenReturn(2);
+
+        service.onInvoicePaid(INVOICE_ID);
+        service.onInvoicePaid(INVOICE_ID); // Outbox redelivery
+
+        assertEquals(PaymentStatus.PAID, order.getPaymentStatus());
+        assertEquals(FabricOrderStatus.CONFIRMED, order.getStatus());
+        verify(reservationService, times(1)).consume(FabricReservationSource.ORDER, 7L);
+        verify(orderRepository, times(1)).save(order);
+    }
+
+    @Test
+    @DisplayName("Invoices of other modules and cancelled orders leave stock untouched")
+    void invoicePaidIgnoredOtherwise() {
+        FabricOrderEntity cancelled = FabricOrderEntity.builder().id(8L).code("FO-8")
+                .status(FabricOrderStatus.CANCELLED).build();
+        when(orderRepository.findByInvoiceIdForUpdate(INVOICE_ID)).thenReturn(Optional.of(cancelled));
+        when(orderRepository.findByInvoiceIdForUpdate(31L)).thenReturn(Optional.empty());
+
+        service.onInvoicePaid(INVOICE_ID);
+        service.onInvoicePaid(31L);
+
+        assertEquals(FabricOrderStatus.CANCELLED, cancelled.getStatus());
+        verify(reservationService, never()).consume(any(), anyLong());
+        verify(orderRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.modules.gamification.repository.UserChallengeProgressRepository;
+import com.example.tailor_shop.modules.gamification.service.ChallengeIndex.GrandPrize;
+import com.example.tailor_shop.modules.gamification.service.ChallengeIndex.IndexedChallenge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ChallengeProgressAggregator Unit Tests")
+class ChallengeProgressAggregatorTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.now().minusDays(1);
+    private static final OffsetDateTime END = OffsetDateTime.now().plusDays(1);
+
+    private UserChallengeProgressRepository progressRepository;
+    private ChallengeIndex challengeIndex;
+    private ChallengeProgressAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        progressRepository = mock(UserChallengeProgressRepository.class);
+        challengeIndex = mock(ChallengeIndex.class);
+        aggregator = new ChallengeProgressAggregator(progressRepository, challengeIndex,
+                mock(LeaderboardService.class), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("Increments for the same user and challenge are coalesced into one write")
+    void coalescesPerUserAndChallenge() {
+        IndexedChallenge orders = challenge(1L, 10L, null);
+        IndexedChallenge value = challenge(2L, 5_000_000L, null);
+
+        aggregator.add(7L, orders, 1);
+        aggregator.add(7L, orders, 1);
+        aggregator.add(7L, value, 800_000);
+        aggregator.add(7L, orders, 1);
+        aggregator.add(8L, orders, 1);
+
+        assertEquals(3, aggregator.flush());
+
+        verify(progressRepository).incrementProgress(7L, 1L, 3L);
+        verify(progressRepository).incrementProgress(7L, 2L, 800_000L);
+        verify(progressRepository).incrementProgress(8L, 1L, 1L);
+        assertEquals(0, aggregator.flush());
+    }
+
+    @Test
+    @DisplayName("Grand prize is checked only when a sub-challenge gets completed")
+    void grandPrizeOnCompletion() {
+        IndexedChallenge sub = challenge(3L, 2L, 100L);
+        when(challengeIndex.grandPrize(100L)).thenReturn(new GrandPrize(100L, "GP", 1L, List.of(3L, 4L)));
+        when(progressRepository.markCompletedIfReached(7L, 3L, 2L)).thenReturn(1);
+        when(progressRepository.countCompletedAmong(anyLong(), any())).thenReturn(2L);
+        when(progressRepository.complete(7L, 100L, 1L)).thenReturn(1);
+
+        aggregator.add(7L, sub, 2);
+        aggregator.add(8L, sub, 1);
+        aggregator.flush();
+
+        verify(progressRepository, times(1)).countCompletedAmong(anyLong(), any());
+        verify(progressRepository).complete(7L, 100L, 1L);
+        verify(progressRepository, never()).complete(8L, 100L, 1L);
+    }
+
+    @Test
+    @DisplayName("Shutdown retries failed writes and writes later increments through")
+    void flushOnShutdown() {
+        IndexedChallenge orders = challenge(1L, 10L, null);
+        when(progressRepository.incrementProgress(7L, 1L, 2L))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(1);
+
+        aggregator.add(7L, orders, 2);
+        aggregator.flushOnShutdown();
+        verify(progressRepository, times(2)).incrementProgress(7L, 1L, 2L);
+
+        aggregator.add(8L, orders, 1);
+        verify(progressRepository).incrementProgress(8L, 1L, 1L);
+        assertEquals(0, aggregator.flush());
+    }
+
+    @Test
+    @DisplayName("Condition keys are parsed like the original matcher")
+    void conditionValue() {
+        assertEquals("vest", ChallengeIndex.conditionValue("category:Vest"));
+        assertEquals("silk", ChallengeIndex.conditionValue("fabric_type:SILK"));
+        assertNull(ChallengeIndex.conditionValue(null));
+        assertNull(ChallengeIndex.conditionValue("category"));
+        assertNull(ChallengeIndex.conditionValue("season:summer"));
+    }
+
+    private static IndexedChallenge challenge(Long id, Long target, Long parentId) {
+        return new IndexedChallenge(id, "C" + id, target, parentId, START, END);
+    }
+}
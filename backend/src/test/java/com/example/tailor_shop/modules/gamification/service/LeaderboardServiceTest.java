@@ -0,0 +1,66 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.config.exception.NotFoundException;
+import com.example.tailor_shop.modules.gamification.repository.SeasonalChallengeRepository;
+import com.example.tailor_shop.modules.gamification.repository.UserChallengeProgressRepository;
+import com.example.tailor_shop.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LeaderboardService Unit Tests")
+class LeaderboardServiceTest {
+
+    private LeaderboardStore store;
+    private UserChallengeProgressRepository progressRepository;
+    private SeasonalChallengeRepository challengeRepository;
+    private LeaderboardService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryLeaderboardStore();
+        progressRepository = mock(UserChallengeProgressRepository.class);
+        challengeRepository = mock(SeasonalChallengeRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(any())).thenReturn(List.of());
+        when(challengeRepository.existsById(1L)).thenReturn(true);
+        when(progressRepository.findScoresByChallengeId(1L)).thenReturn(List.<Object[]>of(new Object[]{7L, 30L}));
+        service = new LeaderboardService(store, progressRepository, challengeRepository, userRepository);
+    }
+
+    @Test
+    @DisplayName("Unknown challenge ids are rejected without creating a board")
+    void unknownChallengeRejected() {
+        assertThrows(NotFoundException.class, () -> service.getTop(99L, 10));
+        assertThrows(NotFoundException.class, () -> service.getRank(99L, 7L));
+        assertThrows(NotFoundException.class, () -> service.getAround(99L, 7L, 5));
+
+        service.reconcile();
+
+        assertFalse(store.exists(99L));
+        verify(progressRepository, never()).findScoresByChallengeId(99L);
+    }
+
+    @Test
+    @DisplayName("An existing challenge is built once, then served from the store")
+    void existingChallengeLoadedOnce() {
+        assertEquals(30L, service.getRank(1L, 7L).getScore());
+        assertEquals(1, service.getTop(1L, 10).size());
+
+        verify(challengeRepository, times(1)).existsById(anyLong());
+        verify(progressRepository, times(1)).findScoresByChallengeId(1L);
+    }
+}
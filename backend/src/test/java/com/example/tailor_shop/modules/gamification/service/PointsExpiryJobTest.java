@@ -0,0 +1,122 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.modules.gamification.repository.PointsTransactionRepository;
+import com.example.tailor_shop.modules.gamification.repository.UserPointsWalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the job against an in-memory points_transaction table.
+ */
+@DisplayName("PointsExpiryJob Unit Tests")
+class PointsExpiryJobTest {
+
+    // id -> {userId, amount, expired(0/1)}; all rows are expiring EARN rows
+    private final TreeMap<Long, long[]> table = new TreeMap<>();
+    private final Map<Long, Integer> expiredByUser = new TreeMap<>();
+    private final List<Long> walletCalls = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private PointsExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        PointsTransactionRepository transactionRepository = mock(PointsTransactionRepository.class);
+        UserPointsWalletRepository walletRepository = mock(UserPointsWalletRepository.class);
+
+        when(transactionRepository.findFirstExpiringId(any())).thenAnswer(inv -> pending().stream()
+                .findFirst().orElse(null));
+        when(transactionRepository.lockExpiringChunk(anyLong(), any(), anyInt())).thenAnswer(inv -> {
+            long afterId = inv.getArgument(0);
+            int limit = inv.getArgument(2);
+            return pending().stream().filter(id -> id > afterId).limit(limit).toList();
+        });
+        when(transactionRepository.sumExpiringByUser(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            Map<Long, Long> sums = new TreeMap<>();
+            for (long id = (long) inv.getArgument(0); id <= (long) inv.getArgument(1); id++) {
+                long[] row = table.get(id);
+                if (row != null && row[2] == 0) {
+                    sums.merge(row[0], row[1], Long::sum);
+                }
+            }
+            List<Object[]> rows = new ArrayList<>();
+            sums.forEach((user, sum) -> rows.add(new Object[] { user, sum }));
+            return rows;
+        });
+        when(transactionRepository.markExpired(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            int marked = 0;
+            for (long id = (long) inv.getArgument(0); id <= (long) inv.getArgument(1); id++) {
+                long[] row = table.get(id);
+                if (row != null && row[2] == 0) {
+                    row[2] = 1;
+                    marked++;
+                }
+            }
+            return marked;
+        });
+        when(walletRepository.expirePoints(anyLong(), anyInt())).thenAnswer(inv -> {
+            walletCalls.add(inv.getArgument(0));
+            expiredByUser.merge(inv.getArgument(0), inv.getArgument(1), Integer::sum);
+            return 1;
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        job = new PointsExpiryJob(transactionRepository, walletRepository,
+                mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(job, "batchSize", 10);
+    }
+
+    @Test
+    @DisplayName("Expires all rows in chunks with one wallet update per user per chunk")
+    void expiresInChunks() {
+        // 25 rows for 3 users, ids 101..125 -> 3 chunks
+        for (long id = 101; id <= 125; id++) {
+            table.put(id, new long[] { id % 3, 10, 0 });
+        }
+
+        assertEquals(25, job.run());
+
+        assertTrue(table.values().stream().allMatch(row -> row[2] == 1));
+        assertEquals(80, expiredByUser.get(0L)); // ids 102, 105, ..., 123
+        assertEquals(250, expiredByUser.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(9, walletCalls.size());
+        assertEquals(25.0, meterRegistry.counter("points.expiry.transactions").count());
+        assertEquals(250.0, meterRegistry.counter("points.expiry.points").count());
+    }
+
+    @Test
+    @DisplayName("Already expired rows are skipped, so a rerun after a crash resumes")
+    void resumesAfterPartialRun() {
+        for (long id = 1; id <= 30; id++) {
+            table.put(id, new long[] { 1L, 5, id <= 20 ? 1 : 0 });
+        }
+
+        assertEquals(10, job.run());
+        assertEquals(50, expiredByUser.get(1L));
+        assertEquals(0, job.run());
+    }
+
+    private List<Long> pending() {
+        return table.entrySet().stream()
+                .filter(e -> e.getValue()[2] == 0)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import com.example.tailor_shop.modules.gamification.domain.PointsTransaction;
+import com.example.tailor_shop.modules.gamification.domain.UserPointsWallet;
+import com.example.tailor_shop.modules.gamification.repository.DailyCheckinRepository;
+import com.example.tailor_shop.modules.gamification.repository.PointsTransactionRepository;
+import com.example.tailor_shop.modules.gamification.repository.UserCheckinStreakRepository;
+import com.example.tailor_shop.modules.gamification.repository.UserPointsWalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parallel earn and redeem on one wallet. The wallet row behaves like the
+ * database: conditional UPDATEs are atomic, while a save() of a previously
+ * read entity overwrites the row (which is how updates used to get lost).
+ */
+@DisplayName("PointsServiceImpl concurrent wallet updates")
+class PointsServiceImplConcurrencyTest {
+
+    private static final Long USER_ID = 1L;
+
+    private final Object row = new Object();
+    private int balance;
+    private int totalEarned;
+    private int totalSpent;
+    private final List<PointsTransaction> ledger = new CopyOnWriteArrayList<>();
+
+    private PointsServiceImpl service;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        UserPointsWalletRepository walletRepository = mock(UserPointsWalletRepository.class);
+        PointsTransactionRepository transactionRepository = mock(PointsTransactionRepository.class);
+
+        when(walletRepository.createIfAbsent(anyLong())).thenReturn(0);
+        when(walletRepository.creditPoints(anyLong(), anyInt())).thenAnswer(inv -> {
+            synchronized (row) {
+                int amount = inv.getArgument(1);
+                balance += amount;
+                totalEarned += amount;
+                return 1;
+            }
+        });
+        when(walletRepository.spendPoints(anyLong(), anyInt())).thenAnswer(inv -> {
+            synchronized (row) {
+                int amount = inv.getArgument(1);
+                if (balance < amount) {
+                    return 0;
+                }
+                balance -= amount;
+                totalSpent += amount;
+                return 1;
+            }
+        });
+        when(walletRepository.findBalance(anyLong())).thenAnswer(inv -> {
+            synchronized (row) {
+                return balance;
+            }
+        });
+        when(walletRepository.findByUserId(anyLong())).thenAnswer(inv -> {
+            synchronized (row) {
+                return Optional.of(UserPointsWallet.builder().userId(USER_ID)
+                        .balance(balance).totalEarned(totalEarned).totalSpent(totalSpent).totalExpired(0)
+                        .build());
+            }
+        });
+        when(walletRepository.save(any(UserPointsWallet.class))).thenAnswer(inv -> {
+            UserPointsWallet wallet = inv.getArgument(0);
+            synchronized (row) {
+                balance = wallet.getBalance();
+                totalEarned = wallet.getTotalEarned();
+                totalSpent = wallet.getTotalSpent();
+            }
+            return wallet;
+        });
+        when(transactionRepository.save(any(PointsTransaction.class))).thenAnswer(inv -> {
+            ledger.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+
+        service = new PointsServiceImpl(walletRepository, transactionRepository,
+                mock(DailyCheckinRepository.class), mock(UserCheckinStreakRepository.class),
+                mock(PointsExpiryJob.class), mock(CheckinBitmap.class));
+        pool = Executors.newFixedThreadPool(32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("No points are lost and the balance never goes negative")
+    void noLostUpdates() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            long orderId = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                // 100 referrals of +100 interleaved with 100 redemptions of -150
+                if (orderId % 2 == 0) {
+                    service.earnFromReferral(USER_ID, 1000 + orderId, orderId);
+                    return true;
+                }
+                try {
+                    service.redeemForOrder(USER_ID, orderId, 150);
+                    return true;
+                } catch (IllegalArgumentException insufficient) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int redeemed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            if (futures.get(i).get(30, TimeUnit.SECONDS) && i % 2 == 1) {
+                redeemed++;
+            }
+        }
+
+        assertEquals(10_000, totalEarned);
+        assertEquals(150 * redeemed, totalSpent);
+        assertEquals(10_000 - 150 * redeemed, balance);
+        assertTrue(balance >= 0);
+        // The ledger is the source of truth: it adds up to the wallet
+        assertEquals(balance, ledger.stream().mapToInt(PointsTransaction::getAmount).sum());
+    }
+}
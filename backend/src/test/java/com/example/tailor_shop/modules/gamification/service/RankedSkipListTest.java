@@ -0,0 +1,75 @@
+package com.example.tailor_shop.modules.gamification.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("RankedSkipList Unit Tests")
+class RankedSkipListTest {
+
+    @Test
+    @DisplayName("Ranks by score desc, then user id asc")
+    void ordering() {
+        RankedSkipList list = new RankedSkipList();
+        list.put(1, 50);
+        list.put(2, 80);
+        list.put(3, 50);
+        list.put(4, 10);
+
+        assertEquals(1, list.rank(2));
+        assertEquals(2, list.rank(1));
+        assertEquals(3, list.rank(3));
+        assertEquals(4, list.rank(4));
+        assertEquals(0, list.rank(99));
+
+        // Moving a user re-ranks everyone around it
+        list.put(4, 100);
+        assertEquals(1, list.rank(4));
+        assertEquals(2, list.rank(2));
+        assertEquals(4, list.size());
+    }
+
+    @Test
+    @DisplayName("Rank and range match a sorted reference under random updates")
+    void matchesReference() {
+        Random random = new Random(42);
+        RankedSkipList list = new RankedSkipList();
+        Map<Long, Long> reference = new HashMap<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            long userId = random.nextInt(500);
+            long score = random.nextInt(200);
+            list.put(userId, score);
+            reference.put(userId, score);
+        }
+
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(reference.entrySet());
+        sorted.sort(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+                .thenComparingLong(Map.Entry::getKey));
+
+        assertEquals(sorted.size(), list.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, list.rank(sorted.get(i).getKey()));
+        }
+
+        List<long[]> page = list.range(100, 120);
+        assertEquals(21, page.size());
+        for (long[] row : page) {
+            Map.Entry<Long, Long> expected = sorted.get((int) row[2] - 1);
+            assertEquals((long) expected.getKey(), row[0]);
+            assertEquals((long) expected.getValue(), row[1]);
+        }
+
+        assertTrue(list.range(sorted.size() + 1, sorted.size() + 10).isEmpty());
+        assertEquals(3, list.range(-5, 3).size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.tailor_shop.modules.measurement.service.impl;
+
+import com.example.tailor_shop.modules.measurement.domain.MeasurementEntity;
+import com.example.tailor_shop.modules.measurement.dto.MeasurementRequest;
+import com.example.tailor_shop.modules.measurement.dto.MeasurementResponse;
+import com.example.tailor_shop.modules.measurement.repository.MeasurementRepository;
+import com.example.tailor_shop.modules.order.repository.OrderRepository;
+import com.example.tailor_shop.modules.user.domain.UserEntity;
+import com.example.tailor_shop.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("MeasurementServiceImpl Unit Tests")
+class MeasurementServiceImplTest {
+
+    private static final String GROUP = "group-1";
+
+    private MeasurementRepository measurementRepository;
+    private UserRepository userRepository;
+    private MeasurementServiceImpl service;
+    private UserEntity customer;
+
+    @BeforeEach
+    void setUp() {
+        measurementRepository = mock(MeasurementRepository.class);
+        userRepository = mock(UserRepository.class);
+        service = new MeasurementServiceImpl(measurementRepository, userRepository, mock(OrderRepository.class));
+
+        customer = new UserEntity();
+        customer.setId(1L);
+        customer.setName("An");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(measurementRepository.save(any(MeasurementEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Update locks the latest version, flips it with one UPDATE and never rewrites history")
+    void updateFlipsLatestWithoutRewritingHistory() {
+        MeasurementEntity v1 = version(1, false);
+        MeasurementEntity v7 = version(7, true);
+        when(measurementRepository.findById(10L)).thenReturn(Optional.of(v1));
+        when(measurementRepository.findLatestInGroupForUpdate(GROUP)).thenReturn(List.of(v7));
+
+        MeasurementResponse response = service.update(10L, request(), null);
+
+        assertEquals(8, response.getVersion());
+        assertEquals(GROUP, response.getGroupId());
+        assertTrue(response.getLatest());
+        var order = inOrder(measurementRepository);
+        order.verify(measurementRepository).findLatestInGroupForUpdate(GROUP);
+        order.verify(measurementRepository).clearLatest(GROUP);
+        order.verify(measurementRepository).save(any(MeasurementEntity.class));
+        verify(measurementRepository, never()).findByGroupIdOrderByVersionDesc(anyString());
+        verify(measurementRepository, never()).saveAll(anyIterable());
+        verify(measurementRepository, never()).findMaxVersion(anyString());
+    }
+
+    @Test
+    @DisplayName("A group without a latest row continues after its highest version")
+    void updateWithoutLatestRowUsesMaxVersion() {
+        when(measurementRepository.findById(10L)).thenReturn(Optional.of(version(3, false)));
+        when(measurementRepository.findLatestInGroupForUpdate(GROUP)).thenReturn(List.of());
+        when(measurementRepository.findMaxVersion(GROUP)).thenReturn(4);
+
+        assertEquals(5, service.update(10L, request(), null).getVersion());
+        verify(measurementRepository).clearLatest(GROUP);
+    }
+
+    // ==================== HELPERS ====================
+
+    private MeasurementEntity version(int version, boolean latest) {
+        MeasurementEntity m = new MeasurementEntity();
+        m.setGroupId(GROUP);
+        m.setCustomer(customer);
+        m.setVersion(version);
+        m.setIsLatest(latest);
+        return m;
+    }
+
+    private static MeasurementRequest request() {
+        MeasurementRequest request = new MeasurementRequest();
+        request.setCustomerId(1L);
+        request.setChest(96.0);
+        return request;
+    }
+}
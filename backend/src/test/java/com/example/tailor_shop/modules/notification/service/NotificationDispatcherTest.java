@@ -0,0 +1,128 @@
+package com.example.tailor_shop.modules.notification.service;
+
+import com.example.tailor_shop.modules.notification.domain.NotificationEntity;
+import com.example.tailor_shop.modules.notification.dto.NotificationResponse;
+import com.example.tailor_shop.modules.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("NotificationDispatcher Unit Tests")
+class NotificationDispatcherTest {
+
+    private NotificationRepository notificationRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        AtomicLong ids = new AtomicLong();
+        when(notificationRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<NotificationEntity> entities = inv.getArgument(0);
+            entities.forEach(e -> e.setId(ids.incrementAndGet()));
+            return entities;
+        });
+
+        dispatcher = new NotificationDispatcher(notificationRepository, messagingTemplate, Runnable::run,
+                mock(TaskScheduler.class), mock(PlatformTransactionManager.class), meterRegistry, 3, 100, 200);
+    }
+
+    @Test
+    @DisplayName("A burst is persisted with one saveAll and pushed as one frame per user")
+    @SuppressWarnings("unchecked")
+    void batchesAndCoalesces() {
+        dispatcher.enqueue(notification(1L, "Đơn hàng A"));
+        dispatcher.enqueue(notification(1L, "Đơn hàng A"));
+        dispatcher.enqueue(notification(2L, "Đơn hàng B"));
+
+        assertEquals(2, dispatcher.flush());
+
+        ArgumentCaptor<List<NotificationEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertEquals(1.0, meterRegistry.counter("notification.dispatch.coalesced").count());
+
+        verify(messagingTemplate).convertAndSendToUser(eq("1"), eq("/queue/notifications"), any(NotificationResponse.class));
+        verify(messagingTemplate).convertAndSendToUser(eq("2"), eq("/queue/notifications"), any(NotificationResponse.class));
+        assertEquals(0, dispatcher.flush());
+    }
+
+    @Test
+    @DisplayName("Distinct notifications to one user arrive as a single array frame")
+    void distinctNotificationsForOneUser() {
+        dispatcher.enqueue(notification(1L, "Đơn hàng A"));
+        dispatcher.enqueue(notification(1L, "Đơn hàng B"));
+
+        dispatcher.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1))
+                .convertAndSendToUser(eq("1"), eq("/queue/notifications"), payload.capture());
+        List<?> frame = assertInstanceOf(List.class, payload.getValue());
+        assertEquals(2, frame.size());
+    }
+
+    @Test
+    @DisplayName("A full queue drops and counts instead of blocking")
+    void dropsWhenFull() {
+        assertTrue(dispatcher.enqueue(notification(1L, "1")));
+        assertTrue(dispatcher.enqueue(notification(1L, "2")));
+        assertTrue(dispatcher.enqueue(notification(1L, "3")));
+        assertFalse(dispatcher.enqueue(notification(1L, "4")));
+
+        assertEquals(1.0, meterRegistry.counter("notification.dispatch.dropped", "reason", "queue_full").count());
+        assertEquals(3.0, meterRegistry.get("notification.dispatch.backlog").gauge().value());
+    }
+
+    @Test
+    @DisplayName("A rejected broadcast is counted, not thrown")
+    void broadcastRejected() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NotificationDispatcher saturated = new NotificationDispatcher(notificationRepository, messagingTemplate,
+                task -> {
+                    throw new TaskRejectedException("full");
+                },
+                mock(TaskScheduler.class), mock(PlatformTransactionManager.class), registry, 3, 100, 200);
+
+        saturated.broadcast(NotificationResponse.builder().title("Flash Sale").build());
+
+        assertEquals(1.0, registry.counter("notification.dispatch.dropped", "reason", "broadcast_rejected").count());
+        assertEquals(0.0, registry.get("notification.broadcast.backlog").gauge().value());
+    }
+
+    private static NotificationEntity notification(Long userId, String title) {
+        return NotificationEntity.builder()
+                .userId(userId)
+                .type("ORDER")
+                .title(title)
+                .message(title)
+                .link("/orders")
+                .build();
+    }
+}
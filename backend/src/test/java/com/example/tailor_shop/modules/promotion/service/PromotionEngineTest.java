@@ -0,0 +1,89 @@
+package com.example.tailor_shop.modules.promotion.service;
+
+import com.example.tailor_shop.modules.promotion.domain.PromotionEntity;
+import com.example.tailor_shop.modules.promotion.domain.PromotionStatus;
+import com.example.tailor_shop.modules.promotion.domain.PromotionType;
+import com.example.tailor_shop.modules.promotion.repository.PromotionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PromotionEngine Unit Tests")
+class PromotionEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    private PromotionRepository promotionRepository;
+    private PromotionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        promotionRepository = mock(PromotionRepository.class);
+        engine = new PromotionEngine(promotionRepository, new ObjectMapper());
+
+        when(promotionRepository.findAllActivePublic()).thenReturn(List.of(
+                promotion(1L, 0, null, null, null),
+                promotion(2L, 5, "[10, 11]", null, null),
+                promotion(3L, 1, null, "[\"vest\"]", new BigDecimal("500000")),
+                promotion(4L, 9, "[12]", null, null)));
+    }
+
+    @Test
+    @DisplayName("Matches unrestricted, product and category promotions in priority order")
+    void matchesByProductAndCategory() {
+        List<PromotionEntity> matched = engine.match(List.of(11L), List.of("vest"), new BigDecimal("600000"), TODAY);
+
+        assertEquals(List.of(2L, 3L, 1L), matched.stream().map(PromotionEntity::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Filters by min order value and date range")
+    void filtersByMinOrderAndDates() {
+        assertEquals(List.of(1L), ids(engine.match(List.of(), List.of("vest"), new BigDecimal("400000"), TODAY)));
+        assertEquals(List.of(), ids(engine.match(List.of(12L), null, new BigDecimal("100000"), TODAY.plusYears(1))));
+    }
+
+    @Test
+    @DisplayName("Compiles once and reuses the snapshot until refreshed")
+    void compilesOnce() {
+        engine.match(List.of(10L), null, BigDecimal.TEN, TODAY);
+        engine.match(List.of(12L), null, BigDecimal.TEN, TODAY);
+        verify(promotionRepository, times(1)).findAllActivePublic();
+
+        engine.refresh();
+        engine.match(List.of(12L), null, BigDecimal.TEN, TODAY);
+        verify(promotionRepository, times(2)).findAllActivePublic();
+    }
+
+    private static List<Long> ids(List<PromotionEntity> promotions) {
+        return promotions.stream().map(PromotionEntity::getId).toList();
+    }
+
+    private static PromotionEntity promotion(Long id, int priority, String productIds, String categoryIds,
+                                             BigDecimal minOrderValue) {
+        return PromotionEntity.builder()
+                .id(id)
+                .code("PROMO" + id)
+                .type(PromotionType.FIXED_AMOUNT)
+                .status(PromotionStatus.ACTIVE)
+                .discountAmount(new BigDecimal("10000"))
+                .applicableProductIds(productIds)
+                .applicableCategoryIds(categoryIds)
+                .minOrderValue(minOrderValue)
+                .startDate(TODAY.minusDays(5))
+                .endDate(TODAY.plusDays(5))
+                .priority(priority)
+                .build();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.tailor_shop.modules.promotion.service;
+
+import com.example.tailor_shop.config.exception.BadRequestException;
+import com.example.tailor_shop.modules.promotion.domain.PromotionEntity;
+import com.example.tailor_shop.modules.promotion.domain.PromotionReservationEntity;
+import com.example.tailor_shop.modules.promotion.domain.PromotionReservationStatus;
+import com.example.tailor_shop.modules.promotion.repository.PromotionRepository;
+import com.example.tailor_shop.modules.promotion.repository.PromotionReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Concurrency tests against counters that behave like the conditional
+ * UPDATE ... WHERE claimed < limit (atomic per row).
+ */
+@DisplayName("PromotionUsageLimiter Unit Tests")
+class PromotionUsageLimiterTest {
+
+    private static final Long PROMOTION_ID = 7L;
+
+    private final Map<String, Integer> counters = new ConcurrentHashMap<>();
+    private final Map<Long, String> reservationStatus = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+
+    private PromotionReservationRepository reservationRepository;
+    private PromotionRepository promotionRepository;
+    private PromotionUsageLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(PromotionReservationRepository.class);
+        promotionRepository = mock(PromotionRepository.class);
+
+        when(reservationRepository.tryClaim(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            String key = inv.getArgument(0) + ":" + inv.getArgument(1);
+            Integer limit = inv.getArgument(2);
+            int[] claimed = { 0 };
+            counters.compute(key, (k, v) -> {
+                int current = v != null ? v : 0;
+                if (limit == null || current < limit) {
+                    claimed[0] = 1;
+                    return current + 1;
+                }
+                return current;
+            });
+            return claimed[0];
+        });
+        when(reservationRepository.unclaim(anyLong(), anyLong())).thenAnswer(inv -> {
+            counters.computeIfPresent(inv.getArgument(0) + ":0", (k, v) -> Math.max(v - 1, 0));
+            counters.computeIfPresent(inv.getArgument(0) + ":" + inv.getArgument(1), (k, v) -> Math.max(v - 1, 0));
+            return 2;
+        });
+        when(reservationRepository.save(any(PromotionReservationEntity.class))).thenAnswer(inv -> {
+            PromotionReservationEntity reservation = inv.getArgument(0);
+            reservation.setId(reservationIds.incrementAndGet());
+            reservationStatus.put(reservation.getId(), "RESERVED");
+            return reservation;
+        });
+        when(reservationRepository.finish(anyLong(), anyString())).thenAnswer(inv ->
+                reservationStatus.replace(inv.getArgument(0), "RESERVED", inv.getArgument(1)) ? 1 : 0);
+        when(reservationRepository.findClaimed(eq(PROMOTION_ID), anyLong())).thenAnswer(inv -> {
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[] { 0L, counters.getOrDefault(PROMOTION_ID + ":0", 0) });
+            rows.add(new Object[] { inv.getArgument(1), counters.getOrDefault(PROMOTION_ID + ":" + inv.getArgument(1), 0) });
+            return rows;
+        });
+
+        limiter = new PromotionUsageLimiter(reservationRepository, promotionRepository,
+                mock(PlatformTransactionManager.class), 1440, 200);
+    }
+
+    @Test
+    @DisplayName("Hundreds of concurrent checkouts never exceed the total limit")
+    void totalLimitUnderLoad() throws Exception {
+        givenPromotion(50, null, false);
+
+        int reserved = runConcurrently(300, i -> limiter.reserve(PROMOTION_ID, 1000L + i));
+
+        assertEquals(50, reserved);
+        assertEquals(50, counters.get(PROMOTION_ID + ":0"));
+    }
+
+    @Test
+    @DisplayName("A single-use promotion is reserved once per user under concurrency")
+    void perUserLimitUnderLoad() throws Exception {
+        givenPromotion(null, null, true);
+
+        int reserved = runConcurrently(40, i -> limiter.reserve(PROMOTION_ID, 42L));
+
+        assertEquals(1, reserved);
+        assertEquals(1, counters.get(PROMOTION_ID + ":42"));
+        assertEquals(1, counters.get(PROMOTION_ID + ":0"));
+    }
+
+    @Test
+    @DisplayName("Rolled back checkout releases its reservation exactly once")
+    void rollbackReleases() {
+        givenPromotion(1, null, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            limiter.reserve(PROMOTION_ID, 1L);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, counters.get(PROMOTION_ID + ":0"));
+        // The slot is available again
+        limiter.reserve(PROMOTION_ID, 2L);
+        assertThrows(BadRequestException.class, () -> limiter.reserve(PROMOTION_ID, 3L));
+    }
+
+    @Test
+    @DisplayName("check() reads both counters and applies the same limits")
+    void checkUsesCounters() {
+        PromotionEntity promotion = givenPromotion(null, 2, false);
+        limiter.reserve(PROMOTION_ID, 5L);
+        limiter.check(promotion, 5L);
+        limiter.reserve(PROMOTION_ID, 5L);
+
+        assertThrows(BadRequestException.class, () -> limiter.check(promotion, 5L));
+    }
+
+    @Test
+    @DisplayName("Expired reservations are released once; paying later counts the usage again")
+    void sweepReleasesExpired() {
+        givenPromotion(1, null, false);
+        Long reservationId = limiter.reserve(PROMOTION_ID, 1L);
+        PromotionReservationEntity reservation = PromotionReservationEntity.builder()
+                .id(reservationId).promotionId(PROMOTION_ID).userId(1L).invoiceId(99L).build();
+        when(reservationRepository.findStaleReserved(any(), any())).thenReturn(List.of(reservation));
+
+        assertEquals(1, limiter.sweepExpired());
+        assertEquals(0, limiter.sweepExpired());
+        assertEquals(0, counters.get(PROMOTION_ID + ":0"));
+
+        reservation.setStatus(PromotionReservationStatus.RELEASED);
+        when(reservationRepository.findByInvoiceId(99L)).thenReturn(Optional.of(reservation));
+        limiter.commit(99L, PROMOTION_ID, 1L);
+        limiter.commit(99L, PROMOTION_ID, 1L);
+
+        assertEquals(1, counters.get(PROMOTION_ID + ":0"));
+        assertEquals(PromotionReservationStatus.COMMITTED, reservation.getStatus());
+    }
+
+    private PromotionEntity givenPromotion(Integer maxUsageTotal, Integer maxUsagePerUser, boolean singleUse) {
+        PromotionEntity promotion = PromotionEntity.builder()
+                .id(PROMOTION_ID)
+                .code("LAUNCH")
+                .maxUsageTotal(maxUsageTotal)
+                .maxUsagePerUser(maxUsagePerUser)
+                .isSingleUse(singleUse)
+                .build();
+        when(promotionRepository.findById(PROMOTION_ID)).thenReturn(Optional.of(promotion));
+        return promotion;
+    }
+
+    private int runConcurrently(int callers, java.util.function.IntConsumer call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        call.accept(n);
+                        return true;
+                    } catch (BadRequestException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.tailor_shop.modules.review.service;
+
+import com.example.tailor_shop.modules.product.domain.ProductEntity;
+import com.example.tailor_shop.modules.review.domain.ReviewEntity;
+import com.example.tailor_shop.modules.review.domain.ReviewStatus;
+import com.example.tailor_shop.modules.review.domain.ReviewType;
+import com.example.tailor_shop.modules.review.repository.ReviewStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReviewStatsService Unit Tests")
+class ReviewStatsServiceTest {
+
+    private ReviewStatsRepository repository;
+    private ReviewStatsService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ReviewStatsRepository.class);
+        service = new ReviewStatsService(repository, mock(ObjectProvider.class));
+    }
+
+    @Test
+    @DisplayName("Approving adds the rating, the product rating is refreshed from the stats row")
+    void approve() {
+        ReviewEntity review = productReview(4, ReviewStatus.PENDING);
+        Integer before = ReviewStatsService.countedRating(review);
+        review.setStatus(ReviewStatus.APPROVED);
+
+        service.apply(review, before);
+
+        verify(repository).applyDelta("PRODUCT", 10L, 0, 0, 0, 1, 0, 4, 1);
+        verify(repository).refreshProductRating(10L);
+    }
+
+    @Test
+    @DisplayName("Editing an approved review removes its old rating until re-approved")
+    void editApproved() {
+        ReviewEntity review = productReview(5, ReviewStatus.APPROVED);
+        Integer before = ReviewStatsService.countedRating(review);
+        review.setRating(2);
+        review.setStatus(ReviewStatus.PENDING);
+
+        service.apply(review, before);
+
+        verify(repository).applyDelta("PRODUCT", 10L, 0, 0, 0, 0, -1, -5, -1);
+    }
+
+    @Test
+    @DisplayName("Changes that do not affect approved reviews do not write")
+    void noop() {
+        ReviewEntity review = productReview(3, ReviewStatus.PENDING);
+        Integer before = ReviewStatsService.countedRating(review);
+        review.setIsDeleted(true);
+
+        service.apply(review, before);
+
+        verify(repository, never()).applyDelta(anyString(), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Stats are seeded from existing reviews only while the table is empty")
+    void backfillOnce() {
+        when(repository.count()).thenReturn(0L);
+        when(repository.seedFromReviews()).thenReturn(3);
+        service.backfillIfEmpty();
+        verify(repository).refreshAllProductRatings();
+
+        when(repository.count()).thenReturn(3L);
+        service.backfillIfEmpty();
+        verify(repository, times(1)).seedFromReviews();
+    }
+
+    private static ReviewEntity productReview(int rating, ReviewStatus status) {
+        ProductEntity product = new ProductEntity();
+        product.setId(10L);
+        return ReviewEntity.builder()
+                .type(ReviewType.PRODUCT)
+                .product(product)
+                .rating(rating)
+                .status(status)
+                .build();
+    }
+}
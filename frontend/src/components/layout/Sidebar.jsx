@@ -72,15 +72,15 @@ export default function Sidebar({ onNavigate }) {
   const loadBadges = async () => {
     try {
       const [unpaidRes, ordersRes] = await Promise.allSettled([
-        invoiceService.getUnpaidCustomers(),
+        invoiceService.getUnpaidSummary(),
         orderService.list({ status: "pending" }, { page: 0, size: 1 }),
       ]);
 
       const newBadges = {};
 
       if (unpaidRes.status === "fulfilled") {
-        const data = unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value || [];
-        const count = Array.isArray(data) ? data.length : 0;
+        const summary = unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value || {};
+        const count = Number(summary.totalCustomers) || 0;
         if (count > 0) newBadges.unpaidCustomers = count;
       }
 
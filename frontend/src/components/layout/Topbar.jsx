@@ -50,7 +50,7 @@ export default function Topbar({ onToggleSidebar }) {
     try {
       const [ordersRes, unpaidRes, invoicesRes] = await Promise.allSettled([
         orderService.list({ status: "pending" }, { page: 0, size: 5 }),
-        invoiceService.getUnpaidCustomers(),
+        invoiceService.getUnpaidSummary(),
         invoiceService.list({}, { page: 0, size: 50 }),
       ]);
 
@@ -71,14 +71,14 @@ export default function Topbar({ onToggleSidebar }) {
       }
 
       if (unpaidRes.status === "fulfilled") {
-        const data = unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value || [];
-        const arr = Array.isArray(data) ? data : [];
-        if (arr.length > 0) {
-          const totalDebt = arr.reduce((s, c) => s + (Number(c.totalDue) || 0), 0);
+        const summary = unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value || {};
+        const count = Number(summary.totalCustomers) || 0;
+        if (count > 0) {
+          const totalDebt = Number(summary.totalDue) || 0;
           notifs.push({
             id: "unpaid",
             icon: "💰",
-            title: `${arr.length} khách hàng chưa thanh toán`,
+            title: `${count} khách hàng chưa thanh toán`,
             message: `Tổng nợ: ${totalDebt.toLocaleString("vi-VN")} đ`,
             type: "danger",
             link: "/unpaid-customers",
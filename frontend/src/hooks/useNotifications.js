@@ -91,11 +91,13 @@ export default function useNotifications() {
                 setConnected(true);
 
                 // Subscribe to user-specific channel
+                // A burst arrives as one frame: an array, oldest first
                 client.subscribe(`/user/${userId}/queue/notifications`, (message) => {
                     try {
-                        const notif = JSON.parse(message.body);
-                        setNotifications((prev) => [notif, ...prev].slice(0, 50));
-                        setUnreadCount((prev) => prev + 1);
+                        const body = JSON.parse(message.body);
+                        const batch = Array.isArray(body) ? body : [body];
+                        setNotifications((prev) => [...batch.reverse(), ...prev].slice(0, 50));
+                        setUnreadCount((prev) => prev + batch.length);
                     } catch {
                         /* ignore parse errors */
                     }
@@ -39,7 +39,7 @@ export default function DashboardPage() {
         await Promise.allSettled([
           orderService.list({}, { page: 0, size: 10, sort: "createdAt,desc" }),
           invoiceService.list({}, { page: 0, size: 100 }),
-          invoiceService.getUnpaidCustomers(),
+          invoiceService.getUnpaidSummary(),
           userService.listCustomers({ page: 0, size: 1 }),
           appointmentService.list({}, { page: 0, size: 100 }),
         ]);
@@ -67,9 +67,9 @@ export default function DashboardPage() {
 
       let unpaidCustomers = 0, totalDebt = 0;
       if (unpaidRes.status === "fulfilled") {
-        const arr = Array.isArray(unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value) ? (unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value) : [];
-        unpaidCustomers = arr.length;
-        totalDebt = arr.reduce((s, c) => s + (Number(c.totalDue) || 0), 0);
+        const summary = unpaidRes.value?.responseData || unpaidRes.value?.data || unpaidRes.value || {};
+        unpaidCustomers = Number(summary.totalCustomers) || 0;
+        totalDebt = Number(summary.totalDue) || 0;
         if (unpaidCustomers > 0) newAlerts.push({ type: "danger", icon: "💰", title: `${unpaidCustomers} khách hàng nợ tổng ${formatCurrency(totalDebt)}`, action: () => navigate("/unpaid-customers"), actionLabel: "Xem công nợ" });
       }
 
@@ -10,36 +10,70 @@ const STATUS_BADGE = {
     partial_paid: { label: "Thanh toán 1 phần", bg: "linear-gradient(135deg,#fef3c7,#fde68a)", color: "#92400e", border: "#fcd34d" },
 };
 
+const PAGE_SIZE = 20;
+
 export default function UnpaidCustomersPage() {
     const navigate = useNavigate();
     const [customers, setCustomers] = useState([]);
+    const [summary, setSummary] = useState(null);
+    const [page, setPage] = useState(0);
+    const [hasMore, setHasMore] = useState(false);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [exporting, setExporting] = useState(false);
     const [error, setError] = useState(null);
     const [searchTerm, setSearchTerm] = useState("");
     const [expandedCustomer, setExpandedCustomer] = useState(null);
 
-    useEffect(() => { loadData(); }, []);
+    useEffect(() => {
+        invoiceService.getUnpaidSummary()
+            .then((response) => setSummary(response?.responseData || response?.data || response || null))
+            .catch((err) => console.error("Error loading unpaid summary:", err));
+    }, []);
+
+    // Tìm kiếm phía server (debounce), tải lại từ trang đầu
+    useEffect(() => {
+        const timer = setTimeout(() => loadData(0), 300);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
 
-    const loadData = async () => {
+    const loadData = async (pageToLoad = 0) => {
         try {
-            setLoading(true); setError(null);
-            const response = await invoiceService.getUnpaidCustomers();
-            const data = response?.responseData || response?.data || response || [];
-            setCustomers(Array.isArray(data) ? data : []);
+            if (pageToLoad === 0) setLoading(true); else setLoadingMore(true);
+            setError(null);
+            const response = await invoiceService.getUnpaidCustomers({
+                keyword: searchTerm.trim(), page: pageToLoad, size: PAGE_SIZE,
+            });
+            const data = response?.responseData || response?.data || response || {};
+            const content = Array.isArray(data.content) ? data.content : [];
+            setCustomers((prev) => (pageToLoad === 0 ? content : [...prev, ...content]));
+            setPage(pageToLoad);
+            setHasMore(pageToLoad + 1 < (data.totalPages || 0));
         } catch (err) {
             console.error("Error loading unpaid customers:", err);
             setError("Không thể tải danh sách công nợ. Vui lòng thử lại.");
-        } finally { setLoading(false); }
+        } finally { setLoading(false); setLoadingMore(false); }
     };
 
-    const filtered = customers.filter((c) => {
-        const term = searchTerm.toLowerCase();
-        return (c.customerName || "").toLowerCase().includes(term) || (c.customerPhone || "").toLowerCase().includes(term);
-    });
+    const handleExport = async () => {
+        try {
+            setExporting(true);
+            const blob = await invoiceService.exportUnpaidCustomers("csv");
+            const url = URL.createObjectURL(blob);
+            const link = document.createElement("a");
+            link.href = url;
+            link.download = "cong-no-khach-hang.csv";
+            link.click();
+            URL.revokeObjectURL(url);
+        } catch (err) {
+            console.error("Error exporting unpaid customers:", err);
+            alert("Không thể xuất báo cáo. Vui lòng thử lại.");
+        } finally { setExporting(false); }
+    };
 
-    const totalCustomers = filtered.length;
-    const totalDebt = filtered.reduce((sum, c) => sum + (Number(c.totalDue) || 0), 0);
-    const totalInvoices = filtered.reduce((sum, c) => sum + (c.totalInvoices || 0), 0);
+    const totalCustomers = summary?.totalCustomers ?? 0;
+    const totalDebt = Number(summary?.totalDue) || 0;
+    const totalInvoices = summary?.totalInvoices ?? 0;
 
     const toggleExpand = (customerId) => setExpandedCustomer(expandedCustomer === customerId ? null : customerId);
 
@@ -113,8 +147,11 @@ export default function UnpaidCustomersPage() {
                 </div>
 
                 {/* Search */}
-                <div style={{ marginBottom: 20 }}>
+                <div style={{ marginBottom: 20, display: "flex", gap: 12, flexWrap: "wrap", alignItems: "center" }}>
                     <input className="unpaid-search" type="text" placeholder="🔍 Tìm theo tên hoặc số điện thoại..." value={searchTerm} onChange={(e) => setSearchTerm(e.target.value)} />
+                    <button onClick={handleExport} disabled={exporting} style={{ padding: "11px 20px", background: "white", color: "#16a34a", border: "1px solid #16a34a", borderRadius: 12, cursor: exporting ? "wait" : "pointer", fontWeight: 600, fontSize: 14 }}>
+                        {exporting ? "Đang xuất..." : "⬇️ Xuất CSV"}
+                    </button>
                 </div>
 
                 {/* Content */}
@@ -128,9 +165,9 @@ export default function UnpaidCustomersPage() {
                     <div style={{ textAlign: "center", padding: 60, background: "white", borderRadius: 16, border: "1px solid #fecaca", color: "#dc2626" }}>
                         <p style={{ fontSize: 18, fontWeight: 600 }}>⚠️ Lỗi</p>
                         <p>{error}</p>
-                        <button onClick={loadData} style={{ marginTop: 12, padding: "10px 24px", background: "#16a34a", color: "white", border: "none", borderRadius: 10, cursor: "pointer", fontWeight: 600, fontSize: 14 }}>Thử lại</button>
+                        <button onClick={() => loadData(0)} style={{ marginTop: 12, padding: "10px 24px", background: "#16a34a", color: "white", border: "none", borderRadius: 10, cursor: "pointer", fontWeight: 600, fontSize: 14 }}>Thử lại</button>
                     </div>
-                ) : filtered.length === 0 ? (
+                ) : customers.length === 0 ? (
                     <div style={{ textAlign: "center", padding: 60, background: "white", borderRadius: 16, border: "1px solid #e5e7eb" }}>
                         <p style={{ fontSize: 48, margin: 0 }}>🎉</p>
                         <p style={{ fontSize: 18, fontWeight: 600, color: "#1a2e1a", marginTop: 12 }}>{searchTerm ? "Không tìm thấy kết quả" : "Không có công nợ!"}</p>
@@ -145,7 +182,7 @@ export default function UnpaidCustomersPage() {
                             <span style={{ textAlign: "right" }}>Còn nợ</span><span />
                         </div>
 
-                        {filtered.map((customer) => (
+                        {customers.map((customer) => (
                             <div key={customer.customerId}>
                                 <div className="unpaid-row" onClick={() => toggleExpand(customer.customerId)}
                                     style={{ background: expandedCustomer === customer.customerId ? "#f0fdf4" : "white" }}>
@@ -198,6 +235,13 @@ export default function UnpaidCustomersPage() {
                                 )}
                             </div>
                         ))}
+                        {hasMore && (
+                            <div style={{ textAlign: "center", padding: 16 }}>
+                                <button onClick={() => loadData(page + 1)} disabled={loadingMore} style={{ padding: "10px 24px", background: "#16a34a", color: "white", border: "none", borderRadius: 10, cursor: loadingMore ? "wait" : "pointer", fontWeight: 600, fontSize: 14 }}>
+                                    {loadingMore ? "Đang tải..." : "Xem thêm"}
+                                </button>
+                            </div>
+                        )}
                     </div>
                 )}
             </div>
@@ -81,6 +81,8 @@ export const API_ENDPOINTS = {
     PAYMENT: '/invoices/payments',
     PAYMENT_CALLBACK: '/invoices/payments/callback',
     UNPAID_CUSTOMERS: '/invoices/unpaid-customers',
+    UNPAID_CUSTOMERS_SUMMARY: '/invoices/unpaid-customers/summary',
+    UNPAID_CUSTOMERS_EXPORT: '/invoices/unpaid-customers/export',
   },
   // Promotion
   PROMOTION: {
@@ -91,11 +91,42 @@ class InvoiceService {
   }
 
   /**
-   * Get unpaid customers summary
-   * @returns {Promise<Object>} List of unpaid customers
+   * Get unpaid customers (paginated, most debt first)
+   * @param {Object} params - { keyword, page, size, sort }
+   * @returns {Promise<Object>} Page of unpaid customers
    */
-  async getUnpaidCustomers() {
-    return httpClient.get(API_ENDPOINTS.INVOICE.UNPAID_CUSTOMERS);
+  async getUnpaidCustomers(params = {}) {
+    const queryString = new URLSearchParams(
+      Object.entries(params).filter(([, v]) => v !== undefined && v !== null && v !== '')
+    ).toString();
+    const endpoint = queryString
+      ? `${API_ENDPOINTS.INVOICE.UNPAID_CUSTOMERS}?${queryString}`
+      : API_ENDPOINTS.INVOICE.UNPAID_CUSTOMERS;
+    return httpClient.get(endpoint);
+  }
+
+  /**
+   * Get unpaid totals (customers, invoices, debt)
+   * @returns {Promise<Object>} Summary
+   */
+  async getUnpaidSummary() {
+    return httpClient.get(API_ENDPOINTS.INVOICE.UNPAID_CUSTOMERS_SUMMARY);
+  }
+
+  /**
+   * Export the full unpaid customers report
+   * @param {string} format - 'csv' | 'json'
+   * @returns {Promise<Blob>} File content
+   */
+  async exportUnpaidCustomers(format = 'csv') {
+    const response = await fetch(
+      httpClient.buildURL(`${API_ENDPOINTS.INVOICE.UNPAID_CUSTOMERS_EXPORT}?format=${format}`),
+      { headers: httpClient.buildHeaders() }
+    );
+    if (!response.ok) {
+      throw new Error(`Export failed: ${response.status}`);
+    }
+    return response.blob();
   }
 }
 